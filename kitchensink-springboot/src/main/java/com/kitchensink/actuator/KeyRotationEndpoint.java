@@ -0,0 +1,44 @@
+package com.kitchensink.actuator;
+
+import com.kitchensink.service.KeyRotationMigrator;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint for the key rotation migrator.
+ * GET reports progress and throughput, POST starts a run, DELETE stops it after the current batch.
+ */
+@Component
+@Endpoint(id = "keyrotation")
+public class KeyRotationEndpoint {
+
+    private final KeyRotationMigrator keyRotationMigrator;
+
+    public KeyRotationEndpoint(KeyRotationMigrator keyRotationMigrator) {
+        this.keyRotationMigrator = keyRotationMigrator;
+    }
+
+    @ReadOperation
+    public Map<String, Object> progress() {
+        return keyRotationMigrator.getProgress();
+    }
+
+    @WriteOperation
+    public Map<String, Object> start() {
+        boolean started = keyRotationMigrator.start();
+        return Map.of(
+                "started", started,
+                "message", started ? "Key rotation started" : "Key rotation is already running");
+    }
+
+    @DeleteOperation
+    public Map<String, Object> stop() {
+        keyRotationMigrator.stop();
+        return Map.of("message", "Key rotation will stop after the current batch");
+    }
+}
@@ -1,55 +1,124 @@
 package com.kitchensink.config;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kitchensink.config.CacheProperties.CacheSpec;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.cache.Cache;
-import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.Arrays;
-import java.util.concurrent.TimeUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+/**
+ * Caffeine caches built from {@link CacheProperties}. Every cache records stats and is bound to
+ * Micrometer (cache.gets, cache.puts, cache.evictions, cache.load.duration, ...) under the same
+ * tags Spring Boot uses, so the numbers show up on /actuator/prometheus.
+ * Caches with refresh-after-write are built as Caffeine LoadingCaches around their {@link CacheRefreshLoader},
+ * used for refreshes only (misses still go through the caller, see {@link CoalescingCaffeineCache}):
+ * reloads run on Caffeine's default executor, callers keep getting the old value meanwhile, and a
+ * failed reload leaves the old value in place until expire-after-write.
+ * Concurrent misses on the same key share one load (see {@link CoalescingCaffeineCache}).
+ * A spec with off-heap-bytes gets an {@link OffHeapCache} instead, for caches too large to keep on the heap.
+ */
 @Configuration
 @EnableCaching
 public class CacheConfig {
     
+    private static final Logger logger = LoggerFactory.getLogger(CacheConfig.class);
+    
+    // Caches the services rely on; extra names under app.cache.specs are created as well
+    static final List<String> CACHE_NAMES = List.of("userCache", "roleById", "roleByName", "userIdsByRoleId");
+    
+    private final CacheProperties cacheProperties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, CacheRefreshLoader> refreshLoaders = new HashMap<>();
+    
+    public CacheConfig(CacheProperties cacheProperties, MeterRegistry meterRegistry,
+                       List<CacheRefreshLoader> refreshLoaders) {
+        this.cacheProperties = cacheProperties;
+        this.meterRegistry = meterRegistry;
+        for (CacheRefreshLoader refreshLoader : refreshLoaders) {
+            this.refreshLoaders.put(refreshLoader.cacheName(), refreshLoader);
+        }
+    }
+    
     @Bean
     public CacheManager cacheManager() {
         SimpleCacheManager cacheManager = new SimpleCacheManager();
         
-        Cache userCache = new CaffeineCache("userCache", Caffeine.newBuilder()
-                .maximumSize(500)
-                .expireAfterWrite(3, TimeUnit.MINUTES)
-                .expireAfterAccess(1, TimeUnit.MINUTES)
-                .recordStats()
-                .build());
+        Set<String> cacheNames = new LinkedHashSet<>(CACHE_NAMES);
+        cacheNames.addAll(cacheProperties.getSpecs().keySet());
         
-        Cache roleByIdCache = new CaffeineCache("roleById", Caffeine.newBuilder()
-                .maximumSize(50)
-                .expireAfterWrite(15, TimeUnit.MINUTES)
-                .expireAfterAccess(5, TimeUnit.MINUTES)
-                .recordStats()
-                .build());
+        List<Cache> caches = new ArrayList<>();
+        for (String cacheName : cacheNames) {
+            caches.add(buildCache(cacheName, cacheProperties.getSpec(cacheName)));
+        }
         
-        Cache roleByNameCache = new CaffeineCache("roleByName", Caffeine.newBuilder()
-                .maximumSize(50)
-                .expireAfterWrite(15, TimeUnit.MINUTES)
-                .expireAfterAccess(5, TimeUnit.MINUTES)
-                .recordStats()
-                .build());
+        cacheManager.setCaches(caches);
+        return cacheManager;
+    }
+    
+    private Cache buildCache(String cacheName, CacheSpec spec) {
+        if (spec.getOffHeapBytes() != null) {
+            logger.info("Cache '{}' configured off-heap: offHeapBytes={}, expireAfterWrite={}, expireAfterAccess={}",
+                    cacheName, spec.getOffHeapBytes(), spec.getExpireAfterWrite(), spec.getExpireAfterAccess());
+            return new OffHeapCache(cacheName, spec.getOffHeapBytes(), spec.getExpireAfterWrite(),
+                    spec.getExpireAfterAccess(), meterRegistry);
+        }
         
-        Cache userIdsByRoleIdCache = new CaffeineCache("userIdsByRoleId", Caffeine.newBuilder()
-                .maximumSize(10)
-                .expireAfterWrite(15, TimeUnit.MINUTES)
-                .expireAfterAccess(5, TimeUnit.MINUTES)
-                .recordStats()
-                .build());
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+        if (spec.getMaximumWeightBytes() != null) {
+            builder.maximumWeight(spec.getMaximumWeightBytes()).weigher(new CacheEntryWeigher());
+        } else {
+            builder.maximumSize(spec.getMaximumSize());
+        }
+        if (spec.getExpireAfterWrite() != null) {
+            builder.expireAfterWrite(spec.getExpireAfterWrite());
+        }
+        if (spec.getExpireAfterAccess() != null) {
+            builder.expireAfterAccess(spec.getExpireAfterAccess());
+        }
         
-        cacheManager.setCaches(Arrays.asList(userCache, roleByIdCache, roleByNameCache, userIdsByRoleIdCache));
-        return cacheManager;
+        CacheRefreshLoader refreshLoader = spec.getRefreshAfterWrite() != null ? refreshLoaders.get(cacheName) : null;
+        if (spec.getRefreshAfterWrite() != null && refreshLoader == null) {
+            logger.warn("Cache '{}' has refreshAfterWrite={} but no refresh loader; entries will only expire",
+                    cacheName, spec.getRefreshAfterWrite());
+        }
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache;
+        if (refreshLoader != null) {
+            builder.refreshAfterWrite(spec.getRefreshAfterWrite());
+            nativeCache = builder.build(refreshLoader.loader());
+        } else {
+            nativeCache = builder.build();
+        }
+        CaffeineCacheMetrics.monitor(meterRegistry, nativeCache, cacheName, "cacheManager", "cacheManager");
+        if (spec.getMaximumWeightBytes() != null) {
+            Gauge.builder("cache.weighted.size", nativeCache,
+                            cache -> cache.policy().eviction().map(e -> (double) e.weightedSize().orElse(0L)).orElse(0.0))
+                    .tag("cache", cacheName)
+                    .tag("cacheManager", "cacheManager")
+                    .description("Estimated bytes held by a weight-bounded cache")
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+        }
+        
+        logger.info("Cache '{}' configured: {}, expireAfterWrite={}, expireAfterAccess={}, refreshAfterWrite={}", cacheName,
+                spec.getMaximumWeightBytes() != null ? "maximumWeightBytes=" + spec.getMaximumWeightBytes()
+                        : "maximumSize=" + spec.getMaximumSize(),
+                spec.getExpireAfterWrite(), spec.getExpireAfterAccess(),
+                refreshLoader != null ? spec.getRefreshAfterWrite() : null);
+        return new CoalescingCaffeineCache(cacheName, nativeCache, meterRegistry);
     }
 }
-
@@ -0,0 +1,49 @@
+package com.kitchensink.config;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.kitchensink.dto.UserCacheDTO;
+import com.kitchensink.model.Role;
+
+import java.util.Collection;
+
+/**
+ * Weighs cache entries by their estimated heap size in bytes so caches can be bounded by a memory budget.
+ * Estimates are approximate; they only need to be proportional to the real footprint.
+ */
+public class CacheEntryWeigher implements Weigher<Object, Object> {
+    
+    // Caffeine node + hash table slot overhead per entry
+    static final int ENTRY_OVERHEAD_BYTES = 64;
+    private static final int UNKNOWN_VALUE_BYTES = 128;
+    
+    @Override
+    public int weigh(Object key, Object value) {
+        return ENTRY_OVERHEAD_BYTES + sizeOf(key) + sizeOf(value);
+    }
+    
+    static int sizeOf(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof UserCacheDTO dto) {
+            return dto.estimatedSizeBytes();
+        }
+        if (value instanceof String string) {
+            return UserCacheDTO.estimatedSizeBytes(string);
+        }
+        if (value instanceof Role role) {
+            // Header, 4 references, boolean, LocalDateTime
+            return 40 + UserCacheDTO.estimatedSizeBytes(role.getId())
+                    + UserCacheDTO.estimatedSizeBytes(role.getName())
+                    + UserCacheDTO.estimatedSizeBytes(role.getDescription()) + 72;
+        }
+        if (value instanceof Collection<?> collection) {
+            int size = 24 + collection.size() * 4;
+            for (Object element : collection) {
+                size += sizeOf(element);
+            }
+            return size;
+        }
+        return UNKNOWN_VALUE_BYTES;
+    }
+}
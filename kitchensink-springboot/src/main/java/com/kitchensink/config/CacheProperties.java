@@ -0,0 +1,95 @@
+package com.kitchensink.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-cache Caffeine specs bound from app.cache.specs.{cacheName}.*
+ * A cache with maximum-weight-bytes set is bounded by estimated memory instead of entry count.
+ * A cache with refresh-after-write set (and a {@link CacheRefreshLoader}) reloads entries in the
+ * background once they are that old, serving the stale value until the reload completes.
+ * A cache with off-heap-bytes set keeps its entries serialized in direct memory instead (see {@link OffHeapCache}).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheProperties {
+    
+    private Map<String, CacheSpec> specs = new LinkedHashMap<>();
+    
+    public Map<String, CacheSpec> getSpecs() {
+        return specs;
+    }
+    
+    public void setSpecs(Map<String, CacheSpec> specs) {
+        this.specs = specs;
+    }
+    
+    /**
+     * Returns the configured spec for a cache, or the defaults when none is configured.
+     */
+    public CacheSpec getSpec(String cacheName) {
+        return specs.getOrDefault(cacheName, new CacheSpec());
+    }
+    
+    public static class CacheSpec {
+        
+        private long maximumSize = 1000;
+        private Long maximumWeightBytes;
+        private Duration expireAfterWrite = Duration.ofMinutes(5);
+        private Duration expireAfterAccess = Duration.ofMinutes(2);
+        private Duration refreshAfterWrite;
+        private Long offHeapBytes;
+        
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+        
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+        
+        public Long getMaximumWeightBytes() {
+            return maximumWeightBytes;
+        }
+        
+        public void setMaximumWeightBytes(Long maximumWeightBytes) {
+            this.maximumWeightBytes = maximumWeightBytes;
+        }
+        
+        public Duration getExpireAfterWrite() {
+            return expireAfterWrite;
+        }
+        
+        public void setExpireAfterWrite(Duration expireAfterWrite) {
+            this.expireAfterWrite = expireAfterWrite;
+        }
+        
+        public Duration getExpireAfterAccess() {
+            return expireAfterAccess;
+        }
+        
+        public void setExpireAfterAccess(Duration expireAfterAccess) {
+            this.expireAfterAccess = expireAfterAccess;
+        }
+        
+        public Duration getRefreshAfterWrite() {
+            return refreshAfterWrite;
+        }
+        
+        public void setRefreshAfterWrite(Duration refreshAfterWrite) {
+            this.refreshAfterWrite = refreshAfterWrite;
+        }
+        
+        public Long getOffHeapBytes() {
+            return offHeapBytes;
+        }
+        
+        public void setOffHeapBytes(Long offHeapBytes) {
+            this.offHeapBytes = offHeapBytes;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.kitchensink.config;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+
+/**
+ * Reloads entries of one cache by key. A cache whose spec sets refresh-after-write and that has a
+ * loader registered is built as a Caffeine LoadingCache: once an entry is older than the refresh
+ * interval the next read returns it as is and triggers a background reload through this loader.
+ * Missing keys are never loaded through it. Returning null from the loader drops the entry.
+ */
+public record CacheRefreshLoader(String cacheName, CacheLoader<Object, Object> loader) {
+}
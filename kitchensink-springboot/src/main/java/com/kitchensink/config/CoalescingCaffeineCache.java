@@ -0,0 +1,63 @@
+package com.kitchensink.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Caffeine cache whose {@link #get(Object, Callable)} coalesces concurrent misses through a
+ * {@link MissCoalescer}. This is the path taken by @Cacheable(sync = true) and by
+ * {@link com.kitchensink.service.UserProfileCache}.
+ * Unlike Caffeine's own compute-based get, the load runs outside the map's bin lock, so a slow Mongo
+ * read cannot stall unrelated keys that hash to the same bin.
+ * Lookups never load: a cache built around a {@link CacheRefreshLoader} is a Caffeine LoadingCache, whose
+ * get would load a missing key synchronously, bypassing the coalescer and any batched lookup by the
+ * caller. The loader only serves refresh-after-write reloads of entries that are already present.
+ */
+public class CoalescingCaffeineCache extends CaffeineCache {
+
+    private final MissCoalescer coalescer;
+
+    public CoalescingCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+                                   MeterRegistry meterRegistry) {
+        super(name, cache);
+        this.coalescer = new MissCoalescer(this, meterRegistry);
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        return getNativeCache().getIfPresent(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return coalescer.get(key, valueLoader);
+    }
+
+    // Evictions invalidate a load in flight first, so it cannot store a value read before the write
+
+    @Override
+    public void evict(Object key) {
+        coalescer.invalidate(key);
+        super.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        coalescer.invalidate(key);
+        return super.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        coalescer.invalidateAll();
+        super.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        coalescer.invalidateAll();
+        return super.invalidate();
+    }
+}
@@ -0,0 +1,63 @@
+package com.kitchensink.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.kitchensink.dto.UserFieldSet;
+import com.kitchensink.dto.UserResponseDTO;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class JacksonConfig {
+    
+    /**
+     * Writes only the requested properties of a {@link UserResponseDTO} built for a sparse fieldset
+     * (?fields=). DTOs built for every field are untouched, so their null properties are still written.
+     * Registered on the application ObjectMapper by Spring Boot.
+     */
+    @Bean
+    public Module sparseFieldsetModule() {
+        SimpleModule module = new SimpleModule("SparseFieldsetModule");
+        module.setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc,
+                                                             List<BeanPropertyWriter> beanProperties) {
+                if (!UserResponseDTO.class.isAssignableFrom(beanDesc.getBeanClass())) {
+                    return beanProperties;
+                }
+                List<BeanPropertyWriter> writers = new ArrayList<>(beanProperties.size());
+                for (BeanPropertyWriter writer : beanProperties) {
+                    writers.add(new FieldSetPropertyWriter(writer));
+                }
+                return writers;
+            }
+        });
+        return module;
+    }
+    
+    static final class FieldSetPropertyWriter extends BeanPropertyWriter {
+        
+        private static final long serialVersionUID = 1L;
+        
+        FieldSetPropertyWriter(BeanPropertyWriter base) {
+            super(base);
+        }
+        
+        @Override
+        public void serializeAsField(Object bean, JsonGenerator gen, SerializerProvider prov) throws Exception {
+            UserFieldSet fieldSet = ((UserResponseDTO) bean).getFieldSet();
+            if (fieldSet == null || fieldSet.writes(getName())) {
+                super.serializeAsField(bean, gen, prov);
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.kitchensink.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Single-flight loading for one cache: the first caller that misses a key runs the loader, and every
+ * caller that misses the same key meanwhile waits on that one load instead of issuing its own query.
+ * The load runs outside any cache lock, so a slow Mongo read cannot stall unrelated keys.
+ * An eviction while a load is in flight invalidates that load: its value, read before the write that
+ * caused the eviction, is handed to the callers already waiting but is not stored, and later misses
+ * start a fresh load.
+ * Published as cache.miss.loads{outcome=loaded|coalesced} and cache.miss.inflight per cache.
+ */
+final class MissCoalescer {
+
+    private final Cache cache;
+    private final ConcurrentMap<Object, Load> inFlight = new ConcurrentHashMap<>();
+    private final Counter loaded;
+    private final Counter coalesced;
+
+    MissCoalescer(Cache cache, MeterRegistry meterRegistry) {
+        this.cache = cache;
+        this.loaded = Counter.builder("cache.miss.loads")
+                .description("Cache misses that ran the loader")
+                .tag("cache", cache.getName())
+                .tag("cacheManager", "cacheManager")
+                .tag("outcome", "loaded")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("cache.miss.loads")
+                .description("Cache misses that waited for another caller's load of the same key")
+                .tag("cache", cache.getName())
+                .tag("cacheManager", "cacheManager")
+                .tag("outcome", "coalesced")
+                .register(meterRegistry);
+        Gauge.builder("cache.miss.inflight", inFlight, ConcurrentMap::size)
+                .description("Keys currently being loaded after a miss")
+                .tag("cache", cache.getName())
+                .tag("cacheManager", "cacheManager")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Implements {@link Cache#get(Object, Callable)} on top of the cache's own get and put.
+     */
+    @SuppressWarnings("unchecked")
+    <T> T get(Object key, Callable<T> valueLoader) {
+        Cache.ValueWrapper cached = cache.get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+
+        Load load = new Load();
+        Load existing = inFlight.putIfAbsent(key, load);
+        if (existing != null) {
+            coalesced.increment();
+            return (T) await(key, valueLoader, existing.result);
+        }
+
+        try {
+            // A load that finished between the lookup and the claim has already stored its value
+            cached = cache.get(key);
+            if (cached != null) {
+                load.result.complete(cached.get());
+                return (T) cached.get();
+            }
+            loaded.increment();
+            T value;
+            try {
+                value = valueLoader.call();
+            } catch (Throwable e) {
+                load.result.completeExceptionally(e);
+                throw new Cache.ValueRetrievalException(key, valueLoader, e);
+            }
+            if (!load.invalidated) {
+                cache.put(key, value);
+                if (load.invalidated) {
+                    // An eviction raced with the put - drop what we stored
+                    cache.evict(key);
+                }
+            }
+            load.result.complete(value);
+            return value;
+        } finally {
+            inFlight.remove(key, load);
+        }
+    }
+
+    /**
+     * Marks the in-flight load of this key, if any, as stale. Call before evicting the key from the cache.
+     */
+    void invalidate(Object key) {
+        Load load = inFlight.remove(key);
+        if (load != null) {
+            load.invalidated = true;
+        }
+    }
+
+    /**
+     * Marks every in-flight load as stale. Call before clearing the cache.
+     */
+    void invalidateAll() {
+        inFlight.keySet().forEach(this::invalidate);
+    }
+
+    private static Object await(Object key, Callable<?> valueLoader, CompletableFuture<Object> load) {
+        try {
+            return load.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new Cache.ValueRetrievalException(key, valueLoader, e);
+        } catch (ExecutionException | CompletionException e) {
+            // Same cause the loading caller saw, so @Cacheable unwraps it to the original exception
+            throw new Cache.ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+
+    private static final class Load {
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private volatile boolean invalidated;
+    }
+}
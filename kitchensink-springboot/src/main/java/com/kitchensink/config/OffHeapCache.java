@@ -0,0 +1,139 @@
+package com.kitchensink.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Spring {@link org.springframework.cache.Cache} over an {@link OffHeapStore}: values are serialized with
+ * {@link OffHeapValueCodec} into direct memory, so a cache of millions of profiles adds no objects to the
+ * heap beyond its index arrays. Every read decodes a fresh copy, so callers may mutate what they get.
+ * Selected by CacheConfig when a spec sets off-heap-bytes; the JVM needs -XX:MaxDirectMemorySize above
+ * the sum of those budgets. Publishes the same cache.gets/puts/evictions/size meters as the Caffeine caches.
+ */
+public class OffHeapCache extends AbstractValueAdaptingCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(OffHeapCache.class);
+
+    private final String name;
+    private final OffHeapStore store;
+    private final MissCoalescer coalescer;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+
+    public OffHeapCache(String name, long budgetBytes, Duration expireAfterWrite, Duration expireAfterAccess,
+                        MeterRegistry meterRegistry) {
+        this(name, new OffHeapStore(budgetBytes, expireAfterWrite, expireAfterAccess), meterRegistry);
+    }
+
+    OffHeapCache(String name, OffHeapStore store, MeterRegistry meterRegistry) {
+        super(true);
+        this.name = name;
+        this.store = store;
+        this.coalescer = new MissCoalescer(this, meterRegistry);
+        registerMeters(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return store;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        byte[] bytes = store.get(String.valueOf(key));
+        if (bytes == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return OffHeapValueCodec.decode(bytes);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return coalescer.get(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Object storeValue = toStoreValue(value);
+        if (!OffHeapValueCodec.supports(storeValue)) {
+            throw new IllegalArgumentException("Cache '" + name + "' cannot store " + storeValue.getClass().getName());
+        }
+        if (!store.put(String.valueOf(key), OffHeapValueCodec.encode(storeValue))) {
+            logger.debug("Cache '{}' skipped an entry larger than a segment for key {}", name, key);
+        }
+        puts.increment();
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        Object storeValue = toStoreValue(value);
+        if (!OffHeapValueCodec.supports(storeValue)) {
+            throw new IllegalArgumentException("Cache '" + name + "' cannot store " + storeValue.getClass().getName());
+        }
+        byte[] existing = store.putIfAbsent(String.valueOf(key), OffHeapValueCodec.encode(storeValue));
+        if (existing != null) {
+            return toValueWrapper(OffHeapValueCodec.decode(existing));
+        }
+        puts.increment();
+        return null;
+    }
+
+    @Override
+    public void evict(Object key) {
+        store.remove(String.valueOf(key));
+    }
+
+    @Override
+    public void clear() {
+        store.clear();
+    }
+
+    private void registerMeters(MeterRegistry meterRegistry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tag("cache", name).tag("cacheManager", "cacheManager").tag("result", "hit")
+                .description("The number of times cache lookup methods have returned a cached value.")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tag("cache", name).tag("cacheManager", "cacheManager").tag("result", "miss")
+                .description("The number of times cache lookup methods have returned an uncached value.")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.puts", puts, LongAdder::sum)
+                .tag("cache", name).tag("cacheManager", "cacheManager")
+                .description("The number of entries added to the cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.evictions", store, OffHeapStore::evictionCount)
+                .tag("cache", name).tag("cacheManager", "cacheManager")
+                .description("The number of entries evicted to stay within the byte budget")
+                .register(meterRegistry);
+        Gauge.builder("cache.size", store, OffHeapStore::size)
+                .tag("cache", name).tag("cacheManager", "cacheManager")
+                .description("The number of entries in this cache")
+                .register(meterRegistry);
+        Gauge.builder("cache.weighted.size", store, OffHeapStore::usedBytes)
+                .tag("cache", name).tag("cacheManager", "cacheManager")
+                .description("Off-heap bytes held by the cache, including records awaiting reclamation")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("cache.offheap.capacity", store, OffHeapStore::capacityBytes)
+                .tag("cache", name).tag("cacheManager", "cacheManager")
+                .description("Off-heap byte budget of the cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+}
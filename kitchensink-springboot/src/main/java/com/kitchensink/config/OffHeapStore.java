@@ -0,0 +1,398 @@
+package com.kitchensink.config;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Byte-budgeted key/value store in direct buffers. The budget is split across segments, each a circular
+ * log of records in one direct ByteBuffer plus an open-addressing (linear probing) index of record
+ * offsets. Writes append at the tail and evict from the head, so memory never exceeds the budget.
+ * Eviction is FIFO with promotion: an entry read while it sits in the oldest quarter of a nearly full
+ * segment is re-appended at the tail, which keeps hot entries alive and approximates LRU.
+ * Removed and overwritten records are only marked dead; their space is reclaimed when the head passes.
+ * The index is two int arrays per segment, which hold no references and cost the GC nothing to trace.
+ */
+final class OffHeapStore {
+
+    // Record: totalLength(int) hash(int) flags(byte) writtenAt(long) accessedAt(long) keyLength(int) key value
+    private static final int FLAGS = 8;
+    private static final int WRITTEN_AT = 9;
+    private static final int ACCESSED_AT = 17;
+    private static final int KEY_LENGTH = 25;
+    static final int HEADER = 29;
+    private static final byte LIVE = 1;
+    private static final byte DEAD = 2;
+    private static final byte PAD = 3;
+    private static final int EMPTY = -1;
+    // Sizes the index: two slots per this many bytes of budget, kept at most 75% full
+    private static final int AVERAGE_RECORD_BYTES = 256;
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+
+    private final Segment[] segments;
+    private final int segmentShift;
+    private final long expireAfterWriteMillis;
+    private final long expireAfterAccessMillis;
+    private final LongSupplier clock;
+    private final LongAdder evictions = new LongAdder();
+
+    OffHeapStore(long budgetBytes, Duration expireAfterWrite, Duration expireAfterAccess) {
+        this(budgetBytes, expireAfterWrite, expireAfterAccess, System::currentTimeMillis);
+    }
+
+    OffHeapStore(long budgetBytes, Duration expireAfterWrite, Duration expireAfterAccess, LongSupplier clock) {
+        if (budgetBytes < HEADER * 16L) {
+            throw new IllegalArgumentException("Off-heap budget too small: " + budgetBytes);
+        }
+        int segmentCount = 16;
+        while (budgetBytes / segmentCount > MAX_SEGMENT_BYTES) {
+            segmentCount <<= 1;
+        }
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment((int) (budgetBytes / segmentCount));
+        }
+        this.segmentShift = 64 - Integer.numberOfTrailingZeros(segmentCount);
+        this.expireAfterWriteMillis = expireAfterWrite != null ? expireAfterWrite.toMillis() : 0;
+        this.expireAfterAccessMillis = expireAfterAccess != null ? expireAfterAccess.toMillis() : 0;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns a copy of the stored value bytes, or null when absent or expired.
+     */
+    byte[] get(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(key);
+        return segmentFor(hash).get(keyBytes, (int) hash, clock.getAsLong());
+    }
+
+    /**
+     * Stores the value, replacing any previous one. Returns false when the record is larger than a segment
+     * and was not stored (any previous value is removed as well).
+     */
+    boolean put(String key, byte[] value) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(key);
+        return segmentFor(hash).put(keyBytes, (int) hash, value, clock.getAsLong());
+    }
+
+    /**
+     * Stores the value unless a live one exists, returning the existing value bytes in that case.
+     */
+    byte[] putIfAbsent(String key, byte[] value) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(key);
+        return segmentFor(hash).putIfAbsent(keyBytes, (int) hash, value, clock.getAsLong());
+    }
+
+    void remove(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(key);
+        segmentFor(hash).remove(keyBytes, (int) hash);
+    }
+
+    void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.count;
+        }
+        return size;
+    }
+
+    long usedBytes() {
+        long used = 0;
+        for (Segment segment : segments) {
+            used += segment.used;
+        }
+        return used;
+    }
+
+    long capacityBytes() {
+        return (long) segments.length * segments[0].capacity;
+    }
+
+    long evictionCount() {
+        return evictions.sum();
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> segmentShift)];
+    }
+
+    // murmur3 fmix64: the top bits pick the segment, the low 32 bits the index slot
+    private static long hash(String key) {
+        long h = key.hashCode() * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private final class Segment {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ByteBuffer data;
+        private final int capacity;
+        private final int[] offsets;
+        private final int[] hashes;
+        private final int mask;
+        private final int maxCount;
+        private int head;
+        private int tail;
+        // Bytes between head and tail, including dead records and wrap padding
+        private volatile long used;
+        private volatile int count;
+
+        Segment(int capacity) {
+            this.capacity = capacity;
+            this.data = ByteBuffer.allocateDirect(capacity);
+            int slots = Integer.highestOneBit(Math.max(16, capacity / AVERAGE_RECORD_BYTES * 2) * 2 - 1);
+            this.offsets = new int[slots];
+            this.hashes = new int[slots];
+            Arrays.fill(offsets, EMPTY);
+            this.mask = slots - 1;
+            this.maxCount = slots / 4 * 3;
+        }
+
+        byte[] get(byte[] key, int hash, long now) {
+            lock.lock();
+            try {
+                int slot = find(key, hash);
+                if (slot < 0) {
+                    return null;
+                }
+                int offset = offsets[slot];
+                if (isExpired(offset, now)) {
+                    removeAt(slot, offset);
+                    return null;
+                }
+                data.putLong(offset + ACCESSED_AT, now);
+                int valueLength = data.getInt(offset) - HEADER - key.length;
+                byte[] value = new byte[valueLength];
+                data.get(offset + HEADER + key.length, value);
+                if (shouldPromote(offset)) {
+                    long writtenAt = data.getLong(offset + WRITTEN_AT);
+                    removeAt(slot, offset);
+                    append(key, hash, value, writtenAt, now);
+                }
+                return value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean put(byte[] key, int hash, byte[] value, long now) {
+            lock.lock();
+            try {
+                int slot = find(key, hash);
+                if (slot >= 0) {
+                    removeAt(slot, offsets[slot]);
+                }
+                return append(key, hash, value, now, now);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        byte[] putIfAbsent(byte[] key, int hash, byte[] value, long now) {
+            lock.lock();
+            try {
+                int slot = find(key, hash);
+                if (slot >= 0) {
+                    int offset = offsets[slot];
+                    if (!isExpired(offset, now)) {
+                        byte[] existing = new byte[data.getInt(offset) - HEADER - key.length];
+                        data.get(offset + HEADER + key.length, existing);
+                        return existing;
+                    }
+                    removeAt(slot, offset);
+                }
+                append(key, hash, value, now, now);
+                return null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void remove(byte[] key, int hash) {
+            lock.lock();
+            try {
+                int slot = find(key, hash);
+                if (slot >= 0) {
+                    removeAt(slot, offsets[slot]);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void clear() {
+            lock.lock();
+            try {
+                Arrays.fill(offsets, EMPTY);
+                count = 0;
+                head = 0;
+                tail = 0;
+                used = 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean append(byte[] key, int hash, byte[] value, long writtenAt, long accessedAt) {
+            int length = HEADER + key.length + value.length;
+            if (length > capacity) {
+                return false;
+            }
+            while (!fits(length) || count >= maxCount) {
+                evictHead();
+            }
+            if (capacity - tail < length) {
+                // Not enough room before the end of the buffer: pad it out and wrap to the start
+                int padding = capacity - tail;
+                if (padding >= HEADER) {
+                    data.putInt(tail, padding);
+                    data.put(tail + FLAGS, PAD);
+                }
+                used += padding;
+                tail = 0;
+            }
+            int offset = tail;
+            data.putInt(offset, length);
+            data.putInt(offset + 4, hash);
+            data.put(offset + FLAGS, LIVE);
+            data.putLong(offset + WRITTEN_AT, writtenAt);
+            data.putLong(offset + ACCESSED_AT, accessedAt);
+            data.putInt(offset + KEY_LENGTH, key.length);
+            data.put(offset + HEADER, key);
+            data.put(offset + HEADER + key.length, value);
+            used += length;
+            tail = offset + length == capacity ? 0 : offset + length;
+
+            int slot = hash & mask;
+            while (offsets[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            offsets[slot] = offset;
+            hashes[slot] = hash;
+            count++;
+            return true;
+        }
+
+        private boolean fits(int length) {
+            if (used == 0) {
+                head = 0;
+                tail = 0;
+                return length <= capacity;
+            }
+            if (tail > head) {
+                return capacity - tail >= length || head >= length;
+            }
+            if (tail < head) {
+                return head - tail >= length;
+            }
+            // tail == head with bytes in use: the log is full
+            return false;
+        }
+
+        private void evictHead() {
+            if (capacity - head < HEADER) {
+                used -= capacity - head;
+                head = 0;
+                return;
+            }
+            int length = data.getInt(head);
+            byte flags = data.get(head + FLAGS);
+            if (flags == LIVE) {
+                int slot = data.getInt(head + 4) & mask;
+                while (offsets[slot] != head) {
+                    slot = (slot + 1) & mask;
+                }
+                deleteSlot(slot);
+                count--;
+                evictions.increment();
+            }
+            used -= length;
+            head = head + length == capacity || flags == PAD ? 0 : head + length;
+            if (used == 0) {
+                head = 0;
+                tail = 0;
+            }
+        }
+
+        // Re-append entries read while they are about to be evicted, but only once eviction is near
+        private boolean shouldPromote(int offset) {
+            if (used < (long) capacity * 3 / 4) {
+                return false;
+            }
+            long distanceFromHead = offset >= head ? offset - head : (long) capacity - head + offset;
+            return distanceFromHead < capacity / 4;
+        }
+
+        private boolean isExpired(int offset, long now) {
+            return (expireAfterWriteMillis > 0 && now - data.getLong(offset + WRITTEN_AT) >= expireAfterWriteMillis)
+                    || (expireAfterAccessMillis > 0 && now - data.getLong(offset + ACCESSED_AT) >= expireAfterAccessMillis);
+        }
+
+        private int find(byte[] key, int hash) {
+            int slot = hash & mask;
+            while (offsets[slot] != EMPTY) {
+                if (hashes[slot] == hash && keyEquals(offsets[slot], key)) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private boolean keyEquals(int offset, byte[] key) {
+            if (data.getInt(offset + KEY_LENGTH) != key.length) {
+                return false;
+            }
+            for (int i = 0; i < key.length; i++) {
+                if (data.get(offset + HEADER + i) != key[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void removeAt(int slot, int offset) {
+            data.put(offset + FLAGS, DEAD);
+            deleteSlot(slot);
+            count--;
+        }
+
+        // Backward-shift deletion keeps probe sequences intact without tombstones
+        private void deleteSlot(int slot) {
+            int hole = slot;
+            int next = slot;
+            while (true) {
+                next = (next + 1) & mask;
+                if (offsets[next] == EMPTY) {
+                    break;
+                }
+                int home = hashes[next] & mask;
+                boolean stays = hole <= next ? hole < home && home <= next : hole < home || home <= next;
+                if (!stays) {
+                    offsets[hole] = offsets[next];
+                    hashes[hole] = hashes[next];
+                    hole = next;
+                }
+            }
+            offsets[hole] = EMPTY;
+        }
+    }
+}
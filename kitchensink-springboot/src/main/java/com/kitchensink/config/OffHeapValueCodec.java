@@ -0,0 +1,123 @@
+package com.kitchensink.config;
+
+import com.kitchensink.dto.UserCacheDTO;
+import org.springframework.cache.support.NullValue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Compact binary form of the values userCache holds: {@link UserCacheDTO} profiles under "user:{id}",
+ * role-name strings under "roleName:{id}", and the cached-null marker. Field order is fixed; every
+ * nullable field is prefixed with a presence flag. Anything else cannot be stored off-heap.
+ */
+final class OffHeapValueCodec {
+
+    private static final byte NULL_VALUE = 0;
+    private static final byte STRING = 1;
+    private static final byte USER_CACHE_DTO = 2;
+
+    private OffHeapValueCodec() {
+    }
+
+    static boolean supports(Object value) {
+        return value == NullValue.INSTANCE || value instanceof String || value instanceof UserCacheDTO;
+    }
+
+    static byte[] encode(Object value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            if (value == NullValue.INSTANCE) {
+                out.writeByte(NULL_VALUE);
+            } else if (value instanceof String string) {
+                out.writeByte(STRING);
+                out.writeUTF(string);
+            } else if (value instanceof UserCacheDTO dto) {
+                out.writeByte(USER_CACHE_DTO);
+                writeString(out, dto.getId());
+                writeString(out, dto.getName());
+                writeString(out, dto.getIsdCode());
+                writeString(out, dto.getEmailHash());
+                writeString(out, dto.getPhoneNumberHash());
+                writeString(out, dto.getEmailEncrypted());
+                writeString(out, dto.getPhoneNumberEncrypted());
+                writeString(out, dto.getDateOfBirth());
+                writeString(out, dto.getAddress());
+                writeString(out, dto.getCity());
+                writeString(out, dto.getCountry());
+                writeString(out, dto.getStatus());
+                writeDateTime(out, dto.getRegistrationDate());
+                writeDateTime(out, dto.getLastLoginDate());
+                out.writeLong(dto.getCachedAt());
+            } else {
+                throw new IllegalArgumentException("Cannot store " + value.getClass().getName() + " off-heap");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static Object decode(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            byte type = in.readByte();
+            switch (type) {
+                case NULL_VALUE:
+                    return NullValue.INSTANCE;
+                case STRING:
+                    return in.readUTF();
+                case USER_CACHE_DTO:
+                    UserCacheDTO dto = new UserCacheDTO();
+                    dto.setId(readString(in));
+                    dto.setName(readString(in));
+                    dto.setIsdCode(readString(in));
+                    dto.setEmailHash(readString(in));
+                    dto.setPhoneNumberHash(readString(in));
+                    dto.setEmailEncrypted(readString(in));
+                    dto.setPhoneNumberEncrypted(readString(in));
+                    dto.setDateOfBirth(readString(in));
+                    dto.setAddress(readString(in));
+                    dto.setCity(readString(in));
+                    dto.setCountry(readString(in));
+                    dto.setStatus(readString(in));
+                    dto.setRegistrationDate(readDateTime(in));
+                    dto.setLastLoginDate(readDateTime(in));
+                    dto.setCachedAt(in.readLong());
+                    return dto;
+                default:
+                    throw new IllegalStateException("Unknown off-heap value type " + type);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static LocalDateTime readDateTime(DataInputStream in) throws IOException {
+        return in.readBoolean() ? LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC) : null;
+    }
+}
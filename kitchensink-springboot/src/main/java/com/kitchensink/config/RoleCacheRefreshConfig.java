@@ -0,0 +1,34 @@
+package com.kitchensink.config;
+
+import com.kitchensink.model.UserRole;
+import com.kitchensink.repository.RoleRepository;
+import com.kitchensink.repository.UserRoleRepository;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Background loaders for the role caches. Each one reads exactly what the matching @Cacheable method
+ * in RoleService or UserRoleService would have stored, so a refreshed entry is indistinguishable from
+ * a freshly cached one.
+ */
+@Configuration
+public class RoleCacheRefreshConfig {
+    
+    @Bean
+    public CacheRefreshLoader roleByIdRefreshLoader(RoleRepository roleRepository) {
+        return new CacheRefreshLoader("roleById", key -> roleRepository.findById((String) key).orElse(null));
+    }
+    
+    @Bean
+    public CacheRefreshLoader roleByNameRefreshLoader(RoleRepository roleRepository) {
+        return new CacheRefreshLoader("roleByName", key -> roleRepository.findByName((String) key).orElse(null));
+    }
+    
+    @Bean
+    public CacheRefreshLoader userIdsByRoleIdRefreshLoader(UserRoleRepository userRoleRepository) {
+        return new CacheRefreshLoader("userIdsByRoleId", key -> userRoleRepository.findByRoleIdAndActiveTrue((String) key)
+                .stream()
+                .map(UserRole::getUserId)
+                .collect(java.util.stream.Collectors.toList()));
+    }
+}
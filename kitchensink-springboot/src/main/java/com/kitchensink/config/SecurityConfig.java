@@ -35,6 +35,8 @@ public class SecurityConfig {
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/v1/auth/**").permitAll()
+                // Key rotation endpoint can start a data migration - ADMIN only
+                .requestMatchers("/actuator/keyrotation/**", "/actuator/keyrotation").hasRole(UserRoleType.ADMIN.getName())
                 // Actuator endpoints - both with and without context path
                 .requestMatchers("/actuator/**", "/kitchensink/actuator/**", "**/prometheus/**").permitAll()
                 .requestMatchers("/swagger-ui/**", "/swagger-ui.html", "/swagger-ui.html/**").permitAll()
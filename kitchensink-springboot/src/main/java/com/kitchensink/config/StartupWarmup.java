@@ -0,0 +1,204 @@
+package com.kitchensink.config;
+
+import com.kitchensink.model.Role;
+import com.kitchensink.model.User;
+import com.kitchensink.model.UserRoleType;
+import com.kitchensink.repository.RoleRepository;
+import com.kitchensink.service.RoleService;
+import com.kitchensink.service.UserProfileCache;
+import com.kitchensink.service.UserRoleService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Startup warm-up, run after {@link DataInitializer}: opens pooled Mongo connections and preloads the
+ * role caches, the admin id list and the profiles and role names of the most recently active users.
+ * Spring Boot only publishes ReadinessState.ACCEPTING_TRAFFIC once every runner has returned, so
+ * /actuator/health/readiness reports OUT_OF_SERVICE until warm-up finishes or its timeout expires.
+ * A failing step is logged and skipped; warm-up never fails startup.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class StartupWarmup implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmup.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final RoleRepository roleRepository;
+    private final RoleService roleService;
+    private final UserRoleService userRoleService;
+    private final UserProfileCache userProfileCache;
+    private final CacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long timeoutMillis;
+    private final int mongoConnections;
+    private final int recentUsers;
+
+    public StartupWarmup(MongoTemplate mongoTemplate, RoleRepository roleRepository, RoleService roleService,
+                         UserRoleService userRoleService, UserProfileCache userProfileCache,
+                         CacheManager cacheManager, MeterRegistry meterRegistry,
+                         @Value("${app.warmup.enabled:true}") boolean enabled,
+                         @Value("${app.warmup.timeout-ms:30000}") long timeoutMillis,
+                         @Value("${app.warmup.mongo-connections:10}") int mongoConnections,
+                         @Value("${app.warmup.recent-users:500}") int recentUsers) {
+        this.mongoTemplate = mongoTemplate;
+        this.roleRepository = roleRepository;
+        this.roleService = roleService;
+        this.userRoleService = userRoleService;
+        this.userProfileCache = userProfileCache;
+        this.cacheManager = cacheManager;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.timeoutMillis = timeoutMillis;
+        this.mongoConnections = mongoConnections;
+        this.recentUsers = recentUsers;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (!enabled) {
+            return;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome;
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "startup-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Future<?> warmup = executor.submit(this::warmUp);
+            try {
+                warmup.get(timeoutMillis, TimeUnit.MILLISECONDS);
+                outcome = "completed";
+            } catch (TimeoutException e) {
+                warmup.cancel(true);
+                outcome = "timed_out";
+            } catch (ExecutionException e) {
+                logger.warn("Startup warm-up failed: {}", e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                outcome = "failed";
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                outcome = "interrupted";
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long nanos = sample.stop(Timer.builder("app.warmup.duration")
+                .description("Time from the start of startup warm-up until readiness is released")
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+        logger.info("Startup warm-up {} in {} ms", outcome.replace('_', ' '), TimeUnit.NANOSECONDS.toMillis(nanos));
+    }
+
+    void warmUp() {
+        step("mongo connections", this::openConnections);
+        step("roles", this::warmRoles);
+        step("admin user ids", this::warmAdminUserIds);
+        step("recent users", this::warmRecentUsers);
+    }
+
+    private void step(String name, Runnable step) {
+        if (Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        try {
+            step.run();
+            logger.debug("Warm-up of {} took {} ms", name, System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            logger.warn("Warm-up of {} failed: {}", name, e.getMessage());
+        }
+    }
+
+    // Concurrent pings each check out their own connection, so the pool grows to this size up front
+    // instead of during the first burst of traffic; idle connections are kept by the driver
+    private void openConnections() {
+        if (mongoConnections <= 0) {
+            return;
+        }
+        ExecutorService pingers = Executors.newFixedThreadPool(mongoConnections);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Document>> pings = new ArrayList<>(mongoConnections);
+            for (int i = 0; i < mongoConnections; i++) {
+                pings.add(pingers.submit(() -> {
+                    start.await();
+                    return mongoTemplate.getDb().runCommand(new Document("ping", 1));
+                }));
+            }
+            start.countDown();
+            for (Future<Document> ping : pings) {
+                ping.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause() != null ? e.getCause().getMessage() : e.getMessage(), e);
+        } finally {
+            pingers.shutdownNow();
+        }
+    }
+
+    private void warmRoles() {
+        Cache byId = cacheManager.getCache("roleById");
+        Cache byName = cacheManager.getCache("roleByName");
+        for (Role role : roleRepository.findAll()) {
+            if (byId != null) {
+                byId.put(role.getId(), role);
+            }
+            if (byName != null) {
+                byName.put(role.getName(), role);
+            }
+        }
+    }
+
+    private void warmAdminUserIds() {
+        // Through the proxy, so the list lands in userIdsByRoleId
+        Role adminRole = roleService.getRoleByName(UserRoleType.ADMIN.getName());
+        userRoleService.getAllUserIdsByRoleId(adminRole.getId());
+    }
+
+    private void warmRecentUsers() {
+        if (recentUsers <= 0) {
+            return;
+        }
+        // Top-k sort over lastLoginDate; bounded memory, and it only runs once per start
+        Query query = new Query(Criteria.where("lastLoginDate").ne(null))
+                .with(Sort.by(Sort.Direction.DESC, "lastLoginDate"))
+                .limit(recentUsers);
+        List<User> users = mongoTemplate.find(query, User.class);
+        if (users.isEmpty()) {
+            return;
+        }
+        int cached = userProfileCache.preload(users);
+        // Writes the roleName:<id> entries back into userCache
+        roleService.getRoleNamesByUserIds(users.stream().map(User::getId).toList());
+        logger.debug("Warm-up cached {} of {} recently active users", cached, users.size());
+    }
+}
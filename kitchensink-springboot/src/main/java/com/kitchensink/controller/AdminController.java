@@ -2,13 +2,14 @@ package com.kitchensink.controller;
 
 import com.kitchensink.dto.Response;
 import com.kitchensink.dto.UpdateRequestResponseDTO;
+import com.kitchensink.dto.UserFieldSet;
 import com.kitchensink.dto.UserRequestDTO;
 import com.kitchensink.dto.UserResponseDTO;
 import com.kitchensink.model.User;
 import com.kitchensink.model.UserRoleType;
 import com.kitchensink.service.EmailService;
-import com.kitchensink.service.RoleService;
 import com.kitchensink.service.UpdateRequestService;
+import com.kitchensink.service.UserResponseMapper;
 import com.kitchensink.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -22,7 +23,6 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/v1/admin")
@@ -35,14 +35,14 @@ public class AdminController {
     private final UserService userService;
     private final UpdateRequestService updateRequestService;
     private final EmailService emailService;
-    private final RoleService roleService;
+    private final UserResponseMapper userResponseMapper;
     
     public AdminController(UserService userService, UpdateRequestService updateRequestService,
-                          EmailService emailService, RoleService roleService) {
+                          EmailService emailService, UserResponseMapper userResponseMapper) {
         this.userService = userService;
         this.updateRequestService = updateRequestService;
         this.emailService = emailService;
-        this.roleService = roleService;
+        this.userResponseMapper = userResponseMapper;
     }
     
     @GetMapping("/users")
@@ -50,32 +50,17 @@ public class AdminController {
     public ResponseEntity<Response<com.kitchensink.dto.CursorPageResponse<UserResponseDTO>>> getAllUsers(
             @RequestParam(required = false, defaultValue = "10") int size,
             @RequestParam(required = false) String cursor,
-            @RequestParam(required = false) String direction) {
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) String fields) {
         
         com.kitchensink.enums.Direction directionEnum = com.kitchensink.enums.Direction.fromString(direction);
+        UserFieldSet fieldSet = UserFieldSet.parse(fields);
         
-        logger.debug("Admin fetching all users (excluding admins) - cursor: {}, size: {}, direction: {}", 
-                cursor, size, directionEnum);
+        logger.debug("Admin fetching all users (excluding admins) - cursor: {}, size: {}, direction: {}, fields: {}", 
+                cursor, size, directionEnum, fields);
         
-            com.kitchensink.dto.CursorPageResponse<User> cursorPage = 
-                    userService.getAllUsersExcludingAdminsCursor(cursor, size, directionEnum);
-            
             com.kitchensink.dto.CursorPageResponse<UserResponseDTO> responseDTOs = 
-                    new com.kitchensink.dto.CursorPageResponse<>(
-                            cursorPage.getContent().stream()
-                                    .map(this::mapToResponseDTO)
-                                    .collect(Collectors.toList()),
-                            cursorPage.getNextCursor(),
-                            cursorPage.getPreviousCursor(),
-                            cursorPage.isHasNext(),
-                            cursorPage.isHasPrevious(),
-                            cursorPage.getSize(),
-                            cursorPage.getTotalElements(),
-                            cursorPage.getTotalPages(),
-                            cursorPage.getNumber(),
-                            cursorPage.getNextScrollId(),
-                            cursorPage.getPrevScrollId()
-                    );
+                    userService.getAllUsersExcludingAdminsCursor(cursor, size, directionEnum, fieldSet);
             
             Response<com.kitchensink.dto.CursorPageResponse<UserResponseDTO>> response = 
                     Response.success(responseDTOs, "Users retrieved successfully");
@@ -84,20 +69,41 @@ public class AdminController {
     
     @GetMapping("/users/search")
     @Operation(summary = "Search users by name", description = "Search users by name (case-insensitive)")
-    public ResponseEntity<Response<List<UserResponseDTO>>> searchUsers(@RequestParam String name) {
+    public ResponseEntity<Response<List<UserResponseDTO>>> searchUsers(
+            @RequestParam String name,
+            @RequestParam(required = false) String fields) {
         
         logger.debug("Admin searching users (excluding admins) by name: {}", name);
         
-        List<User> users = userService.searchUsersByNameExcludingAdmins(name);
-        List<UserResponseDTO> responseDTOs = users.stream()
-                .map(this::mapToResponseDTO)
-                .collect(Collectors.toList());
+        UserFieldSet fieldSet = UserFieldSet.parse(fields);
+        List<UserResponseDTO> responseDTOs = userService.searchUsersByNameExcludingAdmins(name, fieldSet);
         
         Response<List<UserResponseDTO>> response = Response.success(responseDTOs, 
                 String.format("Found %d users", responseDTOs.size()));
         return ResponseEntity.ok(response);
     }
     
+    @GetMapping("/users/search/page")
+    @Operation(summary = "Search users by name (paged)", 
+            description = "Search non-admin users whose name contains the query (case-insensitive, literal match), "
+                    + "sorted by name, at most 50 per page, continued with the returned cursor")
+    public ResponseEntity<Response<com.kitchensink.dto.CursorPageResponse<UserResponseDTO>>> searchUsersPaged(
+            @RequestParam String name,
+            @RequestParam(required = false, defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields) {
+        
+        logger.debug("Admin searching users (excluding admins) by name: {}, size: {}, cursor: {}", name, size, cursor);
+        
+        UserFieldSet fieldSet = UserFieldSet.parse(fields);
+        com.kitchensink.dto.CursorPageResponse<UserResponseDTO> responseDTOs = 
+                userService.searchUsersByNameExcludingAdminsCursor(name, cursor, size, fieldSet);
+        
+        Response<com.kitchensink.dto.CursorPageResponse<UserResponseDTO>> response = Response.success(responseDTOs, 
+                String.format("Found %d users", responseDTOs.getSize()));
+        return ResponseEntity.ok(response);
+    }
+    
     @PostMapping("/users")
     @Operation(summary = "Create new user", description = "Admin creates a new user with USER role")
     public ResponseEntity<Response<UserResponseDTO>> createUser(@Valid @RequestBody UserRequestDTO requestDTO) {
@@ -117,7 +123,7 @@ public class AdminController {
                 requestDTO.getCountry()
         );
         
-        UserResponseDTO responseDTO = mapToResponseDTO(user);
+        UserResponseDTO responseDTO = userResponseMapper.fromUser(user);
         
         // Send account creation email
         emailService.sendUserCreationEmail(user.getEmail(), user.getName());
@@ -146,7 +152,7 @@ public class AdminController {
                 requestDTO.getCountry()
         );
         
-        UserResponseDTO responseDTO = mapToResponseDTO(user);
+        UserResponseDTO responseDTO = userResponseMapper.fromUser(user);
         
         // Send update notification email
         emailService.sendUserUpdateNotification(user.getEmail(), user.getName());
@@ -220,23 +226,4 @@ public class AdminController {
         Response<UpdateRequestResponseDTO> response = Response.success(rejectedRequest, "Update request rejected");
         return ResponseEntity.ok(response);
     }
-    
-    private UserResponseDTO mapToResponseDTO(User user) {
-        UserResponseDTO dto = new UserResponseDTO();
-        dto.setId(user.getId());
-        dto.setName(user.getName());
-        dto.setEmail(user.getEmail());
-        dto.setIsdCode(user.getIsdCode());
-        dto.setPhoneNumber(user.getPhoneNumber());
-        dto.setDateOfBirth(user.getDateOfBirth());
-        dto.setAddress(user.getAddress());
-        dto.setCity(user.getCity());
-        dto.setCountry(user.getCountry());
-        dto.setRole(roleService.getRoleNameByUserId(user.getId()));
-        dto.setRegistrationDate(user.getRegistrationDate());
-        dto.setLastLoginDate(user.getLastLoginDate());
-        dto.setStatus(user.getStatus());
-        return dto;
-    }
 }
-
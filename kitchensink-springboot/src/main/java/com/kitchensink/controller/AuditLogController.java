@@ -0,0 +1,80 @@
+package com.kitchensink.controller;
+
+import com.kitchensink.dto.AuditLogFilter;
+import com.kitchensink.dto.CursorPageResponse;
+import com.kitchensink.dto.Response;
+import com.kitchensink.model.AuditLog;
+import com.kitchensink.service.AuditLogQueryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/v1/admin/audit-logs")
+@Tag(name = "Admin Audit Logs", description = "Audit trail queries and export")
+// ADMIN role is enforced for /v1/admin/** in SecurityConfig
+public class AuditLogController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogController.class);
+    private final AuditLogQueryService auditLogQueryService;
+
+    public AuditLogController(AuditLogQueryService auditLogQueryService) {
+        this.auditLogQueryService = auditLogQueryService;
+    }
+
+    @GetMapping
+    @Operation(summary = "Get audit logs",
+            description = "Audit log entries matching all given filters, newest first, at most 200 per page, "
+                    + "continued with the returned cursor. from is inclusive and to exclusive (ISO date-time).")
+    public ResponseEntity<Response<CursorPageResponse<AuditLog>>> getAuditLogs(
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) String entityId,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) String performedBy,
+            @RequestParam(required = false) String correlationId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false, defaultValue = "50") int size,
+            @RequestParam(required = false) String cursor) {
+
+        AuditLogFilter filter = new AuditLogFilter(entityType, entityId, action, performedBy, correlationId, from, to);
+        logger.debug("Admin fetching audit logs - filter: {}, size: {}, cursor: {}", filter, size, cursor);
+
+        CursorPageResponse<AuditLog> page = auditLogQueryService.getAuditLogs(filter, cursor, size);
+        return ResponseEntity.ok(Response.success(page, String.format("Found %d audit logs", page.getSize())));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export audit logs",
+            description = "Streams every audit log entry matching the filters as newline-delimited JSON, newest first")
+    public ResponseEntity<StreamingResponseBody> exportAuditLogs(
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) String entityId,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) String performedBy,
+            @RequestParam(required = false) String correlationId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+
+        AuditLogFilter filter = new AuditLogFilter(entityType, entityId, action, performedBy, correlationId, from, to);
+        logger.info("Admin exporting audit logs - filter: {}", filter);
+
+        StreamingResponseBody body = out -> auditLogQueryService.exportAuditLogs(filter, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"audit-logs.ndjson\"")
+                .body(body);
+    }
+}
@@ -3,6 +3,7 @@ package com.kitchensink.controller;
 import com.kitchensink.dto.FieldUpdateRequestDTO;
 import com.kitchensink.dto.Response;
 import com.kitchensink.dto.UpdateRequestResponseDTO;
+import com.kitchensink.dto.UserFieldSet;
 import com.kitchensink.dto.UserResponseDTO;
 import com.kitchensink.service.ProfileService;
 import com.kitchensink.service.RoleService;
@@ -32,8 +33,10 @@ public class ProfileController {
     @GetMapping("/{userId}")
     @Operation(summary = "Get user profile", description = "Get user profile by ID. Admin can access any profile, User can only access own profile.")
     @PreAuthorize("hasRole('ADMIN') or authentication.name == #userId")
-    public ResponseEntity<Response<UserResponseDTO>> getProfile(@PathVariable String userId) {
-        UserResponseDTO responseDTO = profileService.getProfile(userId);
+    public ResponseEntity<Response<UserResponseDTO>> getProfile(
+            @PathVariable String userId,
+            @RequestParam(required = false) String fields) {
+        UserResponseDTO responseDTO = profileService.getProfile(userId, UserFieldSet.parse(fields));
         Response<UserResponseDTO> response = Response.success(responseDTO, "Profile retrieved successfully");
         return ResponseEntity.ok(response);
     }
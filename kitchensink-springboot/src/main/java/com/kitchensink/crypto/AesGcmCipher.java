@@ -0,0 +1,98 @@
+package com.kitchensink.crypto;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * AES-256-GCM cipher bound to a single key version.
+ * The master key is derived once with PBKDF2 when the cipher is created, so encrypt/decrypt
+ * only pay for the AES work. Cipher instances are not thread-safe and are kept per thread.
+ * Output format: base64(iv || ciphertext || tag).
+ */
+public final class AesGcmCipher {
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final String KEY_DERIVATION_ALGORITHM = "PBKDF2WithHmacSHA512";
+    private static final int KEY_DERIVATION_ITERATIONS = 210_000;
+    private static final int KEY_LENGTH_BITS = 256;
+    private static final int IV_LENGTH_BYTES = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final SecretKey key;
+    private final byte[] associatedData;
+    private final ThreadLocal<Cipher> cipherHolder = ThreadLocal.withInitial(AesGcmCipher::newCipher);
+
+    private AesGcmCipher(SecretKey key, String keyVersion) {
+        this.key = key;
+        // Bind ciphertext to its key version so a payload cannot be replayed under another version prefix
+        this.associatedData = ("v" + keyVersion + "g").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Derives the master key for a key version from its password.
+     * The salt is fixed per version so every node derives the same key.
+     */
+    public static AesGcmCipher fromPassword(String password, String keyVersion) {
+        try {
+            byte[] salt = ("kitchensink-pii-" + keyVersion).getBytes(StandardCharsets.UTF_8);
+            PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, KEY_DERIVATION_ITERATIONS, KEY_LENGTH_BITS);
+            try {
+                byte[] keyBytes = SecretKeyFactory.getInstance(KEY_DERIVATION_ALGORITHM).generateSecret(spec).getEncoded();
+                return new AesGcmCipher(new SecretKeySpec(keyBytes, "AES"), keyVersion);
+            } finally {
+                spec.clearPassword();
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to derive AES-GCM key for version " + keyVersion, e);
+        }
+    }
+
+    public String encrypt(String plainText) throws GeneralSecurityException {
+        byte[] iv = new byte[IV_LENGTH_BYTES];
+        RANDOM.nextBytes(iv);
+
+        Cipher cipher = cipherHolder.get();
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+        cipher.updateAAD(associatedData);
+        byte[] plainBytes = plainText.getBytes(StandardCharsets.UTF_8);
+        byte[] output = new byte[IV_LENGTH_BYTES + cipher.getOutputSize(plainBytes.length)];
+        System.arraycopy(iv, 0, output, 0, IV_LENGTH_BYTES);
+        int written = cipher.doFinal(plainBytes, 0, plainBytes.length, output, IV_LENGTH_BYTES);
+
+        byte[] envelope = written + IV_LENGTH_BYTES == output.length
+                ? output
+                : Arrays.copyOf(output, IV_LENGTH_BYTES + written);
+        return Base64.getEncoder().encodeToString(envelope);
+    }
+
+    public String decrypt(String encoded) throws GeneralSecurityException {
+        byte[] envelope = Base64.getDecoder().decode(encoded);
+        if (envelope.length <= IV_LENGTH_BYTES) {
+            throw new GeneralSecurityException("AES-GCM payload is too short");
+        }
+
+        Cipher cipher = cipherHolder.get();
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, envelope, 0, IV_LENGTH_BYTES));
+        cipher.updateAAD(associatedData);
+        byte[] plainBytes = cipher.doFinal(envelope, IV_LENGTH_BYTES, envelope.length - IV_LENGTH_BYTES);
+        return new String(plainBytes, StandardCharsets.UTF_8);
+    }
+
+    private static Cipher newCipher() {
+        try {
+            return Cipher.getInstance(TRANSFORMATION);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES-GCM is not available", e);
+        }
+    }
+}
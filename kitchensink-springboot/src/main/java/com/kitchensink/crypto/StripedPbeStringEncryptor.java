@@ -0,0 +1,115 @@
+package com.kitchensink.crypto;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.jasypt.encryption.StringEncryptor;
+import org.jasypt.encryption.pbe.StandardPBEStringEncryptor;
+import org.jasypt.encryption.pbe.config.SimpleStringPBEConfig;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Jasypt PBE encryptor striped across several independent instances, each guarded by its own lock.
+ * A caller takes the first free stripe; only when every stripe is busy does it block, and that
+ * contention and wait time are reported to Micrometer tagged with the key version.
+ */
+public final class StripedPbeStringEncryptor implements StringEncryptor {
+
+    private final StandardPBEStringEncryptor[] encryptors;
+    private final ReentrantLock[] locks;
+    private final AtomicInteger nextStripe = new AtomicInteger();
+    private final AtomicInteger activeStripes = new AtomicInteger();
+    private final Counter contended;
+    private final Timer waitTimer;
+
+    public StripedPbeStringEncryptor(String password, int stripes, String keyVersion, MeterRegistry meterRegistry) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Encryptor pool size must be at least 1");
+        }
+        this.encryptors = new StandardPBEStringEncryptor[stripes];
+        this.locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            encryptors[i] = createEncryptor(password);
+            locks[i] = new ReentrantLock();
+        }
+
+        Gauge.builder("encryption.pool.size", () -> encryptors.length)
+                .description("Number of PBE encryptor stripes")
+                .tag("keyVersion", keyVersion)
+                .register(meterRegistry);
+        Gauge.builder("encryption.pool.active", activeStripes, AtomicInteger::get)
+                .description("PBE encryptor stripes currently in use")
+                .tag("keyVersion", keyVersion)
+                .register(meterRegistry);
+        this.contended = Counter.builder("encryption.pool.contended")
+                .description("Operations that found every PBE encryptor stripe busy")
+                .tag("keyVersion", keyVersion)
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("encryption.pool.wait")
+                .description("Time spent waiting for a busy PBE encryptor stripe")
+                .tag("keyVersion", keyVersion)
+                .register(meterRegistry);
+    }
+
+    private static StandardPBEStringEncryptor createEncryptor(String password) {
+        StandardPBEStringEncryptor encryptor = new StandardPBEStringEncryptor();
+        SimpleStringPBEConfig config = new SimpleStringPBEConfig();
+        config.setPassword(password);
+        config.setAlgorithm("PBEWITHHMACSHA512ANDAES_256");
+        config.setKeyObtentionIterations("1000");
+        config.setProviderName("SunJCE");
+        config.setSaltGeneratorClassName("org.jasypt.salt.RandomSaltGenerator");
+        config.setIvGeneratorClassName("org.jasypt.iv.RandomIvGenerator");
+        config.setStringOutputType("base64");
+        encryptor.setConfig(config);
+        return encryptor;
+    }
+
+    public int size() {
+        return encryptors.length;
+    }
+
+    @Override
+    public String encrypt(String message) {
+        return withStripe(encryptor -> encryptor.encrypt(message));
+    }
+
+    @Override
+    public String decrypt(String encryptedMessage) {
+        return withStripe(encryptor -> encryptor.decrypt(encryptedMessage));
+    }
+
+    private String withStripe(Function<StandardPBEStringEncryptor, String> operation) {
+        int start = Math.floorMod(nextStripe.getAndIncrement(), encryptors.length);
+
+        // Fast path: first free stripe starting from a rotating offset
+        for (int i = 0; i < encryptors.length; i++) {
+            int stripe = (start + i) % encryptors.length;
+            if (locks[stripe].tryLock()) {
+                return runLocked(stripe, operation);
+            }
+        }
+
+        // All stripes busy: block on our assigned stripe and record the wait
+        contended.increment();
+        long waitStart = System.nanoTime();
+        locks[start].lock();
+        waitTimer.record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+        return runLocked(start, operation);
+    }
+
+    private String runLocked(int stripe, Function<StandardPBEStringEncryptor, String> operation) {
+        activeStripes.incrementAndGet();
+        try {
+            return operation.apply(encryptors[stripe]);
+        } finally {
+            activeStripes.decrementAndGet();
+            locks[stripe].unlock();
+        }
+    }
+}
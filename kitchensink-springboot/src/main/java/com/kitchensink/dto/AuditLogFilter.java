@@ -0,0 +1,23 @@
+package com.kitchensink.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional equality filters and timestamp range for audit log queries; null or blank values do not filter.
+ * from is inclusive, to is exclusive.
+ */
+public record AuditLogFilter(String entityType, String entityId, String action, String performedBy,
+                             String correlationId, LocalDateTime from, LocalDateTime to) {
+
+    public AuditLogFilter {
+        entityType = blankToNull(entityType);
+        entityId = blankToNull(entityId);
+        action = blankToNull(action);
+        performedBy = blankToNull(performedBy);
+        correlationId = blankToNull(correlationId);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
@@ -15,6 +15,8 @@ public class CursorPageResponse<T> {
     private int number;
     private String nextScrollId;
     private String prevScrollId;
+    // True when totalElements/totalPages come from maintained counters rather than an exact count
+    private boolean totalApproximate;
     
     public CursorPageResponse() {
     }
@@ -135,5 +137,12 @@ public class CursorPageResponse<T> {
     public void setPrevScrollId(String prevScrollId) {
         this.prevScrollId = prevScrollId;
     }
+    
+    public boolean isTotalApproximate() {
+        return totalApproximate;
+    }
+    
+    public void setTotalApproximate(boolean totalApproximate) {
+        this.totalApproximate = totalApproximate;
+    }
 }
-
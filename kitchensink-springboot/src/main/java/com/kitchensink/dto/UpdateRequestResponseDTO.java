@@ -1,5 +1,7 @@
 package com.kitchensink.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.LocalDateTime;
 
 public class UpdateRequestResponseDTO {
@@ -15,6 +17,9 @@ public class UpdateRequestResponseDTO {
     private LocalDateTime reviewedAt;
     private String reviewedBy;
     private String rejectionReason;
+    // True when the stored old or new value could not be decrypted; that value is then null
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean decryptionFailed;
     
     public UpdateRequestResponseDTO() {
     }
@@ -106,5 +111,12 @@ public class UpdateRequestResponseDTO {
     public void setRejectionReason(String rejectionReason) {
         this.rejectionReason = rejectionReason;
     }
+    
+    public Boolean getDecryptionFailed() {
+        return decryptionFailed;
+    }
+    
+    public void setDecryptionFailed(Boolean decryptionFailed) {
+        this.decryptionFailed = decryptionFailed;
+    }
 }
-
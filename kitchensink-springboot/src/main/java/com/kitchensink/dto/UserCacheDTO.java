@@ -18,6 +18,8 @@ public class UserCacheDTO {
     private LocalDateTime registrationDate;
     private LocalDateTime lastLoginDate;
     private String status;
+    // Epoch millis when the entry was loaded from Mongo, used for refresh-ahead
+    private long cachedAt;
     
     public UserCacheDTO() {
     }
@@ -133,5 +135,34 @@ public class UserCacheDTO {
     public void setStatus(String status) {
         this.status = status;
     }
+    
+    public long getCachedAt() {
+        return cachedAt;
+    }
+    
+    public void setCachedAt(long cachedAt) {
+        this.cachedAt = cachedAt;
+    }
+    
+    /**
+     * Rough retained heap size of this entry in bytes, used by the cache weigher.
+     * Assumes compressed oops and compact (Latin-1) strings.
+     */
+    public int estimatedSizeBytes() {
+        // Object header + 14 references + long
+        int size = 16 + 14 * 4 + 8;
+        for (String value : new String[] {id, name, isdCode, emailHash, phoneNumberHash, emailEncrypted,
+                phoneNumberEncrypted, dateOfBirth, address, city, country, status}) {
+            size += estimatedSizeBytes(value);
+        }
+        // LocalDateTime holds a LocalDate and a LocalTime
+        size += registrationDate != null ? 72 : 0;
+        size += lastLoginDate != null ? 72 : 0;
+        return size;
+    }
+    
+    public static int estimatedSizeBytes(String value) {
+        // String object + backing byte[] header
+        return value == null ? 0 : 40 + value.length();
+    }
 }
-
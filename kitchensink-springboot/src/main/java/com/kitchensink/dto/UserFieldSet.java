@@ -0,0 +1,164 @@
+package com.kitchensink.dto;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Sparse fieldset for user read endpoints, parsed from the {@code fields=} query parameter
+ * (comma-separated {@link UserResponseDTO} property names).
+ * Drives which document fields are loaded from Mongo, which PII is decrypted and whether the role is resolved.
+ */
+public final class UserFieldSet {
+
+    public static final String ID = "id";
+    public static final String NAME = "name";
+    public static final String EMAIL = "email";
+    public static final String ISD_CODE = "isdCode";
+    public static final String PHONE_NUMBER = "phoneNumber";
+    public static final String DATE_OF_BIRTH = "dateOfBirth";
+    public static final String ADDRESS = "address";
+    public static final String CITY = "city";
+    public static final String COUNTRY = "country";
+    public static final String ROLE = "role";
+    public static final String REGISTRATION_DATE = "registrationDate";
+    public static final String LAST_LOGIN_DATE = "lastLoginDate";
+    public static final String STATUS = "status";
+    // Written whenever set, whatever the fieldset, so a row with undecryptable PII is never silently blank
+    private static final String DECRYPTION_FAILED = "decryptionFailed";
+
+    // Response field -> stored document fields (role lives in user_roles, id is always returned)
+    private static final Map<String, List<String>> DOCUMENT_FIELDS = Map.ofEntries(
+            Map.entry(ID, List.of()),
+            Map.entry(NAME, List.of("name")),
+            Map.entry(EMAIL, List.of("emailEncrypted")),
+            Map.entry(ISD_CODE, List.of("isdCode")),
+            Map.entry(PHONE_NUMBER, List.of("phoneNumberEncrypted")),
+            Map.entry(DATE_OF_BIRTH, List.of("dateOfBirth")),
+            Map.entry(ADDRESS, List.of("address")),
+            Map.entry(CITY, List.of("city")),
+            Map.entry(COUNTRY, List.of("country")),
+            Map.entry(ROLE, List.of("role")),
+            Map.entry(REGISTRATION_DATE, List.of("registrationDate")),
+            Map.entry(LAST_LOGIN_DATE, List.of("lastLoginDate")),
+            Map.entry(STATUS, List.of("status")));
+
+    private static final UserFieldSet ALL = new UserFieldSet(null);
+
+    // null means every field
+    private final Set<String> fields;
+
+    private UserFieldSet(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    public static UserFieldSet all() {
+        return ALL;
+    }
+
+    /**
+     * Parses a comma-separated field list. Null or blank selects every field.
+     *
+     * @throws com.kitchensink.exception.BadRequestException for an unknown field name
+     */
+    public static UserFieldSet parse(String fieldsParam) {
+        if (fieldsParam == null || fieldsParam.isBlank()) {
+            return ALL;
+        }
+        Set<String> requested = new LinkedHashSet<>();
+        for (String field : fieldsParam.split(",")) {
+            String trimmed = field.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (!DOCUMENT_FIELDS.containsKey(trimmed)) {
+                throw new com.kitchensink.exception.BadRequestException("Unknown field: " + trimmed, "fields");
+            }
+            requested.add(trimmed);
+        }
+        return requested.isEmpty() ? ALL : new UserFieldSet(Collections.unmodifiableSet(requested));
+    }
+
+    public static UserFieldSet of(String... fields) {
+        return parse(String.join(",", Arrays.asList(fields)));
+    }
+
+    public boolean isAll() {
+        return fields == null;
+    }
+
+    public boolean includes(String field) {
+        return fields == null || fields.contains(field);
+    }
+
+    /**
+     * True if the response property is written for this fieldset; id is always written.
+     */
+    public boolean writes(String property) {
+        return ID.equals(property) || DECRYPTION_FAILED.equals(property) || includes(property);
+    }
+    
+    /**
+     * Clears the response fields that were not requested and marks the DTO so only the requested
+     * properties are serialized. Responses for every field keep their null properties.
+     */
+    public UserResponseDTO applyTo(UserResponseDTO dto) {
+        if (fields == null) {
+            return dto;
+        }
+        dto.setFieldSet(this);
+        if (!includes(NAME)) {
+            dto.setName(null);
+        }
+        if (!includes(EMAIL)) {
+            dto.setEmail(null);
+        }
+        if (!includes(ISD_CODE)) {
+            dto.setIsdCode(null);
+        }
+        if (!includes(PHONE_NUMBER)) {
+            dto.setPhoneNumber(null);
+        }
+        if (!includes(DATE_OF_BIRTH)) {
+            dto.setDateOfBirth(null);
+        }
+        if (!includes(ADDRESS)) {
+            dto.setAddress(null);
+        }
+        if (!includes(CITY)) {
+            dto.setCity(null);
+        }
+        if (!includes(COUNTRY)) {
+            dto.setCountry(null);
+        }
+        if (!includes(ROLE)) {
+            dto.setRole(null);
+        }
+        if (!includes(REGISTRATION_DATE)) {
+            dto.setRegistrationDate(null);
+        }
+        if (!includes(LAST_LOGIN_DATE)) {
+            dto.setLastLoginDate(null);
+        }
+        if (!includes(STATUS)) {
+            dto.setStatus(null);
+        }
+        return dto;
+    }
+    
+    /**
+     * Stored document fields to project, or an empty set when the whole document is needed.
+     */
+    public Set<String> documentFields() {
+        if (fields == null) {
+            return Collections.emptySet();
+        }
+        return fields.stream()
+                .flatMap(field -> DOCUMENT_FIELDS.get(field).stream())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+}
@@ -1,5 +1,8 @@
 package com.kitchensink.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.LocalDateTime;
 
 public class UserResponseDTO {
@@ -17,6 +20,18 @@ public class UserResponseDTO {
     private LocalDateTime registrationDate;
     private LocalDateTime lastLoginDate;
     private String status;
+    // True when the stored email or phone number could not be decrypted; those properties are then null
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean decryptionFailed;
+    // Set when the response was built for a sparse fieldset (?fields=); only those properties are written
+    @JsonIgnore
+    private UserFieldSet fieldSet;
+    // Stored ciphertext of a read-model row, kept apart from email/phoneNumber and never serialized;
+    // the service decrypts it into those properties and clears it
+    @JsonIgnore
+    private String emailEncrypted;
+    @JsonIgnore
+    private String phoneNumberEncrypted;
     
     public String getId() {
         return id;
@@ -121,5 +136,39 @@ public class UserResponseDTO {
     public void setCountry(String country) {
         this.country = country;
     }
+    
+    public Boolean getDecryptionFailed() {
+        return decryptionFailed;
+    }
+    
+    public void setDecryptionFailed(Boolean decryptionFailed) {
+        this.decryptionFailed = decryptionFailed;
+    }
+    
+    @JsonIgnore
+    public UserFieldSet getFieldSet() {
+        return fieldSet;
+    }
+    
+    public void setFieldSet(UserFieldSet fieldSet) {
+        this.fieldSet = fieldSet;
+    }
+    
+    @JsonIgnore
+    public String getEmailEncrypted() {
+        return emailEncrypted;
+    }
+    
+    public void setEmailEncrypted(String emailEncrypted) {
+        this.emailEncrypted = emailEncrypted;
+    }
+    
+    @JsonIgnore
+    public String getPhoneNumberEncrypted() {
+        return phoneNumberEncrypted;
+    }
+    
+    public void setPhoneNumberEncrypted(String phoneNumberEncrypted) {
+        this.phoneNumberEncrypted = phoneNumberEncrypted;
+    }
 }
-
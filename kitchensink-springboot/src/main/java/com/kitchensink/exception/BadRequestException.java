@@ -0,0 +1,19 @@
+package com.kitchensink.exception;
+
+/**
+ * A request parameter the client got wrong (unknown field name, malformed cursor); mapped to 400.
+ */
+public class BadRequestException extends RuntimeException {
+    
+    private static final long serialVersionUID = 1L;
+    private final String field;
+    
+    public BadRequestException(String message, String field) {
+        super(message);
+        this.field = field;
+    }
+    
+    public String getField() {
+        return field;
+    }
+}
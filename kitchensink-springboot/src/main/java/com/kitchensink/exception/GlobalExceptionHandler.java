@@ -75,6 +75,30 @@ public class GlobalExceptionHandler implements ResponseBodyAdvice<Object> {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
     }
     
+    // Handle malformed request parameters (unknown fields=, bad cursor)
+    @ExceptionHandler(com.kitchensink.exception.BadRequestException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseEntity<Response<Map<String, String>>> handleBadRequestException(
+            com.kitchensink.exception.BadRequestException ex) {
+        logger.warn("Bad request: {} - {}", ex.getField(), ex.getMessage());
+        Map<String, String> error = new HashMap<>();
+        error.put(ex.getField(), ex.getMessage());
+        Response<Map<String, String>> response = Response.error(
+                ex.getMessage(), "BAD_REQUEST", ex.getField());
+        response.setData(error);
+        return ResponseEntity.badRequest().body(response);
+    }
+    
+    // Handle queries aborted by the server-side time limit
+    @ExceptionHandler(org.springframework.dao.QueryTimeoutException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ResponseEntity<Response<Void>> handleQueryTimeoutException(
+            org.springframework.dao.QueryTimeoutException ex) {
+        logger.warn("Query timed out: {}", ex.getMessage());
+        Response<Void> response = Response.error(ex.getMessage(), "QUERY_TIMEOUT");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+    }
+    
     // Handle runtime exceptions (fallback)
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<Response<Void>> handleRuntimeException(RuntimeException ex) {
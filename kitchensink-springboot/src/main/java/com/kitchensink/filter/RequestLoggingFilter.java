@@ -35,6 +35,22 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
         Instant startTime = Instant.now();
         String correlationId = CorrelationIdUtil.getOrCreateCorrelationId(request);
         
+        if (isStreamingExport(request)) {
+            // Streamed body: caching it would hold the whole export in memory
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                logger.info("Request: {} {} | Status: {} | Duration: {}ms | CorrelationId: {} | IP: {}",
+                        request.getMethod(),
+                        request.getRequestURI(),
+                        response.getStatus(),
+                        Duration.between(startTime, Instant.now()).toMillis(),
+                        correlationId,
+                        getClientIpAddress(request));
+            }
+            return;
+        }
+        
         ContentCachingRequestWrapper wrappedRequest = new ContentCachingRequestWrapper(request);
         ContentCachingResponseWrapper wrappedResponse = new ContentCachingResponseWrapper(response);
         
@@ -64,6 +80,10 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
                path.startsWith("/v3/api-docs");
     }
     
+    private boolean isStreamingExport(HttpServletRequest request) {
+        return request.getRequestURI().endsWith("/audit-logs/export");
+    }
+    
     private String getClientIpAddress(HttpServletRequest request) {
         String xForwardedFor = request.getHeader("X-Forwarded-For");
         if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
@@ -0,0 +1,307 @@
+package com.kitchensink.listener;
+
+import com.kitchensink.service.UserIdentifierFilter;
+import com.kitchensink.service.UserNameIndex;
+import com.kitchensink.service.UserProfileCache;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evicts local cache entries (and updates the user name index and identifier filter) for writes made by any node, by
+ * tailing a MongoDB change stream on users, user_roles and roles. The resume token is persisted per
+ * node so a reconnect or restart picks up where it left off; when the stream cannot be resumed (history lost, invalidated) every
+ * cache is cleared and the name index and identifier filter are rebuilt, since events in the gap are unknown.
+ * Requires a replica set, so it is off unless app.cache.invalidation.enabled=true.
+ */
+@Component
+public class CacheInvalidationChangeStreamListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationChangeStreamListener.class);
+    static final String TOKEN_COLLECTION = "cache_invalidation_tokens";
+    private static final List<String> WATCHED_COLLECTIONS = List.of("users", "user_roles", "roles");
+    private static final List<String> CACHE_NAMES = List.of("userCache", "roleById", "roleByName", "userIdsByRoleId");
+    // ChangeStreamHistoryLost, ChangeStreamFatalError, InvalidResumeToken
+    private static final Set<Integer> UNRESUMABLE_ERROR_CODES = Set.of(286, 280, 260);
+
+    private final MongoTemplate mongoTemplate;
+    private final CacheManager cacheManager;
+    private final UserProfileCache userProfileCache;
+    private final UserNameIndex userNameIndex;
+    private final UserIdentifierFilter userIdentifierFilter;
+    private final boolean enabled;
+    private final String nodeId;
+    private final long tokenPersistIntervalMillis;
+    private final long retryBackoffMillis;
+    private final Counter fullClears;
+    private final MeterRegistry meterRegistry;
+
+    private volatile boolean stopping;
+    private volatile Thread worker;
+    private volatile BsonDocument resumeToken;
+    private long lastTokenPersistedAt;
+
+    public CacheInvalidationChangeStreamListener(MongoTemplate mongoTemplate, CacheManager cacheManager,
+                                                 UserProfileCache userProfileCache, UserNameIndex userNameIndex,
+                                                 UserIdentifierFilter userIdentifierFilter,
+                                                 @Value("${app.cache.invalidation.enabled:false}") boolean enabled,
+                                                 @Value("${app.cache.invalidation.node-id:${HOSTNAME:local}}") String nodeId,
+                                                 @Value("${app.cache.invalidation.token-persist-interval-ms:5000}") long tokenPersistIntervalMillis,
+                                                 @Value("${app.cache.invalidation.retry-backoff-ms:2000}") long retryBackoffMillis,
+                                                 MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.cacheManager = cacheManager;
+        this.userProfileCache = userProfileCache;
+        this.userNameIndex = userNameIndex;
+        this.userIdentifierFilter = userIdentifierFilter;
+        this.enabled = enabled;
+        this.nodeId = nodeId;
+        this.tokenPersistIntervalMillis = tokenPersistIntervalMillis;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.meterRegistry = meterRegistry;
+        this.fullClears = Counter.builder("cache.invalidation.full.clears")
+                .description("Caches cleared because the change stream could not be resumed")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            logger.info("Change-stream cache invalidation disabled");
+            return;
+        }
+        Thread thread = new Thread(this::run, "cache-invalidation-stream");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    private void run() {
+        resumeToken = loadToken();
+        if (resumeToken == null) {
+            // Nothing to resume from - whatever was cached before the stream opened is unverified
+            clearAll("no resume token");
+        }
+
+        while (!stopping) {
+            try {
+                consume();
+            } catch (MongoCommandException e) {
+                if (UNRESUMABLE_ERROR_CODES.contains(e.getErrorCode())) {
+                    logger.warn("Change stream cannot resume ({}), clearing caches", e.getErrorCodeName());
+                    resumeToken = null;
+                    clearAll(e.getErrorCodeName());
+                } else {
+                    logger.warn("Change stream failed, retrying: {}", e.getMessage());
+                    backoff();
+                }
+            } catch (Exception e) {
+                if (stopping) {
+                    break;
+                }
+                logger.warn("Change stream failed, retrying: {}", e.getMessage());
+                backoff();
+            }
+        }
+        persistToken();
+    }
+
+    private void consume() {
+        var stream = mongoTemplate.getDb()
+                .watch(List.of(Aggregates.match(Filters.in("ns.coll", WATCHED_COLLECTIONS))))
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+        if (resumeToken != null) {
+            stream = stream.resumeAfter(resumeToken);
+        }
+
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor()) {
+            logger.info("Change-stream cache invalidation listening on {}", WATCHED_COLLECTIONS);
+            while (!stopping) {
+                ChangeStreamDocument<Document> event = cursor.tryNext();
+                if (event != null) {
+                    if (event.getOperationType() == OperationType.INVALIDATE) {
+                        // The stream is closed by the server and cannot be resumed with this token
+                        resumeToken = null;
+                        clearAll("stream invalidated");
+                        return;
+                    }
+                    apply(event.getNamespace() != null ? event.getNamespace().getCollectionName() : null,
+                            event.getOperationType(), idOf(event.getDocumentKey()), event.getFullDocument());
+                }
+                BsonDocument token = cursor.getResumeToken();
+                if (token != null) {
+                    resumeToken = token;
+                }
+                if (System.currentTimeMillis() - lastTokenPersistedAt >= tokenPersistIntervalMillis) {
+                    persistToken();
+                }
+            }
+        }
+    }
+
+    /**
+     * Evicts the cache entries affected by one change event.
+     */
+    void apply(String collection, OperationType operation, String id, Document fullDocument) {
+        if (collection == null) {
+            return;
+        }
+        meterRegistry.counter("cache.invalidation.events", "collection", collection).increment();
+
+        switch (collection) {
+            case "users" -> {
+                if (id != null) {
+                    userProfileCache.evict(id);
+                    if (operation == OperationType.DELETE) {
+                        evict("userCache", "roleName:" + id);
+                        userNameIndex.remove(id);
+                    } else if (fullDocument != null) {
+                        userNameIndex.put(id, fullDocument.getString("name"));
+                        // Users created on other nodes would otherwise be definite misses here
+                        userIdentifierFilter.add(fullDocument.getString("emailHash"));
+                        userIdentifierFilter.add(fullDocument.getString("phoneNumberHash"));
+                    }
+                }
+            }
+            case "user_roles" -> {
+                // A role change can move a user between roles, so the role -> users lists are all suspect
+                clear("userIdsByRoleId");
+                String userId = fullDocument != null ? fullDocument.getString("userId") : null;
+                if (userId != null) {
+                    evict("userCache", "roleName:" + userId);
+                } else if (operation != OperationType.DELETE) {
+                    clear("userCache");
+                }
+                // Deletes only carry the _id; the users delete that accompanies them evicts roleName
+            }
+            case "roles" -> {
+                // Roles change rarely and a rename affects every cached roleName entry
+                clear("roleById");
+                clear("roleByName");
+                clear("userIdsByRoleId");
+                clear("userCache");
+            }
+            default -> logger.debug("Ignoring change event for {}", collection);
+        }
+    }
+
+    void clearAll(String reason) {
+        fullClears.increment();
+        // Users created in the gap would be definite misses, and nothing else enforces unique identifiers
+        userIdentifierFilter.invalidate();
+        CACHE_NAMES.forEach(this::clear);
+        logger.info("Cleared all caches: {}", reason);
+        // On this thread, so events after the gap are applied on top of the rebuilt state
+        userNameIndex.rebuild();
+        userIdentifierFilter.rebuild();
+    }
+
+    private void evict(String cacheName, String key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private static String idOf(BsonDocument documentKey) {
+        if (documentKey == null) {
+            return null;
+        }
+        BsonValue id = documentKey.get("_id");
+        if (id == null) {
+            return null;
+        }
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : id.toString();
+    }
+
+    private BsonDocument loadToken() {
+        try {
+            Document stored = mongoTemplate.findById(nodeId, Document.class, TOKEN_COLLECTION);
+            if (stored != null && stored.get("token") instanceof Document token) {
+                logger.info("Resuming change-stream cache invalidation for node {}", nodeId);
+                return BsonDocument.parse(token.toJson());
+            }
+        } catch (Exception e) {
+            logger.warn("Could not load change-stream resume token: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    private void persistToken() {
+        BsonDocument token = resumeToken;
+        lastTokenPersistedAt = System.currentTimeMillis();
+        if (token == null) {
+            return;
+        }
+        try {
+            Document document = new Document("_id", nodeId)
+                    .append("token", Document.parse(token.toJson()))
+                    .append("updatedAt", Date.from(Instant.now()));
+            mongoTemplate.findAndReplace(new Query(Criteria.where("_id").is(nodeId)), document,
+                    FindAndReplaceOptions.options().upsert(), Document.class, TOKEN_COLLECTION);
+        } catch (Exception e) {
+            logger.warn("Could not persist change-stream resume token: {}", e.getMessage());
+        }
+    }
+
+    private void backoff() {
+        try {
+            Thread.sleep(retryBackoffMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopping = true;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+        Thread thread = worker;
+        if (thread != null) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(3));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
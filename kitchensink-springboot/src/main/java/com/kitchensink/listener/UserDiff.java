@@ -0,0 +1,126 @@
+package com.kitchensink.listener;
+
+import com.kitchensink.model.User;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Field-level diff between the {@link UserSnapshot} taken before a save and the saved {@link User}, the single source
+ * of UPDATE audit entries. The audited fields are a fixed table of accessor pairs, so computing a diff is one pass of
+ * equals() calls that records the differing fields in a bit mask; the changedFields/oldValues/newValues maps and the
+ * details text are only built when asked for, and only from the fields that differ.
+ * A field that is null on either side is not reported, as before; email and phone are compared by hash and masked.
+ */
+public final class UserDiff {
+
+    private static final String MASKED = "[ENCRYPTED]";
+
+    private static final Field[] FIELDS = {
+        new Field("name", "Name", UserSnapshot::getName, User::getName, false),
+        new Field("email", "Email", UserSnapshot::getEmailHash, User::getEmailHash, true),
+        new Field("phoneNumber", "Phone Number", UserSnapshot::getPhoneNumberHash, User::getPhoneNumberHash, true),
+        new Field("isdCode", "ISD Code", UserSnapshot::getIsdCode, User::getIsdCode, false),
+        new Field("dateOfBirth", "Date of Birth", UserSnapshot::getDateOfBirth, User::getDateOfBirth, false),
+        new Field("address", "Address", UserSnapshot::getAddress, User::getAddress, false),
+        new Field("city", "City", UserSnapshot::getCity, User::getCity, false),
+        new Field("country", "Country", UserSnapshot::getCountry, User::getCountry, false),
+        new Field("status", "Status", UserSnapshot::getStatus, User::getStatus, false),
+    };
+
+    private final UserSnapshot before;
+    private final User after;
+    private final int changed;
+
+    private UserDiff(UserSnapshot before, User after, int changed) {
+        this.before = before;
+        this.after = after;
+        this.changed = changed;
+    }
+
+    public static UserDiff between(UserSnapshot before, User after) {
+        int changed = 0;
+        for (int i = 0; i < FIELDS.length; i++) {
+            String oldValue = FIELDS[i].before().apply(before);
+            String newValue = FIELDS[i].after().apply(after);
+            if (oldValue != null && newValue != null && !oldValue.equals(newValue)) {
+                changed |= 1 << i;
+            }
+        }
+        return new UserDiff(before, after, changed);
+    }
+
+    public boolean isEmpty() {
+        return changed == 0;
+    }
+
+    public int size() {
+        return Integer.bitCount(changed);
+    }
+
+    public String getUserId() {
+        return after.getId();
+    }
+
+    /**
+     * Field key to display label, for each changed field.
+     */
+    public Map<String, String> changedFields() {
+        return collect(Field::label);
+    }
+
+    public Map<String, String> oldValues() {
+        return collect(field -> field.masked() ? MASKED : field.before().apply(before));
+    }
+
+    public Map<String, String> newValues() {
+        return collect(field -> field.masked() ? MASKED : field.after().apply(after));
+    }
+
+    /**
+     * Human-readable summary, e.g. "User updated at 2026-01-01T10:00:00: name: 'A' -> 'B', email: [CHANGED]".
+     */
+    public String details(LocalDateTime at) {
+        StringBuilder details = new StringBuilder(64 + 48 * size())
+                .append("User updated at ")
+                .append(at.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                .append(": ");
+        String separator = "";
+        for (int i = 0; i < FIELDS.length; i++) {
+            if ((changed & (1 << i)) == 0) {
+                continue;
+            }
+            Field field = FIELDS[i];
+            details.append(separator).append(field.key()).append(": ");
+            if (field.masked()) {
+                details.append("[CHANGED]");
+            } else {
+                details.append('\'').append(field.before().apply(before))
+                        .append("' -> '").append(field.after().apply(after)).append('\'');
+            }
+            separator = ", ";
+        }
+        return details.toString();
+    }
+
+    private Map<String, String> collect(Function<Field, String> value) {
+        if (changed == 0) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> values = HashMap.newHashMap(size());
+        for (int i = 0; i < FIELDS.length; i++) {
+            if ((changed & (1 << i)) != 0) {
+                values.put(FIELDS[i].key(), value.apply(FIELDS[i]));
+            }
+        }
+        return values;
+    }
+
+    private record Field(String key, String label, Function<UserSnapshot, String> before,
+                         Function<User, String> after, boolean masked) {
+    }
+}
@@ -27,6 +27,9 @@ public class UpdateRequest {
     @Transient
     private String newValue; // Plain text new value (not persisted)
     
+    @Transient
+    private boolean decryptionFailed; // Old or new value could not be decrypted (not persisted)
+    
     // Encrypted values for storage
     private String oldValueEncrypted;
     private String newValueEncrypted;
@@ -112,6 +115,14 @@ public class UpdateRequest {
         this.newValue = newValue;
     }
     
+    public boolean isDecryptionFailed() {
+        return decryptionFailed;
+    }
+    
+    public void setDecryptionFailed(boolean decryptionFailed) {
+        this.decryptionFailed = decryptionFailed;
+    }
+    
     public String getOldValueEncrypted() {
         return oldValueEncrypted;
     }
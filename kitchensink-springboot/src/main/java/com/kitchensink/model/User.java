@@ -57,6 +57,9 @@ public class User {
     
     private String status = "ACTIVE";
     
+    // Name of the active role, copied from user_roles so list queries can exclude admins without a join
+    private String role;
+    
     // Constructors
     public User() {
         this.registrationDate = LocalDateTime.now();
@@ -194,7 +197,14 @@ public class User {
         this.country = country;
     }
     
-    // Note: Role information is stored in user_roles collection, not in User model
+    // Note: user_roles stays the source of truth for role assignments; UserRoleService keeps this copy in sync
+    public String getRole() {
+        return role;
+    }
+    
+    public void setRole(String role) {
+        this.role = role;
+    }
     
     @Override
     public String toString() {
@@ -205,6 +215,7 @@ public class User {
                 ", phoneNumber='[ENCRYPTED]'" +
                 ", registrationDate=" + registrationDate +
                 ", status='" + status + '\'' +
+                ", role='" + role + '\'' +
                 '}';
     }
 }
@@ -0,0 +1,28 @@
+package com.kitchensink.repository;
+
+import com.kitchensink.dto.AuditLogFilter;
+import com.kitchensink.model.AuditLog;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Bounded audit log queries, newest first in (timestamp, _id) descending order. Every filter combination is an
+ * equality match followed by that sort, so each is served by one of the audit_logs indexes in SCHEMA_MANAGEMENT.md
+ * without an in-memory sort.
+ */
+public interface AuditLogRepositoryCustom {
+
+    /**
+     * Up to limit entries matching the filter, strictly after the optional (beforeTimestamp, beforeId) key of the
+     * previous page's last row.
+     */
+    List<AuditLog> findPage(AuditLogFilter filter, LocalDateTime beforeTimestamp, String beforeId, int limit);
+
+    /**
+     * Every entry matching the filter, read from a server-side cursor batchSize documents at a time.
+     * The caller must close the stream.
+     */
+    Stream<AuditLog> streamAll(AuditLogFilter filter, int batchSize);
+}
@@ -0,0 +1,76 @@
+package com.kitchensink.repository;
+
+import com.kitchensink.dto.AuditLogFilter;
+import com.kitchensink.model.AuditLog;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+class AuditLogRepositoryCustomImpl implements AuditLogRepositoryCustom {
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "timestamp", "_id");
+
+    private final MongoTemplate mongoTemplate;
+
+    AuditLogRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<AuditLog> findPage(AuditLogFilter filter, LocalDateTime beforeTimestamp, String beforeId, int limit) {
+        List<Criteria> criteria = filterCriteria(filter);
+        if (beforeId != null) {
+            criteria.add(new Criteria().orOperator(
+                    Criteria.where("timestamp").lt(beforeTimestamp),
+                    Criteria.where("timestamp").is(beforeTimestamp).and("_id").lt(beforeId)));
+        }
+        Query query = query(criteria)
+                .limit(limit)
+                .with(NEWEST_FIRST);
+        return mongoTemplate.find(query, AuditLog.class);
+    }
+
+    @Override
+    public Stream<AuditLog> streamAll(AuditLogFilter filter, int batchSize) {
+        Query query = query(filterCriteria(filter))
+                .with(NEWEST_FIRST)
+                .cursorBatchSize(batchSize);
+        return mongoTemplate.stream(query, AuditLog.class);
+    }
+
+    private static Query query(List<Criteria> criteria) {
+        return criteria.isEmpty() ? new Query() : new Query(new Criteria().andOperator(criteria));
+    }
+
+    private static List<Criteria> filterCriteria(AuditLogFilter filter) {
+        List<Criteria> criteria = new ArrayList<>();
+        if (filter.entityType() != null) {
+            criteria.add(Criteria.where("entityType").is(filter.entityType()));
+        }
+        if (filter.entityId() != null) {
+            criteria.add(Criteria.where("entityId").is(filter.entityId()));
+        }
+        if (filter.action() != null) {
+            criteria.add(Criteria.where("action").is(filter.action()));
+        }
+        if (filter.performedBy() != null) {
+            criteria.add(Criteria.where("performedBy").is(filter.performedBy()));
+        }
+        if (filter.correlationId() != null) {
+            criteria.add(Criteria.where("correlationId").is(filter.correlationId()));
+        }
+        if (filter.from() != null) {
+            criteria.add(Criteria.where("timestamp").gte(filter.from()));
+        }
+        if (filter.to() != null) {
+            criteria.add(Criteria.where("timestamp").lt(filter.to()));
+        }
+        return criteria;
+    }
+}
@@ -10,7 +10,7 @@ import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends MongoRepository<User, String> {
+public interface UserRepository extends MongoRepository<User, String>, UserRepositoryCustom {
     
     Optional<User> findByEmailHash(String emailHash);
     
@@ -72,6 +72,8 @@ public interface UserRepository extends MongoRepository<User, String> {
     @Query(value = "{ '_id': { $nin: ?0 } }", count = true)
     long countByIdNotIn(java.util.List<String> excludedIds);
     
+    long countByRoleNotAndIdNotIn(String role, java.util.Collection<String> excludedIds);
+    
     @Query("{ '_id': { $nin: ?0 }, $or: [ { 'name': { $gt: ?1 } }, { $and: [ { 'name': ?1 }, { '_id': { $gt: ?2 } } ] } ] }")
     java.util.List<User> findByIdNotInAndNameGreaterThanOrderByNameAsc(
             java.util.List<String> excludedIds, String lastName, String lastId, Pageable pageable);
@@ -0,0 +1,77 @@
+package com.kitchensink.repository;
+
+import com.kitchensink.dto.UserFieldSet;
+import com.kitchensink.dto.UserResponseDTO;
+import com.kitchensink.model.User;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Read-model queries for user lists and search. Only the document fields a {@link UserFieldSet} asks for
+ * are loaded (the sort key name and _id always are), and each document is mapped straight into a
+ * {@link UserResponseDTO} without going through the User entity.
+ * Requested email and phone number are returned still encrypted, in the DTO's non-serialized
+ * emailEncrypted/phoneNumberEncrypted fields; the caller decrypts them into email/phoneNumber.
+ * Admins are excluded through the role name denormalized onto each user document; users without a role
+ * never match the excluded role. Until the role backfill completes, excludedIds additionally lists the
+ * excluded users whose document may not carry the role yet; an empty collection adds no condition.
+ * (name, _id) order is case-insensitive (collation en, strength 2), as is the keyset comparison.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * First page of users whose role is not excludedRole, in (name, _id) order. No count query is issued.
+     */
+    List<UserResponseDTO> findByRoleNotOrderByNameAsc(String excludedRole, Collection<String> excludedIds,
+                                                      Pageable pageable, UserFieldSet fields);
+
+    /**
+     * Users after the (lastName, lastId) key in (name, _id) ascending order.
+     */
+    List<UserResponseDTO> findByRoleNotAndNameGreaterThanOrderByNameAsc(
+            String excludedRole, Collection<String> excludedIds, String lastName, String lastId, Pageable pageable,
+            UserFieldSet fields);
+
+    /**
+     * Users before the (firstName, firstId) key in (name, _id) descending order, nearest first.
+     */
+    List<UserResponseDTO> findByRoleNotAndNameLessThanOrderByNameDesc(
+            String excludedRole, Collection<String> excludedIds, String firstName, String firstId, Pageable pageable,
+            UserFieldSet fields);
+
+    List<UserResponseDTO> searchByName(String pattern, UserFieldSet fields);
+
+    List<UserResponseDTO> searchByNameAndRoleNot(String pattern, String excludedRole, Collection<String> excludedIds,
+                                                 UserFieldSet fields);
+
+    /**
+     * Users whose role is not excludedRole and whose name contains the literal (ignoring case), in
+     * (name, _id) order after the optional (afterName, afterId) key. Regex metacharacters in the literal
+     * are escaped, and the server aborts the query once it has run for maxTimeMillis.
+     */
+    List<UserResponseDTO> searchByNameLiteralAfter(String literal, String excludedRole, Collection<String> excludedIds,
+                                                   String afterName, String afterId, int limit, long maxTimeMillis,
+                                                   UserFieldSet fields);
+
+    /**
+     * Users with the given ids, in no particular order.
+     */
+    List<UserResponseDTO> findByIdIn(Collection<String> ids, UserFieldSet fields);
+
+    /**
+     * Users with the given ids whose role is not excludedRole, in no particular order.
+     */
+    List<UserResponseDTO> findByIdInAndRoleNot(Collection<String> ids, String excludedRole, UserFieldSet fields);
+
+    /**
+     * Copies the user's active role name onto the user document; a null role removes it.
+     */
+    void updateRole(String userId, String role);
+
+    /**
+     * Deletes the user document and returns it with only its status loaded, or null if no document was deleted.
+     */
+    User removeById(String id);
+}
@@ -0,0 +1,198 @@
+package com.kitchensink.repository;
+
+import com.kitchensink.dto.UserFieldSet;
+import com.kitchensink.dto.UserResponseDTO;
+import com.kitchensink.model.User;
+import com.kitchensink.util.RegexUtil;
+import org.bson.Document;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    // Case-insensitive name order ("alice" before "Zoe"); the keyset bounds compare under the same
+    // collation, and the (name, _id) indexes must be built with it to serve these queries
+    static final Collation NAME_ORDER = Collation.of("en").strength(Collation.ComparisonLevel.secondary());
+
+    private final MongoTemplate mongoTemplate;
+
+    UserRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<UserResponseDTO> findByRoleNotOrderByNameAsc(String excludedRole, Collection<String> excludedIds,
+                                                            Pageable pageable, UserFieldSet fields) {
+        Query query = new Query(notRole(excludedRole, excludedIds))
+                .limit(pageable.getPageSize())
+                .with(Sort.by("name", "_id"))
+                .collation(NAME_ORDER);
+        return findRows(query, fields);
+    }
+
+    @Override
+    public List<UserResponseDTO> findByRoleNotAndNameGreaterThanOrderByNameAsc(
+            String excludedRole, Collection<String> excludedIds, String lastName, String lastId, Pageable pageable,
+            UserFieldSet fields) {
+        Query query = new Query(new Criteria().andOperator(
+                notRole(excludedRole, excludedIds),
+                new Criteria().orOperator(
+                        Criteria.where("name").gt(lastName),
+                        Criteria.where("name").is(lastName).and("_id").gt(lastId))))
+                .limit(pageable.getPageSize())
+                .with(Sort.by("name", "_id"))
+                .collation(NAME_ORDER);
+        return findRows(query, fields);
+    }
+
+    @Override
+    public List<UserResponseDTO> findByRoleNotAndNameLessThanOrderByNameDesc(
+            String excludedRole, Collection<String> excludedIds, String firstName, String firstId, Pageable pageable,
+            UserFieldSet fields) {
+        Query query = new Query(new Criteria().andOperator(
+                notRole(excludedRole, excludedIds),
+                new Criteria().orOperator(
+                        Criteria.where("name").lt(firstName),
+                        Criteria.where("name").is(firstName).and("_id").lt(firstId))))
+                .limit(pageable.getPageSize())
+                .with(Sort.by(Sort.Direction.DESC, "name", "_id"))
+                .collation(NAME_ORDER);
+        return findRows(query, fields);
+    }
+
+    @Override
+    public List<UserResponseDTO> searchByName(String pattern, UserFieldSet fields) {
+        Query query = new Query(Criteria.where("name").regex(pattern, "i"));
+        return findRows(query, fields);
+    }
+
+    @Override
+    public List<UserResponseDTO> searchByNameAndRoleNot(String pattern, String excludedRole,
+                                                        Collection<String> excludedIds, UserFieldSet fields) {
+        Query query = new Query(new Criteria().andOperator(
+                notRole(excludedRole, excludedIds),
+                Criteria.where("name").regex(pattern, "i")));
+        return findRows(query, fields);
+    }
+
+    @Override
+    public List<UserResponseDTO> searchByNameLiteralAfter(String literal, String excludedRole,
+                                                          Collection<String> excludedIds, String afterName,
+                                                          String afterId, int limit, long maxTimeMillis,
+                                                          UserFieldSet fields) {
+        List<Criteria> criteria = new ArrayList<>();
+        if (excludedRole != null) {
+            criteria.add(notRole(excludedRole, excludedIds));
+        }
+        criteria.add(Criteria.where("name").regex(RegexUtil.escapeLiteral(literal), "i"));
+        if (afterId != null) {
+            criteria.add(new Criteria().orOperator(
+                    Criteria.where("name").gt(afterName),
+                    Criteria.where("name").is(afterName).and("_id").gt(afterId)));
+        }
+        Query query = new Query(new Criteria().andOperator(criteria))
+                .limit(limit)
+                .with(Sort.by("name", "_id"))
+                .collation(NAME_ORDER)
+                .maxTime(Duration.ofMillis(maxTimeMillis));
+        return findRows(query, fields);
+    }
+
+    @Override
+    public List<UserResponseDTO> findByIdIn(Collection<String> ids, UserFieldSet fields) {
+        Query query = new Query(Criteria.where("_id").in(ids));
+        return findRows(query, fields);
+    }
+
+    @Override
+    public List<UserResponseDTO> findByIdInAndRoleNot(Collection<String> ids, String excludedRole, UserFieldSet fields) {
+        Query query = new Query(Criteria.where("_id").in(ids).and("role").ne(excludedRole));
+        return findRows(query, fields);
+    }
+
+    @Override
+    public void updateRole(String userId, String role) {
+        Update update = role != null ? new Update().set("role", role) : new Update().unset("role");
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(userId)), update, User.class);
+    }
+
+    @Override
+    public User removeById(String id) {
+        Query query = new Query(Criteria.where("_id").is(id));
+        query.fields().include("status");
+        return mongoTemplate.findAndRemove(query, User.class);
+    }
+
+    // excludedIds covers excluded users whose document has no role yet, i.e. before the role backfill completes
+    private static Criteria notRole(String excludedRole, Collection<String> excludedIds) {
+        Criteria criteria = Criteria.where("role").ne(excludedRole);
+        if (excludedIds != null && !excludedIds.isEmpty()) {
+            criteria.and("_id").nin(excludedIds);
+        }
+        return criteria;
+    }
+
+    // Streams raw documents off the cursor so each row costs one DTO, not a Document list plus an entity
+    private List<UserResponseDTO> findRows(Query query, UserFieldSet fields) {
+        project(query, fields);
+        List<UserResponseDTO> rows = new ArrayList<>(query.getLimit() > 0 ? query.getLimit() : 16);
+        mongoTemplate.executeQuery(query, mongoTemplate.getCollectionName(User.class),
+                document -> rows.add(toRow(document, fields)));
+        return rows;
+    }
+
+    private Query project(Query query, UserFieldSet fields) {
+        if (fields.isAll()) {
+            // Hashes and other internals never reach the response
+            query.fields().exclude("emailHash").exclude("phoneNumberHash").exclude("_class");
+        } else {
+            query.fields().include("name");
+            fields.documentFields().forEach(field -> query.fields().include(field));
+        }
+        return query;
+    }
+
+    static UserResponseDTO toRow(Document document, UserFieldSet fields) {
+        UserResponseDTO row = new UserResponseDTO();
+        Object id = document.get("_id");
+        row.setId(id != null ? id.toString() : null);
+        row.setName(document.getString("name"));
+        if (fields.includes(UserFieldSet.EMAIL)) {
+            row.setEmailEncrypted(document.getString("emailEncrypted"));
+        }
+        if (fields.includes(UserFieldSet.PHONE_NUMBER)) {
+            row.setPhoneNumberEncrypted(document.getString("phoneNumberEncrypted"));
+        }
+        row.setIsdCode(document.getString("isdCode"));
+        row.setDateOfBirth(document.getString("dateOfBirth"));
+        row.setAddress(document.getString("address"));
+        row.setCity(document.getString("city"));
+        row.setCountry(document.getString("country"));
+        row.setRegistrationDate(toLocalDateTime(document.get("registrationDate")));
+        row.setLastLoginDate(toLocalDateTime(document.get("lastLoginDate")));
+        row.setStatus(document.getString("status"));
+        if (fields.includes(UserFieldSet.ROLE)) {
+            // Null when the document predates the role backfill; the caller resolves those from user_roles
+            row.setRole(document.getString("role"));
+        }
+        return row;
+    }
+
+    // Spring Data stores LocalDateTime as a BSON date in the system zone
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Date ? LocalDateTime.ofInstant(((Date) value).toInstant(), ZoneId.systemDefault()) : null;
+    }
+}
@@ -16,5 +16,7 @@ public interface UserRoleRepository extends MongoRepository<UserRole, String> {
     boolean existsByUserId(String userId);
     
     java.util.List<UserRole> findByRoleIdAndActiveTrue(String roleId);
+    
+    java.util.List<UserRole> findByUserIdInAndActiveTrue(java.util.Collection<String> userIds);
 }
 
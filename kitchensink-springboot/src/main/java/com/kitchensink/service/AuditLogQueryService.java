@@ -0,0 +1,92 @@
+package com.kitchensink.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kitchensink.dto.AuditLogFilter;
+import com.kitchensink.dto.CursorPageResponse;
+import com.kitchensink.model.AuditLog;
+import com.kitchensink.repository.AuditLogRepository;
+import com.kitchensink.util.AuditCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Read side of the audit trail for admins. Pages are newest first and continued with an opaque {@link AuditCursor}
+ * holding the (timestamp, _id) of the last row, so page N is the same indexed range scan as page 1 and no count is
+ * taken. Exports stream every matching entry as NDJSON straight off a server-side cursor, so memory stays at one
+ * cursor batch however large the result.
+ */
+@Service
+public class AuditLogQueryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogQueryService.class);
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+    static final int EXPORT_BATCH_SIZE = 500;
+
+    private final AuditLogRepository auditLogRepository;
+    private final ObjectMapper objectMapper;
+
+    public AuditLogQueryService(AuditLogRepository auditLogRepository, ObjectMapper objectMapper) {
+        this.auditLogRepository = auditLogRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * One page of at most {@value #MAX_PAGE_SIZE} entries matching the filter.
+     *
+     * @throws com.kitchensink.exception.BadRequestException if the cursor is not one this API returned
+     */
+    public CursorPageResponse<AuditLog> getAuditLogs(AuditLogFilter filter, String cursor, int size) {
+        if (size <= 0) {
+            size = DEFAULT_PAGE_SIZE;
+        }
+        size = Math.min(size, MAX_PAGE_SIZE);
+        AuditCursor position = cursor == null || cursor.isEmpty() ? null : AuditCursor.decode(cursor);
+
+        // One extra row tells us whether another page exists
+        List<AuditLog> rows = auditLogRepository.findPage(filter,
+                position != null ? position.getTimestamp() : null,
+                position != null ? position.getId() : null,
+                size + 1);
+        boolean hasNext = rows.size() > size;
+        if (hasNext) {
+            rows = new ArrayList<>(rows.subList(0, size));
+        }
+        String nextCursor = null;
+        if (hasNext) {
+            AuditLog last = rows.get(rows.size() - 1);
+            nextCursor = new AuditCursor(last.getTimestamp(), last.getId()).encode();
+        }
+        return new CursorPageResponse<>(rows, nextCursor, null, hasNext, position != null, rows.size());
+    }
+
+    /**
+     * Writes every entry matching the filter to out, one JSON object per line, newest first.
+     *
+     * @return the number of entries written
+     */
+    public long exportAuditLogs(AuditLogFilter filter, OutputStream out) throws IOException {
+        long written = 0;
+        try (Stream<AuditLog> logs = auditLogRepository.streamAll(filter, EXPORT_BATCH_SIZE)) {
+            Iterator<AuditLog> iterator = logs.iterator();
+            while (iterator.hasNext()) {
+                out.write(objectMapper.writeValueAsBytes(iterator.next()));
+                out.write('\n');
+                if (++written % EXPORT_BATCH_SIZE == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+        logger.info("Exported {} audit logs (filter: {})", written, filter);
+        return written;
+    }
+}
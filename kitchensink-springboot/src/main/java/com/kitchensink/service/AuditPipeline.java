@@ -0,0 +1,395 @@
+package com.kitchensink.service;
+
+import com.kitchensink.model.AuditLog;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.InsertManyOptions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.ByteBuf;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The single write path for audit_logs. Callers build the AuditLog on their own thread (so request
+ * metadata is still available) and {@link #submit} it into a bounded lock-free ring buffer; one drainer
+ * thread writes batches with a single insertMany once batch-size events are waiting or the oldest has
+ * waited flush-interval-ms. When the buffer is full the overflow policy decides:
+ * <ul>
+ *   <li>SPILL (the default) writes the event straight to Mongo on the caller's thread;</li>
+ *   <li>BLOCK waits for room, up to block-timeout-ms, then drops;</li>
+ *   <li>DROP discards the event and counts it.</li>
+ * </ul>
+ * Events get their _id before the first insert attempt, and batches are inserted unordered, so a batch that
+ * fails (Mongo unavailable, write concern not met) is retried with backoff, and events it had already
+ * written come back as duplicates that are skipped. Events the server rejects individually are counted as
+ * failed and not retried. Events still buffered at shutdown are flushed before the Mongo client closes;
+ * a crash loses them.
+ * <p>
+ * With {@link AuditSpool} enabled, submit appends the event to the on-disk spool instead, and the drainer ships
+ * spooled events to Mongo and advances the spool checkpoint only after each insert succeeds, so a Mongo outage or
+ * a restart delays events instead of losing them. Spooled events get their _id up front, making a replay after
+ * a crash idempotent. The in-memory buffer and its overflow policy remain the fallback when the spool is full.
+ */
+@Component
+public class AuditPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditPipeline.class);
+
+    public enum OverflowPolicy { BLOCK, DROP, SPILL }
+
+    private static final long RETRY_INITIAL_BACKOFF_MILLIS = 100;
+    private static final long RETRY_MAX_BACKOFF_MILLIS = 5_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final AuditSpool auditSpool;
+    private final AuditRingBuffer<AuditLog> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+    private final Counter submitted;
+    private final Counter dropped;
+    private final Counter spilled;
+    private final Counter failed;
+    private final Counter spooled;
+    private final Counter spoolShipFailures;
+    private final Counter writeRetries;
+    private final AtomicInteger unshipped = new AtomicInteger();
+    private final DistributionSummary batchSizes;
+    private final Timer flushLatency;
+
+    private volatile boolean running;
+    private volatile Thread drainer;
+
+    public AuditPipeline(MongoTemplate mongoTemplate, AuditSpool auditSpool,
+                         @Value("${app.audit.pipeline.capacity:8192}") int capacity,
+                         @Value("${app.audit.pipeline.batch-size:256}") int batchSize,
+                         @Value("${app.audit.pipeline.flush-interval-ms:200}") long flushIntervalMillis,
+                         @Value("${app.audit.pipeline.overflow-policy:SPILL}") OverflowPolicy overflowPolicy,
+                         @Value("${app.audit.pipeline.block-timeout-ms:50}") long blockTimeoutMillis,
+                         MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.auditSpool = auditSpool;
+        this.buffer = new AuditRingBuffer<>(capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMillis));
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+        this.submitted = Counter.builder("audit.pipeline.events")
+                .description("Audit events accepted into the buffer")
+                .tag("outcome", "buffered")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("audit.pipeline.events")
+                .description("Audit events discarded because the buffer was full")
+                .tag("outcome", "dropped")
+                .register(meterRegistry);
+        this.spilled = Counter.builder("audit.pipeline.events")
+                .description("Audit events written on the caller's thread because the buffer was full")
+                .tag("outcome", "spilled")
+                .register(meterRegistry);
+        this.failed = Counter.builder("audit.pipeline.events")
+                .description("Audit events lost because Mongo rejected them or they could not be written")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+        this.spooled = Counter.builder("audit.pipeline.events")
+                .description("Audit events appended to the on-disk spool")
+                .tag("outcome", "spooled")
+                .register(meterRegistry);
+        this.spoolShipFailures = Counter.builder("audit.spool.ship.failures")
+                .description("Attempts to ship spooled audit events that failed and will be retried")
+                .register(meterRegistry);
+        this.writeRetries = Counter.builder("audit.pipeline.write.retries")
+                .description("Buffered audit batches whose insert failed and will be retried")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("audit.pipeline.batch.size")
+                .description("Audit events written per insertMany")
+                .register(meterRegistry);
+        this.flushLatency = Timer.builder("audit.pipeline.flush.latency")
+                .description("Time taken by one audit insertMany")
+                .register(meterRegistry);
+        Gauge.builder("audit.pipeline.queue.depth", buffer, AuditRingBuffer::size)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+        Gauge.builder("audit.pipeline.queue.capacity", buffer, AuditRingBuffer::capacity)
+                .description("Audit events the buffer can hold")
+                .register(meterRegistry);
+        if (auditSpool.isEnabled()) {
+            Gauge.builder("audit.spool.pending", auditSpool, AuditSpool::pendingBytes)
+                    .description("Approximate spooled bytes not yet shipped to Mongo")
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+            Gauge.builder("audit.spool.segments", auditSpool, AuditSpool::segmentCount)
+                    .description("Audit spool segment files on disk")
+                    .register(meterRegistry);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        Thread thread = new Thread(this::drainLoop, "audit-pipeline");
+        thread.setDaemon(true);
+        drainer = thread;
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        Thread thread = drainer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Anything that raced the shutdown
+        flushAll();
+    }
+
+    /**
+     * Hands an audit event to the pipeline. Never throws; an event that cannot be buffered is handled by
+     * the overflow policy.
+     */
+    public void submit(AuditLog auditLog) {
+        if (auditSpool.isEnabled() && spool(auditLog)) {
+            spooled.increment();
+            if (unshipped.incrementAndGet() >= batchSize) {
+                wakeDrainer();
+            }
+            return;
+        }
+        if (buffer.offer(auditLog)) {
+            submitted.increment();
+            if (buffer.size() >= batchSize) {
+                wakeDrainer();
+            }
+            return;
+        }
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                long deadline = System.nanoTime() + blockTimeoutNanos;
+                while (System.nanoTime() < deadline) {
+                    wakeDrainer();
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(200));
+                    if (buffer.offer(auditLog)) {
+                        submitted.increment();
+                        return;
+                    }
+                }
+                dropped.increment();
+                logger.warn("Audit buffer full for {} ms, dropped {} {} event",
+                        TimeUnit.NANOSECONDS.toMillis(blockTimeoutNanos), auditLog.getEntityType(), auditLog.getAction());
+            }
+            case SPILL -> {
+                spilled.increment();
+                List<RawBsonDocument> documents = toDocuments(List.of(auditLog));
+                if (!documents.isEmpty() && !insert(documents)) {
+                    // Not retried here: the caller is a request thread
+                    failed.increment();
+                }
+            }
+            default -> dropped.increment();
+        }
+    }
+
+    int queueDepth() {
+        return buffer.size();
+    }
+
+    private void wakeDrainer() {
+        Thread thread = drainer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void drainLoop() {
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        long batchStartedAt = 0;
+        while (running) {
+            if (auditSpool.isEnabled()) {
+                shipSpool();
+            }
+            int drained = buffer.drainTo(batch, batchSize - batch.size());
+            if (drained > 0 && batchStartedAt == 0) {
+                batchStartedAt = System.nanoTime();
+            }
+            long waited = batch.isEmpty() ? 0 : System.nanoTime() - batchStartedAt;
+            if (batch.size() >= batchSize || (!batch.isEmpty() && waited >= flushIntervalNanos)) {
+                writeWithRetry(batch);
+                batch = new ArrayList<>(batchSize);
+                batchStartedAt = 0;
+                continue;
+            }
+            // Sleep until the oldest buffered event is due; a producer filling a batch wakes us early
+            LockSupport.parkNanos(batch.isEmpty() ? flushIntervalNanos : flushIntervalNanos - waited);
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+        if (auditSpool.isEnabled()) {
+            shipSpool();
+        }
+    }
+
+    /**
+     * Inserts a drained batch, retrying with exponential backoff until it succeeds or the pipeline stops.
+     * Meanwhile the buffer keeps accepting events and its overflow policy applies once it is full.
+     */
+    private void writeWithRetry(List<AuditLog> batch) {
+        List<RawBsonDocument> documents = toDocuments(batch);
+        long backoffMillis = RETRY_INITIAL_BACKOFF_MILLIS;
+        while (!documents.isEmpty() && !insert(documents)) {
+            if (!running) {
+                failed.increment(documents.size());
+                logger.error("Audit pipeline stopping, dropped {} audit events that could not be written", documents.size());
+                return;
+            }
+            writeRetries.increment();
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoffMillis));
+            backoffMillis = Math.min(backoffMillis * 2, RETRY_MAX_BACKOFF_MILLIS);
+        }
+    }
+
+    private boolean spool(AuditLog auditLog) {
+        try {
+            ByteBuf bytes = toDocument(auditLog).getByteBuffer();
+            byte[] payload = new byte[bytes.remaining()];
+            bytes.get(payload);
+            return auditSpool.append(payload);
+        } catch (Exception e) {
+            logger.warn("Could not spool {} {} audit event, buffering in memory: {}",
+                    auditLog.getEntityType(), auditLog.getAction(), e.getMessage());
+            return false;
+        }
+    }
+
+    // Assigns the _id up front, so an insert that is retried or replayed is idempotent
+    private RawBsonDocument toDocument(AuditLog auditLog) {
+        if (auditLog.getId() == null) {
+            auditLog.setId(new ObjectId().toHexString());
+        }
+        Document document = new Document();
+        mongoTemplate.getConverter().write(auditLog, document);
+        return new RawBsonDocument(document, new DocumentCodec());
+    }
+
+    private List<RawBsonDocument> toDocuments(List<AuditLog> batch) {
+        List<RawBsonDocument> documents = new ArrayList<>(batch.size());
+        for (AuditLog auditLog : batch) {
+            try {
+                documents.add(toDocument(auditLog));
+            } catch (Exception e) {
+                failed.increment();
+                logger.error("Could not convert {} {} audit event: {}", auditLog.getEntityType(), auditLog.getAction(),
+                        e.getMessage(), e);
+            }
+        }
+        return documents;
+    }
+
+    /**
+     * Ships everything spooled so far, batch by batch. A failed insert leaves the checkpoint where it was, so the
+     * same events are retried on the next wake-up.
+     */
+    private void shipSpool() {
+        unshipped.set(0);
+        auditSpool.force();
+        while (true) {
+            AuditSpool.Batch batch = auditSpool.read(batchSize);
+            if (!batch.records().isEmpty() && !insert(toRawDocuments(batch.records()))) {
+                spoolShipFailures.increment();
+                return;
+            }
+            auditSpool.commit(batch);
+            if (batch.records().size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private static List<RawBsonDocument> toRawDocuments(List<byte[]> records) {
+        List<RawBsonDocument> documents = new ArrayList<>(records.size());
+        for (byte[] record : records) {
+            documents.add(new RawBsonDocument(record));
+        }
+        return documents;
+    }
+
+    /**
+     * One unordered insertMany. Returns false when the batch should be retried as a whole; documents the server
+     * rejected individually are counted as failed, and duplicates (already written by an earlier attempt) skipped.
+     */
+    private boolean insert(List<RawBsonDocument> documents) {
+        long started = System.nanoTime();
+        try {
+            mongoTemplate.getCollection(mongoTemplate.getCollectionName(AuditLog.class))
+                    .withDocumentClass(RawBsonDocument.class)
+                    .insertMany(documents, new InsertManyOptions().ordered(false));
+            batchSizes.record(documents.size());
+            return true;
+        } catch (MongoBulkWriteException e) {
+            if (e.getWriteConcernError() != null) {
+                logger.warn("Audit batch not acknowledged, will retry: {}", e.getWriteConcernError().getMessage());
+                return false;
+            }
+            // The server rejected individual documents; retrying them cannot help. Duplicates are events an
+            // earlier attempt, or a spool replay after a crash, had already written.
+            long rejected = e.getWriteErrors().stream()
+                    .map(BulkWriteError::getCode)
+                    .filter(code -> ErrorCategory.fromErrorCode(code) != ErrorCategory.DUPLICATE_KEY)
+                    .count();
+            if (rejected > 0) {
+                failed.increment(rejected);
+                logger.error("Mongo rejected {} audit events: {}", rejected, e.getMessage());
+            }
+            batchSizes.record(documents.size() - e.getWriteErrors().size());
+            return true;
+        } catch (Exception e) {
+            logger.warn("Failed to write {} audit events, will retry: {}", documents.size(), e.getMessage());
+            return false;
+        } finally {
+            flushLatency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void flushAll() {
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    // Single attempt, for shutdown: the Mongo client is about to close
+    private void write(List<AuditLog> batch) {
+        List<RawBsonDocument> documents = toDocuments(batch);
+        if (!documents.isEmpty() && !insert(documents)) {
+            failed.increment(documents.size());
+            logger.error("Dropped {} audit events that could not be written at shutdown", documents.size());
+        }
+    }
+}
@@ -1,12 +1,12 @@
 package com.kitchensink.service;
 
+import com.kitchensink.listener.UserDiff;
+import com.kitchensink.listener.UserSnapshot;
 import com.kitchensink.model.AuditLog;
 import com.kitchensink.model.User;
-import com.kitchensink.repository.AuditLogRepository;
 import com.kitchensink.util.CorrelationIdUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -16,17 +16,15 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 import jakarta.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
-import java.util.Map;
 
 @Service
 public class AuditService {
     
     private static final Logger logger = LoggerFactory.getLogger(AuditService.class);
-    private final AuditLogRepository auditLogRepository;
+    private final AuditPipeline auditPipeline;
     
-    public AuditService(AuditLogRepository auditLogRepository) {
-        this.auditLogRepository = auditLogRepository;
+    public AuditService(AuditPipeline auditPipeline) {
+        this.auditPipeline = auditPipeline;
     }
     
     /**
@@ -41,7 +39,7 @@ public class AuditService {
                 auditLog.setCorrelationId(correlationId);
             }
             
-            // Get request attributes (may be null in async context)
+            // Get request attributes (null outside a request, e.g. schedulers)
             ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
             if (attributes != null) {
                 HttpServletRequest request = attributes.getRequest();
@@ -60,7 +58,7 @@ public class AuditService {
                     auditLog.setPerformedBy("SYSTEM");
                 }
             } else {
-                // Fallback if request context is not available (e.g., in async thread)
+                // Fallback if request context is not available (e.g., scheduled jobs)
                 auditLog.setPerformedBy("SYSTEM");
                 logger.debug("Request context not available for audit log, using default values");
             }
@@ -116,7 +114,6 @@ public class AuditService {
     /**
      * Log user creation
      */
-    @Async("auditTaskExecutor")
     public void logUserCreated(User user) {
         try {
             AuditLog auditLog = new AuditLog(
@@ -129,7 +126,7 @@ public class AuditService {
             );
             auditLog.setTimestamp(LocalDateTime.now());
             populateAuditMetadata(auditLog);
-            auditLogRepository.save(auditLog);
+            auditPipeline.submit(auditLog);
             logger.debug("Audit log created for user creation: {}", user.getId());
         } catch (Exception e) {
             logger.error("Failed to create audit log for user creation: {}", user.getId(), e);
@@ -139,118 +136,41 @@ public class AuditService {
     /**
      * Log user update with detailed change tracking
      */
-    @Async("auditTaskExecutor")
     public void logUserUpdated(User oldUser, User newUser) {
+        logUserUpdated(UserDiff.between(UserSnapshot.from(oldUser), newUser));
+    }
+    
+    /**
+     * Log a user update from an already computed diff; nothing is logged when no audited field changed.
+     */
+    public void logUserUpdated(UserDiff diff) {
+        if (diff.isEmpty()) {
+            logger.debug("No changes detected for user {}, skipping audit log", diff.getUserId());
+            return;
+        }
         try {
-            Map<String, String> changedFields = new HashMap<>();
-            Map<String, String> oldValues = new HashMap<>();
-            Map<String, String> newValues = new HashMap<>();
-            StringBuilder details = new StringBuilder(String.format("User updated at %s: ", 
-                LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)));
-            
-            // Track name changes
-            if (oldUser.getName() != null && newUser.getName() != null && 
-                !oldUser.getName().equals(newUser.getName())) {
-                changedFields.put("name", "Name");
-                oldValues.put("name", oldUser.getName());
-                newValues.put("name", newUser.getName());
-                details.append(String.format("name: '%s' -> '%s', ", oldUser.getName(), newUser.getName()));
-            }
-            
-            // Track email changes (compare hashes since emails are encrypted)
-            if (oldUser.getEmailHash() != null && newUser.getEmailHash() != null && 
-                !oldUser.getEmailHash().equals(newUser.getEmailHash())) {
-                changedFields.put("email", "Email");
-                oldValues.put("email", "[ENCRYPTED]");
-                newValues.put("email", "[ENCRYPTED]");
-                details.append("email: [CHANGED], ");
-            }
-            
-            // Track phone changes (compare hashes since phones are encrypted)
-            if (oldUser.getPhoneNumberHash() != null && newUser.getPhoneNumberHash() != null && 
-                !oldUser.getPhoneNumberHash().equals(newUser.getPhoneNumberHash())) {
-                changedFields.put("phoneNumber", "Phone Number");
-                oldValues.put("phoneNumber", "[ENCRYPTED]");
-                newValues.put("phoneNumber", "[ENCRYPTED]");
-                details.append("phoneNumber: [CHANGED], ");
-            }
-            
-            // Track other field changes
-            if (oldUser.getIsdCode() != null && newUser.getIsdCode() != null && 
-                !oldUser.getIsdCode().equals(newUser.getIsdCode())) {
-                changedFields.put("isdCode", "ISD Code");
-                oldValues.put("isdCode", oldUser.getIsdCode());
-                newValues.put("isdCode", newUser.getIsdCode());
-                details.append(String.format("isdCode: '%s' -> '%s', ", oldUser.getIsdCode(), newUser.getIsdCode()));
-            }
-            
-            if (oldUser.getDateOfBirth() != null && newUser.getDateOfBirth() != null && 
-                !oldUser.getDateOfBirth().equals(newUser.getDateOfBirth())) {
-                changedFields.put("dateOfBirth", "Date of Birth");
-                oldValues.put("dateOfBirth", oldUser.getDateOfBirth());
-                newValues.put("dateOfBirth", newUser.getDateOfBirth());
-                details.append(String.format("dateOfBirth: '%s' -> '%s', ", oldUser.getDateOfBirth(), newUser.getDateOfBirth()));
-            }
-            
-            if (oldUser.getAddress() != null && newUser.getAddress() != null && 
-                !oldUser.getAddress().equals(newUser.getAddress())) {
-                changedFields.put("address", "Address");
-                oldValues.put("address", oldUser.getAddress());
-                newValues.put("address", newUser.getAddress());
-                details.append(String.format("address: '%s' -> '%s', ", oldUser.getAddress(), newUser.getAddress()));
-            }
-            
-            if (oldUser.getCity() != null && newUser.getCity() != null && 
-                !oldUser.getCity().equals(newUser.getCity())) {
-                changedFields.put("city", "City");
-                oldValues.put("city", oldUser.getCity());
-                newValues.put("city", newUser.getCity());
-                details.append(String.format("city: '%s' -> '%s', ", oldUser.getCity(), newUser.getCity()));
-            }
-            
-            if (oldUser.getCountry() != null && newUser.getCountry() != null && 
-                !oldUser.getCountry().equals(newUser.getCountry())) {
-                changedFields.put("country", "Country");
-                oldValues.put("country", oldUser.getCountry());
-                newValues.put("country", newUser.getCountry());
-                details.append(String.format("country: '%s' -> '%s', ", oldUser.getCountry(), newUser.getCountry()));
-            }
-            
-            if (oldUser.getStatus() != null && newUser.getStatus() != null && 
-                !oldUser.getStatus().equals(newUser.getStatus())) {
-                changedFields.put("status", "Status");
-                oldValues.put("status", oldUser.getStatus());
-                newValues.put("status", newUser.getStatus());
-                details.append(String.format("status: '%s' -> '%s', ", oldUser.getStatus(), newUser.getStatus()));
-            }
-            
-            // Remove trailing comma and space
-            if (details.length() > 0 && details.toString().endsWith(", ")) {
-                details.setLength(details.length() - 2);
-            }
-            
+            LocalDateTime now = LocalDateTime.now();
             AuditLog auditLog = new AuditLog(
                 "User",
-                newUser.getId(),
+                diff.getUserId(),
                 "UPDATE",
-                details.toString()
+                diff.details(now)
             );
-            auditLog.setChangedFields(changedFields);
-            auditLog.setOldValues(oldValues);
-            auditLog.setNewValues(newValues);
-            auditLog.setTimestamp(LocalDateTime.now());
+            auditLog.setChangedFields(diff.changedFields());
+            auditLog.setOldValues(diff.oldValues());
+            auditLog.setNewValues(diff.newValues());
+            auditLog.setTimestamp(now);
             populateAuditMetadata(auditLog);
-            auditLogRepository.save(auditLog);
-            logger.debug("Audit log created for user update: {}", newUser.getId());
+            auditPipeline.submit(auditLog);
+            logger.debug("Audit log created for user update: {}", diff.getUserId());
         } catch (Exception e) {
-            logger.error("Failed to create audit log for user update: {}", newUser.getId(), e);
+            logger.error("Failed to create audit log for user update: {}", diff.getUserId(), e);
         }
     }
     
     /**
      * Log user deletion
      */
-    @Async("auditTaskExecutor")
     public void logUserDeleted(User user) {
         try {
             AuditLog auditLog = new AuditLog(
@@ -263,7 +183,7 @@ public class AuditService {
             );
             auditLog.setTimestamp(LocalDateTime.now());
             populateAuditMetadata(auditLog);
-            auditLogRepository.save(auditLog);
+            auditPipeline.submit(auditLog);
             logger.debug("Audit log created for user deletion: {}", user.getId());
         } catch (Exception e) {
             logger.error("Failed to create audit log for user deletion: {}", user.getId(), e);
@@ -273,7 +193,6 @@ public class AuditService {
     /**
      * Log update request approval
      */
-    @Async("auditTaskExecutor")
     public void logUpdateRequestApproved(String requestId, String userId, String fieldName, String adminId) {
         try {
             AuditLog auditLog = new AuditLog(
@@ -286,7 +205,7 @@ public class AuditService {
             );
             auditLog.setTimestamp(LocalDateTime.now());
             populateAuditMetadata(auditLog);
-            auditLogRepository.save(auditLog);
+            auditPipeline.submit(auditLog);
             logger.debug("Audit log created for update request approval: {}", requestId);
         } catch (Exception e) {
             logger.error("Failed to create audit log for update request approval: {}", requestId, e);
@@ -296,7 +215,6 @@ public class AuditService {
     /**
      * Log update request rejection
      */
-    @Async("auditTaskExecutor")
     public void logUpdateRequestRejected(String requestId, String userId, String fieldName, String adminId, String reason) {
         try {
             AuditLog auditLog = new AuditLog(
@@ -309,7 +227,7 @@ public class AuditService {
             );
             auditLog.setTimestamp(LocalDateTime.now());
             populateAuditMetadata(auditLog);
-            auditLogRepository.save(auditLog);
+            auditPipeline.submit(auditLog);
             logger.debug("Audit log created for update request rejection: {}", requestId);
         } catch (Exception e) {
             logger.error("Failed to create audit log for update request rejection: {}", requestId, e);
@@ -319,7 +237,6 @@ public class AuditService {
     /**
      * Log update request revocation
      */
-    @Async("auditTaskExecutor")
     public void logUpdateRequestRevoked(String requestId, String userId, String fieldName) {
         try {
             AuditLog auditLog = new AuditLog(
@@ -332,7 +249,7 @@ public class AuditService {
             );
             auditLog.setTimestamp(LocalDateTime.now());
             populateAuditMetadata(auditLog);
-            auditLogRepository.save(auditLog);
+            auditPipeline.submit(auditLog);
             logger.debug("Audit log created for update request revocation: {}", requestId);
         } catch (Exception e) {
             logger.error("Failed to create audit log for update request revocation: {}", requestId, e);
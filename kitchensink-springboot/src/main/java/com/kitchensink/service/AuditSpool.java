@@ -0,0 +1,384 @@
+package com.kitchensink.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Local write-ahead journal for audit events, so an event is durable before Mongo has seen it. Events are appended
+ * to fixed-size memory-mapped segment files (audit-&lt;id&gt;.spool) and read back in order by the AuditPipeline
+ * drainer, which records how far Mongo has caught up in a checkpoint file; fully shipped segments are deleted.
+ * <p>
+ * Record layout: int length, int CRC32C, payload, padded to 4 bytes. The length is published last, so a reader
+ * never sees a partial record from this process; after a crash a torn tail fails its CRC and the rest of that
+ * segment is skipped. Every start opens a fresh segment, so earlier segments are never written again.
+ * Mapped pages survive a JVM crash; {@link #force} bounds what an OS crash can lose.
+ * Off unless app.audit.spool.enabled=true, since it needs a writable, persistent directory.
+ */
+@Component
+public class AuditSpool {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditSpool.class);
+    private static final int MAGIC = 0x41554431; // "AUD1"
+    static final int SEGMENT_HEADER_BYTES = 8;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final int END_OF_SEGMENT = -1;
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".spool";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    // Acquire/release access to the length word that publishes a record
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final NavigableSet<Long> segmentIds = new ConcurrentSkipListSet<>();
+
+    // Writer state, guarded by this (active is also read by the drainer)
+    private volatile Segment active;
+    private int writeOffset;
+    private volatile boolean closed;
+    private volatile Position published;
+
+    // Reader state, drainer thread only (checkpoint is volatile for the pending-bytes gauge)
+    private volatile Position checkpoint;
+    private long mappedId = -1;
+    private ByteBuffer mappedBuffer;
+
+    public AuditSpool(@Value("${app.audit.spool.enabled:false}") boolean enabled,
+                      @Value("${app.audit.spool.dir:data/audit-spool}") String directory,
+                      @Value("${app.audit.spool.segment-bytes:16777216}") int segmentBytes,
+                      @Value("${app.audit.spool.max-bytes:1073741824}") long maxBytes) {
+        if (segmentBytes < 4096) {
+            throw new IllegalArgumentException("app.audit.spool.segment-bytes must be at least 4096, was " + segmentBytes);
+        }
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentBytes = segmentBytes & ~3;
+        this.maxSegments = (int) Math.max(2, Math.min(Integer.MAX_VALUE, maxBytes / segmentBytes));
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .forEach(name -> segmentIds.add(Long.parseLong(
+                            name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()))));
+        }
+        synchronized (this) {
+            active = createSegment(segmentIds.isEmpty() ? 1 : segmentIds.last() + 1);
+            writeOffset = SEGMENT_HEADER_BYTES;
+            published = new Position(active.id(), writeOffset);
+        }
+        Position saved = loadCheckpoint();
+        long firstId = segmentIds.first();
+        boolean usable = saved != null && saved.segmentId() >= firstId && saved.segmentId() <= active.id();
+        checkpoint = usable ? saved : new Position(firstId, SEGMENT_HEADER_BYTES);
+        deleteSegmentsBefore(checkpoint.segmentId());
+        if (segmentIds.size() > 1) {
+            logger.info("Audit spool resuming with {} unshipped segment(s) in {}", segmentIds.size() - 1, directory);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (active != null && !closed) {
+            closed = true;
+            active.buffer().force();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Appends one record, or returns false when the spool is disabled, closed, out of segments or failing, in which
+     * case the caller keeps the event some other way.
+     */
+    public boolean append(byte[] payload) {
+        if (payload.length == 0) {
+            throw new IllegalArgumentException("Empty audit spool record");
+        }
+        int recordBytes = align(RECORD_HEADER_BYTES + payload.length);
+        if (!enabled || SEGMENT_HEADER_BYTES + recordBytes > segmentBytes) {
+            return false;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        synchronized (this) {
+            if (active == null || closed) {
+                return false;
+            }
+            if (writeOffset + recordBytes > segmentBytes && !roll()) {
+                return false;
+            }
+            MappedByteBuffer buffer = active.buffer();
+            buffer.put(writeOffset + RECORD_HEADER_BYTES, payload);
+            buffer.putInt(writeOffset + 4, (int) crc.getValue());
+            INT.setRelease(buffer, writeOffset, payload.length);
+            writeOffset += recordBytes;
+            published = new Position(active.id(), writeOffset);
+        }
+        return true;
+    }
+
+    /**
+     * Reads up to maxRecords records from the checkpoint onwards without consuming them; pass the batch to
+     * {@link #commit} once it is safely stored. Drainer thread only.
+     */
+    public Batch read(int maxRecords) {
+        Position limit = published;
+        Position from = checkpoint;
+        long id = from.segmentId();
+        int offset = from.offset();
+        List<byte[]> records = new ArrayList<>();
+        while (records.size() < maxRecords && id <= limit.segmentId()) {
+            boolean current = id == limit.segmentId();
+            if (current && offset >= limit.offset()) {
+                break;
+            }
+            byte[] record = readRecord(id, offset);
+            if (record == null) {
+                if (current) {
+                    // Cannot happen for a published record; stop rather than skip live data
+                    logger.error("Audit spool record at {}:{} is unreadable", id, offset);
+                    break;
+                }
+                // End of a closed segment (marker, unused tail, or torn write before a crash)
+                Long next = segmentIds.higher(id);
+                id = next != null ? next : limit.segmentId();
+                offset = SEGMENT_HEADER_BYTES;
+                continue;
+            }
+            records.add(record);
+            offset += align(RECORD_HEADER_BYTES + record.length);
+        }
+        return new Batch(records, new Position(id, offset));
+    }
+
+    /**
+     * Marks everything up to the end of the batch as shipped, persists the checkpoint and deletes segments that
+     * are no longer needed. Drainer thread only.
+     */
+    public void commit(Batch batch) {
+        Position end = batch.end();
+        if (end.equals(checkpoint)) {
+            return;
+        }
+        checkpoint = end;
+        saveCheckpoint(end);
+        deleteSegmentsBefore(end.segmentId());
+    }
+
+    /**
+     * Flushes the active segment's dirty pages to disk.
+     */
+    public void force() {
+        Segment segment = active;
+        if (segment != null && !closed) {
+            segment.buffer().force();
+        }
+    }
+
+    /**
+     * Approximate bytes appended but not yet shipped.
+     */
+    public long pendingBytes() {
+        Position limit = published;
+        Position from = checkpoint;
+        if (limit == null || from == null) {
+            return 0;
+        }
+        long segmentsBetween = segmentIds.subSet(from.segmentId(), limit.segmentId()).size();
+        return Math.max(0, segmentsBetween * (segmentBytes - SEGMENT_HEADER_BYTES)
+                + limit.offset() - from.offset());
+    }
+
+    public int segmentCount() {
+        return segmentIds.size();
+    }
+
+    private boolean roll() {
+        if (segmentIds.size() >= maxSegments) {
+            return false;
+        }
+        try {
+            Segment next = createSegment(active.id() + 1);
+            MappedByteBuffer buffer = active.buffer();
+            if (writeOffset + 4 <= segmentBytes) {
+                INT.setRelease(buffer, writeOffset, END_OF_SEGMENT);
+            }
+            buffer.force();
+            active = next;
+            writeOffset = SEGMENT_HEADER_BYTES;
+            return true;
+        } catch (IOException | UncheckedIOException e) {
+            logger.error("Could not create audit spool segment in {}: {}", directory, e.getMessage());
+            return false;
+        }
+    }
+
+    private Segment createSegment(long id) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(id),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, 1);
+            segmentIds.add(id);
+            return new Segment(id, buffer);
+        }
+    }
+
+    private byte[] readRecord(long id, int offset) {
+        ByteBuffer buffer = buffer(id);
+        if (buffer == null || offset + RECORD_HEADER_BYTES > buffer.capacity()) {
+            return null;
+        }
+        int length = (int) INT.getAcquire(buffer, offset);
+        if (length <= 0 || length > buffer.capacity() - offset - RECORD_HEADER_BYTES) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(offset + RECORD_HEADER_BYTES, payload);
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+            logger.warn("Audit spool segment {} has a torn record at offset {}, skipping its remainder", id, offset);
+            return null;
+        }
+        return payload;
+    }
+
+    private ByteBuffer buffer(long id) {
+        Segment segment = active;
+        if (segment != null && segment.id() == id) {
+            return segment.buffer();
+        }
+        if (mappedId != id) {
+            mappedBuffer = null;
+            mappedId = id;
+            try (FileChannel channel = FileChannel.open(segmentPath(id), StandardOpenOption.READ)) {
+                // Sized from the file, so segments written before a segment-bytes change still replay
+                if (channel.size() >= SEGMENT_HEADER_BYTES && channel.size() <= Integer.MAX_VALUE) {
+                    ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    if (buffer.getInt(0) == MAGIC) {
+                        mappedBuffer = buffer;
+                    }
+                }
+                if (mappedBuffer == null) {
+                    logger.warn("Ignoring malformed audit spool segment {}", segmentPath(id));
+                }
+            } catch (IOException e) {
+                logger.warn("Could not map audit spool segment {}: {}", id, e.getMessage());
+            }
+        }
+        return mappedBuffer;
+    }
+
+    private void deleteSegmentsBefore(long id) {
+        for (Long old : new ArrayList<>(segmentIds.headSet(id))) {
+            try {
+                Files.deleteIfExists(segmentPath(old));
+                segmentIds.remove(old);
+                if (mappedId == old) {
+                    mappedId = -1;
+                    mappedBuffer = null;
+                }
+            } catch (IOException e) {
+                logger.warn("Could not delete shipped audit spool segment {}: {}", old, e.getMessage());
+            }
+        }
+    }
+
+    private Position loadCheckpoint() {
+        Path path = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+            if (buffer.remaining() != 16) {
+                throw new IOException("unexpected length " + buffer.remaining());
+            }
+            long id = buffer.getLong();
+            int offset = buffer.getInt();
+            if (buffer.getInt() != checkpointCrc(id, offset)) {
+                throw new IOException("checksum mismatch");
+            }
+            return new Position(id, offset);
+        } catch (IOException e) {
+            // Replaying from the oldest segment is safe: events carry their _id, so duplicates are rejected
+            logger.warn("Ignoring unreadable audit spool checkpoint: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void saveCheckpoint(Position position) {
+        ByteBuffer buffer = ByteBuffer.allocate(16)
+                .putLong(position.segmentId())
+                .putInt(position.offset())
+                .putInt(checkpointCrc(position.segmentId(), position.offset()));
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try {
+            Files.write(temp, buffer.array());
+            Files.move(temp, directory.resolve(CHECKPOINT_FILE),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // The next commit retries; until then a restart replays a little more
+            logger.warn("Could not save audit spool checkpoint: {}", e.getMessage());
+        }
+    }
+
+    private static int checkpointCrc(long id, int offset) {
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(12).putLong(id).putInt(offset).flip());
+        return (int) crc.getValue();
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    private static int align(int bytes) {
+        return (bytes + 3) & ~3;
+    }
+
+    public record Position(long segmentId, int offset) {
+    }
+
+    public record Batch(List<byte[]> records, Position end) {
+    }
+
+    private record Segment(long id, MappedByteBuffer buffer) {
+    }
+}
@@ -31,12 +31,11 @@ public class AuthenticationService {
     public void requestLoginOtp(String email) {
         logger.debug("Requesting login OTP for email: [REDACTED]");
         
-        // Check if user exists
-        userService.getUserByEmail(email)
-                .orElseThrow(() -> {
-                    logger.warn("Login attempt with non-existent email: [REDACTED]");
-                    return new com.kitchensink.exception.ResourceNotFoundException("User", email);
-                });
+        // Existence check only - unknown emails are usually rejected by the identifier filter without a query
+        if (!userService.emailExists(email)) {
+            logger.warn("Login attempt with non-existent email: [REDACTED]");
+            throw new com.kitchensink.exception.ResourceNotFoundException("User", email);
+        }
         
         // Generate and save OTP
         com.kitchensink.model.Otp otp = otpService.createOtp(email, "LOGIN");
@@ -1,8 +1,11 @@
 package com.kitchensink.service;
 
+import com.kitchensink.crypto.AesGcmCipher;
+import com.kitchensink.crypto.StripedPbeStringEncryptor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import org.jasypt.encryption.StringEncryptor;
-import org.jasypt.encryption.pbe.PooledPBEStringEncryptor;
-import org.jasypt.encryption.pbe.config.SimpleStringPBEConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,29 +14,69 @@ import org.springframework.stereotype.Service;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 @Service
 public class EncryptionService {
     
     private static final Logger logger = LoggerFactory.getLogger(EncryptionService.class);
+    static final String FORMAT_GCM = "gcm";
+    static final String FORMAT_PBE = "pbe";
+    private static final String GCM_SUFFIX = "g";
+    
     private final StringEncryptor currentEncryptor;
-    private final Map<String, StringEncryptor> legacyEncryptors;
+    private final Map<String, StringEncryptor> legacyEncryptors = new ConcurrentHashMap<>();
     private final String currentKeyVersion;
+    private final boolean writeGcm;
+    private final int defaultPoolSize;
+    private final Map<String, Integer> poolSizeOverrides;
+    private final MeterRegistry meterRegistry;
+    private final ForkJoinPool decryptPool;
+    private final int parallelThreshold;
+    private final Counter bulkDecryptFailures;
+    // Passwords per key version (current + legacy), used to build encryptors and AES-GCM keys on demand
+    private final Map<String, String> keyPasswords = new HashMap<>();
+    private final Map<String, AesGcmCipher> gcmCiphers = new ConcurrentHashMap<>();
     
     public EncryptionService(
             @Value("${app.encryption.password:default-secret-key-change-in-production}") String encryptionPassword,
             @Value("${app.encryption.key-version:1}") String keyVersion,
-            @Value("${app.encryption.legacy-keys:}") String legacyKeys) {
+            @Value("${app.encryption.legacy-keys:}") String legacyKeys,
+            @Value("${app.encryption.format:gcm}") String format,
+            @Value("${app.encryption.pool-size:0}") int poolSize,
+            @Value("${app.encryption.pool-sizes:}") String poolSizes,
+            @Value("${app.encryption.decrypt-parallelism:0}") int decryptParallelism,
+            @Value("${app.encryption.decrypt-parallel-threshold:16}") int parallelThreshold,
+            MeterRegistry meterRegistry) {
         this.currentKeyVersion = keyVersion;
-        this.currentEncryptor = createEncryptor(encryptionPassword);
-        this.legacyEncryptors = loadLegacyEncryptors(legacyKeys);
-        logger.info("EncryptionService initialized with key version: {}", keyVersion);
+        this.defaultPoolSize = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        this.poolSizeOverrides = parsePoolSizes(poolSizes);
+        this.meterRegistry = meterRegistry;
+        this.decryptPool = new ForkJoinPool(
+                decryptParallelism > 0 ? decryptParallelism : Runtime.getRuntime().availableProcessors());
+        this.parallelThreshold = parallelThreshold;
+        this.bulkDecryptFailures = Counter.builder("encryption.decrypt.bulk.failures")
+                .description("Values that failed to decrypt in a bulk decrypt")
+                .register(meterRegistry);
+        this.keyPasswords.put(keyVersion, encryptionPassword);
+        loadLegacyKeys(legacyKeys);
+        this.currentEncryptor = createEncryptor(keyVersion);
+        this.writeGcm = !FORMAT_PBE.equalsIgnoreCase(format);
+        if (writeGcm) {
+            // Derive the current master key eagerly so the first request does not pay for PBKDF2
+            gcmCipher(keyVersion);
+        }
+        logger.info("EncryptionService initialized with key version: {}, format: {}", 
+                keyVersion, writeGcm ? FORMAT_GCM : FORMAT_PBE);
     }
     
-    private Map<String, StringEncryptor> loadLegacyEncryptors(String legacyKeysConfig) {
-        Map<String, StringEncryptor> legacy = new HashMap<>();
+    private void loadLegacyKeys(String legacyKeysConfig) {
         if (legacyKeysConfig != null && !legacyKeysConfig.isEmpty()) {
           
         	String[] entries = legacyKeysConfig.split(",");
@@ -42,38 +85,73 @@ public class EncryptionService {
                 if (parts.length == 2) {
                     String version = parts[0].trim();
                     String password = parts[1].trim();
-                    legacy.put(version, createEncryptor(password));
+                    keyPasswords.put(version, password);
                     logger.info("Loaded legacy encryption key for version: {}", version);
                 }
             }
         }
-        return legacy;
     }
     
-    private StringEncryptor createEncryptor(String password) {
-        PooledPBEStringEncryptor encryptor = new PooledPBEStringEncryptor();
-        SimpleStringPBEConfig config = new SimpleStringPBEConfig();
-        config.setPassword(password);
-        config.setAlgorithm("PBEWITHHMACSHA512ANDAES_256");
-        config.setKeyObtentionIterations("1000");
-        config.setPoolSize("1");
-        config.setProviderName("SunJCE");
-        config.setSaltGeneratorClassName("org.jasypt.salt.RandomSaltGenerator");
-        config.setIvGeneratorClassName("org.jasypt.iv.RandomIvGenerator");
-        config.setStringOutputType("base64");
-        encryptor.setConfig(config);
-        return encryptor;
+    /**
+     * Parses per-version pool sizes, format: "version1:size1,version2:size2".
+     */
+    private Map<String, Integer> parsePoolSizes(String poolSizesConfig) {
+        Map<String, Integer> sizes = new HashMap<>();
+        if (poolSizesConfig != null && !poolSizesConfig.isEmpty()) {
+            for (String entry : poolSizesConfig.split(",")) {
+                String[] parts = entry.trim().split(":", 2);
+                if (parts.length == 2) {
+                    sizes.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+                }
+            }
+        }
+        return sizes;
+    }
+    
+    /**
+     * Returns the PBE encryptor for a legacy key version, creating its pool on first use.
+     */
+    private StringEncryptor legacyEncryptor(String version) {
+        if (!keyPasswords.containsKey(version)) {
+            return null;
+        }
+        return legacyEncryptors.computeIfAbsent(version, this::createEncryptor);
+    }
+    
+    /**
+     * Returns the AES-GCM cipher for a key version, deriving its master key on first use.
+     */
+    private AesGcmCipher gcmCipher(String version) {
+        return gcmCiphers.computeIfAbsent(version, v -> {
+            String password = keyPasswords.get(v);
+            if (password == null) {
+                logger.error("No encryptor found for key version: {}", v);
+                throw new RuntimeException("Cannot decrypt: unknown key version " + v);
+            }
+            logger.info("Derived AES-GCM master key for version: {}", v);
+            return AesGcmCipher.fromPassword(password, v);
+        });
+    }
+    
+    private StringEncryptor createEncryptor(String version) {
+        int poolSize = poolSizeOverrides.getOrDefault(version, defaultPoolSize);
+        logger.info("Creating PBE encryptor pool for key version: {} with {} stripes", version, poolSize);
+        return new StripedPbeStringEncryptor(keyPasswords.get(version), poolSize, version, meterRegistry);
     }
     
     /**
      * Encrypts data with current key version.
-     * Format: "v{version}:{encryptedData}"
+     * Format: "v{version}g:{encryptedData}" (AES-GCM), or "v{version}:{encryptedData}" (Jasypt PBE)
+     * when app.encryption.format=pbe.
      */
     public String encrypt(String plainText) {
         if (plainText == null || plainText.isEmpty()) {
             return plainText;
         }
         try {
+            if (writeGcm) {
+                return currentPrefix() + gcmCipher(currentKeyVersion).encrypt(plainText);
+            }
             String encrypted = currentEncryptor.encrypt(plainText);
             // Prefix with key version for rotation support
             return "v" + currentKeyVersion + ":" + encrypted;
@@ -100,20 +178,22 @@ public class EncryptionService {
                     String version = parts[0].substring(1); // Remove "v" prefix
                     String encryptedData = parts[1];
                     
+                    // AES-GCM envelope: "v{version}g:"
+                    if (version.endsWith(GCM_SUFFIX)) {
+                        return gcmCipher(version.substring(0, version.length() - 1)).decrypt(encryptedData);
+                    }
+                    
                     // Try current key first
                     if (version.equals(currentKeyVersion)) {
                         return currentEncryptor.decrypt(encryptedData);
                     }
                     
                     // Try legacy keys
-                    StringEncryptor legacyEncryptor = legacyEncryptors.get(version);
+                    StringEncryptor legacyEncryptor = legacyEncryptor(version);
                     if (legacyEncryptor != null) {
+                        // Re-encryption to the current version is done by KeyRotationMigrator
                         logger.debug("Decrypting with legacy key version: {}", version);
-                        String decrypted = legacyEncryptor.decrypt(encryptedData);
-                        // Auto-re-encrypt with current key (lazy re-encryption)
-                        logger.info("Auto re-encrypting data from version {} to {}", version, currentKeyVersion);
-                        return decrypted; // Note: Caller should re-encrypt and save
-                        // For automatic re-encryption, you'd need to update the entity here
+                        return legacyEncryptor.decrypt(encryptedData);
                     } else {
                         logger.error("No encryptor found for key version: {}", version);
                         throw new RuntimeException("Cannot decrypt: unknown key version " + version);
@@ -131,6 +211,87 @@ public class EncryptionService {
         }
     }
     
+    /**
+     * Returns true if a stored value was not written with the current key version and format.
+     */
+    public boolean needsReEncryption(String encryptedText) {
+        if (encryptedText == null || encryptedText.isEmpty()) {
+            return false;
+        }
+        return !encryptedText.startsWith(currentPrefix());
+    }
+    
+    /**
+     * Decrypts a value with whichever key wrote it and encrypts it again with the current key.
+     */
+    public String reEncrypt(String encryptedText) {
+        return encrypt(decrypt(encryptedText));
+    }
+    
+    public String getCurrentKeyVersion() {
+        return currentKeyVersion;
+    }
+    
+    /**
+     * Format new values are written in, {@value #FORMAT_GCM} or {@value #FORMAT_PBE}.
+     */
+    public String getCurrentFormat() {
+        return writeGcm ? FORMAT_GCM : FORMAT_PBE;
+    }
+    
+    private String currentPrefix() {
+        return "v" + currentKeyVersion + (writeGcm ? GCM_SUFFIX : "") + ":";
+    }
+    
+    /**
+     * Decrypts a batch of values, fanning out across the bulk decrypt pool once the batch
+     * reaches the parallel threshold. There is one result per input, in input order, and
+     * null/empty values come back as-is. Failures are per item: a value that cannot be decrypted
+     * (corrupt, or written with an unknown key version) yields a failed result and is counted in
+     * encryption.decrypt.bulk.failures, while the rest of the batch still decrypts.
+     */
+    public List<Decrypted> decryptAll(List<String> encryptedTexts) {
+        Decrypted[] results = new Decrypted[encryptedTexts.size()];
+        if (results.length < parallelThreshold) {
+            for (int i = 0; i < results.length; i++) {
+                results[i] = decryptCounted(encryptedTexts.get(i));
+            }
+        } else {
+            decryptPool.submit(() -> IntStream.range(0, results.length)
+                    .parallel()
+                    .forEach(i -> results[i] = decryptCounted(encryptedTexts.get(i))))
+                    .join();
+        }
+        return Arrays.asList(results);
+    }
+    
+    private Decrypted decryptCounted(String encryptedText) {
+        try {
+            return Decrypted.of(decrypt(encryptedText));
+        } catch (RuntimeException e) {
+            // decrypt has logged the cause
+            bulkDecryptFailures.increment();
+            return Decrypted.FAILED;
+        }
+    }
+    
+    /**
+     * Outcome of decrypting one value of a batch: the plain text, or a failure with no value.
+     */
+    public record Decrypted(String value, boolean failed) {
+        
+        static final Decrypted FAILED = new Decrypted(null, true);
+        
+        public static Decrypted of(String value) {
+            return new Decrypted(value, false);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        decryptPool.shutdown();
+    }
+    
     /**
      * Generates SHA-256 hash for indexing and uniqueness checks.
      * Hash is deterministic - same input always produces same hash.
@@ -0,0 +1,302 @@
+package com.kitchensink.service;
+
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background migrator that re-encrypts PII written with a legacy key version (or the legacy
+ * PBE format) to the current app.encryption.key-version.
+ * Collections are streamed in _id order in fixed-size batches; each batch is written with one
+ * unordered bulk operation and followed by a checkpoint, so a restarted run resumes after the
+ * last completed batch. Updates are guarded by the ciphertext that was read, so a concurrent
+ * user update is never overwritten.
+ */
+@Service
+public class KeyRotationMigrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeyRotationMigrator.class);
+    static final String CHECKPOINT_COLLECTION = "migration_checkpoints";
+    private static final String CHECKPOINT_PREFIX = "key-rotation:";
+
+    // Collection -> encrypted fields to migrate
+    private static final Map<String, List<String>> TARGETS = Map.of(
+            "users", List.of("emailEncrypted", "phoneNumberEncrypted"),
+            "update_requests", List.of("oldValueEncrypted", "newValueEncrypted"));
+    private static final List<String> COLLECTION_ORDER = List.of("users", "update_requests");
+
+    private final MongoTemplate mongoTemplate;
+    private final EncryptionService encryptionService;
+    private final int batchSize;
+    private final long throttleMillis;
+    private final boolean runOnStartup;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "key-rotation-migrator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean stopRequested = new AtomicBoolean();
+    private final Map<String, CollectionProgress> progress = new LinkedHashMap<>();
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String lastError;
+
+    public KeyRotationMigrator(MongoTemplate mongoTemplate, EncryptionService encryptionService,
+                               @Value("${app.encryption.rotation.batch-size:500}") int batchSize,
+                               @Value("${app.encryption.rotation.throttle-ms:100}") long throttleMillis,
+                               @Value("${app.encryption.rotation.run-on-startup:false}") boolean runOnStartup) {
+        this.mongoTemplate = mongoTemplate;
+        this.encryptionService = encryptionService;
+        this.batchSize = batchSize;
+        this.throttleMillis = throttleMillis;
+        this.runOnStartup = runOnStartup;
+        COLLECTION_ORDER.forEach(collection -> progress.put(collection, new CollectionProgress()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (runOnStartup) {
+            start();
+        }
+    }
+
+    /**
+     * Starts the migration in the background. Returns false if a run is already in progress.
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        stopRequested.set(false);
+        startedAt = Instant.now();
+        finishedAt = null;
+        lastError = null;
+        executor.submit(this::runAll);
+        return true;
+    }
+
+    /**
+     * Asks a running migration to stop after the current batch. Progress is kept in the checkpoint.
+     */
+    public void stop() {
+        stopRequested.set(true);
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    void runAll() {
+        try {
+            String targetVersion = encryptionService.getCurrentKeyVersion();
+            String targetFormat = encryptionService.getCurrentFormat();
+            logger.info("Key rotation started, target key version: {}, format: {}", targetVersion, targetFormat);
+            for (String collection : COLLECTION_ORDER) {
+                if (stopRequested.get()) {
+                    break;
+                }
+                migrateCollection(collection, TARGETS.get(collection), targetVersion, targetFormat);
+            }
+            logger.info("Key rotation {}", stopRequested.get() ? "stopped" : "finished");
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            logger.error("Key rotation failed", e);
+        } finally {
+            finishedAt = Instant.now();
+            running.set(false);
+        }
+    }
+
+    private void migrateCollection(String collection, List<String> fields, String targetVersion, String targetFormat) {
+        CollectionProgress state = progress.get(collection);
+        Document checkpoint = loadCheckpoint(collection, targetVersion, targetFormat);
+        Object lastId = checkpoint.get("lastId");
+        state.reset(checkpoint);
+        if (checkpoint.getBoolean("completed", false)) {
+            logger.info("Key rotation for {} already completed for version {} ({})", collection, targetVersion, targetFormat);
+            return;
+        }
+
+        while (!stopRequested.get()) {
+            Query query = new Query();
+            if (lastId != null) {
+                query.addCriteria(Criteria.where("_id").gt(lastId));
+            }
+            query.with(Sort.by(Sort.Direction.ASC, "_id")).limit(batchSize);
+            fields.forEach(field -> query.fields().include(field));
+
+            List<Document> batch = mongoTemplate.find(query, Document.class, collection);
+            if (batch.isEmpty()) {
+                saveCheckpoint(collection, targetVersion, targetFormat, lastId, state, true);
+                logger.info("Key rotation for {} completed: scanned {}, re-encrypted {}, failed {}",
+                        collection, state.scanned.get(), state.reEncrypted.get(), state.failed.get());
+                return;
+            }
+
+            migrateBatch(collection, fields, batch, state);
+            lastId = batch.get(batch.size() - 1).get("_id");
+            saveCheckpoint(collection, targetVersion, targetFormat, lastId, state, false);
+
+            if (throttleMillis > 0) {
+                try {
+                    Thread.sleep(throttleMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    stopRequested.set(true);
+                }
+            }
+        }
+    }
+
+    private void migrateBatch(String collection, List<String> fields, List<Document> batch, CollectionProgress state) {
+        BulkOperations bulkOps = null;
+        int pending = 0;
+
+        for (Document document : batch) {
+            state.scanned.incrementAndGet();
+            Query guard = new Query(Criteria.where("_id").is(document.get("_id")));
+            Update update = new Update();
+            boolean changed = false;
+
+            for (String field : fields) {
+                String value = document.getString(field);
+                if (!encryptionService.needsReEncryption(value)) {
+                    continue;
+                }
+                try {
+                    update.set(field, encryptionService.reEncrypt(value));
+                    guard.addCriteria(Criteria.where(field).is(value));
+                    changed = true;
+                } catch (RuntimeException e) {
+                    state.failed.incrementAndGet();
+                    logger.warn("Key rotation could not re-encrypt {}.{} for _id {}: {}",
+                            collection, field, document.get("_id"), e.getMessage());
+                }
+            }
+
+            if (changed) {
+                if (bulkOps == null) {
+                    bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+                }
+                bulkOps.updateOne(guard, update);
+                pending++;
+            }
+        }
+
+        if (pending > 0) {
+            int modified = bulkOps.execute().getModifiedCount();
+            state.reEncrypted.addAndGet(modified);
+            if (modified < pending) {
+                logger.debug("Key rotation skipped {} documents in {} changed concurrently", pending - modified, collection);
+            }
+        }
+    }
+
+    private Document loadCheckpoint(String collection, String targetVersion, String targetFormat) {
+        Document checkpoint = mongoTemplate.findById(CHECKPOINT_PREFIX + collection, Document.class, CHECKPOINT_COLLECTION);
+        if (checkpoint == null || !targetVersion.equals(checkpoint.getString("targetVersion"))
+                || !targetFormat.equals(checkpoint.getString("targetFormat"))) {
+            // No checkpoint, or one left over from rotating to a different version or format
+            // (pbe -> gcm keeps the version): start from the beginning
+            return new Document("targetVersion", targetVersion).append("targetFormat", targetFormat);
+        }
+        logger.info("Resuming key rotation for {} after _id {}", collection, checkpoint.get("lastId"));
+        return checkpoint;
+    }
+
+    private void saveCheckpoint(String collection, String targetVersion, String targetFormat, Object lastId,
+                                CollectionProgress state, boolean completed) {
+        Document checkpoint = new Document("_id", CHECKPOINT_PREFIX + collection)
+                .append("targetVersion", targetVersion)
+                .append("targetFormat", targetFormat)
+                .append("lastId", lastId)
+                .append("scanned", state.scanned.get())
+                .append("reEncrypted", state.reEncrypted.get())
+                .append("failed", state.failed.get())
+                .append("completed", completed)
+                .append("updatedAt", java.util.Date.from(Instant.now()));
+        mongoTemplate.findAndReplace(new Query(Criteria.where("_id").is(CHECKPOINT_PREFIX + collection)),
+                checkpoint, FindAndReplaceOptions.options().upsert(), Document.class, CHECKPOINT_COLLECTION);
+        state.completed = completed;
+    }
+
+    /**
+     * Progress snapshot for the actuator endpoint.
+     */
+    public Map<String, Object> getProgress() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("running", running.get());
+        result.put("targetKeyVersion", encryptionService.getCurrentKeyVersion());
+        result.put("targetFormat", encryptionService.getCurrentFormat());
+        result.put("batchSize", batchSize);
+        result.put("throttleMs", throttleMillis);
+        result.put("startedAt", startedAt);
+        result.put("finishedAt", finishedAt);
+
+        long elapsedSeconds = startedAt == null ? 0
+                : Duration.between(startedAt, finishedAt != null ? finishedAt : Instant.now()).toSeconds();
+        long scannedThisRun = 0;
+        Map<String, Object> collections = new LinkedHashMap<>();
+        for (Map.Entry<String, CollectionProgress> entry : progress.entrySet()) {
+            CollectionProgress state = entry.getValue();
+            scannedThisRun += state.scanned.get() - state.scannedAtResume;
+            collections.put(entry.getKey(), Map.of(
+                    "scanned", state.scanned.get(),
+                    "reEncrypted", state.reEncrypted.get(),
+                    "failed", state.failed.get(),
+                    "completed", state.completed));
+        }
+        result.put("collections", collections);
+        result.put("documentsPerSecond", elapsedSeconds > 0 ? scannedThisRun / elapsedSeconds : scannedThisRun);
+        if (lastError != null) {
+            result.put("lastError", lastError);
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopRequested.set(true);
+        executor.shutdown();
+    }
+
+    private static final class CollectionProgress {
+        private final AtomicLong scanned = new AtomicLong();
+        private final AtomicLong reEncrypted = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private volatile long scannedAtResume;
+        private volatile boolean completed;
+
+        private void reset(Document checkpoint) {
+            scanned.set(checkpoint.get("scanned", 0L));
+            reEncrypted.set(checkpoint.get("reEncrypted", 0L));
+            failed.set(checkpoint.get("failed", 0L));
+            scannedAtResume = scanned.get();
+            completed = checkpoint.getBoolean("completed", false);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.kitchensink.service;
 
 import com.kitchensink.dto.FieldUpdateRequestDTO;
 import com.kitchensink.dto.UpdateRequestResponseDTO;
+import com.kitchensink.dto.UserFieldSet;
 import com.kitchensink.dto.UserResponseDTO;
 import com.kitchensink.model.UpdateRequest;
 import com.kitchensink.model.User;
@@ -17,20 +18,24 @@ public class ProfileService {
     private final UpdateRequestService updateRequestService;
     private final OtpService otpService;
     private final EmailService emailService;
-    private final RoleService roleService;
+    private final UserResponseMapper userResponseMapper;
     
     public ProfileService(UserService userService, UpdateRequestService updateRequestService,
-                         OtpService otpService, EmailService emailService, RoleService roleService) {
+                         OtpService otpService, EmailService emailService, UserResponseMapper userResponseMapper) {
         this.userService = userService;
         this.updateRequestService = updateRequestService;
         this.otpService = otpService;
         this.emailService = emailService;
-        this.roleService = roleService;
+        this.userResponseMapper = userResponseMapper;
     }
     
     public UserResponseDTO getProfile(String userId) {
-        User user = userService.getUserById(userId);
-        return mapToResponseDTO(user);
+        return getProfile(userId, UserFieldSet.all());
+    }
+    
+    public UserResponseDTO getProfile(String userId, UserFieldSet fields) {
+        // Straight from the cached profile to the response, decrypting only what was asked for
+        return userResponseMapper.fromCache(userService.getUserCacheDTOById(userId), fields);
     }
     
     public UserResponseDTO updateFields(String userId, List<FieldUpdateRequestDTO> fieldUpdates, boolean isAdmin) {
@@ -111,7 +116,7 @@ public class ProfileService {
             emailService.sendEmailChangeConfirmation(oldEmail, email);
         }
         
-        return mapToResponseDTO(updated);
+        return userResponseMapper.fromUser(updated);
     }
     
     private void processUserUpdateRequest(String userId, FieldUpdateRequestDTO update) {
@@ -181,23 +186,4 @@ public class ProfileService {
     public void revokeUpdateRequest(String requestId, String userId) {
         updateRequestService.revokeRequest(requestId, userId);
     }
-    
-    private UserResponseDTO mapToResponseDTO(User user) {
-        UserResponseDTO dto = new UserResponseDTO();
-        dto.setId(user.getId());
-        dto.setName(user.getName());
-        dto.setEmail(user.getEmail());
-        dto.setIsdCode(user.getIsdCode());
-        dto.setPhoneNumber(user.getPhoneNumber());
-        dto.setDateOfBirth(user.getDateOfBirth());
-        dto.setAddress(user.getAddress());
-        dto.setCity(user.getCity());
-        dto.setCountry(user.getCountry());
-        dto.setRole(roleService.getRoleNameByUserId(user.getId()));
-        dto.setRegistrationDate(user.getRegistrationDate());
-        dto.setLastLoginDate(user.getLastLoginDate());
-        dto.setStatus(user.getStatus());
-        return dto;
-    }
 }
-
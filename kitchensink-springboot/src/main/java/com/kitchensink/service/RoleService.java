@@ -5,10 +5,20 @@ import com.kitchensink.model.UserRoleType;
 import com.kitchensink.repository.RoleRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class RoleService {
@@ -16,24 +26,31 @@ public class RoleService {
     private static final Logger logger = LoggerFactory.getLogger(RoleService.class);
     private final RoleRepository roleRepository;
     private final UserRoleService userRoleService;
+    private final CacheManager cacheManager;
     
-    public RoleService(RoleRepository roleRepository, UserRoleService userRoleService) {
+    public RoleService(RoleRepository roleRepository, UserRoleService userRoleService, CacheManager cacheManager) {
         this.roleRepository = roleRepository;
         this.userRoleService = userRoleService;
+        this.cacheManager = cacheManager;
     }
     
-    @Cacheable(value = "roleByName", key = "#name")
+    @Cacheable(value = "roleByName", key = "#name", sync = true)
     public Role getRoleByName(String name) {
         return roleRepository.findByName(name)
                 .orElseThrow(() -> new com.kitchensink.exception.ResourceNotFoundException("Role", name));
     }
     
-    @Cacheable(value = "roleById", key = "#id")
+    @Cacheable(value = "roleById", key = "#id", sync = true)
     public Role getRoleById(String id) {
         return roleRepository.findById(id)
                 .orElseThrow(() -> new com.kitchensink.exception.ResourceNotFoundException("Role", id));
     }
     
+    /**
+     * Creates the role unless one with this name exists. Evicts the name from roleByName either way,
+     * so a lookup that raced the creation cannot keep serving an outdated entry until the next refresh.
+     */
+    @CacheEvict(value = "roleByName", key = "#name")
     public Role createRoleIfNotExists(String name, String description) {
         Optional<Role> existing = roleRepository.findByName(name);
         if (existing.isPresent()) {
@@ -99,7 +116,7 @@ public class RoleService {
     /**
      * Get role name for a user (by userId)
      */
-    @Cacheable(value = "userCache", key = "'roleName:' + #userId")
+    @Cacheable(value = "userCache", key = "'roleName:' + #userId", sync = true)
     public String getRoleNameByUserId(String userId) {
         Optional<String> roleIdOpt = userRoleService.getRoleIdByUserId(userId);
         if (roleIdOpt.isEmpty()) {
@@ -109,6 +126,69 @@ public class RoleService {
         return role.getName();
     }
     
+    /**
+     * Get role names for many users at once, keyed by user ID. Warm userCache "roleName:" entries are used
+     * as-is; the rest are resolved with one $in query on user_roles plus the roleById cache (cold roles are
+     * loaded together), and written back so later single-user lookups hit the cache too.
+     * Users without an active role are absent from the map.
+     */
+    public Map<String, String> getRoleNamesByUserIds(Collection<String> userIds) {
+        Map<String, String> roleNames = new HashMap<>();
+        if (userIds == null || userIds.isEmpty()) {
+            return roleNames;
+        }
+        Cache userCache = cacheManager.getCache("userCache");
+        List<String> misses = new ArrayList<>();
+        for (String userId : userIds) {
+            String cached = userCache != null ? userCache.get("roleName:" + userId, String.class) : null;
+            if (cached != null) {
+                roleNames.put(userId, cached);
+            } else {
+                misses.add(userId);
+            }
+        }
+        if (misses.isEmpty()) {
+            return roleNames;
+        }
+        
+        Map<String, String> roleIdByUserId = userRoleService.getRoleIdsByUserIds(misses);
+        Map<String, String> roleNameByRoleId = getRoleNamesByIds(new HashSet<>(roleIdByUserId.values()));
+        roleIdByUserId.forEach((userId, roleId) -> {
+            String roleName = roleNameByRoleId.get(roleId);
+            if (roleName != null) {
+                roleNames.put(userId, roleName);
+                if (userCache != null) {
+                    userCache.put("roleName:" + userId, roleName);
+                }
+            }
+        });
+        logger.debug("Resolved roles for {} users ({} from cache)", userIds.size(), userIds.size() - misses.size());
+        return roleNames;
+    }
+    
+    private Map<String, String> getRoleNamesByIds(Set<String> roleIds) {
+        Map<String, String> roleNames = new HashMap<>();
+        Cache roleCache = cacheManager.getCache("roleById");
+        List<String> missing = new ArrayList<>();
+        for (String roleId : roleIds) {
+            Role cached = roleCache != null ? roleCache.get(roleId, Role.class) : null;
+            if (cached != null) {
+                roleNames.put(roleId, cached.getName());
+            } else {
+                missing.add(roleId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Role role : roleRepository.findAllById(missing)) {
+                roleNames.put(role.getId(), role.getName());
+                if (roleCache != null) {
+                    roleCache.put(role.getId(), role);
+                }
+            }
+        }
+        return roleNames;
+    }
+    
     /**
      * Get role ID for a user (by userId)
      */
@@ -7,6 +7,7 @@ import com.kitchensink.repository.UpdateRequestRepository;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -166,32 +167,44 @@ public class UpdateRequestService {
     
     public List<UpdateRequest> getPendingRequests() {
         List<UpdateRequest> requests = updateRequestRepository.findByStatusOrderByRequestedAtDesc("PENDING");
-        
-        requests.forEach(request -> {
-            if (request.getOldValueEncrypted() != null) {
-                request.setOldValue(encryptionService.decrypt(request.getOldValueEncrypted()));
-            }
-            if (request.getNewValueEncrypted() != null) {
-                request.setNewValue(encryptionService.decrypt(request.getNewValueEncrypted()));
-            }
-        });
-        
+        decryptValues(requests);
         return requests;
     }
     
     public List<UpdateRequest> getUserRequests(String userId) {
         List<UpdateRequest> requests = updateRequestRepository.findByUserIdOrderByRequestedAtDesc(userId);
-        
-        requests.forEach(request -> {
+        decryptValues(requests);
+        return requests;
+    }
+    
+    /**
+     * Decrypts old/new values for a list of requests in one bulk call, preserving order. A value that
+     * cannot be decrypted is left null and only its request is marked, so the rest of the list still loads.
+     */
+    private void decryptValues(List<UpdateRequest> requests) {
+        if (requests.isEmpty()) {
+            return;
+        }
+        List<String> encrypted = new ArrayList<>(requests.size() * 2);
+        for (UpdateRequest request : requests) {
+            encrypted.add(request.getOldValueEncrypted());
+            encrypted.add(request.getNewValueEncrypted());
+        }
+        List<EncryptionService.Decrypted> decrypted = encryptionService.decryptAll(encrypted);
+        for (int i = 0; i < requests.size(); i++) {
+            UpdateRequest request = requests.get(i);
+            EncryptionService.Decrypted oldValue = decrypted.get(2 * i);
+            EncryptionService.Decrypted newValue = decrypted.get(2 * i + 1);
             if (request.getOldValueEncrypted() != null) {
-                request.setOldValue(encryptionService.decrypt(request.getOldValueEncrypted()));
+                request.setOldValue(oldValue.value());
             }
             if (request.getNewValueEncrypted() != null) {
-                request.setNewValue(encryptionService.decrypt(request.getNewValueEncrypted()));
+                request.setNewValue(newValue.value());
             }
-        });
-        
-        return requests;
+            if (oldValue.failed() || newValue.failed()) {
+                request.setDecryptionFailed(true);
+            }
+        }
     }
     
     public UpdateRequestResponseDTO approveRequest(String requestId, String adminId) {
@@ -259,17 +272,24 @@ public class UpdateRequestService {
         dto.setFieldName(request.getFieldName());
         dto.setStatus(request.getStatus());
         
-        // Decrypt values for response
-        if (request.getOldValueEncrypted() != null) {
-            dto.setOldValue(encryptionService.decrypt(request.getOldValueEncrypted()));
-        } else {
+        // Decrypt values for response, reusing values already decrypted by the list queries
+        if (request.isDecryptionFailed()) {
+            // The list query could not decrypt one of them; keep what it got rather than failing the response
             dto.setOldValue(request.getOldValue());
-        }
-        
-        if (request.getNewValueEncrypted() != null) {
-            dto.setNewValue(encryptionService.decrypt(request.getNewValueEncrypted()));
-        } else {
             dto.setNewValue(request.getNewValue());
+            dto.setDecryptionFailed(true);
+        } else {
+            if (request.getOldValue() == null && request.getOldValueEncrypted() != null) {
+                dto.setOldValue(encryptionService.decrypt(request.getOldValueEncrypted()));
+            } else {
+                dto.setOldValue(request.getOldValue());
+            }
+            
+            if (request.getNewValue() == null && request.getNewValueEncrypted() != null) {
+                dto.setNewValue(encryptionService.decrypt(request.getNewValueEncrypted()));
+            } else {
+                dto.setNewValue(request.getNewValue());
+            }
         }
         
         dto.setRequestedAt(request.getRequestedAt());
@@ -0,0 +1,178 @@
+package com.kitchensink.service;
+
+import com.kitchensink.model.User;
+import com.kitchensink.model.UserRoleType;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * User counts (total, non-admin, per status) kept in a single user_counters document.
+ * Writers apply atomic $inc deltas, so list endpoints read one document instead of counting the
+ * users collection; a scheduled reconcile recounts from Mongo and overwrites any drift.
+ * A user without an active role counts as non-admin, matching the admin exclusion in the user list.
+ */
+@Component
+public class UserCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserCounters.class);
+    static final String COLLECTION = "user_counters";
+    static final String DOCUMENT_ID = "users";
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+
+    public UserCounters(MongoTemplate mongoTemplate,
+                        @Value("${app.users.counters.enabled:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Current counts, or null when counters are disabled or have not been reconciled yet.
+     */
+    public Snapshot snapshot() {
+        if (!enabled) {
+            return null;
+        }
+        try {
+            Document document = mongoTemplate.findById(DOCUMENT_ID, Document.class, COLLECTION);
+            if (document == null || document.get("reconciledAt") == null) {
+                return null;
+            }
+            Map<String, Long> byStatus = new LinkedHashMap<>();
+            Document statuses = document.get("status", Document.class);
+            if (statuses != null) {
+                statuses.forEach((status, count) -> byStatus.put(status, ((Number) count).longValue()));
+            }
+            return new Snapshot(number(document, "total"), number(document, "nonAdmin"),
+                    Collections.unmodifiableMap(byStatus), document.getDate("reconciledAt").toInstant());
+        } catch (Exception e) {
+            logger.warn("Could not read user counters: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    public void onUserCreated(String status) {
+        apply(new Update().inc("total", 1).inc("nonAdmin", 1).inc(statusField(status), 1));
+    }
+
+    /**
+     * Must be called after the user's role assignment has been deactivated, so the user is counted as non-admin.
+     */
+    public void onUserDeleted(String status) {
+        apply(new Update().inc("total", -1).inc("nonAdmin", -1).inc(statusField(status), -1));
+    }
+
+    public void onRoleChanged(boolean wasAdmin, boolean isAdmin) {
+        if (wasAdmin == isAdmin) {
+            return;
+        }
+        apply(new Update().inc("nonAdmin", isAdmin ? -1 : 1));
+    }
+
+    private void apply(Update update) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            mongoTemplate.upsert(new Query(Criteria.where("_id").is(DOCUMENT_ID)), update, COLLECTION);
+        } catch (Exception e) {
+            // The write itself succeeded; the next reconcile corrects the counters
+            logger.warn("Could not update user counters: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recounts from Mongo and replaces the counters document. Increments racing with the recount
+     * may be lost until the next run, which is why served totals are flagged approximate.
+     */
+    @Scheduled(initialDelayString = "${app.users.counters.reconcile-initial-delay-ms:10000}",
+            fixedDelayString = "${app.users.counters.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long total = mongoTemplate.count(new Query(), User.class);
+            long nonAdmin = mongoTemplate.count(
+                    new Query(Criteria.where("role").ne(UserRoleType.ADMIN.getName())), User.class);
+            Document byStatus = new Document();
+            mongoTemplate.aggregate(Aggregation.newAggregation(Aggregation.group("status").count().as("count")),
+                            User.class, Document.class)
+                    .forEach(row -> byStatus.append(statusKey(row.getString("_id")), ((Number) row.get("count")).longValue()));
+
+            Document counters = new Document("_id", DOCUMENT_ID)
+                    .append("total", total)
+                    .append("nonAdmin", nonAdmin)
+                    .append("status", byStatus)
+                    .append("reconciledAt", Date.from(Instant.now()));
+            mongoTemplate.findAndReplace(new Query(Criteria.where("_id").is(DOCUMENT_ID)), counters,
+                    FindAndReplaceOptions.options().upsert(), Document.class, COLLECTION);
+            logger.debug("User counters reconciled: total={}, nonAdmin={}, status={}", total, nonAdmin, byStatus.toJson());
+        } catch (Exception e) {
+            logger.warn("User counter reconcile failed: {}", e.getMessage());
+        }
+    }
+
+    private static String statusField(String status) {
+        return "status." + statusKey(status);
+    }
+
+    private static String statusKey(String status) {
+        return status == null || status.isEmpty() ? "UNKNOWN" : status;
+    }
+
+    private static long number(Document document, String field) {
+        Object value = document.get(field);
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+
+    /**
+     * Point-in-time counts read from the counters document.
+     */
+    public static final class Snapshot {
+        private final long total;
+        private final long nonAdmin;
+        private final Map<String, Long> byStatus;
+        private final Instant reconciledAt;
+
+        Snapshot(long total, long nonAdmin, Map<String, Long> byStatus, Instant reconciledAt) {
+            this.total = total;
+            this.nonAdmin = nonAdmin;
+            this.byStatus = byStatus;
+            this.reconciledAt = reconciledAt;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public long getNonAdmin() {
+            return Math.max(nonAdmin, 0);
+        }
+
+        public Map<String, Long> getByStatus() {
+            return byStatus;
+        }
+
+        public Instant getReconciledAt() {
+            return reconciledAt;
+        }
+    }
+}
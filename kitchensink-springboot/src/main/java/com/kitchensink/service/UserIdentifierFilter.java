@@ -0,0 +1,302 @@
+package com.kitchensink.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * In-memory Bloom filter over every stored emailHash and phoneNumberHash, so existence checks for an
+ * identifier that was never registered are answered without a Mongo round trip. A "no" is definite;
+ * a "maybe" still goes to Mongo, and a maybe that Mongo denies is counted as a false positive.
+ * Built by streaming only the two hash fields at startup and on a schedule. Creates and updates add
+ * their hashes before the write (and adds from the last minute are replayed onto each rebuilt filter,
+ * covering writes that raced the build); deletes and replaced hashes cannot be removed from a Bloom filter
+ * and simply linger as false positives until the next rebuild. Until the first build finishes every
+ * check is a maybe.
+ * Users written by other nodes are only added through the change-stream listener, so the filter stays
+ * off (every check a maybe) unless app.cache.invalidation.enabled=true as well; otherwise a user
+ * registered on another node would get definite misses here until the next rebuild.
+ */
+@Component
+public class UserIdentifierFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserIdentifierFilter.class);
+    private static final String USERS = "users";
+    // Adds this recent are replayed onto a freshly built filter, covering writes that raced the build
+    private static final long REPLAY_WINDOW_MILLIS = 60_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final long minExpectedInsertions;
+    private final double targetFalsePositiveRate;
+    private final Counter definiteMisses;
+    private final Counter maybeHits;
+    private final Counter falsePositives;
+
+    private volatile Bits bits;
+    // Receives writes made while a rebuild streams the collection
+    private volatile Bits building;
+    private final ConcurrentLinkedQueue<RecentAdd> recentAdds = new ConcurrentLinkedQueue<>();
+    // Bumped by invalidate() so a build already streaming when writes were missed is not swapped in
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public UserIdentifierFilter(MongoTemplate mongoTemplate,
+                                @Value("${app.users.identifier-filter.enabled:true}") boolean enabled,
+                                @Value("${app.cache.invalidation.enabled:false}") boolean invalidationEnabled,
+                                @Value("${app.users.identifier-filter.expected-insertions:100000}") long minExpectedInsertions,
+                                @Value("${app.users.identifier-filter.false-positive-rate:0.01}") double targetFalsePositiveRate,
+                                MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled && invalidationEnabled;
+        if (enabled && !invalidationEnabled) {
+            logger.info("User identifier filter disabled: it needs app.cache.invalidation.enabled=true to see users created on other nodes");
+        }
+        this.minExpectedInsertions = minExpectedInsertions;
+        this.targetFalsePositiveRate = targetFalsePositiveRate;
+        this.definiteMisses = Counter.builder("users.identifier.filter.checks")
+                .description("Identifier existence checks answered by the Bloom filter")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.maybeHits = Counter.builder("users.identifier.filter.checks")
+                .description("Identifier existence checks answered by the Bloom filter")
+                .tag("result", "maybe")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("users.identifier.filter.false.positives")
+                .description("Filter maybes for identifiers Mongo did not have")
+                .register(meterRegistry);
+        Gauge.builder("users.identifier.filter.fpp.expected", this, UserIdentifierFilter::expectedFalsePositiveRate)
+                .description("False-positive rate predicted from the filter's fill ratio")
+                .register(meterRegistry);
+        Gauge.builder("users.identifier.filter.fpp.observed", this, UserIdentifierFilter::observedFalsePositiveRate)
+                .description("False positives over all checks for identifiers that did not exist")
+                .register(meterRegistry);
+    }
+
+    /**
+     * True once the first build has finished; until then {@link #mightContain} always answers maybe.
+     */
+    public boolean isReady() {
+        return bits != null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            Thread builder = new Thread(this::rebuild, "user-identifier-filter-build");
+            builder.setDaemon(true);
+            builder.start();
+        }
+    }
+
+    /**
+     * Streams every stored hash into a fresh filter sized for the current user count and swaps it in,
+     * which also drops identifiers of deleted users and replaced emails or phone numbers.
+     */
+    @Scheduled(initialDelayString = "${app.users.identifier-filter.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${app.users.identifier-filter.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        long generation = invalidations.get();
+        try {
+            // Two identifiers per user, with room to double before the next rebuild
+            long expected = Math.max(minExpectedInsertions, mongoTemplate.estimatedCount(USERS) * 4);
+            Bits fresh = Bits.create(expected, targetFalsePositiveRate);
+            building = fresh;
+            Query query = new Query();
+            query.fields().include("emailHash").include("phoneNumberHash").exclude("_id");
+            try (Stream<Document> hashes = mongoTemplate.stream(query, Document.class, USERS)) {
+                hashes.forEach(document -> {
+                    fresh.put(document.getString("emailHash"));
+                    fresh.put(document.getString("phoneNumberHash"));
+                });
+            }
+            long replayFrom = started - REPLAY_WINDOW_MILLIS;
+            for (RecentAdd recent : recentAdds) {
+                if (recent.atMillis() >= replayFrom) {
+                    fresh.put(recent.hash());
+                }
+            }
+            if (invalidations.get() != generation) {
+                logger.info("User identifier filter invalidated during build, discarding it");
+                return;
+            }
+            bits = fresh;
+            logger.info("User identifier filter built: {} identifiers, {} bits, {} hashes, expected fpp {} in {} ms",
+                    fresh.insertions.get(), fresh.numBits, fresh.numHashes,
+                    String.format("%.5f", fresh.expectedFalsePositiveRate()), System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            logger.error("User identifier filter build failed: {}", e.getMessage(), e);
+        } finally {
+            building = null;
+        }
+    }
+
+    /**
+     * Drops the current filter, so every check answers maybe until the next {@link #rebuild} finishes. For when
+     * writes from other nodes may have been missed and the filter could hold false definite misses.
+     */
+    public void invalidate() {
+        invalidations.incrementAndGet();
+        bits = null;
+    }
+
+    /**
+     * Records an identifier about to be stored. Call before the write so a concurrent check can never
+     * see a definite miss for an identifier that already exists.
+     */
+    public void add(String hash) {
+        if (!enabled || hash == null) {
+            return;
+        }
+        Bits current = bits;
+        if (current != null) {
+            current.put(hash);
+        }
+        Bits next = building;
+        if (next != null) {
+            next.put(hash);
+        }
+        long now = System.currentTimeMillis();
+        recentAdds.add(new RecentAdd(hash, now));
+        RecentAdd oldest;
+        while ((oldest = recentAdds.peek()) != null && oldest.atMillis() < now - REPLAY_WINDOW_MILLIS) {
+            recentAdds.poll();
+        }
+    }
+
+    /**
+     * False only when no user has this email or phone hash; true means the caller must ask Mongo.
+     */
+    public boolean mightContain(String hash) {
+        Bits current = bits;
+        if (!enabled || current == null || hash == null) {
+            return true;
+        }
+        if (current.mightContain(hash)) {
+            maybeHits.increment();
+            return true;
+        }
+        definiteMisses.increment();
+        return false;
+    }
+
+    /**
+     * Reports that Mongo had no user for an identifier this filter answered maybe for.
+     */
+    public void recordFalsePositive() {
+        if (enabled && bits != null) {
+            falsePositives.increment();
+        }
+    }
+
+    double expectedFalsePositiveRate() {
+        Bits current = bits;
+        return current != null ? current.expectedFalsePositiveRate() : 0.0;
+    }
+
+    double observedFalsePositiveRate() {
+        double negatives = falsePositives.count() + definiteMisses.count();
+        return negatives > 0 ? falsePositives.count() / negatives : 0.0;
+    }
+
+    private record RecentAdd(String hash, long atMillis) {
+    }
+
+    /**
+     * Lock-free bit array probed with double hashing: k indexes h1 + i * h2 derived from one pass over the key.
+     */
+    static final class Bits {
+        private final AtomicLongArray words;
+        private final long numBits;
+        private final int numHashes;
+        private final AtomicLong bitsSet = new AtomicLong();
+        private final AtomicLong insertions = new AtomicLong();
+
+        private Bits(long numBits, int numHashes) {
+            this.words = new AtomicLongArray((int) ((numBits + 63) / 64));
+            this.numBits = numBits;
+            this.numHashes = numHashes;
+        }
+
+        static Bits create(long expectedInsertions, double falsePositiveRate) {
+            long n = Math.max(expectedInsertions, 1);
+            double p = Math.min(Math.max(falsePositiveRate, 1e-9), 0.5);
+            long numBits = Math.max(64, (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2))));
+            int numHashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+            return new Bits(numBits, numHashes);
+        }
+
+        void put(String key) {
+            if (key == null) {
+                return;
+            }
+            long h1 = hash(key, 0x9E3779B97F4A7C15L);
+            long h2 = hash(key, 0xC2B2AE3D27D4EB4FL) | 1;
+            for (int i = 0; i < numHashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, numBits);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long previous;
+                do {
+                    previous = words.get(word);
+                    if ((previous & mask) != 0) {
+                        break;
+                    }
+                } while (!words.compareAndSet(word, previous, previous | mask));
+                if ((previous & mask) == 0) {
+                    bitsSet.incrementAndGet();
+                }
+            }
+            insertions.incrementAndGet();
+        }
+
+        boolean mightContain(String key) {
+            long h1 = hash(key, 0x9E3779B97F4A7C15L);
+            long h2 = hash(key, 0xC2B2AE3D27D4EB4FL) | 1;
+            for (int i = 0; i < numHashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, numBits);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        double expectedFalsePositiveRate() {
+            return Math.pow((double) bitsSet.get() / numBits, numHashes);
+        }
+
+        // FNV-1a over the chars with a murmur3 finalizer; keys are already uniform hex digests
+        private static long hash(String key, long seed) {
+            long h = seed;
+            for (int i = 0; i < key.length(); i++) {
+                h ^= key.charAt(i);
+                h *= 0x100000001B3L;
+            }
+            h ^= h >>> 33;
+            h *= 0xFF51AFD7ED558CCDL;
+            h ^= h >>> 33;
+            h *= 0xC4CEB9FE1A85EC53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.kitchensink.service;
+
+import com.kitchensink.model.User;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * First-level cache of decrypted users for the current HTTP request, stored as a request attribute so it
+ * is dropped with the request. Two kinds of entry:
+ * <ul>
+ *   <li>entities, loaded from Mongo for a write and safe to modify and save;</li>
+ *   <li>read views, built from the profile cache with both PII fields decrypted, handed to readers only.</li>
+ * </ul>
+ * A reader gets whichever is present; a writer only reuses an entity, so a save never starts from cached
+ * data. Every user write must {@link #putEntity} what it saved or {@link #evict} the id.
+ * Outside a request (schedulers, listeners, startup) nothing is remembered and every call loads.
+ */
+@Component
+public class UserIdentityMap {
+
+    static final String ATTRIBUTE = UserIdentityMap.class.getName();
+
+    /**
+     * Any decrypted user already seen in this request, or null.
+     */
+    public User find(String id) {
+        Map<String, Entry> entries = entries(false);
+        Entry entry = entries != null ? entries.get(id) : null;
+        return entry != null ? entry.user() : null;
+    }
+
+    /**
+     * The entity loaded earlier in this request, or the loader's result, remembered for later calls.
+     */
+    public User getEntity(String id, Function<String, User> loader) {
+        Map<String, Entry> entries = entries(true);
+        if (entries == null) {
+            return loader.apply(id);
+        }
+        Entry entry = entries.get(id);
+        if (entry != null && entry.entity()) {
+            return entry.user();
+        }
+        User user = loader.apply(id);
+        entries.put(id, new Entry(user, true));
+        return user;
+    }
+
+    /**
+     * Remembers a fully decrypted read view unless an entity is already known.
+     */
+    public void putView(User user) {
+        Map<String, Entry> entries = entries(true);
+        if (entries != null && user.getId() != null) {
+            entries.putIfAbsent(user.getId(), new Entry(user, false));
+        }
+    }
+
+    /**
+     * Remembers the entity as saved, replacing whatever was known for the id.
+     */
+    public void putEntity(User user) {
+        Map<String, Entry> entries = entries(true);
+        if (entries != null && user.getId() != null) {
+            entries.put(user.getId(), new Entry(user, true));
+        }
+    }
+
+    public void evict(String id) {
+        Map<String, Entry> entries = entries(false);
+        if (entries != null) {
+            entries.remove(id);
+        }
+    }
+
+    // Concurrent because AsyncConfig hands the request attributes to @Async threads
+    @SuppressWarnings("unchecked")
+    private Map<String, Entry> entries(boolean create) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Map<String, Entry> entries = (Map<String, Entry>) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (entries == null && create) {
+            synchronized (attributes) {
+                entries = (Map<String, Entry>) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+                if (entries == null) {
+                    entries = new ConcurrentHashMap<>();
+                    attributes.setAttribute(ATTRIBUTE, entries, RequestAttributes.SCOPE_REQUEST);
+                }
+            }
+        }
+        return entries;
+    }
+
+    private record Entry(User user, boolean entity) {
+    }
+}
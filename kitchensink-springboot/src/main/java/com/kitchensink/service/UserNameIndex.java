@@ -0,0 +1,486 @@
+package com.kitchensink.service;
+
+import com.kitchensink.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-process index for case-insensitive substring search over user names, with the user _id as payload.
+ * Queries of three or more characters scan the rarest of their trigram posting lists and verify each
+ * candidate; shorter queries are answered from word-prefix postings and only scan when those cannot fill
+ * the page. Results are ranked: name prefix, then word start, then any other position; ties go to the
+ * shorter name, then the earlier indexed user. Ranking keys are packed into longs so no per-candidate
+ * objects are allocated.
+ * Built from Mongo at startup and on a schedule, and kept current by the user write paths in between.
+ */
+@Component
+public class UserNameIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserNameIndex.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final int maxResults;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private Postings postings = new Postings();
+    private List<String[]> pendingDuringBuild;
+    private volatile boolean ready;
+
+    public UserNameIndex(MongoTemplate mongoTemplate,
+                         @Value("${app.search.name-index.enabled:true}") boolean enabled,
+                         @Value("${app.search.name-index.max-results:100}") int maxResults) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * True once the first build has finished; callers fall back to a Mongo query until then.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Upper bound on results returned by list-style searches.
+     */
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            Thread builder = new Thread(this::rebuild, "user-name-index-build");
+            builder.setDaemon(true);
+            builder.start();
+        }
+    }
+
+    /**
+     * Reloads every user name from Mongo into a fresh index and swaps it in. Writes made while the
+     * build runs are replayed onto the new index, and tombstones left by renames and deletes are dropped.
+     */
+    @Scheduled(initialDelayString = "${app.search.name-index.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${app.search.name-index.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pendingDuringBuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Postings fresh = new Postings();
+        try {
+            Query query = new Query();
+            query.fields().include("name");
+            try (Stream<User> users = mongoTemplate.stream(query, User.class)) {
+                users.forEach(user -> fresh.put(user.getId(), user.getName()));
+            }
+        } catch (Exception e) {
+            logger.error("User name index build failed: {}", e.getMessage(), e);
+            lock.writeLock().lock();
+            try {
+                pendingDuringBuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (String[] write : pendingDuringBuild) {
+                if (write[1] == null) {
+                    fresh.remove(write[0]);
+                } else {
+                    fresh.put(write[0], write[1]);
+                }
+            }
+            pendingDuringBuild = null;
+            postings = fresh;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("User name index built: {} names in {} ms", fresh.liveCount(), System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Adds a user or replaces their indexed name.
+     */
+    public void put(String userId, String name) {
+        if (userId == null || !enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            postings.put(userId, name);
+            if (pendingDuringBuild != null) {
+                pendingDuringBuild.add(new String[] {userId, name == null ? "" : name});
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String userId) {
+        if (userId == null || !enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            postings.remove(userId);
+            if (pendingDuringBuild != null) {
+                pendingDuringBuild.add(new String[] {userId, null});
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Slots left behind by renames and deletes until the next rebuild
+    int tombstoneCount() {
+        lock.readLock().lock();
+        try {
+            return postings.tombstoneCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranked page of user ids whose name contains the query, ignoring case.
+     *
+     * @param excludedIds ids never returned (e.g. admins); may be empty
+     */
+    public SearchPage search(String query, int offset, int limit, Set<String> excludedIds) {
+        String needle = normalize(query);
+        if (needle.isEmpty() || limit <= 0) {
+            return new SearchPage(Collections.emptyList(), false);
+        }
+        // One extra hit tells the caller whether another page exists
+        int wanted = offset + limit + 1;
+        lock.readLock().lock();
+        try {
+            List<String> ranked = postings.search(needle, wanted, excludedIds);
+            boolean hasMore = ranked.size() > offset + limit;
+            List<String> ids = new ArrayList<>(limit);
+            for (int i = offset; i < Math.min(ranked.size(), offset + limit); i++) {
+                ids.add(ranked.get(i));
+            }
+            return new SearchPage(ids, hasMore);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * One page of matching user ids, best match first.
+     */
+    public static final class SearchPage {
+        private final List<String> userIds;
+        private final boolean hasMore;
+
+        SearchPage(List<String> userIds, boolean hasMore) {
+            this.userIds = userIds;
+            this.hasMore = hasMore;
+        }
+
+        public List<String> getUserIds() {
+            return userIds;
+        }
+
+        public boolean isHasMore() {
+            return hasMore;
+        }
+    }
+
+    /**
+     * The index data. Documents get increasing int ids so every posting list stays sorted;
+     * a rename or delete tombstones the old document instead of editing posting lists.
+     */
+    private static final class Postings {
+        private String[] userIds = new String[1024];
+        private String[] names = new String[1024];
+        // Name lengths kept alongside so candidates can be pruned without touching the string
+        private char[] lengths = new char[1024];
+        private int documentCount;
+        private int liveCount;
+        private final Map<String, Integer> documentByUserId = new HashMap<>();
+        private final Map<Long, IntList> trigrams = new HashMap<>();
+        // 1- and 2-character prefixes of each word, for queries too short for trigrams
+        private final Map<Long, IntList> wordPrefixes = new HashMap<>();
+
+        void put(String userId, String name) {
+            String normalized = normalize(name);
+            Integer existing = documentByUserId.get(userId);
+            if (existing != null && normalized.equals(names[existing])) {
+                // Most user writes do not touch the name; re-adding would only leave a tombstone behind
+                return;
+            }
+            remove(userId);
+            if (documentCount == names.length) {
+                userIds = Arrays.copyOf(userIds, documentCount * 2);
+                names = Arrays.copyOf(names, documentCount * 2);
+                lengths = Arrays.copyOf(lengths, documentCount * 2);
+            }
+            int document = documentCount++;
+            userIds[document] = userId;
+            names[document] = normalized;
+            lengths[document] = (char) Math.min(normalized.length(), Character.MAX_VALUE);
+            documentByUserId.put(userId, document);
+            liveCount++;
+
+            for (int i = 0; i + 3 <= normalized.length(); i++) {
+                addPosting(trigrams, key(normalized, i, 3), document);
+            }
+            for (int i = 0; i < normalized.length(); i++) {
+                if (isWordStart(normalized, i)) {
+                    addPosting(wordPrefixes, key(normalized, i, 1), document);
+                    if (i + 2 <= normalized.length()) {
+                        addPosting(wordPrefixes, key(normalized, i, 2), document);
+                    }
+                }
+            }
+        }
+
+        void remove(String userId) {
+            Integer document = documentByUserId.remove(userId);
+            if (document != null) {
+                names[document] = null;
+                liveCount--;
+            }
+        }
+
+        int liveCount() {
+            return liveCount;
+        }
+
+        int tombstoneCount() {
+            return documentCount - liveCount;
+        }
+
+        List<String> search(String needle, int wanted, Set<String> excludedIds) {
+            TopKeys best = new TopKeys(wanted);
+            if (needle.length() >= 3) {
+                IntList candidates = rarestTrigram(needle);
+                if (candidates != null) {
+                    collect(candidates, needle, excludedIds, best, -1);
+                }
+            } else {
+                IntList wordMatches = wordPrefixes.get(key(needle, 0, needle.length()));
+                if (wordMatches != null) {
+                    collect(wordMatches, needle, excludedIds, best, -1);
+                }
+                if (!best.isFull()) {
+                    // Not enough prefix/word-start hits: infix matches rank below them, so scan for those only
+                    collect(null, needle, excludedIds, best, 2);
+                }
+            }
+            long[] keys = best.sorted();
+            List<String> ranked = new ArrayList<>(keys.length);
+            for (long key : keys) {
+                ranked.add(userIds[(int) (key & DOCUMENT_MASK)]);
+            }
+            return ranked;
+        }
+
+        private void collect(IntList candidates, String needle, Set<String> excludedIds, TopKeys best, int onlyRank) {
+            boolean excluding = excludedIds != null && !excludedIds.isEmpty();
+            int count = candidates != null ? candidates.size : documentCount;
+            for (int i = 0; i < count; i++) {
+                int document = candidates != null ? candidates.values[i] : i;
+                // rank | name length | document: smaller is better
+                long lengthAndDocument = ((long) lengths[document] << 32) | document;
+                if (!best.accepts(((long) Math.max(onlyRank, 0) << RANK_SHIFT) | lengthAndDocument)) {
+                    // Even the best possible rank would not make the page
+                    continue;
+                }
+                String name = names[document];
+                if (name == null) {
+                    continue;
+                }
+                int rank = rank(name, needle);
+                if (rank < 0 || (onlyRank >= 0 && rank != onlyRank)) {
+                    continue;
+                }
+                long key = ((long) rank << RANK_SHIFT) | lengthAndDocument;
+                if (!best.accepts(key)) {
+                    continue;
+                }
+                if (excluding && excludedIds.contains(userIds[document])) {
+                    continue;
+                }
+                best.offer(key);
+            }
+        }
+
+        // Every match contains each of the query's trigrams, so the shortest list is a complete candidate set
+        private IntList rarestTrigram(String needle) {
+            IntList rarest = null;
+            for (int i = 0; i + 3 <= needle.length(); i++) {
+                IntList list = trigrams.get(key(needle, i, 3));
+                if (list == null) {
+                    return null;
+                }
+                if (rarest == null || list.size < rarest.size) {
+                    rarest = list;
+                }
+            }
+            return rarest;
+        }
+
+        private static void addPosting(Map<Long, IntList> index, long key, int document) {
+            IntList list = index.computeIfAbsent(key, k -> new IntList());
+            // A name can contain the same gram twice
+            if (list.size == 0 || list.values[list.size - 1] != document) {
+                list.add(document);
+            }
+        }
+
+        // 0 = name prefix, 1 = start of a later word, 2 = elsewhere, -1 = no match
+        private static int rank(String name, String needle) {
+            int position = name.indexOf(needle);
+            if (position <= 0) {
+                return position;
+            }
+            for (int at = position; at >= 0; at = name.indexOf(needle, at + 1)) {
+                if (isWordStart(name, at)) {
+                    return 1;
+                }
+            }
+            return 2;
+        }
+
+        private static boolean isWordStart(String name, int position) {
+            return position == 0 || !Character.isLetterOrDigit(name.charAt(position - 1));
+        }
+
+        // Packs up to three UTF-16 chars (plus the length) into one key
+        private static long key(String value, int start, int length) {
+            long key = length;
+            for (int i = 0; i < length; i++) {
+                key = (key << 16) | value.charAt(start + i);
+            }
+            return key;
+        }
+    }
+
+    // Packed ranking key: rank in bits 48-49, name length in bits 32-47, document in bits 0-31; never negative
+    private static final int RANK_SHIFT = 48;
+    private static final long DOCUMENT_MASK = 0xFFFFFFFFL;
+
+    /**
+     * Bounded max-heap of packed ranking keys keeping the smallest (best) ones.
+     */
+    private static final class TopKeys {
+        private final long[] heap;
+        private int size;
+
+        TopKeys(int capacity) {
+            heap = new long[capacity];
+        }
+
+        boolean isFull() {
+            return size == heap.length;
+        }
+
+        boolean accepts(long key) {
+            return size < heap.length || key < heap[0];
+        }
+
+        void offer(long key) {
+            if (size < heap.length) {
+                heap[size] = key;
+                siftUp(size++);
+            } else {
+                heap[0] = key;
+                siftDown(0);
+            }
+        }
+
+        long[] sorted() {
+            long[] keys = Arrays.copyOf(heap, size);
+            Arrays.sort(keys);
+            return keys;
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (heap[parent] >= heap[index]) {
+                    return;
+                }
+                swap(parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int largest = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < size && heap[left] > heap[largest]) {
+                    largest = left;
+                }
+                if (right < size && heap[right] > heap[largest]) {
+                    largest = right;
+                }
+                if (largest == index) {
+                    return;
+                }
+                swap(index, largest);
+                index = largest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long tmp = heap[a];
+            heap[a] = heap[b];
+            heap[b] = tmp;
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
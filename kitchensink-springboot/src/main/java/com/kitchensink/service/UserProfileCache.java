@@ -0,0 +1,163 @@
+package com.kitchensink.service;
+
+import com.kitchensink.dto.UserCacheDTO;
+import com.kitchensink.model.User;
+import com.kitchensink.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache of {@link UserCacheDTO} entries in the "userCache" cache, keyed "user:{id}".
+ * Entries older than the refresh-ahead threshold are still served, and a background reload
+ * replaces them before they expire so hot profiles never take a synchronous Mongo miss.
+ * Writers must call {@link #evict(String)} after saving a user.
+ */
+@Component
+public class UserProfileCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserProfileCache.class);
+    static final String CACHE_NAME = "userCache";
+    private static final String KEY_PREFIX = "user:";
+
+    private final UserRepository userRepository;
+    private final Cache cache;
+    private final Executor refreshExecutor;
+    private final long refreshAheadMillis;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    // Bumped on every eviction so an in-flight refresh never re-caches data read before a write
+    private final AtomicLong writeSequence = new AtomicLong();
+
+    public UserProfileCache(UserRepository userRepository, CacheManager cacheManager,
+                            @Qualifier("cacheRefreshExecutor") Executor refreshExecutor,
+                            @Value("${app.cache.user.refresh-ahead-seconds:120}") long refreshAheadSeconds) {
+        this.userRepository = userRepository;
+        this.cache = cacheManager.getCache(CACHE_NAME);
+        this.refreshExecutor = refreshExecutor;
+        this.refreshAheadMillis = refreshAheadSeconds * 1000;
+    }
+
+    /**
+     * Returns the cached user, loading it from Mongo on a miss.
+     *
+     * @throws com.kitchensink.exception.ResourceNotFoundException if the user does not exist
+     */
+    public UserCacheDTO get(String userId) {
+        UserCacheDTO dto;
+        try {
+            dto = cache.get(KEY_PREFIX + userId, () -> load(userId));
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+
+        if (refreshAheadMillis > 0 && System.currentTimeMillis() - dto.getCachedAt() > refreshAheadMillis) {
+            refreshAsync(userId);
+        }
+        return dto;
+    }
+
+    /**
+     * Seeds the cache with users that were already loaded (startup warm-up), keeping any existing entry.
+     * If a user write lands meanwhile, the seeded entries are dropped again rather than risk serving stale data.
+     *
+     * @return the number of entries added
+     */
+    public int preload(Collection<User> users) {
+        long sequenceAtStart = writeSequence.get();
+        long now = System.currentTimeMillis();
+        List<String> added = new ArrayList<>(users.size());
+        for (User user : users) {
+            UserCacheDTO dto = toCacheDTO(user);
+            dto.setCachedAt(now);
+            if (cache.putIfAbsent(KEY_PREFIX + user.getId(), dto) == null) {
+                added.add(user.getId());
+            }
+        }
+        if (writeSequence.get() != sequenceAtStart) {
+            added.forEach(userId -> cache.evict(KEY_PREFIX + userId));
+            return 0;
+        }
+        return added.size();
+    }
+
+    public void evict(String userId) {
+        writeSequence.incrementAndGet();
+        cache.evict(KEY_PREFIX + userId);
+    }
+
+    private void refreshAsync(String userId) {
+        if (!refreshing.add(userId)) {
+            return;
+        }
+        long sequenceAtStart = writeSequence.get();
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    UserCacheDTO fresh = load(userId);
+                    if (writeSequence.get() != sequenceAtStart) {
+                        return;
+                    }
+                    cache.put(KEY_PREFIX + userId, fresh);
+                    if (writeSequence.get() != sequenceAtStart) {
+                        // A write raced with the put - drop what we cached
+                        cache.evict(KEY_PREFIX + userId);
+                    }
+                } catch (com.kitchensink.exception.ResourceNotFoundException e) {
+                    cache.evict(KEY_PREFIX + userId);
+                } catch (Exception e) {
+                    logger.warn("Refresh-ahead failed for user {}: {}", userId, e.getMessage());
+                } finally {
+                    refreshing.remove(userId);
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshing.remove(userId);
+            logger.debug("Refresh-ahead not scheduled for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    private UserCacheDTO load(String userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> {
+                    logger.warn("User not found with ID: {}", userId);
+                    return new com.kitchensink.exception.ResourceNotFoundException("User", userId);
+                });
+        UserCacheDTO dto = toCacheDTO(user);
+        dto.setCachedAt(System.currentTimeMillis());
+        return dto;
+    }
+
+    static UserCacheDTO toCacheDTO(User user) {
+        UserCacheDTO dto = new UserCacheDTO();
+        dto.setId(user.getId());
+        dto.setName(user.getName());
+        dto.setIsdCode(user.getIsdCode());
+        dto.setEmailHash(user.getEmailHash());
+        dto.setPhoneNumberHash(user.getPhoneNumberHash());
+        dto.setEmailEncrypted(user.getEmailEncrypted());
+        dto.setPhoneNumberEncrypted(user.getPhoneNumberEncrypted());
+        dto.setDateOfBirth(user.getDateOfBirth());
+        dto.setAddress(user.getAddress());
+        dto.setCity(user.getCity());
+        dto.setCountry(user.getCountry());
+        dto.setRegistrationDate(user.getRegistrationDate());
+        dto.setLastLoginDate(user.getLastLoginDate());
+        dto.setStatus(user.getStatus());
+        return dto;
+    }
+}
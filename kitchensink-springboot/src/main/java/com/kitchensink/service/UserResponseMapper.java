@@ -0,0 +1,82 @@
+package com.kitchensink.service;
+
+import com.kitchensink.dto.UserCacheDTO;
+import com.kitchensink.dto.UserFieldSet;
+import com.kitchensink.dto.UserResponseDTO;
+import com.kitchensink.model.User;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the single {@link UserResponseDTO} for one user, shared by the admin and profile endpoints.
+ * List and search rows come straight from the read-model queries in
+ * {@link com.kitchensink.repository.UserRepositoryCustom} instead.
+ */
+@Component
+public class UserResponseMapper {
+
+    private final EncryptionService encryptionService;
+    private final RoleService roleService;
+
+    public UserResponseMapper(EncryptionService encryptionService, RoleService roleService) {
+        this.encryptionService = encryptionService;
+        this.roleService = roleService;
+    }
+
+    public UserResponseDTO fromUser(User user) {
+        return fromUser(user, UserFieldSet.all());
+    }
+
+    /**
+     * Maps an entity whose email and phone number are already decrypted.
+     */
+    public UserResponseDTO fromUser(User user, UserFieldSet fields) {
+        UserResponseDTO dto = new UserResponseDTO();
+        dto.setId(user.getId());
+        dto.setName(user.getName());
+        dto.setEmail(user.getEmail());
+        dto.setIsdCode(user.getIsdCode());
+        dto.setPhoneNumber(user.getPhoneNumber());
+        dto.setDateOfBirth(user.getDateOfBirth());
+        dto.setAddress(user.getAddress());
+        dto.setCity(user.getCity());
+        dto.setCountry(user.getCountry());
+        dto.setRegistrationDate(user.getRegistrationDate());
+        dto.setLastLoginDate(user.getLastLoginDate());
+        dto.setStatus(user.getStatus());
+        // Freshly created and loaded users carry their role, which saves the user_roles lookup
+        dto.setRole(user.getRole());
+        return complete(dto, fields);
+    }
+
+    /**
+     * Maps a cached profile, decrypting only the PII the field set asks for.
+     */
+    public UserResponseDTO fromCache(UserCacheDTO cached, UserFieldSet fields) {
+        UserResponseDTO dto = new UserResponseDTO();
+        dto.setId(cached.getId());
+        dto.setName(cached.getName());
+        if (cached.getEmailEncrypted() != null && fields.includes(UserFieldSet.EMAIL)) {
+            dto.setEmail(encryptionService.decrypt(cached.getEmailEncrypted()));
+        }
+        dto.setIsdCode(cached.getIsdCode());
+        if (cached.getPhoneNumberEncrypted() != null && fields.includes(UserFieldSet.PHONE_NUMBER)) {
+            dto.setPhoneNumber(encryptionService.decrypt(cached.getPhoneNumberEncrypted()));
+        }
+        dto.setDateOfBirth(cached.getDateOfBirth());
+        dto.setAddress(cached.getAddress());
+        dto.setCity(cached.getCity());
+        dto.setCountry(cached.getCountry());
+        dto.setRegistrationDate(cached.getRegistrationDate());
+        dto.setLastLoginDate(cached.getLastLoginDate());
+        dto.setStatus(cached.getStatus());
+        return complete(dto, fields);
+    }
+
+    private UserResponseDTO complete(UserResponseDTO dto, UserFieldSet fields) {
+        // Role is a separate lookup - only resolve it when the caller renders it
+        if (fields.includes(UserFieldSet.ROLE) && dto.getRole() == null) {
+            dto.setRole(roleService.getRoleNameByUserId(dto.getId()));
+        }
+        return fields.applyTo(dto);
+    }
+}
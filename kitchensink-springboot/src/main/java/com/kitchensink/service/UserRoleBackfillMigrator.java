@@ -0,0 +1,209 @@
+package com.kitchensink.service;
+
+import com.kitchensink.model.Role;
+import com.kitchensink.model.UserRole;
+import com.kitchensink.repository.RoleRepository;
+import com.kitchensink.repository.UserRoleRepository;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One-off background migration that copies each user's active role name from user_roles onto the
+ * users document, where the admin-excluding list, search and count queries filter on it.
+ * Users are streamed in _id order in fixed-size batches: one user_roles query and one unordered bulk
+ * update per batch, followed by a checkpoint in migration_checkpoints. Updates only apply to documents
+ * that still have no role, so a role written concurrently by UserRoleService is never overwritten.
+ * Until {@link #isCompleted()} is true, admins may still lack the field, so admin exclusion cannot rely
+ * on the stored role alone.
+ */
+@Service
+public class UserRoleBackfillMigrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserRoleBackfillMigrator.class);
+    static final String CHECKPOINT_ID = "role-backfill:users";
+    private static final String USERS = "users";
+
+    private final MongoTemplate mongoTemplate;
+    private final UserRoleRepository userRoleRepository;
+    private final RoleRepository roleRepository;
+    private final int batchSize;
+    private final boolean runOnStartup;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "role-backfill-migrator");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean stopRequested = new AtomicBoolean();
+    private volatile boolean completed;
+
+    public UserRoleBackfillMigrator(MongoTemplate mongoTemplate, UserRoleRepository userRoleRepository,
+                                    RoleRepository roleRepository,
+                                    @Value("${app.users.role-backfill.batch-size:500}") int batchSize,
+                                    @Value("${app.users.role-backfill.run-on-startup:true}") boolean runOnStartup) {
+        this.mongoTemplate = mongoTemplate;
+        this.userRoleRepository = userRoleRepository;
+        this.roleRepository = roleRepository;
+        this.batchSize = batchSize;
+        this.runOnStartup = runOnStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!runOnStartup) {
+            // Not run here, but an earlier run may have finished it
+            completed = isCheckpointCompleted();
+            return;
+        }
+        if (running.compareAndSet(false, true)) {
+            executor.submit(() -> {
+                try {
+                    run();
+                } finally {
+                    running.set(false);
+                }
+            });
+        }
+    }
+
+    void run() {
+        try {
+            Document checkpoint = mongoTemplate.findById(CHECKPOINT_ID, Document.class, KeyRotationMigrator.CHECKPOINT_COLLECTION);
+            if (checkpoint != null && checkpoint.getBoolean("completed", false)) {
+                logger.debug("Role backfill already completed");
+                completed = true;
+                return;
+            }
+            Object lastId = checkpoint != null ? checkpoint.get("lastId") : null;
+            long updated = checkpoint != null ? checkpoint.get("updated", 0L) : 0L;
+            if (lastId != null) {
+                logger.info("Resuming role backfill after _id {}", lastId);
+            }
+            Map<String, String> roleNames = new HashMap<>();
+
+            while (!stopRequested.get()) {
+                Query query = new Query();
+                if (lastId != null) {
+                    query.addCriteria(Criteria.where("_id").gt(lastId));
+                }
+                query.with(Sort.by(Sort.Direction.ASC, "_id")).limit(batchSize);
+                query.fields().include("_id").include("role");
+
+                List<Document> batch = mongoTemplate.find(query, Document.class, USERS);
+                if (batch.isEmpty()) {
+                    saveCheckpoint(lastId, updated, true);
+                    completed = true;
+                    logger.info("Role backfill completed: {} users updated", updated);
+                    return;
+                }
+                updated += backfillBatch(batch, roleNames);
+                lastId = batch.get(batch.size() - 1).get("_id");
+                saveCheckpoint(lastId, updated, false);
+            }
+            logger.info("Role backfill stopped after _id {}", lastId);
+        } catch (Exception e) {
+            logger.error("Role backfill failed", e);
+        }
+    }
+
+    /**
+     * Whether every user document carries its role; false while the backfill is pending, running or stopped.
+     */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    private boolean isCheckpointCompleted() {
+        try {
+            Document checkpoint = mongoTemplate.findById(CHECKPOINT_ID, Document.class, KeyRotationMigrator.CHECKPOINT_COLLECTION);
+            return checkpoint != null && checkpoint.getBoolean("completed", false);
+        } catch (Exception e) {
+            logger.warn("Could not read the role backfill checkpoint", e);
+            return false;
+        }
+    }
+
+    private int backfillBatch(List<Document> batch, Map<String, String> roleNames) {
+        Map<String, Object> missing = new HashMap<>();
+        for (Document user : batch) {
+            if (user.getString("role") == null) {
+                missing.put(user.get("_id").toString(), user.get("_id"));
+            }
+        }
+        if (missing.isEmpty()) {
+            return 0;
+        }
+
+        List<UserRole> userRoles = userRoleRepository.findByUserIdInAndActiveTrue(missing.keySet());
+        Set<String> unknownRoleIds = new HashSet<>();
+        for (UserRole userRole : userRoles) {
+            if (!roleNames.containsKey(userRole.getRoleId())) {
+                unknownRoleIds.add(userRole.getRoleId());
+            }
+        }
+        if (!unknownRoleIds.isEmpty()) {
+            for (Role role : roleRepository.findAllById(unknownRoleIds)) {
+                roleNames.put(role.getId(), role.getName());
+            }
+        }
+
+        List<Query> guards = new ArrayList<>();
+        List<Update> updates = new ArrayList<>();
+        for (UserRole userRole : userRoles) {
+            Object id = missing.get(userRole.getUserId());
+            String roleName = roleNames.get(userRole.getRoleId());
+            if (id != null && roleName != null) {
+                guards.add(new Query(Criteria.where("_id").is(id).and("role").exists(false)));
+                updates.add(new Update().set("role", roleName));
+            }
+        }
+        if (guards.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, USERS);
+        for (int i = 0; i < guards.size(); i++) {
+            bulkOps.updateOne(guards.get(i), updates.get(i));
+        }
+        return bulkOps.execute().getModifiedCount();
+    }
+
+    private void saveCheckpoint(Object lastId, long updated, boolean completed) {
+        Document checkpoint = new Document("_id", CHECKPOINT_ID)
+                .append("lastId", lastId)
+                .append("updated", updated)
+                .append("completed", completed)
+                .append("updatedAt", java.util.Date.from(Instant.now()));
+        mongoTemplate.findAndReplace(new Query(Criteria.where("_id").is(CHECKPOINT_ID)), checkpoint,
+                FindAndReplaceOptions.options().upsert(), Document.class, KeyRotationMigrator.CHECKPOINT_COLLECTION);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopRequested.set(true);
+        executor.shutdown();
+    }
+}
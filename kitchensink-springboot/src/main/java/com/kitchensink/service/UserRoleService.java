@@ -1,11 +1,14 @@
 package com.kitchensink.service;
 
+import com.kitchensink.model.Role;
 import com.kitchensink.model.UserRole;
+import com.kitchensink.repository.UserRepository;
 import com.kitchensink.repository.UserRoleRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,20 +22,33 @@ public class UserRoleService {
     private static final Logger logger = LoggerFactory.getLogger(UserRoleService.class);
     private final UserRoleRepository userRoleRepository;
     // RoleService is injected with @Lazy to break circular dependency
-    // It's used in the @Cacheable condition via SpEL: @roleService.isAdmin(#roleId)
-    @SuppressWarnings("unused")
+    // It's also used in the @Cacheable condition via SpEL: @roleService.isAdmin(#roleId)
     private final RoleService roleService;
+    private final UserCounters userCounters;
+    private final UserRepository userRepository;
+    private final UserIdentityMap userIdentityMap;
     
-    public UserRoleService(UserRoleRepository userRoleRepository, @Lazy RoleService roleService) {
+    public UserRoleService(UserRoleRepository userRoleRepository, @Lazy RoleService roleService,
+                           UserCounters userCounters, UserRepository userRepository,
+                           UserIdentityMap userIdentityMap) {
         this.userRoleRepository = userRoleRepository;
         this.roleService = roleService;
+        this.userCounters = userCounters;
+        this.userRepository = userRepository;
+        this.userIdentityMap = userIdentityMap;
     }
     
     /**
      * Assign a role to a user. If a role already exists, it will be updated.
+     * The role name is also copied onto the user document for the admin-excluding list queries.
+     * userIdsByRoleId is cleared as a whole: it only holds the admin list, and the previous role id
+     * is not known until the assignment is read.
      */
     @Transactional
-    @CacheEvict(value = "userCache", key = "'roleName:' + #userId")
+    @Caching(evict = {
+            @CacheEvict(value = "userCache", key = "'roleName:' + #userId"),
+            @CacheEvict(value = "userIdsByRoleId", allEntries = true)
+    })
     public UserRole assignRoleToUser(String userId, String roleId) {
         logger.debug("Assigning role {} to user {}", roleId, userId);
         
@@ -41,16 +57,21 @@ public class UserRoleService {
         if (existing.isPresent()) {
             // Update existing role assignment
             UserRole userRole = existing.get();
+            boolean wasAdmin = userRole.isActive() && roleService.isAdmin(userRole.getRoleId());
             userRole.setRoleId(roleId);
             userRole.setUpdatedAt(LocalDateTime.now());
             userRole.setActive(true);
             UserRole updated = userRoleRepository.save(userRole);
+            syncUserDocument(userId, roleId);
+            userCounters.onRoleChanged(wasAdmin, roleService.isAdmin(roleId));
             logger.info("Role updated for user {}: {}", userId, roleId);
             return updated;
         } else {
             // Create new role assignment
             UserRole userRole = new UserRole(userId, roleId);
             UserRole saved = userRoleRepository.save(userRole);
+            syncUserDocument(userId, roleId);
+            userCounters.onRoleChanged(false, roleService.isAdmin(roleId));
             logger.info("Role assigned to user {}: {}", userId, roleId);
             return saved;
         }
@@ -65,6 +86,19 @@ public class UserRoleService {
         return userRole.map(UserRole::getRoleId);
     }
     
+    /**
+     * Get the active role IDs for many users with a single query, keyed by user ID.
+     * Users without an active role are absent from the map.
+     */
+    public java.util.Map<String, String> getRoleIdsByUserIds(java.util.Collection<String> userIds) {
+        logger.debug("Getting roles for {} users", userIds.size());
+        java.util.Map<String, String> roleIds = new java.util.HashMap<>();
+        for (UserRole userRole : userRoleRepository.findByUserIdInAndActiveTrue(userIds)) {
+            roleIds.put(userRole.getUserId(), userRole.getRoleId());
+        }
+        return roleIds;
+    }
+    
     /**
      * Get the UserRole mapping for a user
      */
@@ -84,24 +118,41 @@ public class UserRoleService {
      * Deactivate a user's role (soft delete)
      */
     @Transactional
-    @CacheEvict(value = "userCache", key = "'roleName:' + #userId")
+    @Caching(evict = {
+            @CacheEvict(value = "userCache", key = "'roleName:' + #userId"),
+            @CacheEvict(value = "userIdsByRoleId", allEntries = true)
+    })
     public void deactivateUserRole(String userId) {
         logger.debug("Deactivating role for user {}", userId);
         Optional<UserRole> userRole = userRoleRepository.findByUserId(userId);
         if (userRole.isPresent()) {
             UserRole ur = userRole.get();
+            boolean wasAdmin = ur.isActive() && roleService.isAdmin(ur.getRoleId());
             ur.setActive(false);
             ur.setUpdatedAt(LocalDateTime.now());
             userRoleRepository.save(ur);
+            syncUserDocument(userId, null);
+            userCounters.onRoleChanged(wasAdmin, false);
             logger.info("Role deactivated for user {}", userId);
         }
     }
     
+    /**
+     * Copies the active role name onto the user document, or removes it when roleId is null.
+     * A no-op when the user document is already gone (deleteUser deactivates after deleting).
+     * A user entity loaded earlier in the request now has a stale role, so it is dropped before it can be saved.
+     */
+    private void syncUserDocument(String userId, String roleId) {
+        Role role = roleId != null ? roleService.getRoleById(roleId) : null;
+        userRepository.updateRole(userId, role != null ? role.getName() : null);
+        userIdentityMap.evict(userId);
+    }
+    
     /**
      * Get all user IDs that have a specific role
      * Cached only for ADMIN role to improve performance when excluding admins from user lists
      */
-    @Cacheable(value = "userIdsByRoleId", key = "#roleId", condition = "@roleService.isAdmin(#roleId)")
+    @Cacheable(value = "userIdsByRoleId", key = "#roleId", condition = "@roleService.isAdmin(#roleId)", sync = true)
     public java.util.List<String> getAllUserIdsByRoleId(String roleId) {
         logger.debug("Getting all user IDs for role {}", roleId);
         java.util.List<UserRole> userRoles = userRoleRepository.findByRoleIdAndActiveTrue(roleId);
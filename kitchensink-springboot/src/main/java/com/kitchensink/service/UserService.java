@@ -1,16 +1,17 @@
 package com.kitchensink.service;
 
 import com.kitchensink.dto.UserCacheDTO;
+import com.kitchensink.dto.UserFieldSet;
+import com.kitchensink.dto.UserResponseDTO;
 import com.kitchensink.model.Role;
 import com.kitchensink.model.User;
 import com.kitchensink.model.UserRoleType;
 import com.kitchensink.repository.UserRepository;
+import com.kitchensink.util.NameCursor;
+import com.kitchensink.util.RegexUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
@@ -22,22 +23,41 @@ import java.util.Optional;
 public class UserService {
     
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+    private static final int SEARCH_DEFAULT_PAGE_SIZE = 20;
+    private static final int SEARCH_MAX_PAGE_SIZE = 50;
+    // Server-side cap for one search page; a narrow query on a large collection fails fast instead of stalling
+    private static final long SEARCH_MAX_TIME_MILLIS = 2000;
     private final UserRepository userRepository;
     private final EncryptionService encryptionService;
     private final InputSanitizationService sanitizationService;
     private final RoleService roleService;
     private final UserRoleService userRoleService;
     private final CacheManager cacheManager;
+    private final UserProfileCache userProfileCache;
+    private final UserCounters userCounters;
+    private final UserNameIndex userNameIndex;
+    private final UserIdentifierFilter userIdentifierFilter;
+    private final UserIdentityMap userIdentityMap;
+    private final UserRoleBackfillMigrator userRoleBackfillMigrator;
     
     public UserService(UserRepository userRepository, EncryptionService encryptionService,
                       InputSanitizationService sanitizationService, RoleService roleService,
-                      UserRoleService userRoleService, CacheManager cacheManager) {
+                      UserRoleService userRoleService, CacheManager cacheManager,
+                      UserProfileCache userProfileCache, UserCounters userCounters,
+                      UserNameIndex userNameIndex, UserIdentifierFilter userIdentifierFilter,
+                      UserIdentityMap userIdentityMap, UserRoleBackfillMigrator userRoleBackfillMigrator) {
         this.userRepository = userRepository;
         this.encryptionService = encryptionService;
         this.sanitizationService = sanitizationService;
         this.roleService = roleService;
         this.userRoleService = userRoleService;
         this.cacheManager = cacheManager;
+        this.userProfileCache = userProfileCache;
+        this.userCounters = userCounters;
+        this.userNameIndex = userNameIndex;
+        this.userIdentifierFilter = userIdentifierFilter;
+        this.userIdentityMap = userIdentityMap;
+        this.userRoleBackfillMigrator = userRoleBackfillMigrator;
     }
     
     public User createUser(String name, String email, String isdCode, String phoneNumber, String roleName,
@@ -60,6 +80,7 @@ public class UserService {
         user.setAddress(address);
         user.setCity(city);
         user.setCountry(country);
+        user.setRole(role.getName());
         
         user.setEmailEncrypted(encryptionService.encrypt(email));
         user.setPhoneNumberEncrypted(encryptionService.encrypt(phoneNumber));
@@ -74,9 +95,12 @@ public class UserService {
             user.setStatus("ACTIVE");
         }
         
+        rememberIdentifiers(user);
         try {
             User saved = userRepository.save(user);
             userRoleService.assignRoleToUser(saved.getId(), role.getId());
+            userCounters.onUserCreated(saved.getStatus());
+            userNameIndex.put(saved.getId(), saved.getName());
             logger.info("User created successfully with ID: {}", saved.getId());
             return saved;
         } catch (org.springframework.dao.DuplicateKeyException e) {
@@ -101,9 +125,14 @@ public class UserService {
     
     public Optional<User> getUserByEmail(String email) {
         String emailHash = encryptionService.hash(email);
+        if (!userIdentifierFilter.mightContain(emailHash)) {
+            return Optional.empty();
+        }
         Optional<User> userOpt = userRepository.findByEmailHash(emailHash);
         
-        if (userOpt.isPresent()) {
+        if (userOpt.isEmpty()) {
+            userIdentifierFilter.recordFalsePositive();
+        } else {
             User user = userOpt.get();
             user.setEmail(encryptionService.decrypt(user.getEmailEncrypted()));
             user.setPhoneNumber(encryptionService.decrypt(user.getPhoneNumberEncrypted()));
@@ -113,45 +142,35 @@ public class UserService {
     }
     
     public User getUserById(String id) {
+        return getUserById(id, UserFieldSet.all());
+    }
+    
+    /**
+     * Returns a user decrypting only the PII the field set asks for.
+     * A user already loaded in this request is returned as is, without another lookup or decryption.
+     */
+    public User getUserById(String id, UserFieldSet fields) {
+        User seen = userIdentityMap.find(id);
+        if (seen != null) {
+            return seen;
+        }
         UserCacheDTO dto = getUserCacheDTO(id);
-        return convertToUser(dto);
+        User user = convertToUser(dto, fields);
+        if (fields.includes(UserFieldSet.EMAIL) && fields.includes(UserFieldSet.PHONE_NUMBER)) {
+            userIdentityMap.putView(user);
+        }
+        return user;
     }
     
     public UserCacheDTO getUserCacheDTOById(String id) {
         return getUserCacheDTO(id);
     }
     
-    @Cacheable(value = "userCache", key = "'user:' + #id")
     private UserCacheDTO getUserCacheDTO(String id) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> {
-                    logger.warn("User not found with ID: {}", id);
-                    return new com.kitchensink.exception.ResourceNotFoundException("User", id);
-                });
-        
-        return convertToCacheDTO(user);
+        return userProfileCache.get(id);
     }
     
-    private UserCacheDTO convertToCacheDTO(User user) {
-        UserCacheDTO dto = new UserCacheDTO();
-        dto.setId(user.getId());
-        dto.setName(user.getName());
-        dto.setIsdCode(user.getIsdCode());
-        dto.setEmailHash(user.getEmailHash());
-        dto.setPhoneNumberHash(user.getPhoneNumberHash());
-        dto.setEmailEncrypted(user.getEmailEncrypted());
-        dto.setPhoneNumberEncrypted(user.getPhoneNumberEncrypted());
-        dto.setDateOfBirth(user.getDateOfBirth());
-        dto.setAddress(user.getAddress());
-        dto.setCity(user.getCity());
-        dto.setCountry(user.getCountry());
-        dto.setRegistrationDate(user.getRegistrationDate());
-        dto.setLastLoginDate(user.getLastLoginDate());
-        dto.setStatus(user.getStatus());
-        return dto;
-    }
-    
-    private User convertToUser(UserCacheDTO dto) {
+    private User convertToUser(UserCacheDTO dto, UserFieldSet fields) {
         User user = new User();
         user.setId(dto.getId());
         user.setName(dto.getName());
@@ -168,29 +187,32 @@ public class UserService {
         user.setLastLoginDate(dto.getLastLoginDate());
         user.setStatus(dto.getStatus());
         
-        if (user.getEmailEncrypted() != null) {
+        if (user.getEmailEncrypted() != null && fields.includes(UserFieldSet.EMAIL)) {
             user.setEmail(encryptionService.decrypt(user.getEmailEncrypted()));
         }
-        if (user.getPhoneNumberEncrypted() != null) {
+        if (user.getPhoneNumberEncrypted() != null && fields.includes(UserFieldSet.PHONE_NUMBER)) {
             user.setPhoneNumber(encryptionService.decrypt(user.getPhoneNumberEncrypted()));
         }
         
         return user;
     }
     
-    public com.kitchensink.dto.CursorPageResponse<User> getAllUsersExcludingAdminsCursor(
+    public com.kitchensink.dto.CursorPageResponse<UserResponseDTO> getAllUsersExcludingAdminsCursor(
             String cursor, int size, com.kitchensink.enums.Direction direction) {
-        Role adminRole;
-        try {
-            adminRole = roleService.getRoleByName(UserRoleType.ADMIN.getName());
-        } catch (Exception e) {
-            logger.warn("Admin role not found, returning empty result");
-            return new com.kitchensink.dto.CursorPageResponse<>(java.util.Collections.emptyList(), 
-                    null, null, false, false, 0, 0, 0, 0, null, null);
-        }
-        
-        List<String> adminUserIds = userRoleService.getAllUserIdsByRoleId(adminRole.getId());
-        logger.debug("Found {} admin user IDs to exclude", adminUserIds.size());
+        return getAllUsersExcludingAdminsCursor(cursor, size, direction, UserFieldSet.all());
+    }
+    
+    /**
+     * Name-ordered keyset page of non-admin users, loading and decrypting only the fields in the field set.
+     * Cursors are opaque {@link NameCursor} tokens holding the (name, _id) of the boundary row, so every
+     * page is a single indexed range query on (name, _id). Admins are filtered on the role stored on each
+     * user document; only until the role backfill completes are admin ids also loaded from user_roles.
+     * The total comes from {@link UserCounters} on the first page and is carried in the cursor after that.
+     */
+    public com.kitchensink.dto.CursorPageResponse<UserResponseDTO> getAllUsersExcludingAdminsCursor(
+            String cursor, int size, com.kitchensink.enums.Direction direction, UserFieldSet fields) {
+        String adminRole = UserRoleType.ADMIN.getName();
+        java.util.Set<String> adminIds = unbackfilledAdminIds();
         
         if (size <= 0 || size > 100) {
             size = 10;
@@ -199,160 +221,293 @@ public class UserService {
             direction = com.kitchensink.enums.Direction.NEXT;
         }
         
-        String cursorId = cursor;
-        List<User> users;
-        String nextScrollId = null;
-        String prevScrollId = null;
-        boolean hasNext = false;
-        boolean hasPrevious = false;
-        
-        Page<User> firstPage = userRepository.findByIdNotInOrderByNameAsc(adminUserIds, 
-                org.springframework.data.domain.PageRequest.of(0, size));
-        long totalElements = firstPage.getTotalElements();
-        int totalPages = firstPage.getTotalPages();
-        
+        // One extra row tells us whether another page exists in the direction of travel
         Pageable pageable = org.springframework.data.domain.PageRequest.of(0, size + 1);
-        
-            if (cursorId == null || cursorId.isEmpty()) {
-            logger.debug("Fetching first page - adminUserIds: {}, size: {}", adminUserIds.size(), size);
-            List<User> fetchedUsers = firstPage.getContent();
-            logger.debug("Query returned {} users from database", fetchedUsers.size());
-            
-            if (!fetchedUsers.isEmpty()) {
-                prevScrollId = fetchedUsers.get(0).getId();
-                nextScrollId = fetchedUsers.get(fetchedUsers.size() - 1).getId();
+        List<UserResponseDTO> users;
+        boolean hasNext;
+        boolean hasPrevious;
+        int currentPage;
+        long totalElements;
+        boolean totalApproximate;
+        
+        if (cursor == null || cursor.isEmpty()) {
+            logger.debug("Fetching first page - size: {}", size);
+            users = userRepository.findByRoleNotOrderByNameAsc(adminRole, adminIds, pageable, fields);
+            UserCounters.Snapshot counters = userCounters.snapshot();
+            if (counters != null) {
+                totalElements = counters.getNonAdmin();
+                totalApproximate = true;
+            } else {
+                // Counters not reconciled yet (or disabled): fall back to an exact count
+                totalElements = userRepository.countByRoleNotAndIdNotIn(adminRole, adminIds);
+                totalApproximate = false;
             }
-            
-            hasNext = firstPage.hasNext();
+            hasNext = users.size() > size;
             hasPrevious = false;
-            users = sortUsersByName(fetchedUsers);
+            currentPage = 0;
+            if (hasNext) {
+                users = users.subList(0, size);
+            }
         } else {
+            NameCursor position = NameCursor.decode(cursor);
+            // Carried from the first page, so it may trail concurrent writes
+            totalElements = position.getTotalElements();
+            totalApproximate = true;
             if (direction == com.kitchensink.enums.Direction.PREV) {
-                logger.debug("Fetching previous page - cursorId: {}, adminUserIds: {}", cursorId, adminUserIds.size());
-                List<User> fetchedUsers = userRepository.findByIdNotInAndIdLessThanOrderByIdAsc(adminUserIds, cursorId, pageable);
-                logger.debug("Query returned {} users from database", fetchedUsers.size());
-                
+                logger.debug("Fetching previous page before ({}, {})", position.getName(), position.getId());
+                List<UserResponseDTO> fetchedUsers = userRepository.findByRoleNotAndNameLessThanOrderByNameDesc(
+                        adminRole, adminIds, position.getName(), position.getId(), pageable, fields);
+                hasPrevious = fetchedUsers.size() > size;
                 hasNext = true;
-                
-                if (!fetchedUsers.isEmpty()) {
-                    if (fetchedUsers.size() > size) {
-                        hasPrevious = true;
-                        prevScrollId = fetchedUsers.get(fetchedUsers.size() - size).getId();
-                        fetchedUsers = fetchedUsers.subList(fetchedUsers.size() - size, fetchedUsers.size());
-                    } else {
-                        prevScrollId = fetchedUsers.get(0).getId();
-                        hasPrevious = fetchedUsers.size() == size + 1;
-                    }
-                    nextScrollId = fetchedUsers.get(fetchedUsers.size() - 1).getId();
-                } else {
-                    hasPrevious = false;
-                }
-                
-                users = sortUsersByName(fetchedUsers);
+                currentPage = Math.max(position.getPage() - 1, 0);
+                users = new java.util.ArrayList<>(hasPrevious ? fetchedUsers.subList(0, size) : fetchedUsers);
+                java.util.Collections.reverse(users);
             } else {
-                logger.debug("Fetching next page - cursorId: {}, adminUserIds: {}", cursorId, adminUserIds.size());
-                List<User> fetchedUsers = userRepository.findByIdNotInAndIdGreaterThanOrderByIdAsc(adminUserIds, cursorId, pageable);
-                logger.debug("Query returned {} users from database", fetchedUsers.size());
-                
+                logger.debug("Fetching next page after ({}, {})", position.getName(), position.getId());
+                users = userRepository.findByRoleNotAndNameGreaterThanOrderByNameAsc(
+                        adminRole, adminIds, position.getName(), position.getId(), pageable, fields);
+                hasNext = users.size() > size;
                 hasPrevious = true;
-                
-                if (!fetchedUsers.isEmpty()) {
-                    prevScrollId = fetchedUsers.get(0).getId();
-                    if (fetchedUsers.size() > size) {
-                        hasNext = true;
-                        nextScrollId = fetchedUsers.get(size - 1).getId();
-                        fetchedUsers = fetchedUsers.subList(0, size);
-                    } else {
-                        nextScrollId = fetchedUsers.get(fetchedUsers.size() - 1).getId();
-                        hasNext = false;
-                    }
-                } else {
-                    hasNext = false;
+                currentPage = position.getPage() + 1;
+                if (hasNext) {
+                    users = users.subList(0, size);
                 }
-                
-                users = sortUsersByName(fetchedUsers);
             }
         }
         
-        users.forEach(user -> {
-            if (user.getEmailEncrypted() != null) {
-                user.setEmail(encryptionService.decrypt(user.getEmailEncrypted()));
-            }
-            if (user.getPhoneNumberEncrypted() != null) {
-                user.setPhoneNumber(encryptionService.decrypt(user.getPhoneNumberEncrypted()));
-            }
-        });
+        String nextCursor = null;
+        String previousCursor = null;
+        if (!users.isEmpty()) {
+            UserResponseDTO first = users.get(0);
+            UserResponseDTO last = users.get(users.size() - 1);
+            nextCursor = hasNext ? new NameCursor(last.getName(), last.getId(), currentPage, totalElements).encode() : null;
+            previousCursor = hasPrevious ? new NameCursor(first.getName(), first.getId(), currentPage, totalElements).encode() : null;
+        }
         
-        int currentPage = cursorId == null || cursorId.isEmpty() ? 0 : 1;
+        completeRows(users, fields);
+        int totalPages = (int) ((totalElements + size - 1) / size);
+        
+        logger.debug("Returning {} users, totalElements: {}, totalPages: {}, currentPage: {}, hasNext: {}, hasPrevious: {}", 
+                users.size(), totalElements, totalPages, currentPage, hasNext, hasPrevious);
+        
+        // nextScrollId/prevScrollId carry the same cursors for existing clients
+        com.kitchensink.dto.CursorPageResponse<UserResponseDTO> page = new com.kitchensink.dto.CursorPageResponse<>(users, 
+                nextCursor, previousCursor, hasNext, hasPrevious, users.size(), totalElements, totalPages, currentPage,
+                nextCursor, previousCursor);
+        page.setTotalApproximate(totalApproximate);
+        return page;
+    }
+    
+    public List<UserResponseDTO> searchUsersByName(String name) {
+        return searchUsersByName(name, UserFieldSet.all());
+    }
+    
+    public List<UserResponseDTO> searchUsersByName(String name, UserFieldSet fields) {
+        String sanitizedName = sanitizationService.sanitizeForName(name);
+        if (userNameIndex.isReady()) {
+            return searchIndexed(sanitizedName, fields, null, java.util.Collections.emptySet());
+        }
+        List<UserResponseDTO> results = userRepository.searchByName(containsPattern(sanitizedName), fields);
         
-        logger.debug("Returning {} users, totalElements: {}, totalPages: {}, currentPage: {}, nextScrollId: {}, prevScrollId: {}", 
-                users.size(), totalElements, totalPages, currentPage, nextScrollId, prevScrollId);
+        completeRows(results, fields);
         
-        return new com.kitchensink.dto.CursorPageResponse<>(users, null, null, 
-                hasNext, hasPrevious, users.size(), totalElements, totalPages, currentPage, nextScrollId, prevScrollId);
+        return results;
     }
     
-    public List<User> searchUsersByName(String name) {
+    public List<UserResponseDTO> searchUsersByNameExcludingAdmins(String name) {
+        return searchUsersByNameExcludingAdmins(name, UserFieldSet.all());
+    }
+    
+    public List<UserResponseDTO> searchUsersByNameExcludingAdmins(String name, UserFieldSet fields) {
         String sanitizedName = sanitizationService.sanitizeForName(name);
-        String pattern = ".*" + sanitizedName + ".*";
-        List<User> results = userRepository.searchByName(pattern);
+        java.util.Set<String> adminIds = unbackfilledAdminIds();
+        if (userNameIndex.isReady()) {
+            // The in-memory index has no roles; admins are dropped when the hits are loaded
+            return searchIndexed(sanitizedName, fields, UserRoleType.ADMIN.getName(), adminIds);
+        }
         
-        results.forEach(user -> {
-            if (user.getEmailEncrypted() != null) {
-                user.setEmail(encryptionService.decrypt(user.getEmailEncrypted()));
-            }
-            if (user.getPhoneNumberEncrypted() != null) {
-                user.setPhoneNumber(encryptionService.decrypt(user.getPhoneNumberEncrypted()));
-            }
-        });
+        List<UserResponseDTO> results = userRepository.searchByNameAndRoleNot(
+                containsPattern(sanitizedName), UserRoleType.ADMIN.getName(), adminIds, fields);
+        
+        completeRows(results, fields);
         
         return results;
     }
     
-    public List<User> searchUsersByNameExcludingAdmins(String name) {
-        Role adminRole;
+    /**
+     * Ids of admins that may predate the role backfill: their documents carry no role yet, so
+     * role != ADMIN alone would let them through. Empty once the backfill has completed.
+     */
+    private java.util.Set<String> unbackfilledAdminIds() {
+        if (userRoleBackfillMigrator.isCompleted()) {
+            return java.util.Collections.emptySet();
+        }
         try {
-            adminRole = roleService.getRoleByName(UserRoleType.ADMIN.getName());
+            Role adminRole = roleService.getRoleByName(UserRoleType.ADMIN.getName());
+            return new java.util.HashSet<>(userRoleService.getAllUserIdsByRoleId(adminRole.getId()));
         } catch (Exception e) {
-            logger.warn("Admin role not found, returning all search results");
-            return searchUsersByName(name);
+            logger.warn("Admin role not found, excluding admins by stored role only");
+            return java.util.Collections.emptySet();
+        }
+    }
+    
+    private static String containsPattern(String sanitizedName) {
+        return ".*" + RegexUtil.escapeLiteral(sanitizedName) + ".*";
+    }
+    
+    /**
+     * Bounded, name-ordered search of non-admin users whose name contains the query as a literal
+     * (ignoring case). Admins are excluded by the query itself on the stored role (and, until the role
+     * backfill completes, on the admin ids from user_roles), each page is at most
+     * {@value #SEARCH_MAX_PAGE_SIZE} users, and continuation uses the same opaque (name, _id)
+     * {@link NameCursor} as the admin list. Paging is forward-only, so there is never a previous cursor, and
+     * no total is computed: it is reported as 0 with totalApproximate set.
+     *
+     * @throws org.springframework.dao.QueryTimeoutException if Mongo gives up on the page after the time limit
+     */
+    public com.kitchensink.dto.CursorPageResponse<UserResponseDTO> searchUsersByNameExcludingAdminsCursor(
+            String name, String cursor, int size, UserFieldSet fields) {
+        String sanitizedName = sanitizationService.sanitizeForName(name);
+        
+        if (size <= 0) {
+            size = SEARCH_DEFAULT_PAGE_SIZE;
+        }
+        size = Math.min(size, SEARCH_MAX_PAGE_SIZE);
+        NameCursor position = cursor == null || cursor.isEmpty() ? null : NameCursor.decode(cursor);
+        int currentPage = position != null ? position.getPage() + 1 : 0;
+        
+        List<UserResponseDTO> users;
+        try {
+            // One extra row tells us whether another page exists
+            users = userRepository.searchByNameLiteralAfter(sanitizedName, UserRoleType.ADMIN.getName(),
+                    unbackfilledAdminIds(), position != null ? position.getName() : null, position != null ? position.getId() : null,
+                    size + 1, SEARCH_MAX_TIME_MILLIS, fields);
+        } catch (org.springframework.dao.DataAccessException e) {
+            if (e instanceof org.springframework.dao.QueryTimeoutException
+                    || e.getMostSpecificCause() instanceof com.mongodb.MongoExecutionTimeoutException) {
+                logger.warn("User search exceeded {} ms on page {}", SEARCH_MAX_TIME_MILLIS, currentPage);
+                throw new org.springframework.dao.QueryTimeoutException("Search took too long, please refine the query", e);
+            }
+            throw e;
+        }
+        boolean hasNext = users.size() > size;
+        if (hasNext) {
+            users = users.subList(0, size);
         }
         
-        List<String> adminUserIds = userRoleService.getAllUserIdsByRoleId(adminRole.getId());
+        String nextCursor = null;
+        if (hasNext) {
+            UserResponseDTO last = users.get(users.size() - 1);
+            nextCursor = new NameCursor(last.getName(), last.getId(), currentPage, 0).encode();
+        }
         
-        if (adminUserIds.isEmpty()) {
-            return searchUsersByName(name);
+        completeRows(users, fields);
+        com.kitchensink.dto.CursorPageResponse<UserResponseDTO> page = new com.kitchensink.dto.CursorPageResponse<>(
+                users, nextCursor, null, hasNext, false, users.size(), 0, 0, currentPage, nextCursor, null);
+        page.setTotalApproximate(true);
+        return page;
+    }
+    
+    /**
+     * Ranked name search served by the in-memory index; only the matching documents are loaded,
+     * and they are returned in rank order. The index skips excludedIds itself; a non-null excludedRole
+     * is filtered when the hits are loaded, and further hits are fetched until the result is full again.
+     */
+    private List<UserResponseDTO> searchIndexed(String sanitizedName, UserFieldSet fields, String excludedRole,
+                                                java.util.Set<String> excludedIds) {
+        int maxResults = userNameIndex.getMaxResults();
+        List<UserResponseDTO> results = new java.util.ArrayList<>();
+        int offset = 0;
+        while (results.size() < maxResults) {
+            UserNameIndex.SearchPage hits = userNameIndex.search(sanitizedName, offset, maxResults - results.size(), excludedIds);
+            List<String> ids = hits.getUserIds();
+            if (ids.isEmpty()) {
+                break;
+            }
+            offset += ids.size();
+            List<UserResponseDTO> loaded = excludedRole != null
+                    ? userRepository.findByIdInAndRoleNot(ids, excludedRole, fields)
+                    : userRepository.findByIdIn(ids, fields);
+            java.util.Map<String, UserResponseDTO> byId = new java.util.HashMap<>();
+            for (UserResponseDTO user : loaded) {
+                byId.put(user.getId(), user);
+            }
+            for (String id : ids) {
+                UserResponseDTO user = byId.get(id);
+                // Missing when excluded by role, or deleted on another node since the index was updated
+                if (user != null) {
+                    results.add(user);
+                }
+            }
+            if (!hits.isHasMore()) {
+                break;
+            }
         }
         
-        List<User> results = searchUsersByName(name);
-        List<User> filteredResults = results.stream()
-                .filter(user -> !adminUserIds.contains(user.getId()))
-                .collect(java.util.stream.Collectors.toList());
+        completeRows(results, fields);
         
-        return filteredResults;
+        return results;
     }
     
-    private List<User> sortUsersByName(List<User> users) {
-        if (users == null || users.isEmpty()) {
-            return users;
-        }
-        
-        return users.stream()
-                .sorted((u1, u2) -> {
-                    String name1 = u1.getName() != null ? u1.getName() : "";
-                    String name2 = u2.getName() != null ? u2.getName() : "";
-                    int comparison = name1.compareToIgnoreCase(name2);
-                    if (comparison == 0) {
-                        String id1 = u1.getId() != null ? u1.getId() : "";
-                        String id2 = u2.getId() != null ? u2.getId() : "";
-                        return id1.compareTo(id2);
-                    }
-                    return comparison;
-                })
-                .collect(java.util.stream.Collectors.toList());
+    /**
+     * Finishes read-model rows in place: decrypts the requested email/phone fields in one bulk call
+     * (a row whose value cannot be decrypted is kept, marked decryptionFailed, rather than failing the page),
+     * resolves in one call the roles of rows whose document has none stored, and clears fields that were
+     * loaded only for paging.
+     */
+    private void completeRows(List<UserResponseDTO> rows, UserFieldSet fields) {
+        if (rows == null || rows.isEmpty()) {
+            return;
+        }
+        boolean email = fields.includes(UserFieldSet.EMAIL);
+        boolean phone = fields.includes(UserFieldSet.PHONE_NUMBER);
+        if (email || phone) {
+            List<String> encrypted = new java.util.ArrayList<>(rows.size() * 2);
+            for (UserResponseDTO row : rows) {
+                encrypted.add(email ? row.getEmailEncrypted() : null);
+                encrypted.add(phone ? row.getPhoneNumberEncrypted() : null);
+            }
+            List<EncryptionService.Decrypted> decrypted = encryptionService.decryptAll(encrypted);
+            for (int i = 0; i < rows.size(); i++) {
+                UserResponseDTO row = rows.get(i);
+                EncryptionService.Decrypted rowEmail = decrypted.get(2 * i);
+                EncryptionService.Decrypted rowPhone = decrypted.get(2 * i + 1);
+                if (email) {
+                    row.setEmail(rowEmail.value());
+                }
+                if (phone) {
+                    row.setPhoneNumber(rowPhone.value());
+                }
+                if (rowEmail.failed() || rowPhone.failed()) {
+                    logger.warn("Could not decrypt PII of user {}, returning the row without it", row.getId());
+                    row.setDecryptionFailed(true);
+                }
+            }
+        }
+        java.util.Map<String, String> roleNames = java.util.Collections.emptyMap();
+        if (fields.includes(UserFieldSet.ROLE)) {
+            // Rows already carry the stored role; only documents without one go to user_roles
+            List<String> userIds = new java.util.ArrayList<>();
+            for (UserResponseDTO row : rows) {
+                if (row.getRole() == null) {
+                    userIds.add(row.getId());
+                }
+            }
+            if (!userIds.isEmpty()) {
+                // One user_roles query for the rest of the page instead of a lookup per row
+                roleNames = roleService.getRoleNamesByUserIds(userIds);
+            }
+        }
+        for (UserResponseDTO row : rows) {
+            if (fields.includes(UserFieldSet.ROLE) && row.getRole() == null) {
+                row.setRole(roleNames.get(row.getId()));
+            }
+            row.setEmailEncrypted(null);
+            row.setPhoneNumberEncrypted(null);
+            fields.applyTo(row);
+        }
     }
     
-    @CacheEvict(value = "userCache", key = "'user:' + #id")
     public User updateUser(String id, String name, String email, String isdCode, String phoneNumber,
                           String dateOfBirth, String address, String city, String country) {
         User existingUser = getUserByIdDirect(id);
@@ -395,11 +550,19 @@ public class UserService {
             existingUser.setCountry(country);
         }
         
+        rememberIdentifiers(existingUser);
         try {
             User updated = userRepository.save(existingUser);
+            userProfileCache.evict(id);
+            userIdentityMap.putEntity(updated);
+            if (name != null) {
+                userNameIndex.put(id, updated.getName());
+            }
             logger.info("User updated successfully with ID: {}", id);
             return updated;
         } catch (org.springframework.dao.DuplicateKeyException e) {
+            // The entity was modified in place, so drop it rather than hand the rejected state to later reads
+            userIdentityMap.evict(id);
             logger.warn("Duplicate key violation during user update: {}", e.getMessage());
             String message = e.getMessage();
             String field = "error";
@@ -419,7 +582,6 @@ public class UserService {
         }
     }
     
-    @CacheEvict(value = "userCache", key = "'user:' + #id")
     public User updateUserPhoneNumber(String id, String phoneNumber) {
         User user = getUserByIdDirect(id);
         com.kitchensink.listener.UserMongoEventListener.setOldUserState(
@@ -430,18 +592,21 @@ public class UserService {
         user.setPhoneNumber(phoneNumber);
         user.setPhoneNumberEncrypted(encryptionService.encrypt(phoneNumber));
         user.setPhoneNumberHash(encryptionService.hash(phoneNumber));
+        rememberIdentifiers(user);
         
         try {
             User updated = userRepository.save(user);
+            userProfileCache.evict(id);
+            userIdentityMap.putEntity(updated);
             logger.info("Phone number updated successfully for user ID: {}", id);
             return updated;
         } catch (org.springframework.dao.DuplicateKeyException e) {
+            userIdentityMap.evict(id);
             logger.warn("Duplicate phone number: {}", e.getMessage());
             throw new com.kitchensink.exception.ResourceConflictException("Phone number already exists", "phoneNumber");
         }
     }
     
-    @CacheEvict(value = "userCache", key = "'user:' + #id")
     public User updateUserEmail(String id, String newEmail) {
         User user = getUserByIdDirect(id);
         com.kitchensink.listener.UserMongoEventListener.setOldUserState(
@@ -452,12 +617,16 @@ public class UserService {
         user.setEmail(newEmail);
         user.setEmailEncrypted(encryptionService.encrypt(newEmail));
         user.setEmailHash(encryptionService.hash(newEmail));
+        rememberIdentifiers(user);
         
         try {
             User updated = userRepository.save(user);
+            userProfileCache.evict(id);
+            userIdentityMap.putEntity(updated);
             logger.info("Email updated successfully for user ID: {}", id);
             return updated;
         } catch (org.springframework.dao.DuplicateKeyException e) {
+            userIdentityMap.evict(id);
             logger.warn("Duplicate email: {}", e.getMessage());
             throw new com.kitchensink.exception.ResourceConflictException("Email already exists", "email");
         }
@@ -466,25 +635,56 @@ public class UserService {
     public void updateLastLoginDate(String userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new com.kitchensink.exception.ResourceNotFoundException("User", userId));
+        // Without the old state the listener audits the save as a create; lastLoginDate itself is not audited
+        com.kitchensink.listener.UserMongoEventListener.setOldUserState(
+            com.kitchensink.listener.UserSnapshot.from(user));
         user.setLastLoginDate(LocalDateTime.now());
         userRepository.save(user);
+        userProfileCache.evict(userId);
+        userIdentityMap.evict(userId);
     }
     
     public boolean emailExists(String email) {
-        String emailHash = encryptionService.hash(email);
-        return userRepository.existsByEmailHash(emailHash);
+        return identifierExists(encryptionService.hash(email), userRepository::existsByEmailHash);
     }
     
     public boolean phoneNumberExists(String phoneNumber) {
-        String phoneNumberHash = encryptionService.hash(phoneNumber);
-        return userRepository.existsByPhoneNumberHash(phoneNumberHash);
+        return identifierExists(encryptionService.hash(phoneNumber), userRepository::existsByPhoneNumberHash);
+    }
+    
+    /**
+     * Asks Mongo only when the identifier filter cannot rule the hash out.
+     */
+    private boolean identifierExists(String hash, java.util.function.Predicate<String> lookup) {
+        if (!userIdentifierFilter.mightContain(hash)) {
+            return false;
+        }
+        boolean exists = lookup.test(hash);
+        if (!exists) {
+            userIdentifierFilter.recordFalsePositive();
+        }
+        return exists;
+    }
+    
+    // Before the write, so no concurrent existence check sees a definite miss for a stored identifier
+    private void rememberIdentifiers(User user) {
+        userIdentifierFilter.add(user.getEmailHash());
+        userIdentifierFilter.add(user.getPhoneNumberHash());
     }
     
-    @CacheEvict(value = "userCache", key = "'user:' + #id")
     public void deleteUser(String id) {
-        getUserByIdDirect(id);
-        userRepository.deleteById(id);
+        // The status comes from the document actually removed, so a stale cached profile or a
+        // concurrent delete cannot skew the counters
+        User removed = userRepository.removeById(id);
+        userProfileCache.evict(id);
+        userIdentityMap.evict(id);
+        if (removed == null) {
+            logger.warn("User not found with ID: {}", id);
+            throw new com.kitchensink.exception.ResourceNotFoundException("User", id);
+        }
         userRoleService.deactivateUserRole(id);
+        userCounters.onUserDeleted(removed.getStatus());
+        userNameIndex.remove(id);
         
         org.springframework.cache.Cache cache = cacheManager.getCache("userCache");
         if (cache != null) {
@@ -494,7 +694,14 @@ public class UserService {
         logger.info("User deleted successfully with ID: {}", id);
     }
     
+    /**
+     * The user entity for a write: read from Mongo once per request, then reused until the request ends.
+     */
     private User getUserByIdDirect(String id) {
+        return userIdentityMap.getEntity(id, this::loadUserDecrypted);
+    }
+    
+    private User loadUserDecrypted(String id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> {
                     logger.warn("User not found with ID: {}", id);
@@ -0,0 +1,65 @@
+package com.kitchensink.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for name-ordered user pages: the (name, _id) of the boundary row plus the
+ * page number and the total captured on the first page, so later pages need neither a skip nor a count.
+ * Encoded as URL-safe Base64 of "v1|page|total|id|name".
+ */
+public final class NameCursor {
+
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "|";
+
+    private final String name;
+    private final String id;
+    private final int page;
+    private final long totalElements;
+
+    public NameCursor(String name, String id, int page, long totalElements) {
+        this.name = name != null ? name : "";
+        this.id = id;
+        this.page = page;
+        this.totalElements = totalElements;
+    }
+
+    public String encode() {
+        String raw = String.join(SEPARATOR, VERSION, String.valueOf(page), String.valueOf(totalElements), id, name);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws com.kitchensink.exception.BadRequestException if the cursor was not produced by {@link #encode()}
+     */
+    public static NameCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            // The name goes last and may itself contain the separator
+            String[] parts = raw.split("\\|", 5);
+            if (parts.length != 5 || !VERSION.equals(parts[0]) || parts[3].isEmpty()) {
+                throw new IllegalArgumentException("malformed cursor");
+            }
+            return new NameCursor(parts[4], parts[3], Integer.parseInt(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new com.kitchensink.exception.BadRequestException("Invalid cursor", "cursor");
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public long getTotalElements() {
+        return totalElements;
+    }
+}
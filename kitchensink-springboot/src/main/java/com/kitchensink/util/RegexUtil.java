@@ -0,0 +1,31 @@
+package com.kitchensink.util;
+
+/**
+ * Helpers for building MongoDB $regex patterns from user input.
+ */
+public final class RegexUtil {
+
+    private static final String METACHARACTERS = "\\^$.|?*+()[]{}";
+
+    private RegexUtil() {
+    }
+
+    /**
+     * Backslash-escapes every regex metacharacter so the value matches only itself. Unlike
+     * {@code Pattern.quote} the result needs no \Q...\E support from the server.
+     */
+    public static String escapeLiteral(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (METACHARACTERS.indexOf(c) >= 0) {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
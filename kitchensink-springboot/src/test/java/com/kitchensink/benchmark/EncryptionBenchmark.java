@@ -0,0 +1,67 @@
+package com.kitchensink.benchmark;
+
+import com.kitchensink.service.EncryptionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the Jasypt PBE ("v1:") and AES-GCM ("v1g:") ciphertext formats.
+ * One invocation of {@link #decryptAdminListPage} decrypts what the admin user list decrypts
+ * for a page of 100 users (email + phone per row).
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.args="EncryptionBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EncryptionBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"pbe", "gcm"})
+    public String format;
+
+    private EncryptionService encryptionService;
+    private String[] emails;
+    private String[] phones;
+
+    @Setup
+    public void setUp() {
+        encryptionService = new EncryptionService("benchmark-password-12345", "1", "", format, 0, "", 0, 16, new SimpleMeterRegistry());
+        emails = new String[PAGE_SIZE];
+        phones = new String[PAGE_SIZE];
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            emails[i] = encryptionService.encrypt("member" + i + "@example.com");
+            phones[i] = encryptionService.encrypt(String.valueOf(9876500000L + i));
+        }
+    }
+
+    @Benchmark
+    public void decryptAdminListPage(Blackhole blackhole) {
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            blackhole.consume(encryptionService.decrypt(emails[i]));
+            blackhole.consume(encryptionService.decrypt(phones[i]));
+        }
+    }
+
+    @Benchmark
+    public String encryptField() {
+        return encryptionService.encrypt("member@example.com");
+    }
+}
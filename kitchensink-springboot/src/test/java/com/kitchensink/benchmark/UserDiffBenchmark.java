@@ -0,0 +1,91 @@
+package com.kitchensink.benchmark;
+
+import com.kitchensink.listener.UserDiff;
+import com.kitchensink.listener.UserSnapshot;
+import com.kitchensink.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning one user save into the inputs of an UPDATE audit entry with {@link UserDiff}: a save that changed
+ * no audited field (login timestamp, role sync), one that changed a single field, and one that changed all of them.
+ * Run with -prof gc to see allocation per save.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.args="UserDiffBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserDiffBenchmark {
+
+    @Param({"none", "one", "all"})
+    public String changes;
+
+    private UserSnapshot before;
+    private User after;
+    private LocalDateTime now;
+
+    @Setup
+    public void setUp() {
+        User user = user("Test User", "ACTIVE", "City");
+        before = UserSnapshot.from(user);
+        after = switch (changes) {
+            case "none" -> user;
+            case "one" -> user("Test User", "INACTIVE", "City");
+            default -> {
+                User changed = user("New Name", "INACTIVE", "New City");
+                changed.setEmailHash("new-email-hash");
+                changed.setPhoneNumberHash("new-phone-hash");
+                changed.setIsdCode("+1");
+                changed.setDateOfBirth("02-02-1992");
+                changed.setAddress("New Address");
+                changed.setCountry("New Country");
+                yield changed;
+            }
+        };
+        now = LocalDateTime.of(2026, 1, 1, 10, 0);
+    }
+
+    @Benchmark
+    public void diffAndBuildAuditFields(Blackhole blackhole) {
+        UserDiff diff = UserDiff.between(before, after);
+        if (!diff.isEmpty()) {
+            blackhole.consume(diff.details(now));
+            blackhole.consume(diff.changedFields());
+            blackhole.consume(diff.oldValues());
+            blackhole.consume(diff.newValues());
+        }
+        blackhole.consume(diff);
+    }
+
+    private static User user(String name, String status, String city) {
+        User user = new User();
+        user.setId("user-1");
+        user.setName(name);
+        user.setEmailHash("email-hash");
+        user.setPhoneNumberHash("phone-hash");
+        user.setIsdCode("+91");
+        user.setDateOfBirth("01-01-1990");
+        user.setAddress("Address");
+        user.setCity(city);
+        user.setCountry("Country");
+        user.setStatus(status);
+        return user;
+    }
+}
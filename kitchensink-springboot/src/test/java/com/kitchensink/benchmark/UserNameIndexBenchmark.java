@@ -0,0 +1,59 @@
+package com.kitchensink.benchmark;
+
+import com.kitchensink.service.UserNameIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admin type-ahead latency of {@link UserNameIndex} over one million synthetic names
+ * (first page of 20, ranked).
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Djmh.args="UserNameIndexBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class UserNameIndexBenchmark {
+
+    private static final String[] FIRST = {"Aarav", "Vivaan", "Aditya", "Ananya", "Diya", "Ishaan", "Kabir", "Meera",
+            "Rohan", "Saanvi", "Arjun", "Priya", "Neha", "Rahul", "Sneha", "Vikram", "Kavya", "Nikhil", "Pooja", "Rohit"};
+    private static final String[] LAST = {"Sharma", "Verma", "Gupta", "Iyer", "Nair", "Reddy", "Patel", "Mehta",
+            "Kapoor", "Joshi", "Menon", "Rao", "Das", "Bose", "Kulkarni", "Chopra", "Malhotra", "Singh", "Khan", "Pillai"};
+
+    @Param({"a", "ro", "sha", "priya m", "kulkar"})
+    public String query;
+
+    private UserNameIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new UserNameIndex(null, true, 100);
+        Random random = new Random(42);
+        for (int i = 0; i < 1_000_000; i++) {
+            String name = FIRST[random.nextInt(FIRST.length)] + " " + LAST[random.nextInt(LAST.length)]
+                    + (random.nextInt(4) == 0 ? " " + Integer.toString(random.nextInt(46656), 36) : "");
+            index.put(Integer.toHexString(i), name);
+        }
+    }
+
+    @Benchmark
+    public UserNameIndex.SearchPage typeAhead() {
+        return index.search(query, 0, 20, Collections.emptySet());
+    }
+}
@@ -1,61 +1,262 @@
 package com.kitchensink.config;
 
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.kitchensink.dto.UserCacheDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 @DisplayName("CacheConfig Tests")
 class CacheConfigTest {
 
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
     @Test
     @DisplayName("Should create cache manager with all caches")
     void testCacheManager() {
-        CacheConfig cacheConfig = new CacheConfig();
-        CacheManager cacheManager = cacheConfig.cacheManager();
+        // When
+        CacheManager cacheManager = new CacheConfig(new CacheProperties(), meterRegistry, List.of()).cacheManager();
+        ((org.springframework.cache.support.SimpleCacheManager) cacheManager).afterPropertiesSet();
+
+        // Then
+        assertThat(cacheManager.getCacheNames())
+                .containsExactlyInAnyOrder("userCache", "roleById", "roleByName", "userIdsByRoleId");
+        Cache cache = cacheManager.getCache("roleById");
+        cache.put("role-1", "ADMIN");
+        assertThat(cache.get("role-1").get()).isEqualTo("ADMIN");
+    }
+
+    @Test
+    @DisplayName("Should bind per-cache specs from configuration")
+    void testSpecsBoundFromConfiguration() {
+        // Given
+        CacheProperties properties = bind(Map.of(
+                "app.cache.specs.userCache.maximum-weight-bytes", "4096",
+                "app.cache.specs.userCache.expire-after-write", "3m",
+                "app.cache.specs.roleById.maximum-size", "50",
+                "app.cache.specs.roleById.expire-after-access", "5m"));
+
+        // When
+        CacheManager cacheManager = new CacheConfig(properties, meterRegistry, List.of()).cacheManager();
+        ((org.springframework.cache.support.SimpleCacheManager) cacheManager).afterPropertiesSet();
 
-        assertThat(cacheManager).isNotNull();
-        assertThat(cacheManager.getCache("userById")).isNotNull();
-        assertThat(cacheManager.getCache("roleById")).isNotNull();
-        assertThat(cacheManager.getCache("roleNameByUserId")).isNotNull();
+        // Then
+        Policy<Object, Object> userPolicy = nativePolicy(cacheManager, "userCache");
+        assertThat(userPolicy.eviction().get().isWeighted()).isTrue();
+        assertThat(userPolicy.eviction().get().getMaximum()).isEqualTo(4096L);
+        assertThat(userPolicy.expireAfterWrite().get().getExpiresAfter()).isEqualTo(Duration.ofMinutes(3));
+
+        Policy<Object, Object> rolePolicy = nativePolicy(cacheManager, "roleById");
+        assertThat(rolePolicy.eviction().get().isWeighted()).isFalse();
+        assertThat(rolePolicy.eviction().get().getMaximum()).isEqualTo(50L);
+        assertThat(rolePolicy.expireAfterAccess().get().getExpiresAfter()).isEqualTo(Duration.ofMinutes(5));
     }
 
     @Test
-    @DisplayName("Should cache user by ID")
-    void testUserByIdCache() {
-        CacheConfig cacheConfig = new CacheConfig();
-        CacheManager cacheManager = cacheConfig.cacheManager();
-        Cache cache = cacheManager.getCache("userById");
+    @DisplayName("Should build refresh-ahead caches only where a spec and a loader exist")
+    void testRefreshAfterWriteRequiresLoader() {
+        // Given
+        CacheProperties properties = bind(Map.of(
+                "app.cache.specs.roleById.refresh-after-write", "5m",
+                "app.cache.specs.roleByName.refresh-after-write", "5m"));
+        CacheRefreshLoader loader = new CacheRefreshLoader("roleById", key -> "reloaded");
+
+        // When
+        CacheManager cacheManager = new CacheConfig(properties, meterRegistry, List.of(loader)).cacheManager();
+        ((org.springframework.cache.support.SimpleCacheManager) cacheManager).afterPropertiesSet();
 
-        assertThat(cache).isNotNull();
-        cache.put("user-1", "test-value");
-        assertThat(cache.get("user-1")).isNotNull();
+        // Then
+        assertThat(((CaffeineCache) cacheManager.getCache("roleById")).getNativeCache()).isInstanceOf(LoadingCache.class);
+        assertThat(nativePolicy(cacheManager, "roleById").refreshAfterWrite().get().getRefreshesAfter())
+                .isEqualTo(Duration.ofMinutes(5));
+        assertThat(((CaffeineCache) cacheManager.getCache("roleByName")).getNativeCache())
+                .isNotInstanceOf(LoadingCache.class);
     }
 
     @Test
-    @DisplayName("Should cache role by ID")
-    void testRoleByIdCache() {
-        CacheConfig cacheConfig = new CacheConfig();
-        CacheManager cacheManager = cacheConfig.cacheManager();
+    @DisplayName("Should keep serving the stale value while a refresh is in flight")
+    @SuppressWarnings("unchecked")
+    void testRefreshServesStaleValue() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        CacheRefreshLoader loader = new CacheRefreshLoader("roleById", key -> {
+            release.await(5, TimeUnit.SECONDS);
+            return "ADMIN-v2";
+        });
+        CacheProperties properties = bind(Map.of("app.cache.specs.roleById.refresh-after-write", "5m"));
+        CacheManager cacheManager = new CacheConfig(properties, meterRegistry, List.of(loader)).cacheManager();
+        ((org.springframework.cache.support.SimpleCacheManager) cacheManager).afterPropertiesSet();
         Cache cache = cacheManager.getCache("roleById");
+        cache.put("role-1", "ADMIN-v1");
+        LoadingCache<Object, Object> nativeCache =
+                (LoadingCache<Object, Object>) ((CaffeineCache) cache).getNativeCache();
 
-        assertThat(cache).isNotNull();
-        cache.put("role-1", "ADMIN");
-        assertThat(cache.get("role-1")).isNotNull();
+        // When
+        CompletableFuture<Object> refresh = nativeCache.refresh("role-1");
+
+        // Then
+        assertThat(cache.get("role-1").get()).isEqualTo("ADMIN-v1");
+        release.countDown();
+        assertThat(refresh.get(5, TimeUnit.SECONDS)).isEqualTo("ADMIN-v2");
+        // The reloaded value is stored by a callback on the refresh future, which may run after get returns
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!"ADMIN-v2".equals(cache.get("role-1").get()) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(cache.get("role-1").get()).isEqualTo("ADMIN-v2");
     }
 
     @Test
-    @DisplayName("Should cache role name by user ID")
-    void testRoleNameByUserIdCache() {
-        CacheConfig cacheConfig = new CacheConfig();
-        CacheManager cacheManager = cacheConfig.cacheManager();
-        Cache cache = cacheManager.getCache("roleNameByUserId");
+    @DisplayName("Should not load a missing key through the refresh loader")
+    void testRefreshLoaderNotUsedForMisses() {
+        // Given
+        AtomicInteger refreshLoads = new AtomicInteger();
+        CacheRefreshLoader loader = new CacheRefreshLoader("roleById", key -> {
+            refreshLoads.incrementAndGet();
+            return "reloaded";
+        });
+        CacheProperties properties = bind(Map.of("app.cache.specs.roleById.refresh-after-write", "5m"));
+        CacheManager cacheManager = new CacheConfig(properties, meterRegistry, List.of(loader)).cacheManager();
+        ((org.springframework.cache.support.SimpleCacheManager) cacheManager).afterPropertiesSet();
+        Cache cache = cacheManager.getCache("roleById");
+
+        // When
+        Cache.ValueWrapper miss = cache.get("role-1");
+        Object loaded = cache.get("role-1", () -> "ADMIN");
 
-        assertThat(cache).isNotNull();
-        cache.put("user-1", "USER");
-        assertThat(cache.get("user-1")).isNotNull();
+        // Then
+        assertThat(miss).isNull();
+        assertThat(loaded).isEqualTo("ADMIN");
+        assertThat(refreshLoads).hasValue(0);
+        assertThat(meterRegistry.get("cache.miss.loads").tags("cache", "roleById", "outcome", "loaded")
+                .counter().count()).isEqualTo(1.0);
     }
-}
 
+    @Test
+    @DisplayName("Should build an off-heap cache when a spec sets off-heap-bytes")
+    void testOffHeapSpecSelected() {
+        // Given
+        CacheProperties properties = bind(Map.of("app.cache.specs.userCache.off-heap-bytes", "1048576"));
+
+        // When
+        CacheManager cacheManager = new CacheConfig(properties, meterRegistry, List.of()).cacheManager();
+        ((org.springframework.cache.support.SimpleCacheManager) cacheManager).afterPropertiesSet();
+
+        // Then
+        assertThat(cacheManager.getCache("userCache")).isInstanceOf(OffHeapCache.class);
+        assertThat(cacheManager.getCache("roleById")).isInstanceOf(CaffeineCache.class);
+        assertThat(meterRegistry.get("cache.offheap.capacity").tag("cache", "userCache").gauge().value())
+                .isEqualTo(1048576.0);
+    }
+
+    @Test
+    @DisplayName("Should evict by estimated bytes when a weight budget is set")
+    void testWeightBoundedEviction() {
+        // Given - room for roughly three profiles
+        UserCacheDTO sample = userDto("user-0");
+        long entryWeight = new CacheEntryWeigher().weigh("user:user-0", sample);
+        CacheProperties properties = bind(Map.of(
+                "app.cache.specs.userCache.maximum-weight-bytes", String.valueOf(entryWeight * 3)));
+        CacheManager cacheManager = new CacheConfig(properties, meterRegistry, List.of()).cacheManager();
+        ((org.springframework.cache.support.SimpleCacheManager) cacheManager).afterPropertiesSet();
+        CaffeineCache cache = (CaffeineCache) cacheManager.getCache("userCache");
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            cache.put("user:user-" + i, userDto("user-" + i));
+        }
+        cache.getNativeCache().cleanUp();
+
+        // Then
+        assertThat(cache.getNativeCache().estimatedSize()).isLessThanOrEqualTo(3);
+        assertThat(meterRegistry.get("cache.weighted.size").tag("cache", "userCache").gauge().value())
+                .isLessThanOrEqualTo(entryWeight * 3);
+    }
+
+    @Test
+    @DisplayName("Should publish hit, miss and eviction metrics for every cache")
+    void testCacheMetricsRegistered() {
+        // Given
+        CacheManager cacheManager = new CacheConfig(new CacheProperties(), meterRegistry, List.of()).cacheManager();
+        ((org.springframework.cache.support.SimpleCacheManager) cacheManager).afterPropertiesSet();
+        Cache cache = cacheManager.getCache("roleByName");
+
+        // When
+        cache.put("ADMIN", "role-1");
+        cache.get("ADMIN");
+        cache.get("USER");
+
+        // Then
+        assertThat(meterRegistry.get("cache.gets").tags("cache", "roleByName", "result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("cache.gets").tags("cache", "roleByName", "result", "miss")
+                .functionCounter().count()).isEqualTo(1.0);
+        for (String cacheName : cacheManager.getCacheNames()) {
+            assertThat(meterRegistry.find("cache.evictions").tag("cache", cacheName).functionCounter()).isNotNull();
+            assertThat(meterRegistry.find("cache.size").tag("cache", cacheName)
+                    .tag("cacheManager", "cacheManager").gauge()).isNotNull();
+        }
+    }
+
+    @Test
+    @DisplayName("Should weigh profiles by their field sizes")
+    void testUserCacheDtoWeight() {
+        // Given
+        UserCacheDTO small = new UserCacheDTO();
+        small.setId("user-1");
+        UserCacheDTO large = userDto("user-1");
+        large.setAddress("x".repeat(500));
+
+        // Then
+        assertThat(large.estimatedSizeBytes()).isGreaterThan(small.estimatedSizeBytes() + 500);
+        assertThat(CacheEntryWeigher.sizeOf("roleName:user-1")).isEqualTo(40 + "roleName:user-1".length());
+    }
+
+    private static CacheProperties bind(Map<String, String> values) {
+        return new Binder(new MapConfigurationPropertySource(values))
+                .bind("app.cache", CacheProperties.class)
+                .get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Policy<Object, Object> nativePolicy(CacheManager cacheManager, String cacheName) {
+        return ((CaffeineCache) cacheManager.getCache(cacheName)).getNativeCache().policy();
+    }
+
+    private static UserCacheDTO userDto(String id) {
+        UserCacheDTO dto = new UserCacheDTO();
+        dto.setId(id);
+        dto.setName("Test User " + id);
+        dto.setEmailEncrypted("v1g:" + "a".repeat(80));
+        dto.setPhoneNumberEncrypted("v1g:" + "b".repeat(60));
+        dto.setEmailHash("c".repeat(64));
+        dto.setPhoneNumberHash("d".repeat(64));
+        dto.setCity("Mumbai");
+        dto.setCountry("India");
+        dto.setStatus("ACTIVE");
+        dto.setRegistrationDate(java.time.LocalDateTime.now());
+        return dto;
+    }
+}
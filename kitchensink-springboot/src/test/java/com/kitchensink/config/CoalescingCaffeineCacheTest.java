@@ -0,0 +1,169 @@
+package com.kitchensink.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kitchensink.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("CoalescingCaffeineCache Tests")
+class CoalescingCaffeineCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CoalescingCaffeineCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new CoalescingCaffeineCache("roleByName", Caffeine.newBuilder().recordStats().build(), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should run one load for concurrent misses on the same key")
+    void testConcurrentMissesShareOneLoad() throws Exception {
+        // Given
+        int callers = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderEntered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            // When
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cache.get("ADMIN", () -> {
+                loads.incrementAndGet();
+                loaderEntered.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return "role-admin";
+            })));
+            assertThat(loaderEntered.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 1; i < callers; i++) {
+                results.add(executor.submit(() -> cache.get("ADMIN", () -> {
+                    loads.incrementAndGet();
+                    return "role-admin";
+                })));
+            }
+            while (coalescedCount() < callers - 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            // Then
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("role-admin");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.miss.loads").tags("cache", "roleByName", "outcome", "loaded")
+                .counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("cache.miss.inflight").tag("cache", "roleByName").gauge().value()).isZero();
+        assertThat(cache.get("ADMIN").get()).isEqualTo("role-admin");
+    }
+
+    @Test
+    @DisplayName("Should serve cached values without loading")
+    void testHitSkipsLoader() {
+        // Given
+        cache.put("ADMIN", "role-admin");
+
+        // When
+        String value = cache.get("ADMIN", () -> "reloaded");
+
+        // Then
+        assertThat(value).isEqualTo("role-admin");
+        assertThat(meterRegistry.get("cache.miss.loads").tags("cache", "roleByName", "outcome", "loaded")
+                .counter().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should hand the loader's failure to the caller and cache nothing")
+    void testLoaderFailurePropagates() {
+        // When / Then
+        assertThatThrownBy(() -> cache.get("MISSING", () -> {
+            throw new ResourceNotFoundException("Role", "MISSING");
+        }))
+                .isInstanceOf(Cache.ValueRetrievalException.class)
+                .hasCauseInstanceOf(ResourceNotFoundException.class);
+        assertThat(cache.get("MISSING")).isNull();
+        assertThat(cache.get("MISSING", () -> "created")).isEqualTo("created");
+    }
+
+    @Test
+    @DisplayName("Should not store a value loaded before an eviction that ran during the load")
+    void testEvictDuringLoadDropsStaleValue() throws Exception {
+        // Given
+        CountDownLatch loaderEntered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> stale = executor.submit(() -> cache.get("user:1", () -> {
+                loaderEntered.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return "before-write";
+            }));
+            assertThat(loaderEntered.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // When - a write evicts the key while the read that predates it is still loading
+            cache.evict("user:1");
+            release.countDown();
+
+            // Then
+            assertThat(stale.get(5, TimeUnit.SECONDS)).isEqualTo("before-write");
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(cache.get("user:1")).isNull();
+        assertThat(cache.get("user:1", () -> "after-write")).isEqualTo("after-write");
+        assertThat(meterRegistry.get("cache.miss.inflight").tag("cache", "roleByName").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should start a fresh load for a miss after an eviction instead of joining the stale one")
+    void testMissAfterEvictDoesNotJoinStaleLoad() throws Exception {
+        // Given
+        CountDownLatch loaderEntered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> stale = executor.submit(() -> cache.get("user:1", () -> {
+                loaderEntered.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return "before-write";
+            }));
+            assertThat(loaderEntered.await(5, TimeUnit.SECONDS)).isTrue();
+            cache.clear();
+
+            // When
+            String fresh = cache.get("user:1", () -> "after-write");
+            release.countDown();
+            stale.get(5, TimeUnit.SECONDS);
+
+            // Then
+            assertThat(fresh).isEqualTo("after-write");
+            assertThat(cache.get("user:1").get()).isEqualTo("after-write");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private double coalescedCount() {
+        return meterRegistry.get("cache.miss.loads").tags("cache", "roleByName", "outcome", "coalesced")
+                .counter().count();
+    }
+}
@@ -0,0 +1,72 @@
+package com.kitchensink.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kitchensink.dto.UserFieldSet;
+import com.kitchensink.dto.UserResponseDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("JacksonConfig Tests")
+class JacksonConfigTest {
+
+    private ObjectMapper objectMapper;
+    private UserResponseDTO dto;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().registerModule(new JacksonConfig().sparseFieldsetModule());
+        dto = new UserResponseDTO();
+        dto.setId("user-1");
+        dto.setName("Test User");
+        dto.setCity("City");
+        dto.setEmailEncrypted("v2g:ciphertext");
+    }
+
+    @Test
+    @DisplayName("Should keep null properties when every field was requested")
+    void testAllFields() throws Exception {
+        // When
+        JsonNode json = objectMapper.valueToTree(UserFieldSet.all().applyTo(dto));
+
+        // Then
+        assertThat(json.has("address")).isTrue();
+        assertThat(json.get("address").isNull()).isTrue();
+        assertThat(json.has("email")).isTrue();
+        assertThat(json.has("fieldSet")).isFalse();
+        assertThat(json.has("decryptionFailed")).isFalse();
+        assertThat(json.toString()).doesNotContain("ciphertext");
+    }
+
+    @Test
+    @DisplayName("Should write only id and the requested properties for a sparse fieldset")
+    void testSparseFields() throws Exception {
+        // When
+        JsonNode json = objectMapper.valueToTree(UserFieldSet.parse("name,address").applyTo(dto));
+
+        // Then
+        assertThat(json.size()).isEqualTo(3);
+        assertThat(json.get("id").asText()).isEqualTo("user-1");
+        assertThat(json.get("name").asText()).isEqualTo("Test User");
+        assertThat(json.get("address").isNull()).isTrue();
+        assertThat(json.has("city")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should write the decryption failure marker whatever the fieldset")
+    void testSparseFields_DecryptionFailed() throws Exception {
+        // Given
+        dto.setDecryptionFailed(true);
+
+        // When
+        JsonNode json = objectMapper.valueToTree(UserFieldSet.parse("email").applyTo(dto));
+
+        // Then
+        assertThat(json.get("decryptionFailed").asBoolean()).isTrue();
+        assertThat(json.get("email").isNull()).isTrue();
+        assertThat(json.size()).isEqualTo(3);
+    }
+}
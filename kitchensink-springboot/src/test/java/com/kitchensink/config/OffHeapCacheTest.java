@@ -0,0 +1,147 @@
+package com.kitchensink.config;
+
+import com.kitchensink.dto.UserCacheDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("OffHeapCache Tests")
+class OffHeapCacheTest {
+
+    // 16 segments of 4 KiB: roughly eight profiles per segment
+    private static final long BUDGET_BYTES = 16 * 4096;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicLong clock;
+    private OffHeapCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new AtomicLong(1_000_000L);
+        cache = new OffHeapCache("userCache",
+                new OffHeapStore(BUDGET_BYTES, Duration.ofMinutes(3), null, clock::get), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should round-trip profiles, role names and cached nulls")
+    void testRoundTrip() {
+        // Given
+        UserCacheDTO dto = userDto("user-1");
+        dto.setLastLoginDate(LocalDateTime.of(2026, 3, 1, 10, 15, 30, 123_000_000));
+
+        // When
+        cache.put("user:user-1", dto);
+        cache.put("roleName:user-1", "ADMIN");
+        cache.put("roleName:user-2", null);
+
+        // Then
+        UserCacheDTO cached = cache.get("user:user-1", UserCacheDTO.class);
+        assertThat(cached).isNotSameAs(dto).usingRecursiveComparison().isEqualTo(dto);
+        assertThat(cache.get("roleName:user-1", String.class)).isEqualTo("ADMIN");
+        assertThat(cache.get("roleName:user-2")).isNotNull();
+        assertThat(cache.get("roleName:user-2").get()).isNull();
+        assertThat(cache.get("roleName:user-3")).isNull();
+        assertThat(meterRegistry.get("cache.gets").tags("cache", "userCache", "result", "hit")
+                .functionCounter().count()).isEqualTo(4.0);
+    }
+
+    @Test
+    @DisplayName("Should replace, evict and clear entries")
+    void testReplaceEvictClear() {
+        // Given
+        cache.put("roleName:user-1", "USER");
+
+        // When
+        cache.put("roleName:user-1", "ADMIN");
+        Cache.ValueWrapper existing = cache.putIfAbsent("roleName:user-1", "USER");
+        cache.put("roleName:user-2", "USER");
+        cache.evict("roleName:user-2");
+
+        // Then
+        assertThat(existing.get()).isEqualTo("ADMIN");
+        assertThat(cache.get("roleName:user-1", String.class)).isEqualTo("ADMIN");
+        assertThat(cache.get("roleName:user-2")).isNull();
+        cache.clear();
+        assertThat(cache.get("roleName:user-1")).isNull();
+        assertThat(meterRegistry.get("cache.size").tag("cache", "userCache").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should stay within the byte budget by evicting the oldest entries")
+    void testBudgetEviction() {
+        // When
+        for (int i = 0; i < 2000; i++) {
+            cache.put("user:user-" + i, userDto("user-" + i));
+        }
+
+        // Then
+        OffHeapStore store = (OffHeapStore) cache.getNativeCache();
+        assertThat(store.usedBytes()).isLessThanOrEqualTo(BUDGET_BYTES);
+        assertThat(store.size()).isBetween(1L, 200L);
+        assertThat(cache.get("user:user-1999", UserCacheDTO.class).getId()).isEqualTo("user-1999");
+        assertThat(cache.get("user:user-0")).isNull();
+        assertThat(meterRegistry.get("cache.evictions").tag("cache", "userCache").functionCounter().count())
+                .isEqualTo(2000.0 - store.size());
+    }
+
+    @Test
+    @DisplayName("Should keep an entry that is read regularly while colder ones are evicted")
+    void testHotEntrySurvivesEviction() {
+        // Given
+        cache.put("user:hot", userDto("hot"));
+
+        // When
+        for (int i = 0; i < 2000; i++) {
+            cache.put("user:user-" + i, userDto("user-" + i));
+            assertThat(cache.get("user:hot")).as("hot entry after %d puts", i).isNotNull();
+        }
+
+        // Then
+        assertThat(cache.get("user:hot", UserCacheDTO.class).getId()).isEqualTo("hot");
+    }
+
+    @Test
+    @DisplayName("Should expire entries after the write TTL")
+    void testExpireAfterWrite() {
+        // Given
+        cache.put("roleName:user-1", "ADMIN");
+
+        // When
+        clock.addAndGet(Duration.ofMinutes(3).toMillis());
+
+        // Then
+        assertThat(cache.get("roleName:user-1")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reject values it cannot serialize")
+    void testUnsupportedValue() {
+        assertThatThrownBy(() -> cache.put("user:user-1", 42L)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static UserCacheDTO userDto(String id) {
+        UserCacheDTO dto = new UserCacheDTO();
+        dto.setId(id);
+        dto.setName("Test User " + id);
+        dto.setEmailEncrypted("v1g:" + "a".repeat(80));
+        dto.setPhoneNumberEncrypted("v1g:" + "b".repeat(60));
+        dto.setEmailHash("c".repeat(64));
+        dto.setPhoneNumberHash("d".repeat(64));
+        dto.setCity("Mumbai");
+        dto.setCountry("India");
+        dto.setStatus("ACTIVE");
+        dto.setRegistrationDate(LocalDateTime.of(2025, 1, 1, 9, 0));
+        dto.setCachedAt(42L);
+        return dto;
+    }
+}
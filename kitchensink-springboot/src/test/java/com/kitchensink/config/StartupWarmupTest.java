@@ -0,0 +1,100 @@
+package com.kitchensink.config;
+
+import com.kitchensink.model.Role;
+import com.kitchensink.model.User;
+import com.kitchensink.repository.RoleRepository;
+import com.kitchensink.service.RoleService;
+import com.kitchensink.service.UserProfileCache;
+import com.kitchensink.service.UserRoleService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StartupWarmup Tests")
+class StartupWarmupTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    @Mock
+    private RoleService roleService;
+
+    @Mock
+    private UserRoleService userRoleService;
+
+    @Mock
+    private UserProfileCache userProfileCache;
+
+    private ConcurrentMapCacheManager cacheManager;
+    private SimpleMeterRegistry meterRegistry;
+    private Role adminRole;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager("roleById", "roleByName");
+        meterRegistry = new SimpleMeterRegistry();
+        adminRole = new Role("ADMIN", "Administrator");
+        adminRole.setId("role-admin");
+    }
+
+    private StartupWarmup newWarmup(long timeoutMillis) {
+        return new StartupWarmup(mongoTemplate, roleRepository, roleService, userRoleService, userProfileCache,
+                cacheManager, meterRegistry, true, timeoutMillis, 0, 50);
+    }
+
+    @Test
+    @DisplayName("Should preload roles, admin ids and recent users, then record the duration")
+    void testRun_WarmsCaches() {
+        // Given
+        User recent = new User();
+        recent.setId("user-1");
+        when(roleRepository.findAll()).thenReturn(List.of(adminRole));
+        when(roleService.getRoleByName("ADMIN")).thenReturn(adminRole);
+        when(mongoTemplate.find(any(Query.class), eq(User.class))).thenReturn(List.of(recent));
+        when(userProfileCache.preload(List.of(recent))).thenReturn(1);
+
+        // When
+        newWarmup(5000).run();
+
+        // Then
+        assertThat(cacheManager.getCache("roleById").get("role-admin").get()).isSameAs(adminRole);
+        assertThat(cacheManager.getCache("roleByName").get("ADMIN").get()).isSameAs(adminRole);
+        verify(userRoleService).getAllUserIdsByRoleId("role-admin");
+        verify(roleService).getRoleNamesByUserIds(List.of("user-1"));
+        assertThat(meterRegistry.get("app.warmup.duration").tag("outcome", "completed").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should release startup once the timeout expires")
+    void testRun_TimesOut() {
+        // Given
+        when(roleRepository.findAll()).thenAnswer(invocation -> {
+            Thread.sleep(5000);
+            return List.of();
+        });
+
+        // When
+        newWarmup(50).run();
+
+        // Then
+        assertThat(meterRegistry.get("app.warmup.duration").tag("outcome", "timed_out").timer().count()).isEqualTo(1);
+    }
+}
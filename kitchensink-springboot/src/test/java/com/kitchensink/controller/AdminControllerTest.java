@@ -2,19 +2,21 @@ package com.kitchensink.controller;
 
 import com.kitchensink.dto.Response;
 import com.kitchensink.dto.UpdateRequestResponseDTO;
+import com.kitchensink.dto.UserFieldSet;
 import com.kitchensink.dto.UserRequestDTO;
 import com.kitchensink.dto.UserResponseDTO;
 import com.kitchensink.model.UpdateRequest;
 import com.kitchensink.model.User;
 import com.kitchensink.service.EmailService;
+import com.kitchensink.service.EncryptionService;
 import com.kitchensink.service.RoleService;
 import com.kitchensink.service.UpdateRequestService;
+import com.kitchensink.service.UserResponseMapper;
 import com.kitchensink.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
@@ -46,17 +48,23 @@ class AdminControllerTest {
     @Mock
     private RoleService roleService;
 
+    @Mock
+    private EncryptionService encryptionService;
+
     @Mock
     private Authentication authentication;
 
-    @InjectMocks
     private AdminController adminController;
 
     private User testUser;
+    private UserResponseDTO testRow;
     private UserRequestDTO userRequestDTO;
 
     @BeforeEach
     void setUp() {
+        adminController = new AdminController(userService, updateRequestService, emailService,
+                new UserResponseMapper(encryptionService, roleService));
+
         testUser = new User();
         testUser.setId("user-1");
         testUser.setName("Test User");
@@ -70,6 +78,12 @@ class AdminControllerTest {
         testUser.setRegistrationDate(LocalDateTime.now());
         testUser.setStatus("ACTIVE");
 
+        testRow = new UserResponseDTO();
+        testRow.setId("user-1");
+        testRow.setName("Test User");
+        testRow.setCity("Test City");
+        testRow.setStatus("ACTIVE");
+
         userRequestDTO = new UserRequestDTO();
         userRequestDTO.setName("New User");
         userRequestDTO.setEmail("newuser@example.com");
@@ -84,145 +98,171 @@ class AdminControllerTest {
     @Test
     @DisplayName("Should get all users successfully with default parameters")
     void testGetAllUsers() {
-        com.kitchensink.dto.CursorPageResponse<User> cursorPage = 
+        com.kitchensink.dto.CursorPageResponse<UserResponseDTO> cursorPage = 
                 new com.kitchensink.dto.CursorPageResponse<>(
-                        Collections.singletonList(testUser),
+                        Collections.singletonList(testRow),
                         "user-1",
                         null,
                         false,
                         false,
                         1
                 );
-        when(userService.getAllUsersExcludingAdminsCursor(null, 10, com.kitchensink.enums.Direction.NEXT))
+        when(userService.getAllUsersExcludingAdminsCursor(eq(null), eq(10), eq(com.kitchensink.enums.Direction.NEXT), any(UserFieldSet.class)))
                 .thenReturn(cursorPage);
-        when(roleService.getRoleNameByUserId(anyString())).thenReturn("USER");
 
         ResponseEntity<Response<com.kitchensink.dto.CursorPageResponse<UserResponseDTO>>> response = 
-                adminController.getAllUsers(10, null, null);
+                adminController.getAllUsers(10, null, null, null);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isNotNull();
         assertThat(response.getBody().isSuccess()).isTrue();
         assertThat(response.getBody().getData()).isNotNull();
-        verify(userService).getAllUsersExcludingAdminsCursor(null, 10, com.kitchensink.enums.Direction.NEXT);
+        verify(userService).getAllUsersExcludingAdminsCursor(eq(null), eq(10), eq(com.kitchensink.enums.Direction.NEXT), any(UserFieldSet.class));
     }
 
     @Test
     @DisplayName("Should get all users with cursor pagination - first page")
     void testGetAllUsers_CursorFirstPage() {
-        com.kitchensink.dto.CursorPageResponse<User> cursorPage = 
+        com.kitchensink.dto.CursorPageResponse<UserResponseDTO> cursorPage = 
                 new com.kitchensink.dto.CursorPageResponse<>(
-                        Collections.singletonList(testUser),
+                        Collections.singletonList(testRow),
                         "user-1",
                         null,
                         true,
                         false,
                         1
                 );
-        when(userService.getAllUsersExcludingAdminsCursor(null, 10, com.kitchensink.enums.Direction.NEXT))
+        when(userService.getAllUsersExcludingAdminsCursor(eq(null), eq(10), eq(com.kitchensink.enums.Direction.NEXT), any(UserFieldSet.class)))
                 .thenReturn(cursorPage);
-        when(roleService.getRoleNameByUserId(anyString())).thenReturn("USER");
 
         ResponseEntity<Response<com.kitchensink.dto.CursorPageResponse<UserResponseDTO>>> response = 
-                adminController.getAllUsers(10, null, "next");
+                adminController.getAllUsers(10, null, "next", null);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isNotNull();
         assertThat(response.getBody().isSuccess()).isTrue();
         assertThat(response.getBody().getData()).isNotNull();
-        verify(userService).getAllUsersExcludingAdminsCursor(null, 10, com.kitchensink.enums.Direction.NEXT);
+        verify(userService).getAllUsersExcludingAdminsCursor(eq(null), eq(10), eq(com.kitchensink.enums.Direction.NEXT), any(UserFieldSet.class));
     }
 
     @Test
     @DisplayName("Should get all users with cursor pagination - next page")
     void testGetAllUsers_CursorNextPage() {
-        com.kitchensink.dto.CursorPageResponse<User> cursorPage = 
+        com.kitchensink.dto.CursorPageResponse<UserResponseDTO> cursorPage = 
                 new com.kitchensink.dto.CursorPageResponse<>(
-                        Collections.singletonList(testUser),
+                        Collections.singletonList(testRow),
                         "user-2",
                         "user-0",
                         true,
                         true,
                         1
                 );
-        when(userService.getAllUsersExcludingAdminsCursor("user-0", 10, com.kitchensink.enums.Direction.NEXT))
+        when(userService.getAllUsersExcludingAdminsCursor(eq("user-0"), eq(10), eq(com.kitchensink.enums.Direction.NEXT), any(UserFieldSet.class)))
                 .thenReturn(cursorPage);
-        when(roleService.getRoleNameByUserId(anyString())).thenReturn("USER");
 
         ResponseEntity<Response<com.kitchensink.dto.CursorPageResponse<UserResponseDTO>>> response = 
-                adminController.getAllUsers(10, "user-0", "next");
+                adminController.getAllUsers(10, "user-0", "next", null);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isNotNull();
         assertThat(response.getBody().isSuccess()).isTrue();
         assertThat(response.getBody().getData()).isNotNull();
-        verify(userService).getAllUsersExcludingAdminsCursor("user-0", 10, com.kitchensink.enums.Direction.NEXT);
+        verify(userService).getAllUsersExcludingAdminsCursor(eq("user-0"), eq(10), eq(com.kitchensink.enums.Direction.NEXT), any(UserFieldSet.class));
     }
 
     @Test
     @DisplayName("Should get all users with cursor pagination - previous page")
     void testGetAllUsers_CursorPreviousPage() {
-        com.kitchensink.dto.CursorPageResponse<User> cursorPage = 
+        com.kitchensink.dto.CursorPageResponse<UserResponseDTO> cursorPage = 
                 new com.kitchensink.dto.CursorPageResponse<>(
-                        Collections.singletonList(testUser),
+                        Collections.singletonList(testRow),
                         "user-2",
                         "user-0",
                         true,
                         true,
                         1
                 );
-        when(userService.getAllUsersExcludingAdminsCursor("user-2", 10, com.kitchensink.enums.Direction.PREV))
+        when(userService.getAllUsersExcludingAdminsCursor(eq("user-2"), eq(10), eq(com.kitchensink.enums.Direction.PREV), any(UserFieldSet.class)))
                 .thenReturn(cursorPage);
-        when(roleService.getRoleNameByUserId(anyString())).thenReturn("USER");
 
         ResponseEntity<Response<com.kitchensink.dto.CursorPageResponse<UserResponseDTO>>> response = 
-                adminController.getAllUsers(10, "user-2", "previous");
+                adminController.getAllUsers(10, "user-2", "previous", null);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isNotNull();
         assertThat(response.getBody().isSuccess()).isTrue();
         assertThat(response.getBody().getData()).isNotNull();
-        verify(userService).getAllUsersExcludingAdminsCursor("user-2", 10, com.kitchensink.enums.Direction.PREV);
+        verify(userService).getAllUsersExcludingAdminsCursor(eq("user-2"), eq(10), eq(com.kitchensink.enums.Direction.PREV), any(UserFieldSet.class));
     }
 
     @Test
     @DisplayName("Should get all users with custom size parameter")
     void testGetAllUsers_CustomSize() {
-        com.kitchensink.dto.CursorPageResponse<User> cursorPage = 
+        com.kitchensink.dto.CursorPageResponse<UserResponseDTO> cursorPage = 
                 new com.kitchensink.dto.CursorPageResponse<>(
-                        Collections.singletonList(testUser),
+                        Collections.singletonList(testRow),
                         "user-1",
                         null,
                         false,
                         false,
                         1
                 );
-        when(userService.getAllUsersExcludingAdminsCursor(null, 20, com.kitchensink.enums.Direction.NEXT))
+        when(userService.getAllUsersExcludingAdminsCursor(eq(null), eq(20), eq(com.kitchensink.enums.Direction.NEXT), any(UserFieldSet.class)))
                 .thenReturn(cursorPage);
-        when(roleService.getRoleNameByUserId(anyString())).thenReturn("USER");
 
         ResponseEntity<Response<com.kitchensink.dto.CursorPageResponse<UserResponseDTO>>> response = 
-                adminController.getAllUsers(20, null, null);
+                adminController.getAllUsers(20, null, null, null);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isNotNull();
         assertThat(response.getBody().isSuccess()).isTrue();
-        verify(userService).getAllUsersExcludingAdminsCursor(null, 20, com.kitchensink.enums.Direction.NEXT);
+        verify(userService).getAllUsersExcludingAdminsCursor(eq(null), eq(20), eq(com.kitchensink.enums.Direction.NEXT), any(UserFieldSet.class));
     }
 
     @Test
     @DisplayName("Should search users successfully")
     void testSearchUsers() {
-        when(userService.searchUsersByNameExcludingAdmins("Test")).thenReturn(Collections.singletonList(testUser));
-        when(roleService.getRoleNameByUserId(anyString())).thenReturn("USER");
+        when(userService.searchUsersByNameExcludingAdmins(eq("Test"), any(UserFieldSet.class))).thenReturn(Collections.singletonList(testRow));
 
-        ResponseEntity<Response<List<UserResponseDTO>>> response = adminController.searchUsers("Test");
+        ResponseEntity<Response<List<UserResponseDTO>>> response = adminController.searchUsers("Test", null);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isNotNull();
         assertThat(response.getBody().isSuccess()).isTrue();
         assertThat(response.getBody().getData()).hasSize(1);
-        verify(userService).searchUsersByNameExcludingAdmins("Test");
+        verify(userService).searchUsersByNameExcludingAdmins(eq("Test"), any(UserFieldSet.class));
+    }
+
+    @Test
+    @DisplayName("Should hand the parsed sparse fieldset to the read model")
+    void testSearchUsers_SparseFields() {
+        when(userService.searchUsersByNameExcludingAdmins(eq("Test"), any(UserFieldSet.class)))
+                .thenReturn(Collections.singletonList(testRow));
+
+        ResponseEntity<Response<List<UserResponseDTO>>> response = adminController.searchUsers("Test", "name,city,status");
+
+        assertThat(response.getBody().getData()).containsExactly(testRow);
+        verify(userService).searchUsersByNameExcludingAdmins(eq("Test"), argThat(fields ->
+                fields.includes(UserFieldSet.CITY) && !fields.includes(UserFieldSet.EMAIL) && !fields.includes(UserFieldSet.ROLE)));
+        verifyNoInteractions(roleService, encryptionService);
+    }
+
+    @Test
+    @DisplayName("Should return a cursor page for the paged search")
+    void testSearchUsersPaged() {
+        com.kitchensink.dto.CursorPageResponse<UserResponseDTO> cursorPage = 
+                new com.kitchensink.dto.CursorPageResponse<>(Collections.singletonList(testRow), 
+                        "next-cursor", null, true, false, 1, 1, 0, 0, "next-cursor", null);
+        when(userService.searchUsersByNameExcludingAdminsCursor(eq("Test"), eq(null), eq(20), any(UserFieldSet.class)))
+                .thenReturn(cursorPage);
+
+        ResponseEntity<Response<com.kitchensink.dto.CursorPageResponse<UserResponseDTO>>> response = 
+                adminController.searchUsersPaged("Test", 20, null, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getData().getContent()).hasSize(1);
+        assertThat(response.getBody().getData().getNextCursor()).isEqualTo("next-cursor");
+        assertThat(response.getBody().getData().isHasNext()).isTrue();
     }
 
     @Test
@@ -369,21 +409,20 @@ class AdminControllerTest {
     @Test
     @DisplayName("Should allow admin to access all users endpoint")
     void testGetAllUsers_AdminAccess() {
-        com.kitchensink.dto.CursorPageResponse<User> cursorPage = 
+        com.kitchensink.dto.CursorPageResponse<UserResponseDTO> cursorPage = 
                 new com.kitchensink.dto.CursorPageResponse<>(
-                        Collections.singletonList(testUser),
+                        Collections.singletonList(testRow),
                         "user-1",
                         null,
                         false,
                         false,
                         1
                 );
-        when(userService.getAllUsersExcludingAdminsCursor(null, 10, com.kitchensink.enums.Direction.NEXT))
+        when(userService.getAllUsersExcludingAdminsCursor(eq(null), eq(10), eq(com.kitchensink.enums.Direction.NEXT), any(UserFieldSet.class)))
                 .thenReturn(cursorPage);
-        when(roleService.getRoleNameByUserId(anyString())).thenReturn("USER");
 
         ResponseEntity<Response<com.kitchensink.dto.CursorPageResponse<UserResponseDTO>>> response = 
-                adminController.getAllUsers(10, null, null);
+                adminController.getAllUsers(10, null, null, null);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isNotNull();
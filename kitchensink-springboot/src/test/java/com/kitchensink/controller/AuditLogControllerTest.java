@@ -0,0 +1,86 @@
+package com.kitchensink.controller;
+
+import com.kitchensink.dto.AuditLogFilter;
+import com.kitchensink.dto.CursorPageResponse;
+import com.kitchensink.dto.Response;
+import com.kitchensink.model.AuditLog;
+import com.kitchensink.service.AuditLogQueryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuditLogController Tests")
+class AuditLogControllerTest {
+
+    @Mock
+    private AuditLogQueryService auditLogQueryService;
+
+    private AuditLogController auditLogController;
+
+    @BeforeEach
+    void setUp() {
+        auditLogController = new AuditLogController(auditLogQueryService);
+    }
+
+    @Test
+    @DisplayName("Should pass filters, cursor and size to the query service")
+    void testGetAuditLogs() {
+        // Given
+        LocalDateTime from = LocalDateTime.of(2026, 1, 1, 0, 0);
+        AuditLog log = new AuditLog("USER", "user-1", "UPDATE", "details");
+        CursorPageResponse<AuditLog> page = new CursorPageResponse<>(List.of(log), "next", null, true, false, 1);
+        when(auditLogQueryService.getAuditLogs(any(AuditLogFilter.class), eq("cursor-1"), eq(25))).thenReturn(page);
+
+        // When
+        ResponseEntity<Response<CursorPageResponse<AuditLog>>> response = auditLogController.getAuditLogs(
+                "USER", "user-1", null, "", "corr-1", from, null, 25, "cursor-1");
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getData()).isSameAs(page);
+        ArgumentCaptor<AuditLogFilter> filter = ArgumentCaptor.forClass(AuditLogFilter.class);
+        verify(auditLogQueryService).getAuditLogs(filter.capture(), eq("cursor-1"), eq(25));
+        assertThat(filter.getValue())
+                .isEqualTo(new AuditLogFilter("USER", "user-1", null, null, "corr-1", from, null));
+    }
+
+    @Test
+    @DisplayName("Should stream the export as an NDJSON attachment")
+    void testExportAuditLogs() throws Exception {
+        // Given
+        when(auditLogQueryService.exportAuditLogs(any(AuditLogFilter.class), any())).thenReturn(0L);
+
+        // When
+        ResponseEntity<StreamingResponseBody> response = auditLogController.exportAuditLogs(
+                null, null, "DELETE", null, null, null, null);
+
+        // Then
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION)).startsWith("attachment");
+        verifyNoInteractions(auditLogQueryService);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        verify(auditLogQueryService).exportAuditLogs(
+                new AuditLogFilter(null, null, "DELETE", null, null, null, null), out);
+    }
+}
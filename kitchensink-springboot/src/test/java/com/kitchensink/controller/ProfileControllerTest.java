@@ -3,6 +3,7 @@ package com.kitchensink.controller;
 import com.kitchensink.dto.FieldUpdateRequestDTO;
 import com.kitchensink.dto.Response;
 import com.kitchensink.dto.UpdateRequestResponseDTO;
+import com.kitchensink.dto.UserFieldSet;
 import com.kitchensink.dto.UserResponseDTO;
 import com.kitchensink.exception.ResourceConflictException;
 import com.kitchensink.service.ProfileService;
@@ -60,15 +61,15 @@ class ProfileControllerTest {
     @Test
     @DisplayName("Should get profile successfully")
     void testGetProfile() {
-        when(profileService.getProfile("user-1")).thenReturn(userResponseDTO);
+        when(profileService.getProfile(eq("user-1"), any(UserFieldSet.class))).thenReturn(userResponseDTO);
 
-        ResponseEntity<Response<UserResponseDTO>> response = profileController.getProfile("user-1");
+        ResponseEntity<Response<UserResponseDTO>> response = profileController.getProfile("user-1", null);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isNotNull();
         assertThat(response.getBody().isSuccess()).isTrue();
         assertThat(response.getBody().getData().getId()).isEqualTo("user-1");
-        verify(profileService).getProfile("user-1");
+        verify(profileService).getProfile(eq("user-1"), any(UserFieldSet.class));
     }
 
     @Test
@@ -202,9 +203,9 @@ class ProfileControllerTest {
         otherUserDTO.setName("Other User");
         otherUserDTO.setEmail("other@example.com");
 
-        when(profileService.getProfile("user-2")).thenReturn(otherUserDTO);
+        when(profileService.getProfile(eq("user-2"), any(UserFieldSet.class))).thenReturn(otherUserDTO);
 
-        ResponseEntity<Response<UserResponseDTO>> response = profileController.getProfile("user-2");
+        ResponseEntity<Response<UserResponseDTO>> response = profileController.getProfile("user-2", null);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isNotNull();
@@ -216,9 +217,9 @@ class ProfileControllerTest {
     @Test
     @DisplayName("Should allow user to access own profile")
     void testGetProfile_UserOwnProfile() {
-        when(profileService.getProfile("user-1")).thenReturn(userResponseDTO);
+        when(profileService.getProfile(eq("user-1"), any(UserFieldSet.class))).thenReturn(userResponseDTO);
 
-        ResponseEntity<Response<UserResponseDTO>> response = profileController.getProfile("user-1");
+        ResponseEntity<Response<UserResponseDTO>> response = profileController.getProfile("user-1", null);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isNotNull();
@@ -0,0 +1,55 @@
+package com.kitchensink.dto;
+
+import com.kitchensink.exception.BadRequestException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("UserFieldSet Tests")
+class UserFieldSetTest {
+
+    @Test
+    @DisplayName("Should select every field when no fields are given")
+    void testParse_Blank() {
+        assertThat(UserFieldSet.parse(null).isAll()).isTrue();
+        assertThat(UserFieldSet.parse(" ").isAll()).isTrue();
+        assertThat(UserFieldSet.parse(null).documentFields()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should map requested fields to stored document fields")
+    void testParse_DocumentFields() {
+        UserFieldSet fields = UserFieldSet.parse("name, city,status,email,role");
+
+        assertThat(fields.includes(UserFieldSet.EMAIL)).isTrue();
+        assertThat(fields.includes(UserFieldSet.PHONE_NUMBER)).isFalse();
+        assertThat(fields.documentFields()).containsExactly("name", "city", "status", "emailEncrypted", "role");
+    }
+
+    @Test
+    @DisplayName("Should reject unknown field names")
+    void testParse_UnknownField() {
+        assertThatThrownBy(() -> UserFieldSet.parse("name,password"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("password");
+    }
+
+    @Test
+    @DisplayName("Should clear response fields that were not requested")
+    void testApplyTo() {
+        UserResponseDTO dto = new UserResponseDTO();
+        dto.setId("user-1");
+        dto.setName("Test User");
+        dto.setEmail("test@example.com");
+        dto.setCity("City");
+
+        UserFieldSet.parse("name,city").applyTo(dto);
+
+        assertThat(dto.getId()).isEqualTo("user-1");
+        assertThat(dto.getName()).isEqualTo("Test User");
+        assertThat(dto.getCity()).isEqualTo("City");
+        assertThat(dto.getEmail()).isNull();
+    }
+}
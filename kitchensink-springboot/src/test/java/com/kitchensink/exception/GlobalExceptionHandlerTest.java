@@ -9,6 +9,7 @@ import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.MDC;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -80,6 +81,21 @@ class GlobalExceptionHandlerTest {
         assertThat(response.getBody().getCorrelationId()).isEqualTo("test-correlation-id");
     }
 
+    @Test
+    @DisplayName("Should handle QueryTimeoutException")
+    void testHandleQueryTimeoutException() {
+        // Given
+        QueryTimeoutException ex = new QueryTimeoutException("Search took too long, please refine the query");
+
+        // When
+        ResponseEntity<Response<Void>> response = exceptionHandler.handleQueryTimeoutException(ex);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getBody().getError().getCode()).isEqualTo("QUERY_TIMEOUT");
+        assertThat(response.getBody().getMessage()).contains("refine");
+    }
+
     @Test
     @DisplayName("Should handle ResourceConflictException")
     void testHandleResourceConflictException() {
@@ -99,6 +115,23 @@ class GlobalExceptionHandlerTest {
         assertThat(response.getBody().getCorrelationId()).isEqualTo("test-correlation-id");
     }
 
+    @Test
+    @DisplayName("Should map BadRequestException to 400 with the offending parameter")
+    void testHandleBadRequestException() {
+        // Given
+        BadRequestException ex = new BadRequestException("Unknown field: password", "fields");
+
+        // When
+        ResponseEntity<Response<Map<String, String>>> response = exceptionHandler.handleBadRequestException(ex);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().isSuccess()).isFalse();
+        assertThat(response.getBody().getError().getCode()).isEqualTo("BAD_REQUEST");
+        assertThat(response.getBody().getData()).containsEntry("fields", "Unknown field: password");
+    }
+
     @Test
     @DisplayName("Should handle DuplicateKeyException for email")
     void testHandleDuplicateKeyException_Email() {
@@ -61,6 +61,20 @@ class RequestLoggingFilterTest {
         verify(filterChain).doFilter(any(ContentCachingRequestWrapper.class), any(ContentCachingResponseWrapper.class));
     }
 
+    @Test
+    @DisplayName("Should pass the audit log export through without caching its streamed body")
+    void testDoFilterInternal_StreamingExportNotCached() throws ServletException, IOException {
+        when(request.getRequestURI()).thenReturn("/v1/admin/audit-logs/export");
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getRemoteAddr()).thenReturn("127.0.0.1");
+        when(request.getHeader("X-Correlation-ID")).thenReturn("test-correlation-id");
+        when(response.getStatus()).thenReturn(200);
+
+        requestLoggingFilter.doFilterInternal(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+    }
+
     @Test
     @DisplayName("Should skip logging for actuator endpoints")
     void testDoFilterInternal_SkipActuator() throws ServletException, IOException {
@@ -0,0 +1,139 @@
+package com.kitchensink.listener;
+
+import com.kitchensink.service.UserIdentifierFilter;
+import com.kitchensink.service.UserNameIndex;
+import com.kitchensink.service.UserProfileCache;
+import com.mongodb.client.model.changestream.OperationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CacheInvalidationChangeStreamListener Tests")
+class CacheInvalidationChangeStreamListenerTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private UserProfileCache userProfileCache;
+
+    @Mock
+    private UserNameIndex userNameIndex;
+
+    @Mock
+    private UserIdentifierFilter userIdentifierFilter;
+
+    private CacheManager cacheManager;
+    private SimpleMeterRegistry meterRegistry;
+    private CacheInvalidationChangeStreamListener listener;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager("userCache", "roleById", "roleByName", "userIdsByRoleId");
+        meterRegistry = new SimpleMeterRegistry();
+        listener = new CacheInvalidationChangeStreamListener(mongoTemplate, cacheManager, userProfileCache,
+                userNameIndex, userIdentifierFilter, true, "node-1", 5000, 10, meterRegistry);
+        cacheManager.getCache("userCache").put("roleName:user-1", "ADMIN");
+        cacheManager.getCache("userCache").put("roleName:user-2", "USER");
+        cacheManager.getCache("userIdsByRoleId").put("role-admin", List.of("user-1"));
+        cacheManager.getCache("roleById").put("role-admin", "ADMIN");
+    }
+
+    @Test
+    @DisplayName("Should evict the user profile on a users update")
+    void testUserUpdateEvictsProfile() {
+        // When
+        listener.apply("users", OperationType.UPDATE, "user-1", new Document("_id", "user-1").append("name", "Renamed"));
+
+        // Then
+        verify(userProfileCache).evict("user-1");
+        verify(userNameIndex).put("user-1", "Renamed");
+        assertThat(cacheManager.getCache("userCache").get("roleName:user-1")).isNotNull();
+        assertThat(meterRegistry.get("cache.invalidation.events").tag("collection", "users").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should evict the profile and role name on a users delete")
+    void testUserDeleteEvictsRoleName() {
+        // When
+        listener.apply("users", OperationType.DELETE, "user-1", null);
+
+        // Then
+        verify(userProfileCache).evict("user-1");
+        verify(userNameIndex).remove("user-1");
+        assertThat(cacheManager.getCache("userCache").get("roleName:user-1")).isNull();
+        assertThat(cacheManager.getCache("userCache").get("roleName:user-2")).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should add the identifier hashes of users written by other nodes to the filter")
+    void testUserInsertAddsIdentifiers() {
+        // When
+        listener.apply("users", OperationType.INSERT, "user-3", new Document("_id", "user-3")
+                .append("name", "New").append("emailHash", "email-hash").append("phoneNumberHash", "phone-hash"));
+
+        // Then
+        verify(userIdentifierFilter).add("email-hash");
+        verify(userIdentifierFilter).add("phone-hash");
+    }
+
+    @Test
+    @DisplayName("Should evict the user's role name and role member lists on a user_roles change")
+    void testUserRoleChange() {
+        // When
+        listener.apply("user_roles", OperationType.UPDATE, "ur-1",
+                new Document("userId", "user-2").append("roleId", "role-admin"));
+
+        // Then
+        assertThat(cacheManager.getCache("userCache").get("roleName:user-2")).isNull();
+        assertThat(cacheManager.getCache("userCache").get("roleName:user-1")).isNotNull();
+        assertThat(cacheManager.getCache("userIdsByRoleId").get("role-admin")).isNull();
+        verifyNoInteractions(userProfileCache);
+    }
+
+    @Test
+    @DisplayName("Should clear role caches and cached role names on a roles change")
+    void testRoleChange() {
+        // When
+        listener.apply("roles", OperationType.REPLACE, "role-admin", null);
+
+        // Then
+        assertThat(cacheManager.getCache("roleById").get("role-admin")).isNull();
+        assertThat(cacheManager.getCache("userCache").get("roleName:user-1")).isNull();
+        assertThat(cacheManager.getCache("userIdsByRoleId").get("role-admin")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should invalidate and rebuild the identifier filter and name index when the stream cannot resume")
+    void testClearAllRebuildsIndexes() {
+        // When
+        listener.clearAll("ChangeStreamHistoryLost");
+
+        // Then
+        InOrder inOrder = inOrder(userIdentifierFilter);
+        inOrder.verify(userIdentifierFilter).invalidate();
+        inOrder.verify(userIdentifierFilter).rebuild();
+        verify(userNameIndex).rebuild();
+        assertThat(cacheManager.getCache("userCache").get("roleName:user-1")).isNull();
+        assertThat(cacheManager.getCache("roleById").get("role-admin")).isNull();
+        assertThat(meterRegistry.get("cache.invalidation.full.clears").counter().count()).isEqualTo(1.0);
+    }
+}
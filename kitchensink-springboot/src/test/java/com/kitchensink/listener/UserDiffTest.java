@@ -0,0 +1,94 @@
+package com.kitchensink.listener;
+
+import com.kitchensink.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+@DisplayName("UserDiff Tests")
+class UserDiffTest {
+
+    private User before;
+    private User after;
+
+    @BeforeEach
+    void setUp() {
+        before = user();
+        after = user();
+    }
+
+    @Test
+    @DisplayName("Should report no changes when audited fields are equal")
+    void testNoChanges() {
+        // Given
+        after.setLastLoginDate(LocalDateTime.now());
+
+        // When
+        UserDiff diff = UserDiff.between(UserSnapshot.from(before), after);
+
+        // Then
+        assertThat(diff.isEmpty()).isTrue();
+        assertThat(diff.changedFields()).isEmpty();
+        assertThat(diff.oldValues()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should ignore fields that are null on either side")
+    void testNullFieldsIgnored() {
+        // Given
+        after.setCity(null);
+        before.setAddress(null);
+        after.setAddress("New Address");
+
+        // When
+        UserDiff diff = UserDiff.between(UserSnapshot.from(before), after);
+
+        // Then
+        assertThat(diff.isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should build maps and details from changed fields only, masking email and phone")
+    void testChangedFields() {
+        // Given
+        after.setStatus("INACTIVE");
+        after.setPhoneNumberHash("new-phone-hash");
+        after.setName("New Name");
+
+        // When
+        UserDiff diff = UserDiff.between(UserSnapshot.from(before), after);
+
+        // Then
+        assertThat(diff.size()).isEqualTo(3);
+        assertThat(diff.getUserId()).isEqualTo("user-1");
+        assertThat(diff.changedFields()).containsOnly(
+                entry("name", "Name"),
+                entry("phoneNumber", "Phone Number"),
+                entry("status", "Status"));
+        assertThat(diff.oldValues()).containsEntry("phoneNumber", "[ENCRYPTED]").containsEntry("status", "ACTIVE");
+        assertThat(diff.newValues()).containsEntry("phoneNumber", "[ENCRYPTED]").containsEntry("status", "INACTIVE");
+        assertThat(diff.details(LocalDateTime.of(2026, 1, 1, 10, 0)))
+                .isEqualTo("User updated at 2026-01-01T10:00:00: name: 'Test User' -> 'New Name', "
+                        + "phoneNumber: [CHANGED], status: 'ACTIVE' -> 'INACTIVE'");
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setId("user-1");
+        user.setName("Test User");
+        user.setEmailHash("email-hash");
+        user.setPhoneNumberHash("phone-hash");
+        user.setIsdCode("+91");
+        user.setDateOfBirth("01-01-1990");
+        user.setAddress("Address");
+        user.setCity("City");
+        user.setCountry("Country");
+        user.setStatus("ACTIVE");
+        return user;
+    }
+}
@@ -1,14 +1,14 @@
 package com.kitchensink.listener;
 
-import com.kitchensink.model.AuditLog;
 import com.kitchensink.model.User;
-import com.kitchensink.repository.AuditLogRepository;
+import com.kitchensink.service.AuditService;
 import com.kitchensink.util.CorrelationIdUtil;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -20,6 +20,7 @@ import org.springframework.web.context.request.RequestContextHolder;
 
 import jakarta.servlet.http.HttpServletRequest;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -28,7 +29,7 @@ import static org.mockito.Mockito.*;
 class UserMongoEventListenerTest {
 
     @Mock
-    private AuditLogRepository auditLogRepository;
+    private AuditService auditService;
 
     @Mock
     private HttpServletRequest request;
@@ -96,11 +97,10 @@ class UserMongoEventListenerTest {
         testUser.setId(null); // New user
         org.bson.Document document = new org.bson.Document();
         AfterSaveEvent<User> event = new AfterSaveEvent<>(testUser, document, "users");
-        when(auditLogRepository.save(any(AuditLog.class))).thenReturn(new AuditLog());
-
         userMongoEventListener.onAfterSave(event);
 
-        verify(auditLogRepository).save(any(AuditLog.class));
+        verify(auditService).logUserCreated(testUser);
+        verify(auditService, never()).logUserUpdated(any(UserDiff.class));
     }
 
     @Test
@@ -109,11 +109,25 @@ class UserMongoEventListenerTest {
         UserMongoEventListener.setOldUserState(oldUser);
         org.bson.Document document = new org.bson.Document();
         AfterSaveEvent<User> event = new AfterSaveEvent<>(testUser, document, "users");
-        when(auditLogRepository.save(any(AuditLog.class))).thenReturn(new AuditLog());
-
         userMongoEventListener.onAfterSave(event);
 
-        verify(auditLogRepository).save(any(AuditLog.class));
+        ArgumentCaptor<UserDiff> diff = ArgumentCaptor.forClass(UserDiff.class);
+        verify(auditService).logUserUpdated(diff.capture());
+        assertThat(diff.getValue().getUserId()).isEqualTo("user-1");
+        assertThat(diff.getValue().size()).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("Should clear the old state after a save so the next save is audited as a create")
+    void testOnAfterSave_ClearsOldState() {
+        UserMongoEventListener.setOldUserState(oldUser);
+        org.bson.Document document = new org.bson.Document();
+        userMongoEventListener.onAfterSave(new AfterSaveEvent<>(testUser, document, "users"));
+
+        userMongoEventListener.onAfterSave(new AfterSaveEvent<>(testUser, document, "users"));
+
+        verify(auditService).logUserUpdated(any(UserDiff.class));
+        verify(auditService).logUserCreated(testUser);
     }
 
     @Test
@@ -141,12 +155,12 @@ class UserMongoEventListenerTest {
     void testOnAfterSave_Exception() {
         org.bson.Document document = new org.bson.Document();
         AfterSaveEvent<User> event = new AfterSaveEvent<>(testUser, document, "users");
-        when(auditLogRepository.save(any(AuditLog.class))).thenThrow(new RuntimeException("DB Error"));
+        doThrow(new RuntimeException("Audit Error")).when(auditService).logUserCreated(testUser);
 
         userMongoEventListener.onAfterSave(event);
 
         // Should not throw exception, just log error
-        verify(auditLogRepository).save(any(AuditLog.class));
+        verify(auditService).logUserCreated(testUser);
     }
 }
 
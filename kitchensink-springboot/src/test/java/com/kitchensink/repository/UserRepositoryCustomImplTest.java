@@ -0,0 +1,107 @@
+package com.kitchensink.repository;
+
+import com.kitchensink.dto.UserFieldSet;
+import com.kitchensink.model.User;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.DocumentCallbackHandler;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserRepositoryCustomImpl Tests")
+class UserRepositoryCustomImplTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private UserRepositoryCustomImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new UserRepositoryCustomImpl(mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("Should order and bound name pages case-insensitively")
+    void testNamePagesUseCaseInsensitiveCollation() {
+        // Given
+        when(mongoTemplate.getCollectionName(User.class)).thenReturn("users");
+
+        // When
+        repository.findByRoleNotOrderByNameAsc("ADMIN", List.of(), PageRequest.ofSize(10), UserFieldSet.all());
+        repository.findByRoleNotAndNameGreaterThanOrderByNameAsc("ADMIN", List.of(), "alice", "user-1",
+                PageRequest.ofSize(10), UserFieldSet.all());
+        repository.findByRoleNotAndNameLessThanOrderByNameDesc("ADMIN", List.of(), "alice", "user-1",
+                PageRequest.ofSize(10), UserFieldSet.all());
+        repository.searchByNameLiteralAfter("ali", "ADMIN", List.of(), "alice", "user-1", 10, 1000, UserFieldSet.all());
+
+        // Then
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(4))
+                .executeQuery(queries.capture(), eq("users"), any(DocumentCallbackHandler.class));
+        assertThat(queries.getAllValues()).allSatisfy(query -> {
+            assertThat(query.getCollation()).hasValue(UserRepositoryCustomImpl.NAME_ORDER);
+            assertThat(query.getSortObject().keySet()).containsExactly("name", "_id");
+        });
+        assertThat(UserRepositoryCustomImpl.NAME_ORDER.toDocument())
+                .isEqualTo(new Document("locale", "en").append("strength", 2));
+    }
+
+    @Test
+    @DisplayName("Should exclude the given ids on top of the role only when there are any")
+    void testRoleExclusionWithExcludedIds() {
+        // Given
+        when(mongoTemplate.getCollectionName(User.class)).thenReturn("users");
+
+        // When
+        repository.findByRoleNotOrderByNameAsc("ADMIN", List.of("admin-1"), PageRequest.ofSize(10), UserFieldSet.all());
+        repository.findByRoleNotOrderByNameAsc("ADMIN", List.of(), PageRequest.ofSize(10), UserFieldSet.all());
+
+        // Then
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2))
+                .executeQuery(queries.capture(), eq("users"), any(DocumentCallbackHandler.class));
+        assertThat(queries.getAllValues().get(0).getQueryObject())
+                .containsEntry("role", new Document("$ne", "ADMIN"))
+                .containsEntry("_id", new Document("$nin", List.of("admin-1")));
+        assertThat(queries.getAllValues().get(1).getQueryObject())
+                .containsEntry("role", new Document("$ne", "ADMIN"))
+                .doesNotContainKey("_id");
+    }
+
+    @Test
+    @DisplayName("Should remove the user and return only the status it had")
+    void testRemoveById() {
+        // Given
+        User removed = new User();
+        removed.setStatus("ACTIVE");
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(User.class))).thenReturn(removed);
+
+        // When
+        User result = repository.removeById("user-1");
+
+        // Then
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findAndRemove(query.capture(), eq(User.class));
+        assertThat(query.getValue().getQueryObject()).containsEntry("_id", "user-1");
+        assertThat(query.getValue().getFieldsObject()).containsOnlyKeys("status");
+        assertThat(result.getStatus()).isEqualTo("ACTIVE");
+    }
+}
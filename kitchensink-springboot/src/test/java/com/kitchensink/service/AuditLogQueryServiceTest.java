@@ -0,0 +1,164 @@
+package com.kitchensink.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.kitchensink.dto.AuditLogFilter;
+import com.kitchensink.dto.CursorPageResponse;
+import com.kitchensink.exception.BadRequestException;
+import com.kitchensink.model.AuditLog;
+import com.kitchensink.repository.AuditLogRepository;
+import com.kitchensink.util.AuditCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuditLogQueryService Tests")
+class AuditLogQueryServiceTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 1, 1, 10, 0);
+
+    @Mock
+    private AuditLogRepository auditLogRepository;
+
+    private AuditLogQueryService auditLogQueryService;
+    private AuditLogFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        auditLogQueryService = new AuditLogQueryService(auditLogRepository, objectMapper);
+        filter = new AuditLogFilter("USER", " ", null, null, null, null, null);
+    }
+
+    @Test
+    @DisplayName("Should return a full page with a cursor at its last row when more rows exist")
+    void testGetAuditLogs_HasNext() {
+        // Given
+        when(auditLogRepository.findPage(filter, null, null, 3)).thenReturn(logs(3));
+
+        // When
+        CursorPageResponse<AuditLog> page = auditLogQueryService.getAuditLogs(filter, null, 2);
+
+        // Then
+        assertThat(page.getContent()).extracting(AuditLog::getId).containsExactly("log-0", "log-1");
+        assertThat(page.isHasNext()).isTrue();
+        assertThat(page.isHasPrevious()).isFalse();
+        assertThat(page.getSize()).isEqualTo(2);
+        AuditCursor next = AuditCursor.decode(page.getNextCursor());
+        assertThat(next.getId()).isEqualTo("log-1");
+        assertThat(next.getTimestamp()).isEqualTo(BASE.minusSeconds(1));
+    }
+
+    @Test
+    @DisplayName("Should continue from the cursor's position and end without a next cursor")
+    void testGetAuditLogs_LastPage() {
+        // Given
+        String cursor = new AuditCursor(BASE, "log-9").encode();
+        when(auditLogRepository.findPage(filter, BASE, "log-9", 3)).thenReturn(logs(1));
+
+        // When
+        CursorPageResponse<AuditLog> page = auditLogQueryService.getAuditLogs(filter, cursor, 2);
+
+        // Then
+        assertThat(page.getContent()).hasSize(1);
+        assertThat(page.isHasNext()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+        assertThat(page.isHasPrevious()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should clamp the page size to the maximum and default non-positive sizes")
+    void testGetAuditLogs_ClampsSize() {
+        // Given
+        when(auditLogRepository.findPage(eq(filter), isNull(), isNull(), anyInt())).thenReturn(List.of());
+
+        // When
+        auditLogQueryService.getAuditLogs(filter, null, 10_000);
+        auditLogQueryService.getAuditLogs(filter, null, 0);
+
+        // Then
+        verify(auditLogRepository).findPage(filter, null, null, AuditLogQueryService.MAX_PAGE_SIZE + 1);
+        verify(auditLogRepository).findPage(filter, null, null, AuditLogQueryService.DEFAULT_PAGE_SIZE + 1);
+    }
+
+    @Test
+    @DisplayName("Should reject a cursor this API did not issue")
+    void testGetAuditLogs_InvalidCursor() {
+        // When & Then
+        assertThatThrownBy(() -> auditLogQueryService.getAuditLogs(filter, "not-a-cursor", 10))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Invalid cursor");
+        verify(auditLogRepository, never()).findPage(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should export every matching entry as one JSON line and close the cursor")
+    void testExportAuditLogs() throws Exception {
+        // Given
+        AtomicBoolean closed = new AtomicBoolean();
+        when(auditLogRepository.streamAll(filter, AuditLogQueryService.EXPORT_BATCH_SIZE))
+                .thenReturn(logs(3).stream().onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long written = auditLogQueryService.exportAuditLogs(filter, out);
+
+        // Then
+        assertThat(written).isEqualTo(3);
+        assertThat(closed).isTrue();
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).startsWith("{").contains("\"id\":\"log-0\"").contains("\"timestamp\":\"2026-01-01T10:00:00\"");
+    }
+
+    @Test
+    @DisplayName("Should write nothing when no entry matches")
+    void testExportAuditLogs_Empty() throws Exception {
+        // Given
+        when(auditLogRepository.streamAll(filter, AuditLogQueryService.EXPORT_BATCH_SIZE)).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long written = auditLogQueryService.exportAuditLogs(filter, out);
+
+        // Then
+        assertThat(written).isZero();
+        assertThat(out.size()).isZero();
+    }
+
+    private static List<AuditLog> logs(int count) {
+        List<AuditLog> logs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            AuditLog log = new AuditLog("USER", "user-" + i, "UPDATE", "details " + i);
+            log.setId("log-" + i);
+            log.setTimestamp(BASE.minusSeconds(i));
+            logs.add(log);
+        }
+        return logs;
+    }
+}
@@ -0,0 +1,291 @@
+package com.kitchensink.service;
+
+import com.kitchensink.model.AuditLog;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuditPipeline Tests")
+class AuditPipelineTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MongoCollection<Document> collection;
+
+    @Mock
+    private MongoCollection<RawBsonDocument> rawCollection;
+
+    @TempDir
+    Path spoolDir;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AuditPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pipeline != null) {
+            pipeline.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Should write full batches with one insert each and flush the remainder on stop")
+    void testSizeBoundedBatches() {
+        // Given
+        pipeline = pipeline(64, 4, 60_000, AuditPipeline.OverflowPolicy.DROP);
+        stubMongo();
+        for (int i = 0; i < 10; i++) {
+            pipeline.submit(auditLog("user-" + i));
+        }
+
+        // When
+        pipeline.start();
+        verify(rawCollection, timeout(2000).times(2)).insertMany(anyList(), any(InsertManyOptions.class));
+        pipeline.stop();
+
+        // Then
+        assertThat(shippedBatches()).extracting(List::size).containsExactly(4, 4, 2);
+        assertThat(meterRegistry.get("audit.pipeline.batch.size").summary().totalAmount()).isEqualTo(10.0);
+        assertThat(meterRegistry.get("audit.pipeline.queue.depth").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should flush a partial batch once the flush interval has passed")
+    void testTimeBoundedFlush() {
+        // Given
+        pipeline = pipeline(64, 100, 50, AuditPipeline.OverflowPolicy.DROP);
+        stubMongo();
+        pipeline.start();
+
+        // When
+        pipeline.submit(auditLog("user-1"));
+
+        // Then
+        verify(rawCollection, timeout(2000)).insertMany(anyList(), any(InsertManyOptions.class));
+        pipeline.stop();
+        assertThat(shippedBatches()).extracting(List::size).containsExactly(1);
+        assertThat(meterRegistry.get("audit.pipeline.flush.latency").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should drop and count events when the buffer is full under DROP")
+    void testDropOverflow() {
+        // Given
+        pipeline = pipeline(2, 100, 60_000, AuditPipeline.OverflowPolicy.DROP);
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            pipeline.submit(auditLog("user-" + i));
+        }
+
+        // Then
+        assertThat(pipeline.queueDepth()).isEqualTo(2);
+        assertThat(meterRegistry.get("audit.pipeline.events").tag("outcome", "dropped").counter().count()).isEqualTo(1.0);
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("Should write on the caller's thread when the buffer is full under SPILL")
+    void testSpillOverflow() {
+        // Given
+        pipeline = pipeline(2, 100, 60_000, AuditPipeline.OverflowPolicy.SPILL);
+        stubMongo();
+        pipeline.submit(auditLog("user-1"));
+        pipeline.submit(auditLog("user-2"));
+
+        // When
+        AuditLog overflow = auditLog("user-3");
+        pipeline.submit(overflow);
+
+        // Then
+        List<List<RawBsonDocument>> batches = shippedBatches();
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).extracting(document -> document.getString("entityId").getValue())
+                .containsExactly("user-3");
+        assertThat(batches.get(0).get(0).getObjectId("_id").getValue()).isEqualTo(new ObjectId(overflow.getId()));
+        assertThat(pipeline.queueDepth()).isEqualTo(2);
+        assertThat(meterRegistry.get("audit.pipeline.events").tag("outcome", "spilled").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should give up after the block timeout when the buffer stays full under BLOCK")
+    void testBlockOverflowTimesOut() {
+        // Given
+        pipeline = pipeline(2, 100, 60_000, AuditPipeline.OverflowPolicy.BLOCK);
+        pipeline.submit(auditLog("user-1"));
+        pipeline.submit(auditLog("user-2"));
+
+        // When
+        pipeline.submit(auditLog("user-3"));
+
+        // Then
+        assertThat(meterRegistry.get("audit.pipeline.events").tag("outcome", "dropped").counter().count()).isEqualTo(1.0);
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("Should retry a failed batch with the same ids instead of dropping it")
+    void testFailedBatchIsRetried() {
+        // Given
+        pipeline = pipeline(64, 2, 60_000, AuditPipeline.OverflowPolicy.DROP);
+        stubMongo();
+        when(rawCollection.insertMany(anyList(), any(InsertManyOptions.class)))
+                .thenThrow(new RuntimeException("Mongo unavailable"))
+                .thenReturn(null);
+        pipeline.submit(auditLog("user-1"));
+        pipeline.submit(auditLog("user-2"));
+
+        // When
+        pipeline.start();
+
+        // Then
+        verify(rawCollection, timeout(2000).times(2)).insertMany(anyList(), any(InsertManyOptions.class));
+        pipeline.stop();
+        List<List<RawBsonDocument>> attempts = shippedBatches();
+        assertThat(attempts.get(0)).hasSize(2).isEqualTo(attempts.get(1));
+        assertThat(meterRegistry.get("audit.pipeline.write.retries").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("audit.pipeline.events").tag("outcome", "failed").counter().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should count events as failed only when they still cannot be written at shutdown")
+    void testFailedBatchAtShutdown() {
+        // Given
+        pipeline = pipeline(64, 100, 60_000, AuditPipeline.OverflowPolicy.DROP);
+        stubMongo();
+        when(rawCollection.insertMany(anyList(), any(InsertManyOptions.class))).thenThrow(new RuntimeException("DB Error"));
+        pipeline.submit(auditLog("user-1"));
+        pipeline.submit(auditLog("user-2"));
+
+        // When
+        pipeline.stop();
+
+        // Then
+        assertThat(meterRegistry.get("audit.pipeline.events").tag("outcome", "failed").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Should spool events to disk and ship them with their ids once the drainer runs")
+    void testSpooledEventsAreShipped() throws IOException {
+        // Given
+        AuditSpool spool = enabledSpool();
+        pipeline = new AuditPipeline(mongoTemplate, spool, 64, 100, 50, AuditPipeline.OverflowPolicy.DROP, 20, meterRegistry);
+        for (int i = 0; i < 3; i++) {
+            pipeline.submit(auditLog("user-" + i));
+        }
+
+        // When
+        pipeline.start();
+
+        // Then
+        List<RawBsonDocument> shipped = shippedBatches().get(0);
+        assertThat(shipped).extracting(document -> document.getString("entityId").getValue())
+                .containsExactly("user-0", "user-1", "user-2");
+        assertThat(shipped).allSatisfy(document -> {
+            assertThat(document.get("_id").isObjectId()).isTrue();
+            assertThat(document.get("timestamp").isDateTime()).isTrue();
+        });
+        assertThat(pipeline.queueDepth()).isZero();
+        assertThat(meterRegistry.get("audit.pipeline.events").tag("outcome", "spooled").counter().count()).isEqualTo(3.0);
+        assertThat(meterRegistry.get("audit.pipeline.events").tag("outcome", "buffered").counter().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should keep spooled events and retry them after a failed insert")
+    void testSpoolRetriesAfterFailure() throws IOException {
+        // Given
+        AuditSpool spool = enabledSpool();
+        pipeline = new AuditPipeline(mongoTemplate, spool, 64, 100, 50, AuditPipeline.OverflowPolicy.DROP, 20, meterRegistry);
+        when(rawCollection.insertMany(anyList(), any(InsertManyOptions.class)))
+                .thenThrow(new RuntimeException("Mongo unavailable"))
+                .thenReturn(null);
+        AuditLog auditLog = auditLog("user-1");
+        pipeline.submit(auditLog);
+
+        // When
+        pipeline.start();
+
+        // Then
+        verify(rawCollection, timeout(2000).times(2)).insertMany(anyList(), any(InsertManyOptions.class));
+        pipeline.stop();
+        List<List<RawBsonDocument>> attempts = shippedBatches();
+        assertThat(attempts.get(0)).isEqualTo(attempts.get(1));
+        assertThat(attempts.get(1).get(0).getObjectId("_id").getValue()).isEqualTo(new ObjectId(auditLog.getId()));
+        assertThat(meterRegistry.get("audit.spool.ship.failures").counter().count()).isEqualTo(1.0);
+        assertThat(spool.pendingBytes()).isZero();
+    }
+
+    private AuditPipeline pipeline(int capacity, int batchSize, long flushIntervalMillis,
+                                   AuditPipeline.OverflowPolicy policy) {
+        AuditSpool disabled = new AuditSpool(false, spoolDir.toString(), 4096, 8192);
+        return new AuditPipeline(mongoTemplate, disabled, capacity, batchSize, flushIntervalMillis, policy, 20, meterRegistry);
+    }
+
+    private AuditSpool enabledSpool() throws IOException {
+        stubMongo();
+        AuditSpool spool = new AuditSpool(true, spoolDir.toString(), 64 * 1024, 1024 * 1024);
+        spool.open();
+        return spool;
+    }
+
+    private void stubMongo() {
+        // Same JSR-310 conversions as the Boot-configured converter; AuditLog's LocalDateTime needs them
+        MongoCustomConversions conversions = new MongoCustomConversions(Collections.emptyList());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(mongoTemplate.getCollectionName(AuditLog.class)).thenReturn("audit_logs");
+        when(mongoTemplate.getCollection("audit_logs")).thenReturn(collection);
+        when(collection.withDocumentClass(RawBsonDocument.class)).thenReturn(rawCollection);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<RawBsonDocument>> shippedBatches() {
+        ArgumentCaptor<List<RawBsonDocument>> captor = ArgumentCaptor.forClass(List.class);
+        verify(rawCollection, timeout(2000).atLeastOnce()).insertMany(captor.capture(), any(InsertManyOptions.class));
+        return captor.getAllValues();
+    }
+
+    private static AuditLog auditLog(String userId) {
+        return new AuditLog("User", userId, "UPDATE", "User updated");
+    }
+}
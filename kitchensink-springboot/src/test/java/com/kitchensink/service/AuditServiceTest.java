@@ -1,14 +1,16 @@
 package com.kitchensink.service;
 
+import com.kitchensink.listener.UserDiff;
+import com.kitchensink.listener.UserSnapshot;
 import com.kitchensink.model.AuditLog;
 import com.kitchensink.model.User;
-import com.kitchensink.repository.AuditLogRepository;
 import com.kitchensink.util.CorrelationIdUtil;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -17,6 +19,7 @@ import org.springframework.web.context.request.RequestContextHolder;
 
 import jakarta.servlet.http.HttpServletRequest;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -25,7 +28,7 @@ import static org.mockito.Mockito.*;
 class AuditServiceTest {
 
     @Mock
-    private AuditLogRepository auditLogRepository;
+    private AuditPipeline auditPipeline;
 
     @Mock
     private HttpServletRequest request;
@@ -62,11 +65,9 @@ class AuditServiceTest {
     @Test
     @DisplayName("Should log user creation successfully")
     void testLogUserCreated() {
-        when(auditLogRepository.save(any(AuditLog.class))).thenReturn(new AuditLog());
-
         auditService.logUserCreated(testUser);
 
-        verify(auditLogRepository).save(any(AuditLog.class));
+        verify(auditPipeline).submit(any(AuditLog.class));
     }
 
     @Test
@@ -84,51 +85,78 @@ class AuditServiceTest {
         oldUser.setCountry("Old Country");
         oldUser.setStatus("INACTIVE");
 
-        when(auditLogRepository.save(any(AuditLog.class))).thenReturn(new AuditLog());
-
         auditService.logUserUpdated(oldUser, testUser);
 
-        verify(auditLogRepository).save(any(AuditLog.class));
+        verify(auditPipeline).submit(any(AuditLog.class));
+    }
+
+    @Test
+    @DisplayName("Should not log an update when no audited field changed")
+    void testLogUserUpdated_NoChanges() {
+        User sameUser = new User();
+        sameUser.setId("user-1");
+        sameUser.setName("Test User");
+        sameUser.setEmailHash("email-hash");
+        sameUser.setCity("City");
+        sameUser.setLastLoginDate(java.time.LocalDateTime.now());
+
+        auditService.logUserUpdated(UserDiff.between(UserSnapshot.from(testUser), sameUser));
+
+        verifyNoInteractions(auditPipeline);
+    }
+
+    @Test
+    @DisplayName("Should record only the changed fields of an update")
+    void testLogUserUpdated_ChangedFieldsOnly() {
+        User updated = new User();
+        updated.setId("user-1");
+        updated.setName("New Name");
+        updated.setEmailHash("new-email-hash");
+        updated.setCity("City");
+
+        auditService.logUserUpdated(UserDiff.between(UserSnapshot.from(testUser), updated));
+
+        ArgumentCaptor<AuditLog> captor = ArgumentCaptor.forClass(AuditLog.class);
+        verify(auditPipeline).submit(captor.capture());
+        AuditLog auditLog = captor.getValue();
+        assertThat(auditLog.getAction()).isEqualTo("UPDATE");
+        assertThat(auditLog.getChangedFields()).containsOnlyKeys("name", "email");
+        assertThat(auditLog.getOldValues()).containsEntry("name", "Test User").containsEntry("email", "[ENCRYPTED]");
+        assertThat(auditLog.getNewValues()).containsEntry("name", "New Name").containsEntry("email", "[ENCRYPTED]");
+        assertThat(auditLog.getDetails()).endsWith(": name: 'Test User' -> 'New Name', email: [CHANGED]");
+        assertThat(auditLog.getPerformedBy()).isEqualTo("SYSTEM");
     }
 
     @Test
     @DisplayName("Should log user deletion successfully")
     void testLogUserDeleted() {
-        when(auditLogRepository.save(any(AuditLog.class))).thenReturn(new AuditLog());
-
         auditService.logUserDeleted(testUser);
 
-        verify(auditLogRepository).save(any(AuditLog.class));
+        verify(auditPipeline).submit(any(AuditLog.class));
     }
 
     @Test
     @DisplayName("Should log update request approval")
     void testLogUpdateRequestApproved() {
-        when(auditLogRepository.save(any(AuditLog.class))).thenReturn(new AuditLog());
-
         auditService.logUpdateRequestApproved("req-1", "user-1", "name", "admin-1");
 
-        verify(auditLogRepository).save(any(AuditLog.class));
+        verify(auditPipeline).submit(any(AuditLog.class));
     }
 
     @Test
     @DisplayName("Should log update request rejection")
     void testLogUpdateRequestRejected() {
-        when(auditLogRepository.save(any(AuditLog.class))).thenReturn(new AuditLog());
-
         auditService.logUpdateRequestRejected("req-1", "user-1", "name", "admin-1", "Invalid");
 
-        verify(auditLogRepository).save(any(AuditLog.class));
+        verify(auditPipeline).submit(any(AuditLog.class));
     }
 
     @Test
     @DisplayName("Should log update request revocation")
     void testLogUpdateRequestRevoked() {
-        when(auditLogRepository.save(any(AuditLog.class))).thenReturn(new AuditLog());
-
         auditService.logUpdateRequestRevoked("req-1", "user-1", "name");
 
-        verify(auditLogRepository).save(any(AuditLog.class));
+        verify(auditPipeline).submit(any(AuditLog.class));
     }
 }
 
@@ -0,0 +1,180 @@
+package com.kitchensink.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("AuditSpool Tests")
+class AuditSpoolTest {
+
+    private static final int SEGMENT_BYTES = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should read records back in order and only consume them on commit")
+    void testReadAndCommit() throws IOException {
+        // Given
+        AuditSpool spool = open(1024 * 1024);
+        for (int i = 0; i < 5; i++) {
+            spool.append(record(i));
+        }
+
+        // When
+        AuditSpool.Batch first = spool.read(3);
+        AuditSpool.Batch again = spool.read(3);
+        spool.commit(first);
+        AuditSpool.Batch rest = spool.read(10);
+
+        // Then
+        assertThat(decode(first)).containsExactly("event-0", "event-1", "event-2");
+        assertThat(decode(again)).isEqualTo(decode(first));
+        assertThat(decode(rest)).containsExactly("event-3", "event-4");
+    }
+
+    @Test
+    @DisplayName("Should roll segments and delete them once shipped")
+    void testSegmentRollAndCleanup() throws IOException {
+        // Given
+        AuditSpool spool = open(1024 * 1024);
+        for (int i = 0; i < 500; i++) {
+            spool.append(record(i));
+        }
+        assertThat(spool.segmentCount()).isGreaterThan(1);
+
+        // When
+        List<String> shipped = drain(spool);
+
+        // Then
+        assertThat(shipped).hasSize(500).startsWith("event-0").endsWith("event-499");
+        assertThat(spool.segmentCount()).isEqualTo(1);
+        assertThat(spool.pendingBytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should replay unshipped records after a restart without a clean shutdown")
+    void testReplayAfterRestart() throws IOException {
+        // Given
+        AuditSpool crashed = open(1024 * 1024);
+        for (int i = 0; i < 300; i++) {
+            crashed.append(record(i));
+        }
+        crashed.commit(crashed.read(100));
+
+        // When
+        AuditSpool restarted = open(1024 * 1024);
+
+        // Then
+        List<String> replayed = drain(restarted);
+        assertThat(replayed).hasSize(200).startsWith("event-100").endsWith("event-299");
+    }
+
+    @Test
+    @DisplayName("Should skip the torn tail of a segment and continue with the next one")
+    void testTornRecordSkipped() throws IOException {
+        // Given
+        AuditSpool crashed = open(1024 * 1024);
+        for (int i = 0; i < 10; i++) {
+            crashed.append(record(i));
+        }
+        corruptRecord(segmentFiles().get(0), 5);
+
+        // When
+        AuditSpool restarted = open(1024 * 1024);
+        restarted.append(record(10));
+
+        // Then
+        assertThat(drain(restarted)).containsExactly("event-0", "event-1", "event-2", "event-3", "event-4", "event-10");
+    }
+
+    @Test
+    @DisplayName("Should refuse appends when every segment is in use until records are shipped")
+    void testFullSpool() throws IOException {
+        // Given
+        AuditSpool spool = open(2L * SEGMENT_BYTES);
+        int appended = 0;
+        while (spool.append(record(appended))) {
+            appended++;
+        }
+
+        // When
+        List<String> shipped = drain(spool);
+
+        // Then
+        assertThat(shipped).hasSize(appended);
+        assertThat(spool.append(record(appended))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should do nothing when disabled")
+    void testDisabled() throws IOException {
+        // Given
+        AuditSpool spool = new AuditSpool(false, directory.toString(), SEGMENT_BYTES, 1024 * 1024);
+        spool.open();
+
+        // When
+        boolean appended = spool.append(record(0));
+
+        // Then
+        assertThat(appended).isFalse();
+        assertThat(segmentFiles()).isEmpty();
+    }
+
+    private AuditSpool open(long maxBytes) throws IOException {
+        AuditSpool spool = new AuditSpool(true, directory.toString(), SEGMENT_BYTES, maxBytes);
+        spool.open();
+        return spool;
+    }
+
+    private static byte[] record(int i) {
+        return ("event-" + i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> decode(AuditSpool.Batch batch) {
+        return batch.records().stream().map(bytes -> new String(bytes, StandardCharsets.UTF_8)).toList();
+    }
+
+    private static List<String> drain(AuditSpool spool) {
+        List<String> shipped = new ArrayList<>();
+        AuditSpool.Batch batch;
+        while (!(batch = spool.read(64)).records().isEmpty()) {
+            shipped.addAll(decode(batch));
+            spool.commit(batch);
+        }
+        spool.commit(batch);
+        return shipped;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".spool")).sorted().toList();
+        }
+    }
+
+    // Flips a payload byte of the given record, as a write cut short by a crash would leave it
+    private static void corruptRecord(Path segment, int index) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_BYTES);
+            int offset = AuditSpool.SEGMENT_HEADER_BYTES;
+            for (int i = 0; i < index; i++) {
+                offset += (8 + buffer.getInt(offset) + 3) & ~3;
+            }
+            buffer.put(offset + 8, (byte) (buffer.get(offset + 8) ^ 1));
+            buffer.force();
+        }
+    }
+}
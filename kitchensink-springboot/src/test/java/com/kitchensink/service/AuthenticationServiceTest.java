@@ -66,13 +66,14 @@ class AuthenticationServiceTest {
     @Test
     @DisplayName("Should request login OTP successfully")
     void testRequestLoginOtp_Success() {
-        when(userService.getUserByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(userService.emailExists("test@example.com")).thenReturn(true);
         when(otpService.createOtp("test@example.com", "LOGIN")).thenReturn(testOtp);
         doNothing().when(emailService).sendLoginOtp(anyString(), anyString());
 
         authenticationService.requestLoginOtp("test@example.com");
 
-        verify(userService).getUserByEmail("test@example.com");
+        verify(userService).emailExists("test@example.com");
+        verify(userService, never()).getUserByEmail(anyString());
         verify(otpService).createOtp("test@example.com", "LOGIN");
         verify(emailService).sendLoginOtp("test@example.com", "123456");
     }
@@ -80,12 +81,12 @@ class AuthenticationServiceTest {
     @Test
     @DisplayName("Should throw exception when user not found")
     void testRequestLoginOtp_UserNotFound() {
-        when(userService.getUserByEmail("nonexistent@example.com")).thenReturn(Optional.empty());
+        when(userService.emailExists("nonexistent@example.com")).thenReturn(false);
 
         assertThatThrownBy(() -> authenticationService.requestLoginOtp("nonexistent@example.com"))
                 .isInstanceOf(ResourceNotFoundException.class);
 
-        verify(userService).getUserByEmail("nonexistent@example.com");
+        verify(userService).emailExists("nonexistent@example.com");
         verify(otpService, never()).createOtp(anyString(), anyString());
     }
 
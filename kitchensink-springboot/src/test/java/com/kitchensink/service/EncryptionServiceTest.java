@@ -1,12 +1,17 @@
 package com.kitchensink.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
+import java.util.stream.IntStream;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("EncryptionService Unit Tests")
@@ -18,7 +23,7 @@ class EncryptionServiceTest {
 
     @BeforeEach
     void setUp() {
-        encryptionService = new EncryptionService(testPassword, testKeyVersion, "");
+        encryptionService = new EncryptionService(testPassword, testKeyVersion, "", "gcm", 0, "", 0, 16, new SimpleMeterRegistry());
     }
 
     @Test
@@ -33,7 +38,7 @@ class EncryptionServiceTest {
 
         // Then
         assertThat(encrypted).isNotEqualTo(plainText);
-        assertThat(encrypted).startsWith("v1:");
+        assertThat(encrypted).startsWith("v1g:");
         assertThat(decrypted).isEqualTo(plainText);
     }
 
@@ -112,10 +117,10 @@ class EncryptionServiceTest {
     @DisplayName("Should decrypt with legacy key")
     void testDecrypt_LegacyKey() {
         // Given
-        EncryptionService oldService = new EncryptionService("old-password", "1", "");
+        EncryptionService oldService = new EncryptionService("old-password", "1", "", "pbe", 0, "", 0, 16, new SimpleMeterRegistry());
         String encrypted = oldService.encrypt("test@example.com");
 
-        EncryptionService newService = new EncryptionService("new-password", "2", "1:old-password");
+        EncryptionService newService = new EncryptionService("new-password", "2", "1:old-password", "gcm", 0, "", 0, 16, new SimpleMeterRegistry());
 
         // When
         String decrypted = newService.decrypt(encrypted);
@@ -129,15 +134,176 @@ class EncryptionServiceTest {
     void testMultipleLegacyKeys() {
         // Given
         EncryptionService service = new EncryptionService("current-password", "3", 
-                "1:old-password-1,2:old-password-2");
+                "1:old-password-1,2:old-password-2", "gcm", 0, "", 0, 16, new SimpleMeterRegistry());
 
         // When - decrypt with version 1
-        EncryptionService v1Service = new EncryptionService("old-password-1", "1", "");
+        EncryptionService v1Service = new EncryptionService("old-password-1", "1", "", "pbe", 0, "", 0, 16, new SimpleMeterRegistry());
         String v1Encrypted = v1Service.encrypt("test@example.com");
         String decrypted = service.decrypt(v1Encrypted);
 
         // Then
         assertThat(decrypted).isEqualTo("test@example.com");
     }
-}
 
+    @Test
+    @DisplayName("Should produce a different AES-GCM ciphertext for the same input")
+    void testEncrypt_GcmRandomIv() {
+        // When
+        String first = encryptionService.encrypt("test@example.com");
+        String second = encryptionService.encrypt("test@example.com");
+
+        // Then
+        assertThat(first).isNotEqualTo(second);
+        assertThat(encryptionService.decrypt(first)).isEqualTo("test@example.com");
+        assertThat(encryptionService.decrypt(second)).isEqualTo("test@example.com");
+    }
+
+    @Test
+    @DisplayName("Should keep writing the Jasypt format when configured for pbe")
+    void testEncrypt_PbeFormat() {
+        // Given
+        EncryptionService pbeService = new EncryptionService(testPassword, testKeyVersion, "", "pbe", 0, "", 0, 16, new SimpleMeterRegistry());
+
+        // When
+        String encrypted = pbeService.encrypt("test@example.com");
+
+        // Then
+        assertThat(encrypted).startsWith("v1:");
+        assertThat(pbeService.decrypt(encrypted)).isEqualTo("test@example.com");
+        assertThat(encryptionService.decrypt(encrypted)).isEqualTo("test@example.com");
+    }
+
+    @Test
+    @DisplayName("Should decrypt AES-GCM data written with a legacy key version")
+    void testDecrypt_GcmLegacyKey() {
+        // Given
+        EncryptionService oldService = new EncryptionService("old-password", "1", "", "gcm", 0, "", 0, 16, new SimpleMeterRegistry());
+        String encrypted = oldService.encrypt("9876543210");
+
+        EncryptionService newService = new EncryptionService("new-password", "2", "1:old-password", "gcm", 0, "", 0, 16, new SimpleMeterRegistry());
+
+        // When
+        String decrypted = newService.decrypt(encrypted);
+
+        // Then
+        assertThat(encrypted).startsWith("v1g:");
+        assertThat(decrypted).isEqualTo("9876543210");
+    }
+
+    @Test
+    @DisplayName("Should reject AES-GCM payload moved under another key version")
+    void testDecrypt_GcmVersionTampering() {
+        // Given
+        EncryptionService service = new EncryptionService("same-password", "2", "1:same-password", "gcm", 0, "", 0, 16, new SimpleMeterRegistry());
+        String encrypted = service.encrypt("test@example.com");
+        String tampered = "v1g:" + encrypted.substring("v2g:".length());
+
+        // When / Then
+        assertThatThrownBy(() -> service.decrypt(tampered)).isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    @DisplayName("Should size PBE pools per key version and create legacy pools lazily")
+    void testPbePoolSizing() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        EncryptionService service = new EncryptionService("current-password", "2", "1:old-password",
+                "pbe", 3, "1:2", 0, 16, registry);
+
+        // Then - legacy pool not created until a v1 value is read
+        assertThat(registry.find("encryption.pool.size").tag("keyVersion", "2").gauge().value()).isEqualTo(3.0);
+        assertThat(registry.find("encryption.pool.size").tag("keyVersion", "1").gauge()).isNull();
+
+        // When
+        EncryptionService v1Service = new EncryptionService("old-password", "1", "", "pbe", 1, "", 0, 16, new SimpleMeterRegistry());
+        service.decrypt(v1Service.encrypt("test@example.com"));
+
+        // Then
+        assertThat(registry.find("encryption.pool.size").tag("keyVersion", "1").gauge().value()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Should encrypt and decrypt correctly under concurrent PBE load")
+    void testPbePoolConcurrentAccess() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        EncryptionService service = new EncryptionService(testPassword, testKeyVersion, "", "pbe", 2, "", 0, 16, registry);
+
+        // When
+        List<String> values = IntStream.range(0, 32)
+                .parallel()
+                .mapToObj(i -> service.decrypt(service.encrypt("user" + i + "@example.com")))
+                .toList();
+
+        // Then
+        assertThat(values).hasSize(32);
+        assertThat(values).allMatch(v -> v.endsWith("@example.com"));
+        assertThat(registry.find("encryption.pool.contended").counter()).isNotNull();
+        assertThat(registry.find("encryption.pool.active").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should bulk decrypt in input order")
+    void testDecryptAll() {
+        // Given - above the parallel threshold so the batch fans out
+        List<String> encrypted = new java.util.ArrayList<>(IntStream.range(0, 40)
+                .mapToObj(i -> encryptionService.encrypt("user" + i + "@example.com"))
+                .toList());
+        encrypted.set(5, null);
+
+        // When
+        List<EncryptionService.Decrypted> decrypted = encryptionService.decryptAll(encrypted);
+
+        // Then
+        assertThat(decrypted).hasSize(40).noneMatch(EncryptionService.Decrypted::failed);
+        assertThat(decrypted.get(0).value()).isEqualTo("user0@example.com");
+        assertThat(decrypted.get(39).value()).isEqualTo("user39@example.com");
+        assertThat(decrypted.get(5).value()).isNull();
+        assertThat(decrypted.get(7).value()).isEqualTo("user7@example.com");
+    }
+
+    @Test
+    @DisplayName("Should fail only the value that cannot be decrypted and count it")
+    void testDecryptAll_FailsPerItem() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        EncryptionService service = new EncryptionService("test-password", "1", "", "gcm", 0, "", 0, 16, registry);
+        List<String> encrypted = new java.util.ArrayList<>(IntStream.range(0, 40)
+                .mapToObj(i -> service.encrypt("user" + i + "@example.com"))
+                .toList());
+        encrypted.set(6, "v9g:not-a-valid-payload");
+
+        // When - once fanned out, once below the parallel threshold
+        List<EncryptionService.Decrypted> parallel = service.decryptAll(encrypted);
+        List<EncryptionService.Decrypted> sequential = service.decryptAll(encrypted.subList(0, 8));
+
+        // Then
+        for (List<EncryptionService.Decrypted> decrypted : List.of(parallel, sequential)) {
+            assertThat(decrypted.get(6).failed()).isTrue();
+            assertThat(decrypted.get(6).value()).isNull();
+            assertThat(decrypted.get(5)).isEqualTo(EncryptionService.Decrypted.of("user5@example.com"));
+            assertThat(decrypted.get(7)).isEqualTo(EncryptionService.Decrypted.of("user7@example.com"));
+        }
+        assertThat(parallel).hasSize(40).filteredOn(EncryptionService.Decrypted::failed).hasSize(1);
+        assertThat(registry.get("encryption.decrypt.bulk.failures").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Should flag legacy key versions and formats for re-encryption")
+    void testNeedsReEncryption() {
+        // Given
+        EncryptionService oldService = new EncryptionService("old-password", "1", "", "pbe", 0, "", 0, 16, new SimpleMeterRegistry());
+        EncryptionService newService = new EncryptionService("new-password", "2", "1:old-password", "gcm", 0, "", 0, 16, new SimpleMeterRegistry());
+        String legacy = oldService.encrypt("test@example.com");
+
+        // When
+        String reEncrypted = newService.reEncrypt(legacy);
+
+        // Then
+        assertThat(newService.needsReEncryption(legacy)).isTrue();
+        assertThat(newService.needsReEncryption(reEncrypted)).isFalse();
+        assertThat(newService.needsReEncryption(null)).isFalse();
+        assertThat(reEncrypted).startsWith("v2g:");
+        assertThat(newService.decrypt(reEncrypted)).isEqualTo("test@example.com");
+    }
+}
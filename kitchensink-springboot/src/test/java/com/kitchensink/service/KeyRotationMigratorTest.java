@@ -0,0 +1,131 @@
+package com.kitchensink.service;
+
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KeyRotationMigratorTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private EncryptionService encryptionService;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    private KeyRotationMigrator migrator;
+
+    @BeforeEach
+    void setUp() {
+        migrator = new KeyRotationMigrator(mongoTemplate, encryptionService, 2, 0, false);
+        when(encryptionService.getCurrentKeyVersion()).thenReturn("2");
+        when(encryptionService.getCurrentFormat()).thenReturn("gcm");
+    }
+
+    @Test
+    @DisplayName("Should re-encrypt legacy values with a guarded bulk update and checkpoint each batch")
+    void testRunAll_ReEncryptsLegacyValues() {
+        // Given
+        ObjectId userId = new ObjectId();
+        Document user = new Document("_id", userId)
+                .append("emailEncrypted", "v1:legacy-email")
+                .append("phoneNumberEncrypted", "v2g:current-phone");
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("users")))
+                .thenReturn(List.of(user))
+                .thenReturn(Collections.emptyList());
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("update_requests")))
+                .thenReturn(Collections.emptyList());
+        when(encryptionService.needsReEncryption("v1:legacy-email")).thenReturn(true);
+        when(encryptionService.needsReEncryption("v2g:current-phone")).thenReturn(false);
+        when(encryptionService.reEncrypt("v1:legacy-email")).thenReturn("v2g:new-email");
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "users")).thenReturn(bulkOperations);
+        BulkWriteResult result = mock(BulkWriteResult.class);
+        when(result.getModifiedCount()).thenReturn(1);
+        when(bulkOperations.execute()).thenReturn(result);
+
+        // When
+        migrator.runAll();
+
+        // Then
+        ArgumentCaptor<Query> guard = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations).updateOne(guard.capture(), update.capture());
+        assertThat(guard.getValue().getQueryObject().get("emailEncrypted")).isEqualTo("v1:legacy-email");
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class).get("emailEncrypted"))
+                .isEqualTo("v2g:new-email");
+        verify(mongoTemplate, atLeast(2)).findAndReplace(any(Query.class), any(Document.class),
+                any(FindAndReplaceOptions.class), eq(Document.class), eq(KeyRotationMigrator.CHECKPOINT_COLLECTION));
+
+        Map<String, Object> progress = migrator.getProgress();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> users = (Map<String, Object>) ((Map<String, Object>) progress.get("collections")).get("users");
+        assertThat(users.get("scanned")).isEqualTo(1L);
+        assertThat(users.get("reEncrypted")).isEqualTo(1L);
+        assertThat(users.get("completed")).isEqualTo(true);
+    }
+
+    @Test
+    @DisplayName("Should resume after the checkpointed _id for the same target version and format")
+    void testRunAll_ResumesFromCheckpoint() {
+        // Given
+        ObjectId lastId = new ObjectId();
+        when(mongoTemplate.findById("key-rotation:users", Document.class, KeyRotationMigrator.CHECKPOINT_COLLECTION))
+                .thenReturn(new Document("targetVersion", "2").append("targetFormat", "gcm")
+                        .append("lastId", lastId).append("scanned", 10L));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), anyString())).thenReturn(Collections.emptyList());
+
+        // When
+        migrator.runAll();
+
+        // Then
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Document.class), eq("users"));
+        assertThat(query.getValue().getQueryObject().get("_id", Document.class).get("$gt")).isEqualTo(lastId);
+        verifyNoInteractions(bulkOperations);
+    }
+
+    @Test
+    @DisplayName("Should rescan when the completed checkpoint was for another format at the same version")
+    void testRunAll_FormatChangeRestarts() {
+        // Given - a finished pbe run for version 2, now writing gcm
+        when(mongoTemplate.findById("key-rotation:users", Document.class, KeyRotationMigrator.CHECKPOINT_COLLECTION))
+                .thenReturn(new Document("targetVersion", "2").append("targetFormat", "pbe")
+                        .append("lastId", new ObjectId()).append("completed", true));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), anyString())).thenReturn(Collections.emptyList());
+
+        // When
+        migrator.runAll();
+
+        // Then
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Document.class), eq("users"));
+        assertThat(query.getValue().getQueryObject()).doesNotContainKey("_id");
+        ArgumentCaptor<Document> checkpoint = ArgumentCaptor.forClass(Document.class);
+        verify(mongoTemplate, atLeastOnce()).findAndReplace(any(Query.class), checkpoint.capture(),
+                any(FindAndReplaceOptions.class), eq(Document.class), eq(KeyRotationMigrator.CHECKPOINT_COLLECTION));
+        assertThat(checkpoint.getAllValues().get(0).getString("targetFormat")).isEqualTo("gcm");
+    }
+}
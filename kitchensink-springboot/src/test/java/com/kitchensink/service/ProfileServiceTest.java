@@ -2,6 +2,8 @@ package com.kitchensink.service;
 
 import com.kitchensink.dto.FieldUpdateRequestDTO;
 import com.kitchensink.dto.UpdateRequestResponseDTO;
+import com.kitchensink.dto.UserCacheDTO;
+import com.kitchensink.dto.UserFieldSet;
 import com.kitchensink.dto.UserResponseDTO;
 import com.kitchensink.exception.ResourceConflictException;
 import com.kitchensink.model.Otp;
@@ -11,7 +13,6 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -43,7 +44,9 @@ class ProfileServiceTest {
     @Mock
     private RoleService roleService;
 
-    @InjectMocks
+    @Mock
+    private EncryptionService encryptionService;
+
     private ProfileService profileService;
 
     private User testUser;
@@ -51,6 +54,9 @@ class ProfileServiceTest {
 
     @BeforeEach
     void setUp() {
+        profileService = new ProfileService(userService, updateRequestService, otpService, emailService,
+                new UserResponseMapper(encryptionService, roleService));
+
         testUser = new User();
         testUser.setId("user-1");
         testUser.setName("Test User");
@@ -70,7 +76,9 @@ class ProfileServiceTest {
     @Test
     @DisplayName("Should get profile successfully")
     void testGetProfile() {
-        when(userService.getUserById("user-1")).thenReturn(testUser);
+        when(userService.getUserCacheDTOById("user-1")).thenReturn(cachedProfile());
+        when(encryptionService.decrypt("encrypted-email")).thenReturn("test@example.com");
+        when(encryptionService.decrypt("encrypted-phone")).thenReturn("9876543210");
         when(roleService.getRoleNameByUserId("user-1")).thenReturn("USER");
 
         UserResponseDTO result = profileService.getProfile("user-1");
@@ -78,6 +86,23 @@ class ProfileServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo("user-1");
         assertThat(result.getName()).isEqualTo("Test User");
+        assertThat(result.getEmail()).isEqualTo("test@example.com");
+        assertThat(result.getPhoneNumber()).isEqualTo("9876543210");
+        assertThat(result.getRole()).isEqualTo("USER");
+    }
+
+    @Test
+    @DisplayName("Should map a sparse profile without decrypting or resolving the role")
+    void testGetProfile_SparseFields() {
+        when(userService.getUserCacheDTOById("user-1")).thenReturn(cachedProfile());
+
+        UserResponseDTO result = profileService.getProfile("user-1", UserFieldSet.parse("name,city"));
+
+        assertThat(result.getName()).isEqualTo("Test User");
+        assertThat(result.getCity()).isEqualTo("City");
+        assertThat(result.getEmail()).isNull();
+        assertThat(result.getAddress()).isNull();
+        verifyNoInteractions(encryptionService, roleService);
     }
 
     @Test
@@ -248,5 +273,16 @@ class ProfileServiceTest {
         verify(userService).updateUser(eq("user-1"), isNull(), isNull(), eq("+91"), eq("9876543211"),
                 isNull(), isNull(), isNull(), isNull());
     }
-}
 
+    private UserCacheDTO cachedProfile() {
+        UserCacheDTO cached = new UserCacheDTO();
+        cached.setId("user-1");
+        cached.setName("Test User");
+        cached.setEmailEncrypted("encrypted-email");
+        cached.setPhoneNumberEncrypted("encrypted-phone");
+        cached.setAddress("Address");
+        cached.setCity("City");
+        cached.setCountry("Country");
+        return cached;
+    }
+}
@@ -10,11 +10,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -199,5 +204,27 @@ class RoleServiceTest {
         assertThatThrownBy(() -> roleService.getRoleIdByUserId("user-1"))
                 .isInstanceOf(ResourceNotFoundException.class);
     }
-}
 
+    @Test
+    @DisplayName("Should resolve many users' roles with one user_roles query and cache the results")
+    void testGetRoleNamesByUserIds() {
+        // Given - user-1 is warm in userCache, role-1 is warm in roleById
+        CacheManager cacheManager = new ConcurrentMapCacheManager("userCache", "roleById");
+        cacheManager.getCache("userCache").put("roleName:user-1", "ADMIN");
+        cacheManager.getCache("roleById").put("role-1", adminRole);
+        RoleService service = new RoleService(roleRepository, userRoleService, cacheManager);
+        when(userRoleService.getRoleIdsByUserIds(List.of("user-2", "user-3", "user-4")))
+                .thenReturn(Map.of("user-2", "role-1", "user-3", "role-2"));
+        when(roleRepository.findAllById(List.of("role-2"))).thenReturn(List.of(userRole));
+
+        // When
+        Map<String, String> result = service.getRoleNamesByUserIds(List.of("user-1", "user-2", "user-3", "user-4"));
+
+        // Then - user-4 has no active role
+        assertThat(result).containsOnly(
+                Map.entry("user-1", "ADMIN"), Map.entry("user-2", "ADMIN"), Map.entry("user-3", "USER"));
+        assertThat(cacheManager.getCache("userCache").get("roleName:user-3", String.class)).isEqualTo("USER");
+        assertThat(cacheManager.getCache("roleById").get("role-2", Role.class)).isSameAs(userRole);
+        verify(userRoleService, never()).getRoleIdByUserId(anyString());
+    }
+}
@@ -18,6 +18,7 @@ import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -136,6 +137,7 @@ class UpdateRequestServiceTest {
                 .thenReturn(Collections.singletonList(testRequest));
         when(encryptionService.decrypt("encrypted-old")).thenReturn("Old Name");
         when(encryptionService.decrypt("encrypted-new")).thenReturn("New Name");
+        stubDecryptAll();
         testRequest.setOldValueEncrypted("encrypted-old");
         testRequest.setNewValueEncrypted("encrypted-new");
 
@@ -145,6 +147,33 @@ class UpdateRequestServiceTest {
         assertThat(result.get(0).getOldValue()).isEqualTo("Old Name");
     }
 
+    @Test
+    @DisplayName("Should mark only the request whose value cannot be decrypted")
+    void testGetPendingRequests_OneUndecryptable() {
+        UpdateRequest corrupt = new UpdateRequest("user-2", "PROFILE_UPDATE", "name", null, null);
+        corrupt.setId("req-2");
+        corrupt.setOldValueEncrypted("encrypted-old");
+        corrupt.setNewValueEncrypted("corrupt-new");
+        testRequest.setOldValueEncrypted("encrypted-old");
+        testRequest.setNewValueEncrypted("encrypted-new");
+        when(updateRequestRepository.findByStatusOrderByRequestedAtDesc("PENDING")).thenReturn(List.of(testRequest, corrupt));
+        when(encryptionService.decrypt("encrypted-old")).thenReturn("Old Name");
+        when(encryptionService.decrypt("encrypted-new")).thenReturn("New Name");
+        when(encryptionService.decrypt("corrupt-new")).thenThrow(new RuntimeException("Decryption failed"));
+        stubDecryptAll();
+
+        List<UpdateRequestResponseDTO> result = updateRequestService.mapToUpdateRequestDTOs(
+                updateRequestService.getPendingRequests());
+
+        assertThat(result).extracting(UpdateRequestResponseDTO::getId).containsExactly("req-1", "req-2");
+        assertThat(result.get(0).getNewValue()).isEqualTo("New Name");
+        assertThat(result.get(0).getDecryptionFailed()).isNull();
+        assertThat(result.get(1).getOldValue()).isEqualTo("Old Name");
+        assertThat(result.get(1).getNewValue()).isNull();
+        assertThat(result.get(1).getDecryptionFailed()).isTrue();
+        verify(encryptionService, times(1)).decrypt("corrupt-new");
+    }
+
     @Test
     @DisplayName("Should get user requests successfully")
     void testGetUserRequests() {
@@ -152,6 +181,7 @@ class UpdateRequestServiceTest {
                 .thenReturn(Collections.singletonList(testRequest));
         when(encryptionService.decrypt("encrypted-old")).thenReturn("Old Name");
         when(encryptionService.decrypt("encrypted-new")).thenReturn("New Name");
+        stubDecryptAll();
         testRequest.setOldValueEncrypted("encrypted-old");
         testRequest.setNewValueEncrypted("encrypted-new");
 
@@ -238,6 +268,8 @@ class UpdateRequestServiceTest {
     @Test
     @DisplayName("Should map update request to DTO successfully")
     void testMapToUpdateRequestDTO() {
+        testRequest.setOldValue(null);
+        testRequest.setNewValue(null);
         testRequest.setOldValueEncrypted("encrypted-old");
         testRequest.setNewValueEncrypted("encrypted-new");
         when(encryptionService.decrypt("encrypted-old")).thenReturn("Old Name");
@@ -250,5 +282,32 @@ class UpdateRequestServiceTest {
         assertThat(result.get(0).getOldValue()).isEqualTo("Old Name");
         assertThat(result.get(0).getNewValue()).isEqualTo("New Name");
     }
-}
 
+    @Test
+    @DisplayName("Should reuse values already decrypted by the list query when mapping")
+    void testMapToUpdateRequestDTO_ReusesDecryptedValues() {
+        testRequest.setOldValueEncrypted("encrypted-old");
+        testRequest.setNewValueEncrypted("encrypted-new");
+
+        List<UpdateRequestResponseDTO> result = updateRequestService.mapToUpdateRequestDTOs(Collections.singletonList(testRequest));
+
+        assertThat(result.get(0).getOldValue()).isEqualTo("Old Name");
+        assertThat(result.get(0).getNewValue()).isEqualTo("New Name");
+        verify(encryptionService, never()).decrypt(anyString());
+    }
+
+    private void stubDecryptAll() {
+        when(encryptionService.decryptAll(anyList())).thenAnswer(invocation -> {
+            List<String> values = invocation.getArgument(0);
+            return values.stream()
+                    .map(value -> {
+                        try {
+                            return EncryptionService.Decrypted.of(value == null ? null : encryptionService.decrypt(value));
+                        } catch (RuntimeException e) {
+                            return new EncryptionService.Decrypted(null, true);
+                        }
+                    })
+                    .collect(Collectors.toList());
+        });
+    }
+}
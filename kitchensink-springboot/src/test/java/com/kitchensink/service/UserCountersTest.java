@@ -0,0 +1,124 @@
+package com.kitchensink.service;
+
+import com.kitchensink.model.User;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserCounters Tests")
+class UserCountersTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private UserCounters userCounters;
+
+    @BeforeEach
+    void setUp() {
+        userCounters = new UserCounters(mongoTemplate, true);
+    }
+
+    @Test
+    @DisplayName("Should increment total, non-admin and status counts atomically on create")
+    void testOnUserCreated() {
+        // When
+        userCounters.onUserCreated("ACTIVE");
+
+        // Then
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(any(Query.class), update.capture(), eq(UserCounters.COLLECTION));
+        Document inc = update.getValue().getUpdateObject().get("$inc", Document.class);
+        assertThat(inc).containsEntry("total", 1).containsEntry("nonAdmin", 1).containsEntry("status.ACTIVE", 1);
+    }
+
+    @Test
+    @DisplayName("Should only touch the non-admin count when admin membership changes")
+    void testOnRoleChanged() {
+        // When
+        userCounters.onRoleChanged(false, false);
+        userCounters.onRoleChanged(false, true);
+
+        // Then
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(1)).upsert(any(Query.class), update.capture(), eq(UserCounters.COLLECTION));
+        assertThat(update.getValue().getUpdateObject().get("$inc", Document.class))
+                .containsOnlyKeys("nonAdmin")
+                .containsEntry("nonAdmin", -1);
+    }
+
+    @Test
+    @DisplayName("Should return no snapshot until the counters have been reconciled")
+    void testSnapshot_NotReconciled() {
+        // Given
+        when(mongoTemplate.findById(UserCounters.DOCUMENT_ID, Document.class, UserCounters.COLLECTION))
+                .thenReturn(new Document("_id", "users").append("total", 3));
+
+        // Then
+        assertThat(userCounters.snapshot()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should read counts from the counters document")
+    void testSnapshot() {
+        // Given
+        when(mongoTemplate.findById(UserCounters.DOCUMENT_ID, Document.class, UserCounters.COLLECTION))
+                .thenReturn(new Document("_id", "users")
+                        .append("total", 12L)
+                        .append("nonAdmin", 10L)
+                        .append("status", new Document("ACTIVE", 11L).append("INACTIVE", 1))
+                        .append("reconciledAt", new Date()));
+
+        // When
+        UserCounters.Snapshot snapshot = userCounters.snapshot();
+
+        // Then
+        assertThat(snapshot.getTotal()).isEqualTo(12);
+        assertThat(snapshot.getNonAdmin()).isEqualTo(10);
+        assertThat(snapshot.getByStatus()).containsEntry("ACTIVE", 11L).containsEntry("INACTIVE", 1L);
+    }
+
+    @Test
+    @DisplayName("Should recount from Mongo and replace the counters document on reconcile")
+    void testReconcile() {
+        // Given
+        when(mongoTemplate.count(any(Query.class), eq(User.class))).thenReturn(5L, 4L);
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(User.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(new Document("_id", "ACTIVE").append("count", 5)), new Document()));
+
+        // When
+        userCounters.reconcile();
+
+        // Then
+        ArgumentCaptor<Query> counted = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).count(counted.capture(), eq(User.class));
+        assertThat(counted.getAllValues().get(1).getQueryObject())
+                .containsEntry("role", new Document("$ne", "ADMIN"));
+        ArgumentCaptor<Document> replacement = ArgumentCaptor.forClass(Document.class);
+        verify(mongoTemplate).findAndReplace(any(Query.class), replacement.capture(),
+                any(FindAndReplaceOptions.class), eq(Document.class), eq(UserCounters.COLLECTION));
+        assertThat(replacement.getValue())
+                .containsEntry("total", 5L)
+                .containsEntry("nonAdmin", 4L)
+                .containsEntry("status", new Document("ACTIVE", 5L));
+        assertThat(replacement.getValue().get("reconciledAt")).isNotNull();
+    }
+}
@@ -0,0 +1,151 @@
+package com.kitchensink.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserIdentifierFilter Tests")
+class UserIdentifierFilterTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserIdentifierFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new UserIdentifierFilter(mongoTemplate, true, true, 1000, 0.01, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should stay off without cluster-wide invalidation, so every check goes to Mongo")
+    void testDisabledWithoutInvalidation() {
+        // Given
+        UserIdentifierFilter local = new UserIdentifierFilter(mongoTemplate, true, false, 1000, 0.01,
+                new SimpleMeterRegistry());
+
+        // When
+        local.rebuild();
+
+        // Then
+        assertThat(local.isReady()).isFalse();
+        assertThat(local.mightContain("never-stored")).isTrue();
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    @DisplayName("Should answer maybe for everything until the first build")
+    void testMightContain_NotBuilt() {
+        // When / Then
+        assertThat(filter.isReady()).isFalse();
+        assertThat(filter.mightContain("never-stored")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should contain streamed and added hashes and rule out unknown ones")
+    void testRebuild_StreamsHashes() {
+        // Given
+        when(mongoTemplate.estimatedCount("users")).thenReturn(2L);
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("users"))).thenReturn(Stream.of(
+                new Document("emailHash", "email-1").append("phoneNumberHash", "phone-1"),
+                new Document("emailHash", "email-2").append("phoneNumberHash", "phone-2")));
+
+        // When
+        filter.rebuild();
+        filter.add("email-3");
+
+        // Then
+        assertThat(filter.isReady()).isTrue();
+        assertThat(filter.mightContain("email-1")).isTrue();
+        assertThat(filter.mightContain("phone-2")).isTrue();
+        assertThat(filter.mightContain("email-3")).isTrue();
+        int misses = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (!filter.mightContain("unknown-" + i)) {
+                misses++;
+            }
+        }
+        // Sized for 1000 identifiers at 1%, so five stored hashes leave almost nothing to collide with
+        assertThat(misses).isGreaterThan(990);
+        assertThat(meterRegistry.get("users.identifier.filter.checks").tag("result", "miss").counter().count())
+                .isEqualTo(misses);
+    }
+
+    @Test
+    @DisplayName("Should keep adds that raced the build in the rebuilt filter")
+    void testRebuild_ReplaysRecentAdds() {
+        // Given
+        when(mongoTemplate.estimatedCount("users")).thenReturn(0L);
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("users"))).thenReturn(Stream.empty());
+        filter.add("email-written-before-build");
+
+        // When
+        filter.rebuild();
+
+        // Then
+        assertThat(filter.mightContain("email-written-before-build")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should answer maybe after invalidation and discard a build that was already streaming")
+    void testInvalidate_DiscardsRacingBuild() {
+        // Given
+        when(mongoTemplate.estimatedCount("users")).thenReturn(0L);
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("users")))
+                .thenReturn(Stream.empty())
+                .thenAnswer(invocation -> {
+                    // Missed writes are detected while this build streams the collection
+                    filter.invalidate();
+                    return Stream.empty();
+                })
+                .thenReturn(Stream.of(new Document("emailHash", "email-created-in-gap")));
+        filter.rebuild();
+        assertThat(filter.mightContain("email-created-in-gap")).isFalse();
+
+        // When
+        filter.rebuild();
+
+        // Then
+        assertThat(filter.isReady()).isFalse();
+        assertThat(filter.mightContain("email-created-in-gap")).isTrue();
+        filter.rebuild();
+        assertThat(filter.isReady()).isTrue();
+        assertThat(filter.mightContain("email-created-in-gap")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should report the observed false-positive rate")
+    void testObservedFalsePositiveRate() {
+        // Given
+        when(mongoTemplate.estimatedCount("users")).thenReturn(0L);
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("users"))).thenReturn(Stream.empty());
+        filter.rebuild();
+        filter.add("email-1");
+
+        // When
+        filter.mightContain("unknown");
+        filter.recordFalsePositive();
+
+        // Then
+        assertThat(meterRegistry.get("users.identifier.filter.fpp.observed").gauge().value()).isEqualTo(0.5);
+        assertThat(meterRegistry.get("users.identifier.filter.fpp.expected").gauge().value()).isGreaterThan(0.0);
+    }
+}
@@ -0,0 +1,110 @@
+package com.kitchensink.service;
+
+import com.kitchensink.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("UserIdentityMap Tests")
+class UserIdentityMapTest {
+
+    private final UserIdentityMap identityMap = new UserIdentityMap();
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("Should load an entity once per request and forget it with the request")
+    void testGetEntity_OncePerRequest() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        startRequest();
+
+        // When
+        User first = identityMap.getEntity("user-1", id -> load(id, loads));
+        User second = identityMap.getEntity("user-1", id -> load(id, loads));
+        startRequest();
+        User nextRequest = identityMap.getEntity("user-1", id -> load(id, loads));
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(nextRequest).isNotSameAs(first);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should serve read views to readers but never to writers")
+    void testViewsAreNotEntities() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        startRequest();
+        User view = user("user-1");
+        identityMap.putView(view);
+
+        // When
+        User found = identityMap.find("user-1");
+        User entity = identityMap.getEntity("user-1", id -> load(id, loads));
+
+        // Then
+        assertThat(found).isSameAs(view);
+        assertThat(entity).isNotSameAs(view);
+        assertThat(identityMap.find("user-1")).isSameAs(entity);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should load again after an eviction")
+    void testEvict() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        startRequest();
+        identityMap.getEntity("user-1", id -> load(id, loads));
+
+        // When
+        identityMap.evict("user-1");
+        identityMap.getEntity("user-1", id -> load(id, loads));
+
+        // Then
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should remember nothing outside a request")
+    void testNoRequest() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        identityMap.putEntity(user("user-1"));
+
+        // When
+        identityMap.getEntity("user-1", id -> load(id, loads));
+        identityMap.getEntity("user-1", id -> load(id, loads));
+
+        // Then
+        assertThat(identityMap.find("user-1")).isNull();
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    private static void startRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    private static User load(String id, AtomicInteger loads) {
+        loads.incrementAndGet();
+        return user(id);
+    }
+
+    private static User user(String id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}
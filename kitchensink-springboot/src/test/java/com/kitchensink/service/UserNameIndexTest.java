@@ -0,0 +1,119 @@
+package com.kitchensink.service;
+
+import com.kitchensink.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserNameIndex Tests")
+class UserNameIndexTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private UserNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new UserNameIndex(mongoTemplate, true, 100);
+        index.put("u1", "Anna Smith");
+        index.put("u2", "Joanna Brown");
+        index.put("u3", "Hannah Annabel");
+        index.put("u4", "Bob Stone");
+        index.put("u5", "ANN");
+    }
+
+    @Test
+    @DisplayName("Should rank prefix, then word start, then infix matches, ignoring case")
+    void testSearch_Ranking() {
+        // When
+        UserNameIndex.SearchPage page = index.search("ann", 0, 10, Set.of());
+
+        // Then - prefix (shorter first), word start, infix
+        assertThat(page.getUserIds()).containsExactly("u5", "u1", "u3", "u2");
+        assertThat(page.isHasMore()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should answer queries shorter than a trigram")
+    void testSearch_ShortQuery() {
+        // When
+        UserNameIndex.SearchPage page = index.search("S", 0, 10, Set.of());
+
+        // Then
+        assertThat(page.getUserIds()).containsExactly("u4", "u1");
+    }
+
+    @Test
+    @DisplayName("Should page results and exclude ids")
+    void testSearch_PagingAndExclusion() {
+        // When
+        UserNameIndex.SearchPage first = index.search("an", 0, 2, Set.of("u5"));
+        UserNameIndex.SearchPage second = index.search("an", 2, 2, Set.of("u5"));
+
+        // Then
+        assertThat(first.getUserIds()).containsExactly("u1", "u3");
+        assertThat(first.isHasMore()).isTrue();
+        assertThat(second.getUserIds()).containsExactly("u2");
+        assertThat(second.isHasMore()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should reflect renames and deletes")
+    void testPutAndRemove() {
+        // When
+        index.put("u4", "Bobby Annerton");
+        index.remove("u1");
+
+        // Then
+        assertThat(index.search("smith", 0, 10, Set.of()).getUserIds()).isEmpty();
+        assertThat(index.search("stone", 0, 10, Set.of()).getUserIds()).isEmpty();
+        assertThat(index.search("annerton", 0, 10, Set.of()).getUserIds()).containsExactly("u4");
+    }
+
+    @Test
+    @DisplayName("Should leave the index untouched when a user is written with an unchanged name")
+    void testPut_UnchangedName() {
+        // When
+        index.put("u1", "anna smith");
+        index.put("u1", "Anna Smith");
+        index.put("u4", "Bobby Stone");
+
+        // Then - only the rename leaves a tombstone
+        assertThat(index.tombstoneCount()).isEqualTo(1);
+        assertThat(index.search("smith", 0, 10, Set.of()).getUserIds()).containsExactly("u1");
+        assertThat(index.search("bobby", 0, 10, Set.of()).getUserIds()).containsExactly("u4");
+    }
+
+    @Test
+    @DisplayName("Should build from Mongo and become ready")
+    void testRebuild() {
+        // Given
+        User user = new User();
+        user.setId("u9");
+        user.setName("Zed Quinn");
+        when(mongoTemplate.stream(any(Query.class), eq(User.class))).thenReturn(Stream.of(user));
+
+        // When
+        index.rebuild();
+
+        // Then
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.search("quin", 0, 10, Set.of()).getUserIds()).containsExactly("u9");
+        assertThat(index.search("anna", 0, 10, Set.of()).getUserIds()).isEmpty();
+    }
+}
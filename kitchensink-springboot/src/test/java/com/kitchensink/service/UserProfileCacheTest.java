@@ -0,0 +1,153 @@
+package com.kitchensink.service;
+
+import com.kitchensink.dto.UserCacheDTO;
+import com.kitchensink.exception.ResourceNotFoundException;
+import com.kitchensink.model.User;
+import com.kitchensink.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserProfileCache Tests")
+class UserProfileCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private ConcurrentMapCacheManager cacheManager;
+    private List<Runnable> refreshTasks;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager(UserProfileCache.CACHE_NAME);
+        refreshTasks = new ArrayList<>();
+
+        testUser = new User();
+        testUser.setId("user-1");
+        testUser.setName("Test User");
+        testUser.setEmailEncrypted("encrypted-email");
+        testUser.setCity("City");
+    }
+
+    private UserProfileCache newCache(long refreshAheadSeconds) {
+        return new UserProfileCache(userRepository, cacheManager, refreshTasks::add, refreshAheadSeconds);
+    }
+
+    @Test
+    @DisplayName("Should load from Mongo on a miss and serve hits without touching Mongo")
+    void testGet_HitSkipsMongo() {
+        // Given
+        UserProfileCache cache = newCache(120);
+        when(userRepository.findById("user-1")).thenReturn(Optional.of(testUser));
+
+        // When
+        UserCacheDTO first = cache.get("user-1");
+        UserCacheDTO second = cache.get("user-1");
+        UserCacheDTO third = cache.get("user-1");
+
+        // Then
+        assertThat(first.getName()).isEqualTo("Test User");
+        assertThat(second).isSameAs(first);
+        assertThat(third).isSameAs(first);
+        verify(userRepository, times(1)).findById("user-1");
+        assertThat(refreshTasks).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should reload from Mongo after eviction")
+    void testEvict_ForcesReload() {
+        // Given
+        UserProfileCache cache = newCache(120);
+        when(userRepository.findById("user-1")).thenReturn(Optional.of(testUser));
+        cache.get("user-1");
+
+        // When
+        cache.evict("user-1");
+        cache.get("user-1");
+
+        // Then
+        verify(userRepository, times(2)).findById("user-1");
+    }
+
+    @Test
+    @DisplayName("Should propagate not found without caching anything")
+    void testGet_NotFound() {
+        // Given
+        UserProfileCache cache = newCache(120);
+        when(userRepository.findById("missing")).thenReturn(Optional.empty());
+
+        // When / Then
+        assertThatThrownBy(() -> cache.get("missing")).isInstanceOf(ResourceNotFoundException.class);
+        assertThat(cacheManager.getCache(UserProfileCache.CACHE_NAME).get("user:missing")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should serve a stale entry and refresh it in the background")
+    void testGet_RefreshAhead() {
+        // Given
+        UserProfileCache cache = newCache(120);
+        when(userRepository.findById("user-1")).thenReturn(Optional.of(testUser));
+        UserCacheDTO stale = cache.get("user-1");
+        stale.setCachedAt(System.currentTimeMillis() - 300_000);
+
+        // When - stale hit is served immediately and schedules exactly one refresh
+        UserCacheDTO served = cache.get("user-1");
+        cache.get("user-1");
+
+        // Then
+        assertThat(served).isSameAs(stale);
+        assertThat(refreshTasks).hasSize(1);
+
+        testUser.setCity("New City");
+        refreshTasks.get(0).run();
+        assertThat(cache.get("user-1").getCity()).isEqualTo("New City");
+        verify(userRepository, times(2)).findById("user-1");
+    }
+
+    @Test
+    @DisplayName("Should not re-cache refreshed data when a write evicts during the refresh")
+    void testRefresh_DiscardedAfterConcurrentWrite() {
+        // Given
+        UserProfileCache cache = newCache(120);
+        when(userRepository.findById("user-1")).thenReturn(Optional.of(testUser));
+        cache.get("user-1").setCachedAt(0);
+        cache.get("user-1");
+
+        // When - a write lands before the refresh task runs
+        cache.evict("user-1");
+        refreshTasks.get(0).run();
+
+        // Then
+        assertThat(cacheManager.getCache(UserProfileCache.CACHE_NAME).get("user:user-1")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should serve preloaded users without touching Mongo")
+    void testPreload_ServesFromCache() {
+        // Given
+        UserProfileCache cache = newCache(120);
+
+        // When
+        int added = cache.preload(List.of(testUser));
+        UserCacheDTO cached = cache.get("user-1");
+
+        // Then
+        assertThat(added).isEqualTo(1);
+        assertThat(cached.getCity()).isEqualTo("City");
+        verifyNoInteractions(userRepository);
+    }
+}
@@ -0,0 +1,133 @@
+package com.kitchensink.service;
+
+import com.kitchensink.model.Role;
+import com.kitchensink.model.UserRole;
+import com.kitchensink.repository.RoleRepository;
+import com.kitchensink.repository.UserRoleRepository;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserRoleBackfillMigratorTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private UserRoleRepository userRoleRepository;
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    private UserRoleBackfillMigrator migrator;
+
+    @BeforeEach
+    void setUp() {
+        migrator = new UserRoleBackfillMigrator(mongoTemplate, userRoleRepository, roleRepository, 2, false);
+    }
+
+    @Test
+    @DisplayName("Should copy active role names onto users without one and checkpoint completion")
+    void testRun_BackfillsMissingRoles() {
+        // Given
+        ObjectId pending = new ObjectId();
+        ObjectId done = new ObjectId();
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("users")))
+                .thenReturn(List.of(new Document("_id", pending), new Document("_id", done).append("role", "USER")))
+                .thenReturn(Collections.emptyList());
+        when(userRoleRepository.findByUserIdInAndActiveTrue(Set.of(pending.toString())))
+                .thenReturn(List.of(new UserRole(pending.toString(), "role-admin")));
+        Role admin = new Role("ADMIN", "Administrator");
+        admin.setId("role-admin");
+        when(roleRepository.findAllById(Set.of("role-admin"))).thenReturn(List.of(admin));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "users")).thenReturn(bulkOperations);
+        BulkWriteResult result = mock(BulkWriteResult.class);
+        when(result.getModifiedCount()).thenReturn(1);
+        when(bulkOperations.execute()).thenReturn(result);
+
+        // When
+        migrator.run();
+
+        // Then
+        ArgumentCaptor<Query> guard = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations).updateOne(guard.capture(), update.capture());
+        assertThat(guard.getValue().getQueryObject())
+                .containsEntry("_id", pending)
+                .containsEntry("role", new Document("$exists", false));
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class)).containsEntry("role", "ADMIN");
+        ArgumentCaptor<Document> checkpoint = ArgumentCaptor.forClass(Document.class);
+        verify(mongoTemplate, times(2)).findAndReplace(any(Query.class), checkpoint.capture(),
+                any(FindAndReplaceOptions.class), eq(Document.class), eq(KeyRotationMigrator.CHECKPOINT_COLLECTION));
+        assertThat(checkpoint.getValue()).containsEntry("completed", true).containsEntry("updated", 1L);
+        assertThat(migrator.isCompleted()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should do nothing once the backfill has completed")
+    void testRun_AlreadyCompleted() {
+        // Given
+        when(mongoTemplate.findById(UserRoleBackfillMigrator.CHECKPOINT_ID, Document.class,
+                KeyRotationMigrator.CHECKPOINT_COLLECTION)).thenReturn(new Document("completed", true));
+
+        // When
+        migrator.run();
+
+        // Then
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Document.class), anyString());
+        verifyNoInteractions(userRoleRepository, bulkOperations);
+        assertThat(migrator.isCompleted()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should stay incomplete when stopped before the last batch")
+    void testRun_StoppedIsIncomplete() {
+        // Given
+        migrator.shutdown();
+
+        // When
+        migrator.run();
+
+        // Then
+        assertThat(migrator.isCompleted()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should read completion from the checkpoint when not run on startup")
+    void testOnApplicationReady_NotRunReadsCheckpoint() {
+        // Given
+        when(mongoTemplate.findById(UserRoleBackfillMigrator.CHECKPOINT_ID, Document.class,
+                KeyRotationMigrator.CHECKPOINT_COLLECTION)).thenReturn(new Document("completed", true));
+
+        // When
+        migrator.onApplicationReady();
+
+        // Then
+        assertThat(migrator.isCompleted()).isTrue();
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Document.class), anyString());
+    }
+}
@@ -1,6 +1,8 @@
 package com.kitchensink.service;
 
+import com.kitchensink.model.Role;
 import com.kitchensink.model.UserRole;
+import com.kitchensink.repository.UserRepository;
 import com.kitchensink.repository.UserRoleRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -26,6 +28,18 @@ class UserRoleServiceTest {
     @Mock
     private UserRoleRepository userRoleRepository;
 
+    @Mock
+    private RoleService roleService;
+
+    @Mock
+    private UserCounters userCounters;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserIdentityMap userIdentityMap;
+
     @InjectMocks
     private UserRoleService userRoleService;
 
@@ -74,6 +88,39 @@ class UserRoleServiceTest {
         verify(userRoleRepository).save(existing);
     }
 
+    @Test
+    @DisplayName("Should adjust the non-admin counter when a user is promoted to admin")
+    void testAssignRoleToUser_PromotionUpdatesCounters() {
+        UserRole existing = new UserRole();
+        existing.setId("ur-1");
+        existing.setUserId("user-1");
+        existing.setRoleId("role-user");
+        existing.setActive(true);
+
+        when(userRoleRepository.findByUserId("user-1")).thenReturn(Optional.of(existing));
+        when(userRoleRepository.save(any(UserRole.class))).thenReturn(existing);
+        when(roleService.isAdmin("role-user")).thenReturn(false);
+        when(roleService.isAdmin("role-admin")).thenReturn(true);
+
+        userRoleService.assignRoleToUser("user-1", "role-admin");
+
+        verify(userCounters).onRoleChanged(false, true);
+    }
+
+    @Test
+    @DisplayName("Should copy the assigned role name onto the user document")
+    void testAssignRoleToUser_SyncsUserDocument() {
+        Role admin = new Role("ADMIN", "Administrator");
+        admin.setId("role-admin");
+        when(userRoleRepository.findByUserId("user-1")).thenReturn(Optional.empty());
+        when(userRoleRepository.save(any(UserRole.class))).thenReturn(testUserRole);
+        when(roleService.getRoleById("role-admin")).thenReturn(admin);
+
+        userRoleService.assignRoleToUser("user-1", "role-admin");
+
+        verify(userRepository).updateRole("user-1", "ADMIN");
+    }
+
     @Test
     @DisplayName("Should get role ID by user ID successfully")
     void testGetRoleIdByUserId_Success() {
@@ -136,6 +183,7 @@ class UserRoleServiceTest {
 
         verify(userRoleRepository).save(any(UserRole.class));
         assertThat(testUserRole.isActive()).isFalse();
+        verify(userRepository).updateRole("user-1", null);
     }
 
     @Test
@@ -146,6 +194,7 @@ class UserRoleServiceTest {
         userRoleService.deactivateUserRole("user-1");
 
         verify(userRoleRepository, never()).save(any(UserRole.class));
+        verify(userRepository, never()).updateRole(any(), any());
     }
 
     @Test
@@ -159,5 +208,18 @@ class UserRoleServiceTest {
         assertThat(result).hasSize(1);
         assertThat(result.get(0)).isEqualTo("user-1");
     }
-}
 
+    @Test
+    @DisplayName("Should map active role IDs for many users from one query")
+    void testGetRoleIdsByUserIds() {
+        UserRole other = new UserRole();
+        other.setUserId("user-2");
+        other.setRoleId("role-2");
+        when(userRoleRepository.findByUserIdInAndActiveTrue(List.of("user-1", "user-2", "user-3")))
+                .thenReturn(List.of(testUserRole, other));
+
+        java.util.Map<String, String> result = userRoleService.getRoleIdsByUserIds(List.of("user-1", "user-2", "user-3"));
+
+        assertThat(result).containsOnly(java.util.Map.entry("user-1", "role-1"), java.util.Map.entry("user-2", "role-2"));
+    }
+}
@@ -0,0 +1,46 @@
+package com.kitchensink.util;
+
+import com.kitchensink.exception.BadRequestException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("AuditCursor Tests")
+class AuditCursorTest {
+
+    @Test
+    @DisplayName("Should round-trip timestamp and id")
+    void testRoundTrip() {
+        // Given
+        AuditCursor cursor = new AuditCursor(LocalDateTime.of(2026, 1, 1, 10, 0, 0, 123_000_000), "65f0c0ffee");
+
+        // When
+        String encoded = cursor.encode();
+        AuditCursor decoded = AuditCursor.decode(encoded);
+
+        // Then
+        assertThat(encoded).matches("^[A-Za-z0-9_-]+$");
+        assertThat(decoded.getTimestamp()).isEqualTo(cursor.getTimestamp());
+        assertThat(decoded.getId()).isEqualTo("65f0c0ffee");
+    }
+
+    @Test
+    @DisplayName("Should reject malformed cursors")
+    void testDecodeInvalid() {
+        assertThatThrownBy(() -> AuditCursor.decode("not base64!"))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> AuditCursor.decode("dXNlci0x"))
+                .isInstanceOf(BadRequestException.class);
+        // Valid version and id but an unparseable timestamp
+        String badTimestamp = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("v1|yesterday|abc".getBytes(StandardCharsets.UTF_8));
+        assertThatThrownBy(() -> AuditCursor.decode(badTimestamp))
+                .isInstanceOf(BadRequestException.class);
+    }
+}
@@ -0,0 +1,39 @@
+package com.kitchensink.util;
+
+import com.kitchensink.exception.BadRequestException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("NameCursor Tests")
+class NameCursorTest {
+
+    @Test
+    @DisplayName("Should round-trip name, id, page and total")
+    void testRoundTrip() {
+        // Given - a name containing the separator and non-ASCII characters
+        NameCursor cursor = new NameCursor("Zoë | Smith", "65f0c0ffee", 3, 1234);
+
+        // When
+        String encoded = cursor.encode();
+        NameCursor decoded = NameCursor.decode(encoded);
+
+        // Then
+        assertThat(encoded).doesNotContain("Smith").matches("^[A-Za-z0-9_-]+$");
+        assertThat(decoded.getName()).isEqualTo("Zoë | Smith");
+        assertThat(decoded.getId()).isEqualTo("65f0c0ffee");
+        assertThat(decoded.getPage()).isEqualTo(3);
+        assertThat(decoded.getTotalElements()).isEqualTo(1234);
+    }
+
+    @Test
+    @DisplayName("Should reject malformed cursors")
+    void testDecodeInvalid() {
+        assertThatThrownBy(() -> NameCursor.decode("not base64!"))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> NameCursor.decode("dXNlci0x"))
+                .isInstanceOf(BadRequestException.class);
+    }
+}
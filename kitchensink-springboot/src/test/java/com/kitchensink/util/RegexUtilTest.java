@@ -0,0 +1,33 @@
+package com.kitchensink.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("RegexUtil Tests")
+class RegexUtilTest {
+
+    @Test
+    @DisplayName("Should leave plain names untouched")
+    void testEscapeLiteral_Plain() {
+        assertThat(RegexUtil.escapeLiteral("Anna Smith")).isEqualTo("Anna Smith");
+        assertThat(RegexUtil.escapeLiteral(null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should escape metacharacters so the pattern matches only the literal")
+    void testEscapeLiteral_Metacharacters() {
+        // Given - a catastrophic-backtracking pattern if used raw
+        String input = "(a+)+$.*[x]{2}|\\";
+
+        // When
+        String escaped = RegexUtil.escapeLiteral(input);
+
+        // Then
+        assertThat(Pattern.compile(escaped).matcher("pre" + input + "post").find()).isTrue();
+        assertThat(Pattern.compile(escaped).matcher("aaaa").find()).isFalse();
+    }
+}